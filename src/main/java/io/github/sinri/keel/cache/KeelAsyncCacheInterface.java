@@ -5,6 +5,7 @@ import io.github.sinri.keel.facade.async.KeelAsyncKit;
 import io.vertx.core.Future;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
@@ -53,6 +54,7 @@ public interface KeelAsyncCacheInterface<K, V> {
      * Read an available cached item with key;
      * if not found, try to generate one with key using `fallbackValueGenerator` to save into cache, then return it in the future;
      * if failed to generate, failed future instead.
+     * The implementations with a {@link SingleFlightLoader} coalesce the concurrent loads of the same key.
      *
      * @param key           key
      * @param generator     function to generate a value for given key, to be saved into cache and return when no cached item found
@@ -85,6 +87,15 @@ public interface KeelAsyncCacheInterface<K, V> {
      */
     Future<ConcurrentMap<K, V>> getSnapshotMap();
 
+    /**
+     * @return statistics of reading with generator, or null if the implementation does not coalesce the loads.
+     * @since 3.3.0
+     */
+    @Nullable
+    default KeelCacheLoadStatistics getLoadStatistics() {
+        return null;
+    }
+
     class NotCached extends Exception {
         public NotCached(String key) {
             super("For key [" + key + "], no available cached record found.");
@@ -2,10 +2,12 @@ package io.github.sinri.keel.cache;
 
 import io.github.sinri.keel.cache.impl.KeelCacheAlef;
 import io.github.sinri.keel.cache.impl.KeelCacheDummy;
+import io.github.sinri.keel.cache.impl.KeelCacheHe;
 import io.github.sinri.keel.facade.async.KeelAsyncKit;
 import io.vertx.core.Future;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
@@ -26,6 +28,26 @@ public interface KeelCacheInterface<K, V> {
         return new KeelCacheAlef<>();
     }
 
+    /**
+     * @param maximumSize the maximum count of entries to keep
+     * @return A new instance of KeelCacheInterface bounded by size, with W-TinyLFU eviction.
+     * @since 3.3.0
+     */
+    static <K, V> KeelCacheInterface<K, V> createBoundedInstance(long maximumSize) {
+        return new KeelCacheHe<>(maximumSize);
+    }
+
+    /**
+     * @param maximumWeight   the maximum total weight of entries to keep
+     * @param expectedEntries the expected count of entries when the cache is full
+     * @param weigher         the weigher to calculate the weight of each entry
+     * @return A new instance of KeelCacheInterface bounded by weight, with W-TinyLFU eviction.
+     * @since 3.3.0
+     */
+    static <K, V> KeelCacheInterface<K, V> createBoundedInstance(long maximumWeight, long expectedEntries, @Nonnull KeelCacheWeigher<K, V> weigher) {
+        return new KeelCacheHe<>(maximumWeight, expectedEntries, weigher);
+    }
+
     /**
      * @since 2.6
      */
@@ -103,6 +125,10 @@ public interface KeelCacheInterface<K, V> {
     ConcurrentMap<K, V> getSnapshotMap();
 
     /**
+     * Read an available cached item with key;
+     * if not found, generate one with key using `generator`, save it into cache and return it.
+     * The implementations with a {@link SingleFlightLoader} coalesce the concurrent loads of the same key.
+     *
      * @since 2.8
      */
     default Future<V> read(@Nonnull K key, Function<K, Future<V>> generator, long lifeInSeconds) {
@@ -117,6 +143,15 @@ public interface KeelCacheInterface<K, V> {
                 });
     }
 
+    /**
+     * @return statistics of reading with generator, or null if the implementation does not coalesce the loads.
+     * @since 3.3.0
+     */
+    @Nullable
+    default KeelCacheLoadStatistics getLoadStatistics() {
+        return null;
+    }
+
     /**
      * Start an endless for cleaning up.
      * Use it manually if needed.
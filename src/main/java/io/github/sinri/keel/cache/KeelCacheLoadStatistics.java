@@ -0,0 +1,82 @@
+package io.github.sinri.keel.cache;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of reading a cache with a generator, i.e. the read-through path.
+ * <p>
+ * A hit is a read found in cache;
+ * a miss is a read not found in cache, which either starts a load or joins one in flight (coalesced);
+ * so {@code missCount = loadCount + coalescedCount}, and the calls to the generator is {@code loadCount}.
+ *
+ * @since 3.3.0
+ */
+public class KeelCacheLoadStatistics {
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    void recordHit() {
+        hitCount.increment();
+    }
+
+    void recordMiss() {
+        missCount.increment();
+    }
+
+    void recordLoad() {
+        loadCount.increment();
+    }
+
+    void recordLoadFailure() {
+        loadFailureCount.increment();
+    }
+
+    void recordCoalesced() {
+        coalescedCount.increment();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return how many times the generator is called.
+     */
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    /**
+     * @return how many misses joined a load in flight instead of calling the generator.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public JsonObject toJsonObject() {
+        return new JsonObject()
+                .put("hit", getHitCount())
+                .put("miss", getMissCount())
+                .put("load", getLoadCount())
+                .put("load_failure", getLoadFailureCount())
+                .put("coalesced", getCoalescedCount());
+    }
+
+    @Override
+    public String toString() {
+        return toJsonObject().toString();
+    }
+}
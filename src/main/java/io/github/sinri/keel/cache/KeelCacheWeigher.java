@@ -0,0 +1,26 @@
+package io.github.sinri.keel.cache;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Calculate the weight of a cached item, used by the size-bounded caches to decide when to evict.
+ * The weight of an item is calculated once when it is saved.
+ *
+ * @param <K> class for key
+ * @param <V> class for value
+ * @since 3.3.0
+ */
+@FunctionalInterface
+public interface KeelCacheWeigher<K, V> {
+    /**
+     * A weigher that treats every item as weight 1, so that the maximum weight means the maximum count of entries.
+     */
+    static <K, V> KeelCacheWeigher<K, V> singleton() {
+        return (k, v) -> 1;
+    }
+
+    /**
+     * @return a non-negative weight of the item.
+     */
+    long weigh(@Nonnull K key, V value);
+}
@@ -0,0 +1,89 @@
+package io.github.sinri.keel.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Coalesce the concurrent loads of the same key, for one cache instance:
+ * at most one load of a key is in flight, and all the callers missed meanwhile share its result or failure.
+ * <p>
+ * The cache should save the loaded value inside the load function,
+ * so that the key is cached before the load leaves the flight, and a failed load is not cached.
+ *
+ * @param <K> class for key
+ * @param <V> class for value
+ * @since 3.3.0
+ */
+public class SingleFlightLoader<K, V> {
+    private final ConcurrentMap<K, Future<V>> inFlightMap = new ConcurrentHashMap<>();
+    private final KeelCacheLoadStatistics statistics = new KeelCacheLoadStatistics();
+
+    /**
+     * @param key          key
+     * @param cachedValue  the value read from cache, or null as not cached
+     * @param loadFunction to load the value for the key and save it into cache, called at most once per flight
+     * @return the cached value, or the result of the load in flight
+     */
+    public Future<V> read(@Nonnull K key, @Nullable V cachedValue, @Nonnull Function<K, Future<V>> loadFunction) {
+        if (cachedValue != null) {
+            statistics.recordHit();
+            return Future.succeededFuture(cachedValue);
+        }
+        statistics.recordMiss();
+        return load(key, loadFunction);
+    }
+
+    /**
+     * Join the load of the key in flight, or start one.
+     *
+     * @param key          key
+     * @param loadFunction to load the value for the key and save it into cache, called at most once per flight
+     * @return the result of the load in flight
+     */
+    public Future<V> load(@Nonnull K key, @Nonnull Function<K, Future<V>> loadFunction) {
+        Promise<V> promise = Promise.promise();
+        Future<V> existed = inFlightMap.putIfAbsent(key, promise.future());
+        if (existed != null) {
+            statistics.recordCoalesced();
+            return existed;
+        }
+
+        statistics.recordLoad();
+        // a throwing load function, or one returning null, fails this flight instead of leaving it in the map
+        Future<V> loaded;
+        try {
+            loaded = loadFunction.apply(key);
+            if (loaded == null) {
+                loaded = Future.failedFuture(new NullPointerException("The load function returned null for key " + key));
+            }
+        } catch (Throwable throwable) {
+            loaded = Future.failedFuture(throwable);
+        }
+        loaded.onComplete(ar -> {
+            inFlightMap.remove(key, promise.future());
+            if (ar.failed()) {
+                statistics.recordLoadFailure();
+            }
+            promise.handle(ar);
+        });
+        return promise.future();
+    }
+
+    /**
+     * @return count of keys being loaded now.
+     */
+    public int getInFlightCount() {
+        return inFlightMap.size();
+    }
+
+    @Nonnull
+    public KeelCacheLoadStatistics getStatistics() {
+        return statistics;
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.sinri.keel.cache;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.ref.SoftReference;
 import java.util.Date;
@@ -14,7 +15,15 @@ public class ValueWrapper<P> {
     private final long birth;
 
     public ValueWrapper(P value, long lifeInSeconds) {
-        this.value = new SoftReference<>(value);
+        this(new SoftReference<>(value), lifeInSeconds);
+    }
+
+    /**
+     * @param value the reference to the value, such as one registered to a queue to know when it is reclaimed by GC.
+     * @since 3.3.0
+     */
+    protected ValueWrapper(@Nonnull SoftReference<P> value, long lifeInSeconds) {
+        this.value = value;
         this.birth = System.currentTimeMillis();//new Date().getTime();
         this.death = this.birth + lifeInSeconds * 1000L;
     }
@@ -0,0 +1,258 @@
+package io.github.sinri.keel.cache.impl;
+
+import io.github.sinri.keel.cache.ValueWrapper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel to index the cached entries by their death time,
+ * living alongside the map of a cache.
+ * <p>
+ * The wheel has levels of buckets spanning about one second, one minute, one hour and one day,
+ * and an overflow bucket for the rest.
+ * An entry is scheduled into the bucket by its death time in O(1), and could be descheduled in O(1).
+ * When the wheel advances to a time, only the buckets passed since the last advance are visited:
+ * the entries dead already are handed to the expiry handler,
+ * and the others are cascaded down to the finer levels.
+ * <p>
+ * An entry is only expired when the wheel reaches its bucket,
+ * so the read path of a cache should still check {@link ValueWrapper#isAliveNow()}.
+ * The entries created by {@link #newEntry(Object, Object, long)} whose values are reclaimed by GC
+ * are handed to the expiry handler as well, on the next advance.
+ * <p>
+ * A cache should change its map along with the wheel in {@link #exclusively(Runnable)},
+ * so that every entry in the map stays scheduled.
+ *
+ * @since 3.3.0
+ */
+class ExpiryTimingWheel<K, V> {
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    /**
+     * Spans of buckets for each level, in milliseconds, as powers of two:
+     * ~1.02s, ~1.09m, ~1.17h, ~1.55d, ~6.2d and the overflow.
+     */
+    private static final long[] SPANS = {
+            1L << 10, 1L << 16, 1L << 22, 1L << 27, 1L << 29, 1L << 29
+    };
+    private static final int[] SHIFT = {10, 16, 22, 27, 29};
+
+    private final ReentrantLock lock;
+    private final Entry<K, V>[][] wheel;
+    private final ReferenceQueue<V> reclaimedValues = new ReferenceQueue<>();
+    private long currentTimeMs;
+
+    @SuppressWarnings("unchecked")
+    ExpiryTimingWheel() {
+        this.lock = new ReentrantLock();
+        this.wheel = (Entry<K, V>[][]) new Entry<?, ?>[BUCKETS.length][];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = (Entry<K, V>[]) new Entry<?, ?>[BUCKETS[i]];
+            for (int j = 0; j < wheel[i].length; j++) {
+                wheel[i][j] = Entry.sentinel();
+            }
+        }
+        this.currentTimeMs = System.currentTimeMillis();
+    }
+
+    /**
+     * @return a new entry, whose value is watched for being reclaimed by GC.
+     */
+    @Nonnull
+    Entry<K, V> newEntry(K key, V value, long lifeInSeconds) {
+        return new Entry<>(key, value, lifeInSeconds, reclaimedValues);
+    }
+
+    /**
+     * Run the action with the lock of the wheel held, such as to change the map of the cache along with the wheel.
+     */
+    void exclusively(@Nonnull Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Put the entry into the bucket of its death time.
+     */
+    void schedule(@Nonnull Entry<K, V> entry) {
+        lock.lock();
+        try {
+            link(findBucket(entry.getDeath()), entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the entry out of the wheel, if it is scheduled.
+     */
+    void deschedule(@Nonnull Entry<K, V> entry) {
+        lock.lock();
+        try {
+            unlink(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop all the scheduled entries.
+     */
+    void clear() {
+        lock.lock();
+        try {
+            for (Entry<K, V>[] buckets : wheel) {
+                for (Entry<K, V> sentinel : buckets) {
+                    Entry<K, V> entry = sentinel.next;
+                    while (entry != sentinel) {
+                        Entry<K, V> next = entry.next;
+                        entry.prev = null;
+                        entry.next = null;
+                        entry = next;
+                    }
+                    sentinel.prev = sentinel;
+                    sentinel.next = sentinel;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Advance the wheel to the given time, hand the dead entries in the passed buckets,
+     * and the entries whose values were reclaimed by GC, to the expiry handler.
+     *
+     * @param timeMs        the current time in milliseconds
+     * @param expiryHandler called (with the lock of the wheel held) for each dead entry, which is already descheduled
+     */
+    @SuppressWarnings("unchecked")
+    void advance(long timeMs, @Nonnull Consumer<Entry<K, V>> expiryHandler) {
+        lock.lock();
+        try {
+            long previousTimeMs = currentTimeMs;
+            currentTimeMs = timeMs;
+            for (int i = 0; i < SHIFT.length; i++) {
+                long previousTicks = previousTimeMs >>> SHIFT[i];
+                long currentTicks = currentTimeMs >>> SHIFT[i];
+                long delta = currentTicks - previousTicks;
+                if (delta <= 0L) {
+                    break;
+                }
+                expire(i, previousTicks, delta, expiryHandler);
+            }
+            Reference<? extends V> reclaimed;
+            while ((reclaimed = reclaimedValues.poll()) != null) {
+                Entry<K, V> entry = ((ValueReference<K, V>) reclaimed).entry;
+                unlink(entry);
+                expiryHandler.accept(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta, Consumer<Entry<K, V>> expiryHandler) {
+        Entry<K, V>[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+        for (int i = start; i < end; i++) {
+            Entry<K, V> sentinel = buckets[i & mask];
+            Entry<K, V> entry = sentinel.next;
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            while (entry != sentinel) {
+                Entry<K, V> next = entry.next;
+                entry.prev = null;
+                entry.next = null;
+                if (entry.getDeath() <= currentTimeMs) {
+                    expiryHandler.accept(entry);
+                } else {
+                    link(findBucket(entry.getDeath()), entry);
+                }
+                entry = next;
+            }
+        }
+    }
+
+    private Entry<K, V> findBucket(long time) {
+        long duration = time - currentTimeMs;
+        int length = wheel.length - 1;
+        for (int i = 0; i < length; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFT[i];
+                int index = (int) (ticks & (wheel[i].length - 1));
+                return wheel[i][index];
+            }
+        }
+        return wheel[length][0];
+    }
+
+    private void link(Entry<K, V> sentinel, Entry<K, V> entry) {
+        entry.prev = sentinel.prev;
+        entry.next = sentinel;
+        sentinel.prev.next = entry;
+        sentinel.prev = entry;
+    }
+
+    private void unlink(Entry<K, V> entry) {
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+            entry.prev.next = entry.next;
+            entry.prev = null;
+            entry.next = null;
+        }
+    }
+
+    /**
+     * A cached value wrapper that could be linked in a bucket of the wheel.
+     */
+    static class Entry<K, V> extends ValueWrapper<V> {
+        private final K key;
+        private Entry<K, V> prev;
+        private Entry<K, V> next;
+
+        Entry(K key, V value, long lifeInSeconds, @Nullable ReferenceQueue<V> referenceQueue) {
+            this(key, new ValueReference<>(value, referenceQueue), lifeInSeconds);
+        }
+
+        private Entry(K key, ValueReference<K, V> valueReference, long lifeInSeconds) {
+            super(valueReference, lifeInSeconds);
+            this.key = key;
+            valueReference.entry = this;
+        }
+
+        private static <K, V> Entry<K, V> sentinel() {
+            Entry<K, V> sentinel = new Entry<>(null, null, 0, null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        K getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * The reference to the value of an entry, to find the entry when the value is reclaimed.
+     */
+    private static class ValueReference<K, V> extends SoftReference<V> {
+        private Entry<K, V> entry;
+
+        ValueReference(V value, @Nullable ReferenceQueue<V> referenceQueue) {
+            super(value, referenceQueue);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.sinri.keel.cache.impl;
+
+/**
+ * A probabilistic counter of the popularity of keys, as a Count-Min Sketch with 4-bit counters.
+ * <p>
+ * Each long in the table holds sixteen 4-bit counters, and each key is counted in four of them, one per hash.
+ * The estimated frequency is the minimum of the four, capped at 15.
+ * When the count of additions reaches the sample size, all counters are halved,
+ * so that the history ages out and the sketch follows the recent popularity (the TinyLFU reset operation).
+ * <p>
+ * Not thread-safe; the owner should guard it.
+ *
+ * @since 3.3.0
+ */
+class FrequencySketch {
+    private static final long[] SEEDS = new long[]{
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * @param expectedEntries the expected maximum count of entries in the cache
+     */
+    FrequencySketch(long expectedEntries) {
+        int maximum = (int) Math.min(Math.max(expectedEntries, 16), 1 << 30);
+        int tableSize = Integer.highestOneBit(maximum - 1) << 1;
+        this.table = new long[tableSize];
+        this.tableMask = tableSize - 1;
+        this.sampleSize = (int) Math.min(10L * maximum, Integer.MAX_VALUE);
+        this.size = 0;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += (h >>> 32);
+        return ((int) h) & tableMask;
+    }
+
+    /**
+     * @return the estimated count of occurrences of the key, in [0,15].
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Record one more occurrence of the key, if it is not yet at the maximum frequency.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = (start + i) << 2;
+            long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && (++size == sampleSize)) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = size >>> 1;
+    }
+}
@@ -1,23 +1,31 @@
 package io.github.sinri.keel.cache.impl;
 
 import io.github.sinri.keel.cache.KeelCacheInterface;
-import io.github.sinri.keel.cache.ValueWrapper;
+import io.github.sinri.keel.cache.KeelCacheLoadStatistics;
+import io.github.sinri.keel.cache.SingleFlightLoader;
+import io.vertx.core.Future;
 
 import javax.annotation.Nonnull;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 /**
  * An implementation of KeelCacheInterface, using ConcurrentHashMap.
  *
  * @since 2.5
+ * @since 3.3.0 Expired entries are indexed by a hierarchical timing wheel, cleanUp no longer scans all the keys.
  */
 public class KeelCacheAlef<K, V> implements KeelCacheInterface<K, V> {
-    private final ConcurrentMap<K, ValueWrapper<V>> map;
+    private final ConcurrentMap<K, ExpiryTimingWheel.Entry<K, V>> map;
+    private final ExpiryTimingWheel<K, V> expiryWheel;
+    private final SingleFlightLoader<K, V> singleFlightLoader;
     private long defaultLifeInSeconds = 1000L;
 
     public KeelCacheAlef() {
         this.map = new ConcurrentHashMap<>();
+        this.expiryWheel = new ExpiryTimingWheel<>();
+        this.singleFlightLoader = new SingleFlightLoader<>();
     }
 
     @Override
@@ -33,12 +41,19 @@ public class KeelCacheAlef<K, V> implements KeelCacheInterface<K, V> {
 
     @Override
     public void save(@Nonnull K key, V value, long lifeInSeconds) {
-        this.map.put(key, new ValueWrapper<>(value, lifeInSeconds));
+        ExpiryTimingWheel.Entry<K, V> entry = this.expiryWheel.newEntry(key, value, lifeInSeconds);
+        this.expiryWheel.exclusively(() -> {
+            ExpiryTimingWheel.Entry<K, V> replaced = this.map.put(key, entry);
+            if (replaced != null) {
+                this.expiryWheel.deschedule(replaced);
+            }
+            this.expiryWheel.schedule(entry);
+        });
     }
 
     @Override
     public V read(@Nonnull K key, V fallbackValue) {
-        ValueWrapper<V> vw = this.map.get(key);
+        ExpiryTimingWheel.Entry<K, V> vw = this.map.get(key);
         if (vw == null) {
             return fallbackValue;
         }
@@ -49,26 +64,62 @@ public class KeelCacheAlef<K, V> implements KeelCacheInterface<K, V> {
         }
     }
 
+    /**
+     * Concurrent misses of the same key share one call of the generator.
+     *
+     * @since 3.3.0
+     */
+    @Override
+    public Future<V> read(@Nonnull K key, Function<K, Future<V>> generator, long lifeInSeconds) {
+        return singleFlightLoader.read(key, this.read(key), k -> generator.apply(k)
+                .compose(v -> {
+                    this.save(k, v, lifeInSeconds);
+                    return Future.succeededFuture(v);
+                }));
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    @Nonnull
+    @Override
+    public KeelCacheLoadStatistics getLoadStatistics() {
+        return singleFlightLoader.getStatistics();
+    }
+
     @Override
     public void remove(@Nonnull K key) {
-        this.map.remove(key);
+        this.expiryWheel.exclusively(() -> {
+            ExpiryTimingWheel.Entry<K, V> removed = this.map.remove(key);
+            if (removed != null) {
+                this.expiryWheel.deschedule(removed);
+            }
+        });
     }
 
     @Override
     public void removeAll() {
-        this.map.clear();
+        this.expiryWheel.exclusively(() -> {
+            this.map.clear();
+            this.expiryWheel.clear();
+        });
     }
 
+    /**
+     * Advance the expiry wheel to now, only the entries whose death time passed,
+     * or whose value was reclaimed by GC, are touched and removed.
+     */
     @Override
     public void cleanUp() {
-        this.map.keySet().forEach(key -> {
-            ValueWrapper<V> vw = this.map.get(key);
-            if (vw != null) {
-                if (!vw.isAliveNow()) {
-                    this.map.remove(key, vw);
-                }
-            }
-        });
+        this.expiryWheel.advance(System.currentTimeMillis(), entry -> this.map.remove(entry.getKey(), entry));
+    }
+
+    /**
+     * @return the count of the entries held, including the dead ones not cleaned up yet.
+     * @since 3.3.0
+     */
+    public int getEntryCount() {
+        return this.map.size();
     }
 
     @Override
@@ -76,7 +127,7 @@ public class KeelCacheAlef<K, V> implements KeelCacheInterface<K, V> {
     public ConcurrentMap<K, V> getSnapshotMap() {
         ConcurrentMap<K, V> snapshot = new ConcurrentHashMap<>();
         this.map.keySet().forEach(key -> {
-            ValueWrapper<V> vw = this.map.get(key);
+            ExpiryTimingWheel.Entry<K, V> vw = this.map.get(key);
             if (vw != null) {
                 if (vw.isAliveNow()) {
                     snapshot.put(key, vw.getValue());
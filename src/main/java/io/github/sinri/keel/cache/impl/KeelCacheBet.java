@@ -1,7 +1,8 @@
 package io.github.sinri.keel.cache.impl;
 
 import io.github.sinri.keel.cache.KeelAsyncCacheInterface;
-import io.github.sinri.keel.cache.ValueWrapper;
+import io.github.sinri.keel.cache.KeelCacheLoadStatistics;
+import io.github.sinri.keel.cache.SingleFlightLoader;
 import io.vertx.core.Future;
 
 import javax.annotation.Nonnull;
@@ -9,22 +10,39 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
+/**
+ * An implementation of KeelAsyncCacheInterface, using ConcurrentHashMap.
+ *
+ * @since 2.5
+ * @since 3.3.0 Expired entries are indexed by a hierarchical timing wheel, cleanUp no longer scans all the keys.
+ */
 public class KeelCacheBet<K, V> implements KeelAsyncCacheInterface<K, V> {
-    private final ConcurrentMap<K, ValueWrapper<V>> map;
+    private final ConcurrentMap<K, ExpiryTimingWheel.Entry<K, V>> map;
+    private final ExpiryTimingWheel<K, V> expiryWheel;
+    private final SingleFlightLoader<K, V> singleFlightLoader;
 
     public KeelCacheBet() {
         this.map = new ConcurrentHashMap<>();
+        this.expiryWheel = new ExpiryTimingWheel<>();
+        this.singleFlightLoader = new SingleFlightLoader<>();
     }
 
     @Override
     public Future<Void> save(@Nonnull K key, V value, long lifeInSeconds) {
-        this.map.put(key, new ValueWrapper<>(value, lifeInSeconds));
+        ExpiryTimingWheel.Entry<K, V> entry = this.expiryWheel.newEntry(key, value, lifeInSeconds);
+        this.expiryWheel.exclusively(() -> {
+            ExpiryTimingWheel.Entry<K, V> replaced = this.map.put(key, entry);
+            if (replaced != null) {
+                this.expiryWheel.deschedule(replaced);
+            }
+            this.expiryWheel.schedule(entry);
+        });
         return Future.succeededFuture();
     }
 
     @Override
     public Future<V> read(@Nonnull K key) {
-        ValueWrapper<V> vw = this.map.get(key);
+        ExpiryTimingWheel.Entry<K, V> vw = this.map.get(key);
         if (vw == null || !vw.isAliveNow()) {
             return Future.failedFuture(new NotCached(key.toString()));
         }
@@ -33,7 +51,7 @@ public class KeelCacheBet<K, V> implements KeelAsyncCacheInterface<K, V> {
 
     @Override
     public Future<V> read(@Nonnull K key, V fallbackValue) {
-        ValueWrapper<V> vw = this.map.get(key);
+        ExpiryTimingWheel.Entry<K, V> vw = this.map.get(key);
         if (vw == null) {
             return Future.succeededFuture(fallbackValue);
         } else {
@@ -45,54 +63,80 @@ public class KeelCacheBet<K, V> implements KeelAsyncCacheInterface<K, V> {
         }
     }
 
+    /**
+     * Concurrent misses of the same key share one call of the generator.
+     *
+     * @since 3.3.0 single flight
+     */
     @Override
     public Future<V> read(@Nonnull K key, Function<K, Future<V>> generator, long lifeInSeconds) {
         // i.e. computeIfAbsent
-        ValueWrapper<V> vw = this.map.get(key);
+        ExpiryTimingWheel.Entry<K, V> vw = this.map.get(key);
+        V cachedValue = null;
         if (vw != null && vw.isAliveNow()) {
-            return Future.succeededFuture(vw.getValue());
-        } else {
-            return generator.apply(key)
-                    .compose(v -> {
-                        return save(key, v, lifeInSeconds)
-                                .compose(saved -> {
-                                    return Future.succeededFuture(v);
-                                });
-                    });
-
+            cachedValue = vw.getValue();
         }
+        return singleFlightLoader.read(key, cachedValue, k -> generator.apply(k)
+                .compose(v -> {
+                    return save(k, v, lifeInSeconds)
+                            .compose(saved -> {
+                                return Future.succeededFuture(v);
+                            });
+                }));
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    @Nonnull
+    @Override
+    public KeelCacheLoadStatistics getLoadStatistics() {
+        return singleFlightLoader.getStatistics();
     }
 
     @Override
     public Future<Void> remove(@Nonnull K key) {
-        this.map.remove(key);
+        this.expiryWheel.exclusively(() -> {
+            ExpiryTimingWheel.Entry<K, V> removed = this.map.remove(key);
+            if (removed != null) {
+                this.expiryWheel.deschedule(removed);
+            }
+        });
         return Future.succeededFuture();
     }
 
     @Override
     public Future<Void> removeAll() {
-        this.map.clear();
+        this.expiryWheel.exclusively(() -> {
+            this.map.clear();
+            this.expiryWheel.clear();
+        });
         return Future.succeededFuture();
     }
 
+    /**
+     * Advance the expiry wheel to now, only the entries whose death time passed,
+     * or whose value was reclaimed by GC, are touched and removed.
+     */
     @Override
     public Future<Void> cleanUp() {
-        this.map.keySet().forEach(key -> {
-            ValueWrapper<V> vw = this.map.get(key);
-            if (vw != null) {
-                if (!vw.isAliveNow()) {
-                    this.map.remove(key, vw);
-                }
-            }
-        });
+        this.expiryWheel.advance(System.currentTimeMillis(), entry -> this.map.remove(entry.getKey(), entry));
         return Future.succeededFuture();
     }
 
+    /**
+     * @return the count of the entries held, including the dead ones not cleaned up yet.
+     * @since 3.3.0
+     */
+    public int getEntryCount() {
+        return this.map.size();
+    }
+
     @Override
     public Future<ConcurrentMap<K, V>> getSnapshotMap() {
         ConcurrentMap<K, V> snapshot = new ConcurrentHashMap<>();
         this.map.keySet().forEach(key -> {
-            ValueWrapper<V> vw = this.map.get(key);
+            ExpiryTimingWheel.Entry<K, V> vw = this.map.get(key);
             if (vw != null) {
                 if (vw.isAliveNow()) {
                     snapshot.put(key, vw.getValue());
@@ -0,0 +1,456 @@
+package io.github.sinri.keel.cache.impl;
+
+import io.github.sinri.keel.cache.KeelCacheInterface;
+import io.github.sinri.keel.cache.KeelCacheLoadStatistics;
+import io.github.sinri.keel.cache.KeelCacheWeigher;
+import io.github.sinri.keel.cache.SingleFlightLoader;
+import io.github.sinri.keel.cache.ValueWrapper;
+import io.vertx.core.Future;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * An implementation of KeelCacheInterface, bounded by a maximum weight (or count of entries),
+ * with W-TinyLFU admission and segmented LRU eviction.
+ * <p>
+ * New items enter a small LRU window (1% of the maximum weight).
+ * An item leaving the window becomes a candidate for the main space,
+ * which is a segmented LRU of a probation segment and a protected segment (80% of the main space).
+ * When the main space is full, the candidate and the LRU victim of the main space are compared
+ * by their estimated frequencies from a {@link FrequencySketch}, and the less popular one is evicted.
+ * An item read again in the probation segment is promoted to the protected segment.
+ * <p>
+ * The lifetime of each item is kept by {@link ValueWrapper} as in {@link KeelCacheAlef}.
+ * The policy is maintained under a lock;
+ * a read does not wait for it, and the access is just not recorded when the lock is busy.
+ *
+ * @since 3.3.0
+ */
+public class KeelCacheHe<K, V> implements KeelCacheInterface<K, V> {
+    private static final int QUEUE_REMOVED = -1;
+    private static final int QUEUE_WINDOW = 0;
+    private static final int QUEUE_PROBATION = 1;
+    private static final int QUEUE_PROTECTED = 2;
+
+    private final ConcurrentMap<K, Node<K, V>> map;
+    private final ReentrantLock evictionLock;
+    private final FrequencySketch sketch;
+    private final KeelCacheWeigher<K, V> weigher;
+    private final SingleFlightLoader<K, V> singleFlightLoader;
+
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+
+    private final NodeQueue<K, V> windowQueue;
+    private final NodeQueue<K, V> probationQueue;
+    private final NodeQueue<K, V> protectedQueue;
+
+    private long windowWeight = 0;
+    private long mainWeight = 0;
+    private long protectedWeight = 0;
+
+    private long defaultLifeInSeconds = 1000L;
+
+    /**
+     * @param maximumSize the maximum count of entries
+     */
+    public KeelCacheHe(long maximumSize) {
+        this(maximumSize, maximumSize, KeelCacheWeigher.singleton());
+    }
+
+    /**
+     * @param maximumWeight   the maximum total weight of entries
+     * @param expectedEntries the expected count of entries when the cache is full, used to size the frequency sketch
+     * @param weigher         the weigher to calculate the weight of each entry
+     */
+    public KeelCacheHe(long maximumWeight, long expectedEntries, @Nonnull KeelCacheWeigher<K, V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight should be positive");
+        }
+        this.map = new ConcurrentHashMap<>();
+        this.evictionLock = new ReentrantLock();
+        this.sketch = new FrequencySketch(expectedEntries);
+        this.weigher = weigher;
+        this.singleFlightLoader = new SingleFlightLoader<>();
+
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1L, maximumWeight / 100);
+        this.protectedMaximum = (maximumWeight - windowMaximum) * 8 / 10;
+
+        this.windowQueue = new NodeQueue<>();
+        this.probationQueue = new NodeQueue<>();
+        this.protectedQueue = new NodeQueue<>();
+    }
+
+    @Override
+    public long getDefaultLifeInSeconds() {
+        return defaultLifeInSeconds;
+    }
+
+    @Override
+    public KeelCacheInterface<K, V> setDefaultLifeInSeconds(long lifeInSeconds) {
+        defaultLifeInSeconds = lifeInSeconds;
+        return this;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * @return the current total weight of entries, including the expired ones not yet cleaned up.
+     */
+    public long getWeightedSize() {
+        evictionLock.lock();
+        try {
+            return windowWeight + mainWeight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void save(@Nonnull K key, V value, long lifeInSeconds) {
+        long weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight should not be negative");
+        }
+        ValueWrapper<V> vw = new ValueWrapper<>(value, lifeInSeconds);
+
+        evictionLock.lock();
+        try {
+            sketch.increment(key);
+            Node<K, V> node = this.map.get(key);
+            if (node != null) {
+                node.valueWrapper = vw;
+                long delta = weight - node.weight;
+                node.weight = weight;
+                if (node.queue == QUEUE_WINDOW) {
+                    windowWeight += delta;
+                } else {
+                    mainWeight += delta;
+                    if (node.queue == QUEUE_PROTECTED) {
+                        protectedWeight += delta;
+                    }
+                }
+                onAccess(node);
+            } else {
+                node = new Node<>(key, vw, weight);
+                this.map.put(key, node);
+                node.queue = QUEUE_WINDOW;
+                windowQueue.addLast(node);
+                windowWeight += weight;
+            }
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public V read(@Nonnull K key, V fallbackValue) {
+        Node<K, V> node = this.map.get(key);
+        if (node == null) {
+            return fallbackValue;
+        }
+        ValueWrapper<V> vw = node.valueWrapper;
+        if (!vw.isAliveNow()) {
+            evictionLock.lock();
+            try {
+                if (node.valueWrapper == vw && this.map.remove(key, node)) {
+                    unlink(node);
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+            return fallbackValue;
+        }
+        V value = vw.getValue();
+        if (evictionLock.tryLock()) {
+            try {
+                sketch.increment(key);
+                if (node.queue != QUEUE_REMOVED) {
+                    onAccess(node);
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Concurrent misses of the same key share one call of the generator.
+     */
+    @Override
+    public Future<V> read(@Nonnull K key, Function<K, Future<V>> generator, long lifeInSeconds) {
+        return singleFlightLoader.read(key, this.read(key), k -> generator.apply(k)
+                .compose(v -> {
+                    this.save(k, v, lifeInSeconds);
+                    return Future.succeededFuture(v);
+                }));
+    }
+
+    @Nonnull
+    @Override
+    public KeelCacheLoadStatistics getLoadStatistics() {
+        return singleFlightLoader.getStatistics();
+    }
+
+    @Override
+    public void remove(@Nonnull K key) {
+        evictionLock.lock();
+        try {
+            Node<K, V> node = this.map.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        evictionLock.lock();
+        try {
+            this.map.clear();
+            windowQueue.clear();
+            probationQueue.clear();
+            protectedQueue.clear();
+            windowWeight = 0;
+            mainWeight = 0;
+            protectedWeight = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            cleanUpQueue(windowQueue);
+            cleanUpQueue(probationQueue);
+            cleanUpQueue(protectedQueue);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void cleanUpQueue(NodeQueue<K, V> queue) {
+        Node<K, V> node = queue.head;
+        while (node != null) {
+            Node<K, V> next = node.next;
+            if (!node.valueWrapper.isAliveNow()) {
+                evictNode(node);
+            }
+            node = next;
+        }
+    }
+
+    @Override
+    @Nonnull
+    public ConcurrentMap<K, V> getSnapshotMap() {
+        ConcurrentMap<K, V> snapshot = new ConcurrentHashMap<>();
+        this.map.forEach((key, node) -> {
+            ValueWrapper<V> vw = node.valueWrapper;
+            if (vw.isAliveNow()) {
+                V value = vw.getValue();
+                if (value != null) {
+                    snapshot.put(key, value);
+                }
+            }
+        });
+        return snapshot;
+    }
+
+    /**
+     * Reorder the node after a hit; should be called with the lock held.
+     */
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case QUEUE_WINDOW:
+                windowQueue.moveToLast(node);
+                break;
+            case QUEUE_PROBATION:
+                probationQueue.remove(node);
+                node.queue = QUEUE_PROTECTED;
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+                while (protectedWeight > protectedMaximum) {
+                    Node<K, V> demoted = protectedQueue.pollFirst();
+                    if (demoted == null) break;
+                    protectedWeight -= demoted.weight;
+                    demoted.queue = QUEUE_PROBATION;
+                    probationQueue.addLast(demoted);
+                }
+                break;
+            case QUEUE_PROTECTED:
+                protectedQueue.moveToLast(node);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Move the overflowed nodes out of the window and let them compete for the main space;
+     * should be called with the lock held.
+     */
+    private void evict() {
+        while (windowWeight > windowMaximum) {
+            Node<K, V> candidate = windowQueue.pollFirst();
+            if (candidate == null) break;
+            windowWeight -= candidate.weight;
+            candidate.queue = QUEUE_REMOVED;
+            admit(candidate);
+        }
+        // values replaced with heavier ones may still overflow
+        while (windowWeight + mainWeight > maximumWeight) {
+            Node<K, V> victim = probationQueue.head;
+            if (victim == null) victim = protectedQueue.head;
+            if (victim == null) victim = windowQueue.head;
+            if (victim == null) break;
+            evictNode(victim);
+        }
+    }
+
+    private void admit(Node<K, V> candidate) {
+        while (windowWeight + mainWeight + candidate.weight > maximumWeight) {
+            Node<K, V> victim = probationQueue.head;
+            if (victim == null) victim = protectedQueue.head;
+            if (victim == null || !isPreferredOver(candidate, victim)) {
+                this.map.remove(candidate.key, candidate);
+                return;
+            }
+            evictNode(victim);
+        }
+        candidate.queue = QUEUE_PROBATION;
+        probationQueue.addLast(candidate);
+        mainWeight += candidate.weight;
+    }
+
+    private boolean isPreferredOver(Node<K, V> candidate, Node<K, V> victim) {
+        int candidateFrequency = sketch.frequency(candidate.key);
+        int victimFrequency = sketch.frequency(victim.key);
+        if (candidateFrequency > victimFrequency) {
+            return true;
+        }
+        if (candidateFrequency <= 5) {
+            return false;
+        }
+        // admit a warm candidate now and then, against the attack of a hot victim kept by hash collisions
+        return (ThreadLocalRandom.current().nextInt() & 127) == 0;
+    }
+
+    private void evictNode(Node<K, V> node) {
+        this.map.remove(node.key, node);
+        unlink(node);
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case QUEUE_WINDOW:
+                windowQueue.remove(node);
+                windowWeight -= node.weight;
+                break;
+            case QUEUE_PROBATION:
+                probationQueue.remove(node);
+                mainWeight -= node.weight;
+                break;
+            case QUEUE_PROTECTED:
+                protectedQueue.remove(node);
+                mainWeight -= node.weight;
+                protectedWeight -= node.weight;
+                break;
+            default:
+                break;
+        }
+        node.queue = QUEUE_REMOVED;
+    }
+
+    private static class Node<K, V> {
+        final K key;
+        volatile ValueWrapper<V> valueWrapper;
+        long weight;
+        int queue;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, ValueWrapper<V> valueWrapper, long weight) {
+            this.key = key;
+            this.valueWrapper = valueWrapper;
+            this.weight = weight;
+            this.queue = QUEUE_REMOVED;
+        }
+    }
+
+    /**
+     * An intrusive doubly-linked list of nodes, the head is the least recently used.
+     */
+    private static class NodeQueue<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        Node<K, V> pollFirst() {
+            Node<K, V> node = head;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (tail != node) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            Node<K, V> node = head;
+            while (node != null) {
+                Node<K, V> next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.queue = QUEUE_REMOVED;
+                node = next;
+            }
+            head = null;
+            tail = null;
+        }
+    }
+}
@@ -2,99 +2,312 @@ package io.github.sinri.keel.core;
 
 
 import javax.annotation.Nonnull;
-import java.util.*;
-import java.util.regex.Matcher;
+import javax.annotation.Nullable;
+import java.time.*;
+import java.util.Calendar;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
  * since 2.9.3 moved from io.github.sinri.keel.servant.sundial to here.
+ * since 3.3.0 an optional leading field of seconds (0-59) is supported, i.e. {@code 0,30 * * * * *} for every half minute;
+ * and the next fire time could be computed.
+ * since 3.3.0 each field is compiled once into a bitmask, where the bit N stands for the value N;
+ * use {@link #parse(String)} to share the compiled expressions.
  */
 public class KeelCronExpression {
-    final Set<Integer> minuteOptions = new HashSet<>();
-    final Set<Integer> hourOptions = new HashSet<>();
-    final Set<Integer> dayOptions = new HashSet<>();
-    final Set<Integer> monthOptions = new HashSet<>();
-    final Set<Integer> weekdayOptions = new HashSet<>();
+    /**
+     * A fire time not found within this count of years is treated as never.
+     *
+     * @since 3.3.0
+     */
+    private static final int NEXT_FIRE_TIME_SEARCH_YEARS = 30;
+    /**
+     * @since 3.3.0
+     */
+    private static final int PARSE_CACHE_CAPACITY = 4096;
+    private static final Map<String, KeelCronExpression> parseCache = new ConcurrentHashMap<>();
+    private static final Pattern FIELD_SEPARATOR = Pattern.compile("\\s+");
+
+    /**
+     * For the expression of five fields, only the 0th second.
+     *
+     * @since 3.3.0
+     */
+    private final long secondBits;
+    private final long minuteBits;
+    private final long hourBits;
+    private final long dayBits;
+    private final long monthBits;
+    private final long weekdayBits;
     private final @Nonnull String rawCronExpression;
+    /**
+     * @since 3.3.0
+     */
+    private final boolean withSeconds;
 
     public KeelCronExpression(@Nonnull String rawCronExpression) {
         this.rawCronExpression = rawCronExpression;
 
-        String[] parts = rawCronExpression.trim().split("\\s+");
-        if (parts.length != 5) {
+        String[] parts = FIELD_SEPARATOR.split(rawCronExpression.trim());
+        int offset;
+        if (parts.length == 6) {
+            // since 3.3.0
+            withSeconds = true;
+            secondBits = parseField(parts[0], 0, 59);
+            offset = 1;
+        } else if (parts.length == 5) {
+            withSeconds = false;
+            secondBits = 1L;
+            offset = 0;
+        } else {
             throw new RuntimeException("Invalid Cron Expression");
         }
 
-        String minuteExpression = parts[0]; // 0-59
-        String hourExpression = parts[1]; // 0-23
-        String dayExpression = parts[2]; // 1-31
-        String monthExpression = parts[3]; // 1-12
-        String weekdayExpression = parts[4];// 0-6
+        minuteBits = parseField(parts[offset], 0, 59);
+        hourBits = parseField(parts[offset + 1], 0, 23);
+        dayBits = parseField(parts[offset + 2], 1, 31);
+        monthBits = parseField(parts[offset + 3], 1, 12);
+        weekdayBits = parseField(parts[offset + 4], 0, 6);
+    }
+
+    /**
+     * The compiled expressions are cached by the raw expression strings,
+     * for the same expressions parsed again and again (e.g. by the cron watchman every minute).
+     *
+     * @since 3.3.0
+     */
+    @Nonnull
+    public static KeelCronExpression parse(@Nonnull String rawCronExpression) {
+        KeelCronExpression cronExpression = parseCache.get(rawCronExpression);
+        if (cronExpression == null) {
+            cronExpression = new KeelCronExpression(rawCronExpression);
+            if (parseCache.size() >= PARSE_CACHE_CAPACITY) {
+                // expressions are usually a few, to be safe from the generated ones
+                parseCache.clear();
+            }
+            parseCache.put(rawCronExpression, cronExpression);
+        }
+        return cronExpression;
+    }
 
-        parseField(minuteExpression, minuteOptions, 0, 59);
-        parseField(hourExpression, hourOptions, 0, 23);
-        parseField(dayExpression, dayOptions, 1, 31);
-        parseField(monthExpression, monthOptions, 1, 12);
-        parseField(weekdayExpression, weekdayOptions, 0, 6);
+    private static boolean hasBit(long bits, int value) {
+        // the shift distance of long is taken modulo 64, so check the range first
+        return value >= 0 && value < 64 && (bits & (1L << value)) != 0;
+    }
+
+    /**
+     * @return the lowest value not less than {@code from} in the bits, or -1 if none.
+     */
+    private static int nextBit(long bits, int from) {
+        if (from >= 64) return -1;
+        long rest = bits & (-1L << from);
+        return rest == 0 ? -1 : Long.numberOfTrailingZeros(rest);
+    }
+
+    private static long rangeBits(int min, int max) {
+        return (-1L >>> (63 - max)) & (-1L << min);
     }
 
     public boolean match(@Nonnull Calendar currentCalendar) {
-        ParsedCalenderElements parsedCalenderElements = new ParsedCalenderElements(currentCalendar);
-        return match(parsedCalenderElements);
+        return match(
+                currentCalendar.get(Calendar.SECOND),
+                currentCalendar.get(Calendar.MINUTE),
+                currentCalendar.get(Calendar.HOUR_OF_DAY),
+                currentCalendar.get(Calendar.DAY_OF_MONTH),
+                1 + currentCalendar.get(Calendar.MONTH),// make JAN 1, ...
+                currentCalendar.get(Calendar.DAY_OF_WEEK) - 1 // make sunday 0, ...
+        );
     }
 
+    /**
+     * For the expression of five fields, the second is ignored as before;
+     * for the one with seconds, the second should match as well.
+     */
     public boolean match(@Nonnull ParsedCalenderElements parsedCalenderElements) {
-        return minuteOptions.contains(parsedCalenderElements.minute)
-                && hourOptions.contains(parsedCalenderElements.hour)
-                && dayOptions.contains(parsedCalenderElements.day)
-                && monthOptions.contains(parsedCalenderElements.month)
-                && weekdayOptions.contains(parsedCalenderElements.weekday);
+        return match(
+                parsedCalenderElements.second,
+                parsedCalenderElements.minute,
+                parsedCalenderElements.hour,
+                parsedCalenderElements.day,
+                parsedCalenderElements.month,
+                parsedCalenderElements.weekday
+        );
     }
 
-    private void parseField(@Nonnull String rawComponent, @Nonnull Set<Integer> optionSet, int min, int max) {
-        if (rawComponent.equals("*")) {
-            for (int i = min; i <= max; i++) {
-                optionSet.add(i);
+    /**
+     * @since 3.3.0
+     */
+    public boolean match(@Nonnull ZonedDateTime dateTime) {
+        return match(
+                dateTime.getSecond(),
+                dateTime.getMinute(),
+                dateTime.getHour(),
+                dateTime.getDayOfMonth(),
+                dateTime.getMonthValue(),
+                dateTime.getDayOfWeek().getValue() % 7
+        );
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    public boolean match(long epochMillis, @Nonnull ZoneId zoneId) {
+        int offsetSeconds = zoneId.getRules().getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds();
+        long localSeconds = Math.floorDiv(epochMillis, 1000L) + offsetSeconds;
+        long epochDay = Math.floorDiv(localSeconds, 86400L);
+        int secondOfDay = (int) Math.floorMod(localSeconds, 86400L);
+        // 1970-01-01 is Thursday
+        int weekday = (int) Math.floorMod(epochDay + 4, 7L);
+
+        // days to civil date, by Howard Hinnant
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097L);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+
+        return match(secondOfDay % 60, secondOfDay / 60 % 60, secondOfDay / 3600, day, month, weekday);
+    }
+
+    private boolean match(int second, int minute, int hour, int day, int month, int weekday) {
+        return (!withSeconds || hasBit(secondBits, second))
+                && hasBit(minuteBits, minute)
+                && hasBit(hourBits, hour)
+                && hasBit(dayBits, day)
+                && hasBit(monthBits, month)
+                && hasBit(weekdayBits, weekday);
+    }
+
+    /**
+     * @return whether the expression has the leading field of seconds.
+     * @since 3.3.0
+     */
+    public boolean isWithSeconds() {
+        return withSeconds;
+    }
+
+    /**
+     * Compute the first fire time strictly after the given time, in the zone of it.
+     * For the expression without seconds, the fire times are the 0th second of the matched minutes.
+     * <p>
+     * Within a daylight saving gap, a local time not exists is moved forward by the zone rules.
+     *
+     * @return the next fire time, or null when no one found in {@value #NEXT_FIRE_TIME_SEARCH_YEARS} years (e.g. {@code 0 0 31 2 *}).
+     * @since 3.3.0
+     */
+    @Nullable
+    public ZonedDateTime nextFireTime(@Nonnull ZonedDateTime after) {
+        long validSeconds = secondBits & rangeBits(0, 59);
+        long validMinutes = minuteBits & rangeBits(0, 59);
+        long validHours = hourBits & rangeBits(0, 23);
+        long validMonths = monthBits & rangeBits(1, 12);
+        if (validSeconds == 0 || validMinutes == 0 || validHours == 0 || validMonths == 0
+                || (dayBits & rangeBits(1, 31)) == 0 || (weekdayBits & rangeBits(0, 6)) == 0) {
+            return null;
+        }
+
+        ZoneId zone = after.getZone();
+        LocalDateTime t = after.toLocalDateTime().withNano(0).plusSeconds(1);
+        LocalDateTime limit = t.plusYears(NEXT_FIRE_TIME_SEARCH_YEARS);
+        while (t.isBefore(limit)) {
+            if (!hasBit(monthBits, t.getMonthValue())) {
+                int month = nextBit(validMonths, t.getMonthValue() + 1);
+                if (month < 0) {
+                    t = LocalDateTime.of(t.getYear() + 1, nextBit(validMonths, 1), 1, 0, 0);
+                } else {
+                    t = LocalDateTime.of(t.getYear(), month, 1, 0, 0);
+                }
+                continue;
+            }
+            if (!hasBit(dayBits, t.getDayOfMonth())
+                    || !hasBit(weekdayBits, t.getDayOfWeek().getValue() % 7)) {
+                t = t.toLocalDate().plusDays(1).atStartOfDay();
+                continue;
+            }
+            if (!hasBit(hourBits, t.getHour())) {
+                int hour = nextBit(validHours, t.getHour() + 1);
+                t = hour < 0 ? t.toLocalDate().plusDays(1).atStartOfDay() : t.toLocalDate().atTime(hour, 0);
+                continue;
+            }
+            if (!hasBit(minuteBits, t.getMinute())) {
+                int minute = nextBit(validMinutes, t.getMinute() + 1);
+                t = minute < 0 ? t.withMinute(0).withSecond(0).plusHours(1) : t.withMinute(minute).withSecond(0);
+                continue;
+            }
+            if (!hasBit(secondBits, t.getSecond())) {
+                int second = nextBit(validSeconds, t.getSecond() + 1);
+                t = second < 0 ? t.withSecond(0).plusMinutes(1) : t.withSecond(second);
+                continue;
+            }
+            ZonedDateTime fireTime = t.atZone(zone);
+            if (fireTime.isAfter(after)) {
+                return fireTime;
             }
-            return;
+            // within a daylight saving overlap
+            t = t.plusSeconds(1);
         }
+        return null;
+    }
 
-        ArrayList<String> parts = new ArrayList<>();
-        if (rawComponent.contains(",")) {
-            String[] t1 = rawComponent.split(",");
-            parts.addAll(Arrays.asList(t1));
-        } else {
-            parts.add(rawComponent);
+    /**
+     * @return the next fire time in epoch milliseconds, or -1 when no one found.
+     * @since 3.3.0
+     */
+    public long nextFireTime(long afterEpochMillis, @Nonnull ZoneId zoneId) {
+        ZonedDateTime after = ZonedDateTime.ofInstant(Instant.ofEpochMilli(afterEpochMillis), zoneId);
+        ZonedDateTime next = nextFireTime(after);
+        if (next == null) return -1;
+        return next.toInstant().toEpochMilli();
+    }
+
+    /**
+     * Parse the field as before 3.3.0 with regular expressions, i.e. a comma separated list of:
+     * a number; a range as {@code 1-5}; a step from zero as {@code *}{@code /5} (or {@code **5}).
+     * A single number is not checked by the range, and the one out of 0-63 would never match.
+     *
+     * @since 3.3.0 returns the bitmask, instead of filling a set.
+     */
+    private static long parseField(@Nonnull String rawComponent, int min, int max) {
+        if (rawComponent.equals("*")) {
+            return rangeBits(min, max);
         }
 
-        for (String part : parts) {
+        long bits = 0;
+        for (String part : rawComponent.split(",")) {
             part = part.trim();
 
-            Matcher matcher0 = Pattern.compile("^\\d+$").matcher(part);
-            if (matcher0.matches()) {
-                optionSet.add(Integer.parseInt(part));
+            if (isDigits(part, 0, part.length())) {
+                bits |= valueBit(Integer.parseInt(part));
                 continue;
             }
 
-            Matcher matcher1 = Pattern.compile("^(\\d+)-(\\d+)$").matcher(part);
-            if (matcher1.matches()) {
-                int start = Integer.parseInt(matcher1.group(1));
-                int end = Integer.parseInt(matcher1.group(2));
+            int hyphen = part.indexOf('-');
+            if (hyphen > 0 && isDigits(part, 0, hyphen) && isDigits(part, hyphen + 1, part.length())) {
+                int start = Integer.parseInt(part.substring(0, hyphen));
+                int end = Integer.parseInt(part.substring(hyphen + 1));
                 if (start < min || end > max || start > end) {
                     throw new IllegalArgumentException();
                 }
-                for (int i = start; i <= end; i++) {
-                    optionSet.add(i);
-                }
+                bits |= rangeBits(start, end);
                 continue;
             }
 
-            Matcher matcher2 = Pattern.compile("^\\*[*/](\\d+)$").matcher(part);
-            if (matcher2.matches()) {
-                int mask = Integer.parseInt(matcher2.group(1));
+            if (part.length() > 2 && part.charAt(0) == '*'
+                    && (part.charAt(1) == '*' || part.charAt(1) == '/')
+                    && isDigits(part, 2, part.length())) {
+                int mask = Integer.parseInt(part.substring(2));
+                if (mask == 0) {
+                    // it looped forever before
+                    throw new IllegalArgumentException();
+                }
                 for (int i = 0; i <= max; i += mask) {
                     if (i >= min) {
-                        optionSet.add(i);
+                        bits |= valueBit(i);
                     }
                 }
                 continue;
@@ -102,6 +315,23 @@ public class KeelCronExpression {
 
             throw new IllegalArgumentException();
         }
+        return bits;
+    }
+
+    /**
+     * As {@code \d+} matches.
+     */
+    private static boolean isDigits(@Nonnull String s, int start, int end) {
+        if (start >= end) return false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static long valueBit(int value) {
+        return (value >= 0 && value < 64) ? (1L << value) : 0L;
     }
 
     /**
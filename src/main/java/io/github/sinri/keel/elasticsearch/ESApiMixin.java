@@ -1,25 +1,36 @@
 package io.github.sinri.keel.elasticsearch;
 
+import io.netty.handler.codec.http.QueryStringEncoder;
 import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpResponseExpectation;
+import io.vertx.core.http.RequestOptions;
 import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.parsetools.JsonParser;
 import io.vertx.ext.web.client.HttpRequest;
+import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Objects;
 
-import static io.github.sinri.keel.facade.KeelInstance.Keel;
-
 /**
  * Developed with ES version 8.9.
  *
  * @since 3.0.7
+ * @since 3.3.0 Use a shared web client for each cluster endpoint, instead of creating one for each call.
  */
 public interface ESApiMixin {
     ElasticSearchConfig getEsConfig();
@@ -29,22 +40,7 @@ public interface ESApiMixin {
      * For Bulk API, of which the body is not a json object.
      */
     default Future<JsonObject> call(@Nonnull HttpMethod httpMethod, @Nonnull String endpoint, @Nullable ESApiQueries queries, @Nullable String requestBody) {
-        WebClient webClient = WebClient.create(Keel.getVertx());
-        String url = this.getEsConfig().clusterApiUrl(endpoint);
-        HttpRequest<Buffer> bufferHttpRequest = webClient.requestAbs(httpMethod, url);
-
-        bufferHttpRequest.basicAuthentication(getEsConfig().username(), getEsConfig().password());
-        bufferHttpRequest.putHeader("Accept", "application/vnd.elasticsearch+json");
-        bufferHttpRequest.putHeader("Content-Type", "application/vnd.elasticsearch+json");
-
-        String opaqueId = this.getEsConfig().opaqueId();
-        if (opaqueId != null) {
-            bufferHttpRequest.putHeader("X-Opaque-Id", opaqueId);
-        }
-
-        if (queries != null) {
-            queries.forEach(bufferHttpRequest::addQueryParam);
-        }
+        HttpRequest<Buffer> bufferHttpRequest = prepareRequest(httpMethod, endpoint, queries);
 
 //        Handler<KeelEventLog> logRequestEnricher = log -> log
 //                .context(c -> c
@@ -57,13 +53,7 @@ public interface ESApiMixin {
 //                );
 
         return Future.succeededFuture()
-                .compose(v -> {
-                    if (httpMethod == HttpMethod.GET || httpMethod == HttpMethod.DELETE) {
-                        return bufferHttpRequest.send();
-                    } else {
-                        return bufferHttpRequest.sendBuffer(Buffer.buffer(Objects.requireNonNullElse(requestBody, "")));
-                    }
-                })
+                .compose(v -> sendRequest(bufferHttpRequest, httpMethod, requestBody))
                 .compose(bufferHttpResponse -> {
                     int statusCode = bufferHttpResponse.statusCode();
                     if ((statusCode >= 300 || statusCode < 200)) {
@@ -107,6 +97,141 @@ public interface ESApiMixin {
                 });
     }
 
+    /**
+     * The web client shared for the ES cluster endpoint, with pooled keep-alive connections.
+     * Override it to use a customized one.
+     *
+     * @since 3.3.0
+     */
+    default WebClient getWebClient() {
+        return ESWebClientHolder.getWebClient(getEsConfig());
+    }
+
+    /**
+     * The HTTP client under the shared web client, used by {@link #callWithJsonParser} to check the status before reading the body.
+     * Override it along with {@link #getWebClient()} to use a customized one.
+     *
+     * @since 3.3.0
+     */
+    default HttpClient getHttpClient() {
+        return ESWebClientHolder.getHttpClient(getEsConfig());
+    }
+
+    /**
+     * @since 3.3.0 extracted from prepareRequest
+     */
+    private MultiMap requestHeaders() {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        String username = getEsConfig().username();
+        if (username != null) {
+            String credentials = username + ":" + Objects.requireNonNullElse(getEsConfig().password(), "");
+            headers.set("Authorization", "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+        headers.set("Accept", "application/vnd.elasticsearch+json");
+        headers.set("Content-Type", "application/vnd.elasticsearch+json");
+
+        String opaqueId = this.getEsConfig().opaqueId();
+        if (opaqueId != null) {
+            headers.set("X-Opaque-Id", opaqueId);
+        }
+        return headers;
+    }
+
+    /**
+     * @since 3.3.0 extracted from call
+     */
+    private <B> HttpRequest<B> prepareRequest(@Nonnull HttpMethod httpMethod, @Nonnull String endpoint, @Nullable ESApiQueries queries) {
+        String url = this.getEsConfig().clusterApiUrl(endpoint);
+        HttpRequest<Buffer> bufferHttpRequest = getWebClient().requestAbs(httpMethod, url);
+        bufferHttpRequest.putHeaders(requestHeaders());
+
+        if (queries != null) {
+            queries.forEach(bufferHttpRequest::addQueryParam);
+        }
+        @SuppressWarnings("unchecked")
+        HttpRequest<B> request = (HttpRequest<B>) bufferHttpRequest;
+        return request;
+    }
+
+    /**
+     * @since 3.3.0 extracted from call
+     */
+    private <B> Future<HttpResponse<B>> sendRequest(@Nonnull HttpRequest<B> request, @Nonnull HttpMethod httpMethod, @Nullable String requestBody) {
+        if (httpMethod == HttpMethod.GET || httpMethod == HttpMethod.DELETE) {
+            return request.send();
+        } else {
+            return request.sendBuffer(Buffer.buffer(Objects.requireNonNullElse(requestBody, "")));
+        }
+    }
+
+    /**
+     * As {@link #call(HttpMethod, String, ESApiQueries, String)},
+     * but the response body is fed into the given JSON parser as it arrives, instead of being buffered and parsed as a whole;
+     * so that a large response (such as a search with many hits) could be handled with memory of the parsed parts only.
+     * <p>
+     * The status code is checked before the body read;
+     * for a non-2xx response, the parser would not be fed, and the future fails with {@link ESApiException} without response body.
+     *
+     * @param jsonParser a parser created by {@link JsonParser#newParser()} with handlers set, i.e. in object value mode for the hits.
+     * @since 3.3.0
+     */
+    default Future<Void> callWithJsonParser(
+            @Nonnull HttpMethod httpMethod,
+            @Nonnull String endpoint,
+            @Nullable ESApiQueries queries,
+            @Nullable String requestBody,
+            @Nonnull JsonParser jsonParser
+    ) {
+        QueryStringEncoder url = new QueryStringEncoder(this.getEsConfig().clusterApiUrl(endpoint));
+        if (queries != null) {
+            queries.forEach(url::addParam);
+        }
+        RequestOptions requestOptions = new RequestOptions()
+                .setMethod(httpMethod)
+                .setAbsoluteURI(url.toString())
+                .setHeaders(requestHeaders());
+        return getHttpClient().request(requestOptions)
+                .compose(request -> sendStreamRequest(request, httpMethod, requestBody))
+                .expecting(HttpResponseExpectation.SC_SUCCESS.wrappingFailure((response, failure) -> new ESApiException(
+                        response.statusCode(), null,
+                        httpMethod,
+                        endpoint,
+                        queries,
+                        requestBody
+                )))
+                .compose(response -> {
+                    Promise<Void> promise = Promise.promise();
+                    response.exceptionHandler(promise::tryFail);
+                    response.handler(buffer -> {
+                        try {
+                            jsonParser.handle(buffer);
+                        } catch (RuntimeException e) {
+                            promise.tryFail(e);
+                        }
+                    });
+                    response.endHandler(v -> {
+                        try {
+                            jsonParser.end();
+                            promise.tryComplete();
+                        } catch (RuntimeException e) {
+                            promise.tryFail(e);
+                        }
+                    });
+                    return promise.future();
+                });
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    private Future<HttpClientResponse> sendStreamRequest(@Nonnull HttpClientRequest request, @Nonnull HttpMethod httpMethod, @Nullable String requestBody) {
+        if (httpMethod == HttpMethod.GET || httpMethod == HttpMethod.DELETE) {
+            return request.send();
+        } else {
+            return request.send(Buffer.buffer(Objects.requireNonNullElse(requestBody, "")));
+        }
+    }
+
     /**
      * @since 3.1.10 based on `io.github.sinri.keel.elasticsearch.ESApiMixin#call(io.vertx.core.http.HttpMethod, java.lang.String, io.github.sinri.keel.elasticsearch.ESApiMixin.ESApiQueries, java.lang.String)`
      */
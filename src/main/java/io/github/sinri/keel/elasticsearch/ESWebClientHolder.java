@@ -0,0 +1,86 @@
+package io.github.sinri.keel.elasticsearch;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
+/**
+ * Hold one long-lived web client for each ES cluster endpoint,
+ * so that the connections in its pool are kept alive and reused among calls.
+ * The client is created with the options of the config first seen for the endpoint,
+ * and wraps an HTTP client which is also exposed, so that the streaming calls share the same pool.
+ *
+ * @since 3.3.0
+ */
+public final class ESWebClientHolder {
+    private static final Map<String, Holding> holdings = new ConcurrentHashMap<>();
+
+    private ESWebClientHolder() {
+    }
+
+    @Nonnull
+    public static WebClient getWebClient(@Nonnull ElasticSearchConfig esConfig) {
+        return hold(esConfig).webClient;
+    }
+
+    /**
+     * @return the HTTP client wrapped by the web client of the endpoint.
+     */
+    @Nonnull
+    public static HttpClient getHttpClient(@Nonnull ElasticSearchConfig esConfig) {
+        return hold(esConfig).httpClient;
+    }
+
+    private static Holding hold(@Nonnull ElasticSearchConfig esConfig) {
+        Vertx vertx = Keel.getVertx();
+        return holdings.compute(esConfig.clusterEndpointKey(), (key, existed) -> {
+            // the client is bound to a vertx instance, renew it if Keel's vertx changed
+            if (existed != null) {
+                if (existed.vertx == vertx) {
+                    return existed;
+                }
+                existed.webClient.close();
+            }
+            WebClientOptions options = esConfig.webClientOptions();
+            HttpClient httpClient = vertx.createHttpClient(options);
+            return new Holding(vertx, httpClient, WebClient.wrap(httpClient, options));
+        });
+    }
+
+    /**
+     * Close the web client of the endpoint, the next call would create a new one.
+     */
+    public static void close(@Nonnull ElasticSearchConfig esConfig) {
+        Holding holding = holdings.remove(esConfig.clusterEndpointKey());
+        if (holding != null) {
+            holding.webClient.close();
+        }
+    }
+
+    public static void closeAll() {
+        List<Holding> list = new ArrayList<>(holdings.values());
+        holdings.clear();
+        list.forEach(holding -> holding.webClient.close());
+    }
+
+    private static final class Holding {
+        private final Vertx vertx;
+        private final HttpClient httpClient;
+        private final WebClient webClient;
+
+        private Holding(Vertx vertx, HttpClient httpClient, WebClient webClient) {
+            this.vertx = vertx;
+            this.httpClient = httpClient;
+            this.webClient = webClient;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.sinri.keel.elasticsearch;
 
 import io.github.sinri.keel.facade.configuration.KeelConfigElement;
+import io.vertx.ext.web.client.WebClientOptions;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -61,4 +62,34 @@ public class ElasticSearchConfig extends KeelConfigElement {
     public @Nullable String opaqueId() {
         return readString("opaqueId", null);
     }
+
+    /**
+     * @return the key of the cluster endpoint, the web clients are shared by it.
+     * @since 3.3.0
+     */
+    public @Nonnull String clusterEndpointKey() {
+        return this.clusterScheme() + "://" + this.clusterHost() + ":" + this.clusterPort();
+    }
+
+    /**
+     * Options of the web client shared for this cluster endpoint, read from the `client` child:
+     * {@code poolMaxSize} (default 16), {@code keepAlive} (default true), {@code keepAliveTimeout} in seconds (default 60),
+     * {@code pipelining} (default false), {@code pipeliningLimit} (default 10) and {@code gzip} (default true).
+     *
+     * @since 3.3.0
+     */
+    public @Nonnull WebClientOptions webClientOptions() {
+        WebClientOptions webClientOptions = new WebClientOptions()
+                .setMaxPoolSize(readInteger(List.of("client", "poolMaxSize"), 16))
+                .setKeepAlive(readBoolean(List.of("client", "keepAlive"), true))
+                .setKeepAliveTimeout(readInteger(List.of("client", "keepAliveTimeout"), 60))
+                .setPipelining(readBoolean(List.of("client", "pipelining"), false))
+                .setPipeliningLimit(readInteger(List.of("client", "pipeliningLimit"), 10))
+                .setDecompressionSupported(readBoolean(List.of("client", "gzip"), true));
+        webClientOptions.setName("Keel-ES-WebClient-" + clusterEndpointKey());
+        if ("https".equalsIgnoreCase(this.clusterScheme())) {
+            webClientOptions.setSsl(true);
+        }
+        return webClientOptions;
+    }
 }
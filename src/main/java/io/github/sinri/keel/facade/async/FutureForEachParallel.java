@@ -1,10 +1,12 @@
 package io.github.sinri.keel.facade.async;
 
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -14,6 +16,7 @@ import java.util.function.Function;
 /**
  * @since 2.9.4
  * @since 3.0.8 Replace `CompositeFuture.XXX` with `Future.XXX`.
+ * @since 3.3.0 Add variants with max concurrency.
  */
 public class FutureForEachParallel {
     private FutureForEachParallel() {
@@ -85,6 +88,177 @@ public class FutureForEachParallel {
                 .compose(c -> Future.succeededFuture(parallelResult));
     }
 
+    /**
+     * As {@link #all(Iterable, Function)}, but at most {@code maxConcurrency} items are processed at the same time.
+     * Fail fast: once one item failed, no more items would be started and the returned future fails.
+     *
+     * @since 3.3.0
+     */
+    public static <T> Future<Void> all(@Nonnull Iterable<T> collection, int maxConcurrency, @Nonnull Function<T, Future<Void>> itemProcessor) {
+        return new BoundedParallel<>(collection, maxConcurrency, itemProcessor, BoundedMode.ALL).start()
+                .compose(parallelResult -> Future.succeededFuture());
+    }
+
+    /**
+     * As {@link #any(Iterable, Function)}, but at most {@code maxConcurrency} items are processed at the same time.
+     * Once one item succeeded, no more items would be started and the returned future succeeds;
+     * if all failed, it fails with {@link FailedInParallel}.
+     *
+     * @since 3.3.0
+     */
+    public static <T> Future<Void> any(@Nonnull Iterable<T> collection, int maxConcurrency, @Nonnull Function<T, Future<Void>> itemProcessor) {
+        return new BoundedParallel<>(collection, maxConcurrency, itemProcessor, BoundedMode.ANY).start()
+                .compose(parallelResult -> Future.succeededFuture());
+    }
+
+    /**
+     * As {@link #join(Iterable, Function)}, but at most {@code maxConcurrency} items are processed at the same time.
+     * All items are processed; if any failed, the returned future fails with {@link FailedInParallel} in the item order.
+     *
+     * @since 3.3.0
+     */
+    public static <T> Future<Void> join(@Nonnull Iterable<T> collection, int maxConcurrency, @Nonnull Function<T, Future<Void>> itemProcessor) {
+        return new BoundedParallel<>(collection, maxConcurrency, itemProcessor, BoundedMode.JOIN).start()
+                .compose(parallelResult -> Future.succeededFuture());
+    }
+
+    /**
+     * As {@link #call(Iterable, Function)}, but at most {@code maxConcurrency} items are processed at the same time.
+     * All items are processed, and the results are kept in the item order.
+     *
+     * @since 3.3.0
+     */
+    public static <T, R> Future<ParallelResult<R>> call(@Nonnull Iterable<T> collection, int maxConcurrency, @Nonnull Function<T, Future<R>> itemProcessor) {
+        return new BoundedParallel<>(collection, maxConcurrency, itemProcessor, BoundedMode.CALL).start();
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    private enum BoundedMode {
+        /**
+         * Stop at the first failure.
+         */
+        ALL,
+        /**
+         * Stop at the first success.
+         */
+        ANY,
+        /**
+         * Process all, fail if any failed.
+         */
+        JOIN,
+        /**
+         * Process all, collect all.
+         */
+        CALL
+    }
+
+    /**
+     * Keep at most {@code maxConcurrency} items in processing, start the next one once one completes.
+     * <p>
+     * The items may complete on any thread, so the state is guarded by the instance lock;
+     * the items are started out of the lock, and the loop of starting is shared by a work-in-progress counter,
+     * so that the items completed synchronously would not recurse deeper and deeper.
+     *
+     * @since 3.3.0
+     */
+    private static final class BoundedParallel<T, R> {
+        private final Iterator<T> iterator;
+        private final int maxConcurrency;
+        private final Function<T, Future<R>> itemProcessor;
+        private final BoundedMode mode;
+        private final ParallelResult<R> parallelResult = new ParallelResult<>();
+        private final Promise<ParallelResult<R>> promise = Promise.promise();
+        private final AtomicInteger workInProgress = new AtomicInteger(0);
+        private int nextIndex = 0;
+        private int inFlight = 0;
+        private boolean stopped = false;
+
+        BoundedParallel(@Nonnull Iterable<T> collection, int maxConcurrency, @Nonnull Function<T, Future<R>> itemProcessor, @Nonnull BoundedMode mode) {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("max concurrency <= 0");
+            }
+            this.iterator = collection.iterator();
+            this.maxConcurrency = maxConcurrency;
+            this.itemProcessor = itemProcessor;
+            this.mode = mode;
+        }
+
+        Future<ParallelResult<R>> start() {
+            drain();
+            return promise.future();
+        }
+
+        private void drain() {
+            if (workInProgress.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (true) {
+                    T item;
+                    int index;
+                    synchronized (this) {
+                        if (stopped || inFlight >= maxConcurrency || !iterator.hasNext()) {
+                            break;
+                        }
+                        item = iterator.next();
+                        index = nextIndex++;
+                        inFlight++;
+                    }
+                    Future.succeededFuture()
+                            .compose(v -> itemProcessor.apply(item))
+                            .onComplete(ar -> onItemComplete(index, ar.succeeded() ? new ParallelResultPart<>(ar.result()) : new ParallelResultPart<>(ar.cause())));
+                }
+                tryFinish();
+            } while (workInProgress.decrementAndGet() != 0);
+        }
+
+        private void onItemComplete(int index, ParallelResultPart<R> part) {
+            synchronized (this) {
+                inFlight--;
+                parallelResult.addResultPart(index, part);
+                if (!stopped) {
+                    if (mode == BoundedMode.ALL && part.isFailed()) {
+                        stopped = true;
+                        promise.tryFail(part.getCause());
+                    } else if (mode == BoundedMode.ANY && !part.isFailed()) {
+                        stopped = true;
+                        promise.tryComplete(parallelResult);
+                    }
+                }
+            }
+            drain();
+        }
+
+        private void tryFinish() {
+            synchronized (this) {
+                if (inFlight > 0 || promise.future().isComplete()) {
+                    return;
+                }
+                if (!stopped && iterator.hasNext()) {
+                    return;
+                }
+                stopped = true;
+            }
+            if (mode == BoundedMode.ANY || mode == BoundedMode.JOIN) {
+                List<Throwable> causes = new ArrayList<>();
+                parallelResult.getResultPartList().forEach(part -> {
+                    if (part.isFailed()) {
+                        causes.add(part.getCause());
+                    }
+                });
+                // ANY with no item is regarded as success, as the unbounded one does.
+                boolean failed = mode == BoundedMode.JOIN ? !causes.isEmpty() : (!causes.isEmpty() && causes.size() == parallelResult.size());
+                if (failed) {
+                    promise.tryFail(new FailedInParallel(causes));
+                    return;
+                }
+            }
+            promise.tryComplete(parallelResult);
+        }
+    }
+
     /**
      * @param <R> The result type.
      * @since 3.0.8 Use a certain type R.
@@ -133,6 +133,42 @@ public interface KeelAsyncKit {
         return FutureForEachParallel.call(collection, itemProcessor);
     }
 
+    /**
+     * Fail fast, with at most {@code maxConcurrency} items in processing at the same time.
+     *
+     * @since 3.3.0
+     */
+    static <T> Future<Void> parallelForAllSuccess(@Nonnull Iterable<T> collection, int maxConcurrency, @Nonnull Function<T, Future<Void>> itemProcessor) {
+        return FutureForEachParallel.all(collection, maxConcurrency, itemProcessor);
+    }
+
+    /**
+     * Stop at the first success, with at most {@code maxConcurrency} items in processing at the same time.
+     *
+     * @since 3.3.0
+     */
+    static <T> Future<Void> parallelForAnySuccess(@Nonnull Iterable<T> collection, int maxConcurrency, @Nonnull Function<T, Future<Void>> itemProcessor) {
+        return FutureForEachParallel.any(collection, maxConcurrency, itemProcessor);
+    }
+
+    /**
+     * Process all, with at most {@code maxConcurrency} items in processing at the same time.
+     *
+     * @since 3.3.0
+     */
+    static <T> Future<Void> parallelForAllComplete(@Nonnull Iterable<T> collection, int maxConcurrency, @Nonnull Function<T, Future<Void>> itemProcessor) {
+        return FutureForEachParallel.join(collection, maxConcurrency, itemProcessor);
+    }
+
+    /**
+     * Collect all results in order, with at most {@code maxConcurrency} items in processing at the same time.
+     *
+     * @since 3.3.0
+     */
+    static <T, R> Future<FutureForEachParallel.ParallelResult<R>> parallelForAllResult(@Nonnull Iterable<T> collection, int maxConcurrency, @Nonnull Function<T, Future<R>> itemProcessor) {
+        return FutureForEachParallel.call(collection, maxConcurrency, itemProcessor);
+    }
+
     /**
      * @since 3.1.0
      */
@@ -52,7 +52,42 @@ public interface KeelEventLogger {
 
     void log(@Nonnull Handler<KeelEventLog> eventLogHandler);
 
+    /**
+     * @return whether an event log of the level would be visible to this logger or any bypass one;
+     * check it before preparing costly content for the log.
+     * @since 3.3.0
+     */
+    default boolean isLevelEnabled(@Nonnull KeelLogLevel level) {
+        if (level.isEnoughSeriousAs(getVisibleLevel())) {
+            return true;
+        }
+        List<KeelEventLogger> bypassLoggers = getBypassLoggers();
+        for (int i = 0; i < bypassLoggers.size(); i++) {
+            if (bypassLoggers.get(i).isLevelEnabled(level)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    default boolean isDebugEnabled() {
+        return isLevelEnabled(KeelLogLevel.DEBUG);
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    default boolean isInfoEnabled() {
+        return isLevelEnabled(KeelLogLevel.INFO);
+    }
+
     default void debug(@Nonnull Handler<KeelEventLog> eventLogHandler) {
+        if (!isLevelEnabled(KeelLogLevel.DEBUG)) {
+            return;
+        }
         log(eventLog -> {
             eventLog.level(KeelLogLevel.DEBUG);
             eventLog.topic(getPresetTopic());
@@ -61,6 +96,9 @@ public interface KeelEventLogger {
     }
 
     default void info(@Nonnull Handler<KeelEventLog> eventLogHandler) {
+        if (!isLevelEnabled(KeelLogLevel.INFO)) {
+            return;
+        }
         log(eventLog -> {
             eventLog.level(KeelLogLevel.INFO);
             eventLog.topic(getPresetTopic());
@@ -69,6 +107,9 @@ public interface KeelEventLogger {
     }
 
     default void notice(@Nonnull Handler<KeelEventLog> eventLogHandler) {
+        if (!isLevelEnabled(KeelLogLevel.NOTICE)) {
+            return;
+        }
         log(eventLog -> {
             eventLog.level(KeelLogLevel.NOTICE);
             eventLog.topic(getPresetTopic());
@@ -77,6 +118,9 @@ public interface KeelEventLogger {
     }
 
     default void warning(@Nonnull Handler<KeelEventLog> eventLogHandler) {
+        if (!isLevelEnabled(KeelLogLevel.WARNING)) {
+            return;
+        }
         log(eventLog -> {
             eventLog.level(KeelLogLevel.WARNING);
             eventLog.topic(getPresetTopic());
@@ -85,6 +129,9 @@ public interface KeelEventLogger {
     }
 
     default void error(@Nonnull Handler<KeelEventLog> eventLogHandler) {
+        if (!isLevelEnabled(KeelLogLevel.ERROR)) {
+            return;
+        }
         log(eventLog -> {
             eventLog.level(KeelLogLevel.ERROR);
             eventLog.topic(getPresetTopic());
@@ -93,6 +140,9 @@ public interface KeelEventLogger {
     }
 
     default void fatal(@Nonnull Handler<KeelEventLog> eventLogHandler) {
+        if (!isLevelEnabled(KeelLogLevel.FATAL)) {
+            return;
+        }
         log(eventLog -> {
             eventLog.level(KeelLogLevel.FATAL);
             eventLog.topic(getPresetTopic());
@@ -101,12 +151,19 @@ public interface KeelEventLogger {
     }
 
     default void debug(@Nullable String msg) {
+        // since 3.3.0: checked before the capturing lambda created
+        if (!isDebugEnabled()) {
+            return;
+        }
         debug(eventLog -> eventLog.message(msg));
     }
 
     default void info(String msg) {
         // done debugging
 //        System.out.println("KeelEventLogger::info("+msg+") start");
+        if (!isInfoEnabled()) {
+            return;
+        }
         info(eventLog -> eventLog.message(msg));
 //        System.out.println("KeelEventLogger::info("+msg+") end");
     }
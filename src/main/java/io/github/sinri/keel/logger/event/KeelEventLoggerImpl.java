@@ -65,6 +65,22 @@ class KeelEventLoggerImpl implements KeelEventLogger {
         this.getIssueRecorder().setVisibleLevel(level);
     }
 
+    /**
+     * @since 3.3.0 the bypass recorders of the issue recorder counted
+     */
+    @Override
+    public boolean isLevelEnabled(@Nonnull KeelLogLevel level) {
+        if (this.getIssueRecorder().isLevelEnabled(level)) {
+            return true;
+        }
+        for (int i = 0; i < bypassLoggers.size(); i++) {
+            if (bypassLoggers.get(i).isLevelEnabled(level)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Nonnull
     @Override
     public String getPresetTopic() {
@@ -4,7 +4,9 @@ import io.github.sinri.keel.core.TechnicalPreview;
 import io.github.sinri.keel.logger.KeelLogLevel;
 import io.github.sinri.keel.logger.issue.center.KeelIssueRecordCenter;
 import io.github.sinri.keel.logger.issue.record.KeelIssueRecord;
+import io.github.sinri.keel.logger.issue.recorder.sampling.KeelIssueRecordSamplingPolicy;
 import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -59,16 +61,179 @@ public interface KeelIssueRecorder<T extends KeelIssueRecord<?>> {
 
     void setRecordFormatter(@Nullable Handler<T> handler);
 
+    /**
+     * @return the sampling policy; null by default, as the implementations out of Keel keep all records.
+     * @since 3.3.0
+     */
+    @Nullable
+    default KeelIssueRecordSamplingPolicy getSamplingPolicy() {
+        return null;
+    }
+
+    /**
+     * @param samplingPolicy the sampling of the records of this recorder, not of the bypass ones; null for all kept.
+     *                       The summaries of the policy are recorded by this recorder, if its summary handler not set;
+     *                       the summary left in the replaced policy is flushed.
+     *                       Ignored by default, for the implementations out of Keel.
+     * @since 3.3.0
+     */
+    default void setSamplingPolicy(@Nullable KeelIssueRecordSamplingPolicy samplingPolicy) {
+    }
+
+    /**
+     * Check the level against the visible levels of this recorder and its bypass recorders,
+     * before any issue record is built.
+     * It allocates nothing, so it is cheap enough to guard the hot paths.
+     *
+     * @param level the level of the issue to record
+     * @return whether an issue of the level would be recorded by any recorder
+     * @since 3.3.0
+     */
+    default boolean isLevelEnabled(@Nonnull KeelLogLevel level) {
+        if (level.isEnoughSeriousAs(getVisibleLevel())) {
+            return true;
+        }
+        List<KeelIssueRecorder<T>> bypassIssueRecorders = getBypassIssueRecorders();
+        for (int i = 0; i < bypassIssueRecorders.size(); i++) {
+            if (level.isEnoughSeriousAs(bypassIssueRecorders.get(i).getVisibleLevel())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    default boolean isDebugEnabled() {
+        return isLevelEnabled(KeelLogLevel.DEBUG);
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    default boolean isInfoEnabled() {
+        return isLevelEnabled(KeelLogLevel.INFO);
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    default boolean isNoticeEnabled() {
+        return isLevelEnabled(KeelLogLevel.NOTICE);
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    default boolean isWarningEnabled() {
+        return isLevelEnabled(KeelLogLevel.WARNING);
+    }
+
     /**
      * Record an issue (created with `issueRecordBuilder` and modified with `issueHandler`).
      * It may be handled later async, actually.
+     * <p>
+     * As the level is only known after the handler run, the issue is always built here;
+     * use {@link #record(KeelLogLevel, Handler)} or the methods for certain levels to skip the invisible ones cheaply.
      *
      * @param issueHandler the handler to modify the base issue.
      */
     default void record(@Nonnull Handler<T> issueHandler) {
         T issue = this.issueRecordBuilder().get();
         issueHandler.handle(issue);
+        // since 3.3.0, the level known only now
+        KeelIssueRecordSamplingPolicy samplingPolicy = getSamplingPolicy();
+        if (samplingPolicy != null) {
+            boolean kept = !Boolean.FALSE.equals(samplingPolicy.sample(topic(), issue.level(), issue, null));
+            recordSamplingSummary(samplingPolicy);
+            if (!kept) {
+                return;
+            }
+        }
+        dispatch(issue);
+    }
+
+    /**
+     * Record an issue of the given level.
+     * If the level is not visible to this recorder nor the bypass ones,
+     * it returns before the issue built and the handler called.
+     *
+     * @param level        the level of the issue, overrides the one set by the handler.
+     * @param issueHandler the handler to modify the base issue.
+     * @since 3.3.0
+     */
+    default void record(@Nonnull KeelLogLevel level, @Nonnull Handler<T> issueHandler) {
+        recordWithMessage(level, null, issueHandler);
+    }
+
+    /**
+     * Record an issue of the given level, with the message known before built for sampling.
+     * If the level is not visible, or the sampling policy suppresses it, it returns before the issue built.
+     *
+     * @since 3.3.0
+     */
+    private void recordWithMessage(@Nonnull KeelLogLevel level, @Nullable String message, @Nonnull Handler<T> issueHandler) {
+        if (!isLevelEnabled(level)) {
+            return;
+        }
+        KeelIssueRecordSamplingPolicy samplingPolicy = getSamplingPolicy();
+        Boolean sampled = null;
+        if (samplingPolicy != null) {
+            sampled = samplingPolicy.sample(topic(), level, null, message);
+            if (Boolean.FALSE.equals(sampled)) {
+                recordSamplingSummary(samplingPolicy);
+                return;
+            }
+        }
+        T issue = this.issueRecordBuilder().get();
+        issueHandler.handle(issue);
+        issue.level(level);
+        if (samplingPolicy != null) {
+            // decided now if it was left to the built one
+            boolean kept = sampled != null || !Boolean.FALSE.equals(samplingPolicy.sample(topic(), level, issue, null));
+            recordSamplingSummary(samplingPolicy);
+            if (!kept) {
+                return;
+            }
+        }
+        dispatch(issue);
+    }
 
+    /**
+     * Record the summary of the suppressed records as a warning, if it is time to.
+     *
+     * @since 3.3.0
+     */
+    private void recordSamplingSummary(@Nonnull KeelIssueRecordSamplingPolicy samplingPolicy) {
+        JsonObject summary = samplingPolicy.pollSummary();
+        if (summary != null) {
+            recordSamplingSummary(summary);
+        }
+    }
+
+    /**
+     * Record the summary of the suppressed records as a warning, regardless of the sampling.
+     *
+     * @since 3.3.0
+     */
+    default void recordSamplingSummary(@Nonnull JsonObject summary) {
+        T issue = this.issueRecordBuilder().get();
+        if (issue == null) {
+            return;
+        }
+        issue.level(KeelLogLevel.WARNING);
+        issue.message("Issue records suppressed by sampling");
+        issue.context(summary);
+        dispatch(issue);
+    }
+
+    /**
+     * Format the built issue and hand it to the adapters of the recorders it is visible to.
+     *
+     * @since 3.3.0
+     */
+    private void dispatch(@Nonnull T issue) {
         Handler<T> recordFormatter = getRecordFormatter();
         if (recordFormatter != null) {
             recordFormatter.handle(issue);
@@ -86,48 +251,33 @@ public interface KeelIssueRecorder<T extends KeelIssueRecord<?>> {
     }
 
     default void debug(@Nonnull Handler<T> issueHandler) {
-        record(t -> {
-            issueHandler.handle(t);
-            t.level(KeelLogLevel.DEBUG);
-        });
+        record(KeelLogLevel.DEBUG, issueHandler);
     }
 
     default void info(@Nonnull Handler<T> issueHandler) {
-        record(t -> {
-            issueHandler.handle(t);
-            t.level(KeelLogLevel.INFO);
-        });
+        record(KeelLogLevel.INFO, issueHandler);
     }
 
     default void notice(@Nonnull Handler<T> issueHandler) {
-        record(t -> {
-            issueHandler.handle(t);
-            t.level(KeelLogLevel.NOTICE);
-        });
+        record(KeelLogLevel.NOTICE, issueHandler);
     }
 
     default void warning(@Nonnull Handler<T> issueHandler) {
-        record(t -> {
-            issueHandler.handle(t);
-            t.level(KeelLogLevel.WARNING);
-        });
+        record(KeelLogLevel.WARNING, issueHandler);
     }
 
     default void error(@Nonnull Handler<T> issueHandler) {
-        record(t -> {
-            issueHandler.handle(t);
-            t.level(KeelLogLevel.ERROR);
-        });
+        record(KeelLogLevel.ERROR, issueHandler);
     }
 
     default void fatal(@Nonnull Handler<T> issueHandler) {
-        record(t -> {
-            issueHandler.handle(t);
-            t.level(KeelLogLevel.FATAL);
-        });
+        record(KeelLogLevel.FATAL, issueHandler);
     }
 
     default void exception(@Nonnull Throwable throwable, @Nonnull Handler<T> issueHandler) {
+        if (!isLevelEnabled(KeelLogLevel.ERROR)) {
+            return;
+        }
         error(t -> {
             t.exception(throwable);
             issueHandler.handle(t);
@@ -135,7 +285,13 @@ public interface KeelIssueRecorder<T extends KeelIssueRecord<?>> {
     }
 
     default void exception(@Nonnull Throwable throwable, @Nonnull String message) {
-        exception(throwable, t -> t.message(message));
+        if (!isLevelEnabled(KeelLogLevel.ERROR)) {
+            return;
+        }
+        recordWithMessage(KeelLogLevel.ERROR, message, t -> {
+            t.exception(throwable);
+            t.message(message);
+        });
     }
 
     default void exception(@Nonnull Throwable throwable) {
@@ -144,27 +300,46 @@ public interface KeelIssueRecorder<T extends KeelIssueRecord<?>> {
     }
 
     default void debug(@Nonnull String message) {
-        debug(t -> t.message(message));
+        // checked before the capturing lambda created
+        if (!isLevelEnabled(KeelLogLevel.DEBUG)) {
+            return;
+        }
+        recordWithMessage(KeelLogLevel.DEBUG, message, t -> t.message(message));
     }
 
     default void info(@Nonnull String message) {
-        info(t -> t.message(message));
+        if (!isLevelEnabled(KeelLogLevel.INFO)) {
+            return;
+        }
+        recordWithMessage(KeelLogLevel.INFO, message, t -> t.message(message));
     }
 
     default void notice(@Nonnull String message) {
-        notice(t -> t.message(message));
+        if (!isLevelEnabled(KeelLogLevel.NOTICE)) {
+            return;
+        }
+        recordWithMessage(KeelLogLevel.NOTICE, message, t -> t.message(message));
     }
 
     default void warning(@Nonnull String message) {
-        warning(t -> t.message(message));
+        if (!isLevelEnabled(KeelLogLevel.WARNING)) {
+            return;
+        }
+        recordWithMessage(KeelLogLevel.WARNING, message, t -> t.message(message));
     }
 
     default void error(@Nonnull String message) {
-        error(t -> t.message(message));
+        if (!isLevelEnabled(KeelLogLevel.ERROR)) {
+            return;
+        }
+        recordWithMessage(KeelLogLevel.ERROR, message, t -> t.message(message));
     }
 
     default void fatal(@Nonnull String message) {
-        fatal(t -> t.message(message));
+        if (!isLevelEnabled(KeelLogLevel.FATAL)) {
+            return;
+        }
+        recordWithMessage(KeelLogLevel.FATAL, message, t -> t.message(message));
     }
 
 }
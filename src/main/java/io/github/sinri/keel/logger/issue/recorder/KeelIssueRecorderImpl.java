@@ -4,6 +4,7 @@ import io.github.sinri.keel.core.TechnicalPreview;
 import io.github.sinri.keel.logger.KeelLogLevel;
 import io.github.sinri.keel.logger.issue.center.KeelIssueRecordCenter;
 import io.github.sinri.keel.logger.issue.record.KeelIssueRecord;
+import io.github.sinri.keel.logger.issue.recorder.sampling.KeelIssueRecordSamplingPolicy;
 import io.vertx.core.Handler;
 
 import javax.annotation.Nonnull;
@@ -61,6 +62,8 @@ class KeelIssueRecorderImpl<T extends KeelIssueRecord<?>> implements KeelIssueRe
     private final List<KeelIssueRecorder<T>> bypassIssueRecorders = new ArrayList<>();
     @Nullable
     Handler<T> recordFormatter = null;
+    @Nullable
+    private volatile KeelIssueRecordSamplingPolicy samplingPolicy = null;
 
     /**
      * @since 3.2.0
@@ -95,4 +98,28 @@ class KeelIssueRecorderImpl<T extends KeelIssueRecord<?>> implements KeelIssueRe
     public void setRecordFormatter(@Nullable Handler<T> handler) {
         this.recordFormatter = handler;
     }
+
+    /**
+     * @since 3.3.0
+     */
+    @Nullable
+    @Override
+    public KeelIssueRecordSamplingPolicy getSamplingPolicy() {
+        return samplingPolicy;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    @Override
+    public void setSamplingPolicy(@Nullable KeelIssueRecordSamplingPolicy samplingPolicy) {
+        KeelIssueRecordSamplingPolicy replaced = this.samplingPolicy;
+        if (samplingPolicy != null && samplingPolicy.getSummaryHandler() == null) {
+            samplingPolicy.setSummaryHandler(this::recordSamplingSummary);
+        }
+        this.samplingPolicy = samplingPolicy;
+        if (replaced != null && replaced != samplingPolicy) {
+            replaced.flushSummary();
+        }
+    }
 }
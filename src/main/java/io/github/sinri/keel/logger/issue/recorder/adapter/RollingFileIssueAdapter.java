@@ -0,0 +1,379 @@
+package io.github.sinri.keel.logger.issue.recorder.adapter;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+import io.github.sinri.keel.logger.issue.record.KeelIssueRecord;
+import io.github.sinri.keel.logger.issue.recorder.render.KeelIssueRecordRender;
+import io.github.sinri.keel.logger.issue.recorder.render.KeelIssueRecordStringRender;
+import io.github.sinri.keel.servant.intravenous.KeelIntravenous;
+import io.github.sinri.keel.servant.intravenous.KeelIntravenousBase;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
+/**
+ * Write the rendered issue records into a local file, in batches through a reused buffer, one write for each batch.
+ * The file {@code <baseName>.log} in the directory is rotated when its size reaches the max file size,
+ * or when the rotate interval passes (checked when a batch comes), to {@code <baseName>.<time>.log}, gzipped if configured.
+ * The records wait in a bounded queue; when it is full, the new records are dropped and counted.
+ * <p>
+ * Configure it before {@link #start()}.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class RollingFileIssueAdapter implements KeelIssueRecorderAdapter {
+    private static final DateTimeFormatter ROTATED_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private final Path directory;
+    private final String baseName;
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    private final AtomicLong writtenCount = new AtomicLong(0);
+    private final AtomicLong writtenBytes = new AtomicLong(0);
+    private final AtomicLong rotatedCount = new AtomicLong(0);
+    private long maxFileSize = 100L * 1024 * 1024;
+    private long rotateInterval = 0L;
+    private ZoneId zoneId = ZoneId.systemDefault();
+    private boolean compressRotatedFiles = false;
+    private int queueCapacity = 100_000;
+    private int batchSize = 2000;
+    private long lingerTime = 50L;
+    private int bufferSize = 1024 * 1024;
+    private KeelIntravenous<KeelIssueRecord<?>> intravenous;
+    private volatile boolean stopped = false;
+    private volatile boolean closed = true;
+
+    // the followings are used in the blocking writes, one batch at a time
+    private final StringBuilder textBuffer = new StringBuilder();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private ByteBuffer byteBuffer;
+    private FileChannel fileChannel;
+    private long currentFileSize;
+    private long nextRotateTime;
+
+    /**
+     * @param directory the directory of the log files, created if not existed.
+     * @param baseName  the name of the log file without extension.
+     */
+    public RollingFileIssueAdapter(@Nonnull Path directory, @Nonnull String baseName) {
+        this.directory = directory;
+        this.baseName = baseName;
+    }
+
+    /**
+     * @param maxFileSize rotate when the file reaches this size in bytes, zero for never; 100 MiB by default.
+     */
+    public RollingFileIssueAdapter setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = Math.max(0, maxFileSize);
+        return this;
+    }
+
+    /**
+     * @param rotateInterval rotate at the boundaries of this interval in ms in the time zone, such as hourly or daily;
+     *                       zero for never, by default.
+     */
+    public RollingFileIssueAdapter setRotateInterval(long rotateInterval, @Nonnull ZoneId zoneId) {
+        this.rotateInterval = Math.max(0, rotateInterval);
+        this.zoneId = zoneId;
+        return this;
+    }
+
+    public RollingFileIssueAdapter setCompressRotatedFiles(boolean compressRotatedFiles) {
+        this.compressRotatedFiles = compressRotatedFiles;
+        return this;
+    }
+
+    /**
+     * @param queueCapacity the max count of records waiting to be written; 100000 by default.
+     */
+    public RollingFileIssueAdapter setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        return this;
+    }
+
+    /**
+     * @param batchSize the max count of records in one write; 2000 by default.
+     */
+    public RollingFileIssueAdapter setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    /**
+     * @param lingerTime the max time in ms a record waits for more to write together; 50 by default.
+     */
+    public RollingFileIssueAdapter setLingerTime(long lingerTime) {
+        this.lingerTime = Math.max(0, lingerTime);
+        return this;
+    }
+
+    /**
+     * @param bufferSize the size in bytes of the reused write buffer, a larger batch is written in several calls; 1 MiB by default.
+     */
+    public RollingFileIssueAdapter setBufferSize(int bufferSize) {
+        this.bufferSize = Math.max(4096, bufferSize);
+        return this;
+    }
+
+    public final void start() {
+        this.byteBuffer = ByteBuffer.allocateDirect(bufferSize);
+        this.intravenous = new KeelIntravenous<KeelIssueRecord<?>>(this::writeIssueRecords)
+                .setBatchSize(batchSize)
+                .setLingerTime(lingerTime)
+                .setCapacity(queueCapacity, KeelIntravenousBase.OverflowPolicy.REJECT);
+        this.intravenous.start();
+        closed = false;
+    }
+
+    @Override
+    public KeelIssueRecordRender<String> issueRecordRender() {
+        return KeelIssueRecordRender.renderForString();
+    }
+
+    @Override
+    public void record(@Nonnull String topic, @Nullable KeelIssueRecord<?> issueRecord) {
+        if (issueRecord != null) {
+            if (this.intravenous == null) {
+                // not started yet
+                droppedCount.incrementAndGet();
+                return;
+            }
+            try {
+                this.intravenous.add(issueRecord);
+            } catch (RejectedExecutionException | IllegalStateException e) {
+                // queue full, or closing
+                droppedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private Future<Void> writeIssueRecords(@Nonnull List<KeelIssueRecord<?>> issueRecords) {
+        return Keel.getVertx().executeBlocking(() -> {
+            writeBatch(issueRecords);
+            return null;
+        }, false);
+    }
+
+    private void writeBatch(@Nonnull List<KeelIssueRecord<?>> issueRecords) {
+        KeelIssueRecordRender<String> render = issueRecordRender();
+        textBuffer.setLength(0);
+        for (KeelIssueRecord<?> issueRecord : issueRecords) {
+            if (render instanceof KeelIssueRecordStringRender) {
+                // render into the batch builder directly
+                ((KeelIssueRecordStringRender) render).appendIssueRecord(textBuffer, issueRecord);
+            } else {
+                textBuffer.append(render.renderIssueRecord(issueRecord));
+            }
+            textBuffer.append('\n');
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            if (fileChannel == null) {
+                openFile(now);
+            } else if ((maxFileSize > 0 && currentFileSize >= maxFileSize) || (rotateInterval > 0 && now >= nextRotateTime)) {
+                rotate(now);
+            }
+
+            long bytes = writeTextBuffer();
+            currentFileSize += bytes;
+            writtenBytes.addAndGet(bytes);
+            writtenCount.addAndGet(issueRecords.size());
+        } catch (IOException e) {
+            droppedCount.addAndGet(issueRecords.size());
+            // the next batch reopens the file
+            closeFileQuietly();
+            Keel.getLogger().exception(e, "RollingFileIssueAdapter failed to write " + issueRecords.size() + " records, dropped");
+        } finally {
+            // do not leave a partial batch to the next one
+            byteBuffer.clear();
+            // do not keep a huge builder after a burst
+            if (textBuffer.capacity() > bufferSize * 4) {
+                textBuffer.setLength(0);
+                textBuffer.trimToSize();
+            }
+        }
+    }
+
+    private long writeTextBuffer() throws IOException {
+        CharBuffer charBuffer = CharBuffer.wrap(textBuffer);
+        encoder.reset();
+        long bytes = 0;
+        while (true) {
+            CoderResult coderResult = encoder.encode(charBuffer, byteBuffer, true);
+            if (coderResult.isOverflow()) {
+                bytes += flushByteBuffer();
+                continue;
+            }
+            if (coderResult.isError()) {
+                coderResult.throwException();
+            }
+            break;
+        }
+        while (encoder.flush(byteBuffer).isOverflow()) {
+            bytes += flushByteBuffer();
+        }
+        bytes += flushByteBuffer();
+        return bytes;
+    }
+
+    private void closeFileQuietly() {
+        if (fileChannel != null) {
+            try {
+                fileChannel.close();
+            } catch (IOException ignored) {
+            }
+            fileChannel = null;
+        }
+    }
+
+    private long flushByteBuffer() throws IOException {
+        byteBuffer.flip();
+        long bytes = byteBuffer.remaining();
+        while (byteBuffer.hasRemaining()) {
+            fileChannel.write(byteBuffer);
+        }
+        byteBuffer.clear();
+        return bytes;
+    }
+
+    private Path getActiveFile() {
+        return directory.resolve(baseName + ".log");
+    }
+
+    private void openFile(long now) throws IOException {
+        Files.createDirectories(directory);
+        fileChannel = FileChannel.open(getActiveFile(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentFileSize = fileChannel.size();
+        nextRotateTime = computeNextRotateTime(now);
+    }
+
+    private long computeNextRotateTime(long now) {
+        if (rotateInterval <= 0) {
+            return Long.MAX_VALUE;
+        }
+        long offset = zoneId.getRules().getOffset(Instant.ofEpochMilli(now)).getTotalSeconds() * 1000L;
+        return ((now + offset) / rotateInterval + 1) * rotateInterval - offset;
+    }
+
+    private void rotate(long now) throws IOException {
+        fileChannel.close();
+        fileChannel = null;
+
+        String time = ROTATED_TIME_FORMATTER.format(Instant.ofEpochMilli(now).atZone(zoneId));
+        Path rotated = directory.resolve(baseName + "." + time + ".log");
+        for (int i = 1; Files.exists(rotated) || Files.exists(rotated.resolveSibling(rotated.getFileName() + ".gz")); i++) {
+            rotated = directory.resolve(baseName + "." + time + "." + i + ".log");
+        }
+        Files.move(getActiveFile(), rotated);
+        rotatedCount.incrementAndGet();
+        if (compressRotatedFiles) {
+            Path toCompress = rotated;
+            // aside the writes
+            Keel.getVertx().executeBlocking(() -> {
+                compress(toCompress);
+                return null;
+            }, false).onFailure(throwable -> {
+                Keel.getLogger().exception(throwable, "RollingFileIssueAdapter failed to compress " + toCompress);
+            });
+        }
+
+        openFile(now);
+    }
+
+    private static void compress(@Nonnull Path file) throws IOException {
+        Path compressed = file.resolveSibling(file.getFileName() + ".gz");
+        try (
+                InputStream inputStream = Files.newInputStream(file);
+                OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(compressed), 64 * 1024)
+        ) {
+            inputStream.transferTo(outputStream);
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * @return the count of records dropped as the adapter was not started, the queue was full, the adapter was closing,
+     *         or the write failed.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    public long getRotatedCount() {
+        return rotatedCount.get();
+    }
+
+    /**
+     * @return the count of records waiting to be written.
+     */
+    public int getQueueDepth() {
+        return intravenous == null ? 0 : intravenous.getQueueDepth();
+    }
+
+    @Override
+    public void close(@Nonnull Promise<Void> promise) {
+        this.stopped = true;
+        if (this.intravenous == null) {
+            // never started
+            this.closed = true;
+            promise.complete();
+            return;
+        }
+        this.intravenous.shutdown()
+                .compose(v -> Keel.getVertx().executeBlocking(() -> {
+                    if (fileChannel != null) {
+                        fileChannel.close();
+                        fileChannel = null;
+                    }
+                    return null;
+                }, false))
+                .andThen(ar -> {
+                    if (ar.failed()) {
+                        promise.fail(ar.cause());
+                    } else {
+                        this.closed = true;
+                        promise.complete();
+                    }
+                });
+    }
+
+    @Override
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,248 @@
+package io.github.sinri.keel.logger.issue.recorder.render;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write JSON values straight into a {@link StringBuilder} or a {@link Buffer}, as Jackson encodes them,
+ * without the intermediate strings of {@link JsonObject#encode()}.
+ * The values of uncommon types fall back to {@link Json#encode(Object)}.
+ *
+ * @since 3.3.0
+ */
+final class IssueRecordJsonWriter {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private IssueRecordJsonWriter() {
+    }
+
+    static void writeValue(@Nonnull Sink sink, @Nullable Object value) {
+        if (value == null) {
+            sink.appendAscii("null");
+        } else if (value instanceof CharSequence) {
+            writeString(sink, (CharSequence) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            sink.appendLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            sink.appendAscii((Boolean) value ? "true" : "false");
+        } else if (value instanceof Number) {
+            sink.appendAscii(value.toString());
+        } else if (value instanceof JsonObject) {
+            writeMap(sink, ((JsonObject) value).getMap());
+        } else if (value instanceof Map) {
+            writeMap(sink, (Map<?, ?>) value);
+        } else if (value instanceof JsonArray) {
+            writeList(sink, ((JsonArray) value).getList());
+        } else if (value instanceof List) {
+            writeList(sink, (List<?>) value);
+        } else if (value instanceof Enum) {
+            writeString(sink, ((Enum<?>) value).name());
+        } else {
+            sink.appendChars(Json.encode(value));
+        }
+    }
+
+    static void writeMap(@Nonnull Sink sink, @Nonnull Map<?, ?> map) {
+        sink.appendChar('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                sink.appendChar(',');
+            }
+            first = false;
+            writeString(sink, String.valueOf(entry.getKey()));
+            sink.appendChar(':');
+            writeValue(sink, entry.getValue());
+        }
+        sink.appendChar('}');
+    }
+
+    static void writeList(@Nonnull Sink sink, @Nonnull List<?> list) {
+        sink.appendChar('[');
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) {
+                sink.appendChar(',');
+            }
+            writeValue(sink, list.get(i));
+        }
+        sink.appendChar(']');
+    }
+
+    static void writeString(@Nonnull Sink sink, @Nonnull CharSequence s) {
+        sink.appendChar('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sink.appendAscii("\\\"");
+                    break;
+                case '\\':
+                    sink.appendAscii("\\\\");
+                    break;
+                case '\n':
+                    sink.appendAscii("\\n");
+                    break;
+                case '\r':
+                    sink.appendAscii("\\r");
+                    break;
+                case '\t':
+                    sink.appendAscii("\\t");
+                    break;
+                case '\b':
+                    sink.appendAscii("\\b");
+                    break;
+                case '\f':
+                    sink.appendAscii("\\f");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sink.appendAscii("\\u00");
+                        sink.appendChar(HEX[c >> 4]);
+                        sink.appendChar(HEX[c & 0xF]);
+                    } else {
+                        sink.appendChar(c);
+                    }
+            }
+        }
+        sink.appendChar('"');
+    }
+
+    /**
+     * Where the JSON goes, reused by the thread with the target reset.
+     */
+    interface Sink {
+        void appendChar(char c);
+
+        default void appendChars(@Nonnull CharSequence s) {
+            for (int i = 0; i < s.length(); i++) {
+                appendChar(s.charAt(i));
+            }
+        }
+
+        default void appendAscii(@Nonnull String s) {
+            appendChars(s);
+        }
+
+        default void appendLong(long l) {
+            appendAscii(Long.toString(l));
+        }
+    }
+
+    static final class StringBuilderSink implements Sink {
+        private StringBuilder target;
+
+        StringBuilderSink reset(@Nonnull StringBuilder target) {
+            this.target = target;
+            return this;
+        }
+
+        @Override
+        public void appendChar(char c) {
+            target.append(c);
+        }
+
+        @Override
+        public void appendChars(@Nonnull CharSequence s) {
+            target.append(s);
+        }
+
+        @Override
+        public void appendLong(long l) {
+            target.append(l);
+        }
+    }
+
+    /**
+     * Encode the chars in UTF-8 into the buffer, one by one.
+     */
+    static final class BufferSink implements Sink {
+        private final char[] digits = new char[20];
+        private Buffer target;
+        private char highSurrogate = 0;
+
+        BufferSink reset(@Nonnull Buffer target) {
+            this.target = target;
+            this.highSurrogate = 0;
+            return this;
+        }
+
+        @Override
+        public void appendChar(char c) {
+            if (highSurrogate != 0 && !Character.isLowSurrogate(c)) {
+                flushLoneHighSurrogate();
+            }
+            if (c < 0x80) {
+                target.appendByte((byte) c);
+            } else if (c < 0x800) {
+                target.appendByte((byte) (0xC0 | (c >> 6)));
+                target.appendByte((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c)) {
+                // wait for the low one to encode the code point
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                if (highSurrogate == 0) {
+                    target.appendByte((byte) '?');
+                    return;
+                }
+                int codePoint = Character.toCodePoint(highSurrogate, c);
+                highSurrogate = 0;
+                target.appendByte((byte) (0xF0 | (codePoint >> 18)));
+                target.appendByte((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                target.appendByte((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                target.appendByte((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                target.appendByte((byte) (0xE0 | (c >> 12)));
+                target.appendByte((byte) (0x80 | ((c >> 6) & 0x3F)));
+                target.appendByte((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+
+        /**
+         * A high surrogate not followed by a low one could not be encoded, write it as the lone low one.
+         */
+        private void flushLoneHighSurrogate() {
+            highSurrogate = 0;
+            target.appendByte((byte) '?');
+        }
+
+        @Override
+        public void appendAscii(@Nonnull String s) {
+            if (highSurrogate != 0) {
+                flushLoneHighSurrogate();
+            }
+            for (int i = 0; i < s.length(); i++) {
+                target.appendByte((byte) s.charAt(i));
+            }
+        }
+
+        @Override
+        public void appendLong(long l) {
+            if (highSurrogate != 0) {
+                flushLoneHighSurrogate();
+            }
+            if (l == Long.MIN_VALUE) {
+                appendAscii(Long.toString(l));
+                return;
+            }
+            if (l < 0) {
+                target.appendByte((byte) '-');
+                l = -l;
+            }
+            int i = digits.length;
+            do {
+                digits[--i] = (char) ('0' + (l % 10));
+                l /= 10;
+            } while (l > 0);
+            for (; i < digits.length; i++) {
+                target.appendByte((byte) digits[i]);
+            }
+        }
+    }
+}
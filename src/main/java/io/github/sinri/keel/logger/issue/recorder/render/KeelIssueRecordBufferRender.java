@@ -0,0 +1,74 @@
+package io.github.sinri.keel.logger.issue.recorder.render;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+import io.github.sinri.keel.logger.issue.record.KeelIssueRecord;
+import io.vertx.core.buffer.Buffer;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.Objects;
+
+import static io.github.sinri.keel.helper.KeelHelpersInterface.KeelHelpers;
+
+/**
+ * Render the issue record as the JSON of {@link KeelIssueRecordJsonObjectRender}, written straight into a buffer in UTF-8,
+ * without building the {@link io.vertx.core.json.JsonObject} and encoding it into a string.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class KeelIssueRecordBufferRender implements KeelIssueRecordRender<Buffer> {
+    private static final KeelIssueRecordBufferRender instance = new KeelIssueRecordBufferRender();
+    private static final ThreadLocal<IssueRecordJsonWriter.BufferSink> sinkThreadLocal = ThreadLocal.withInitial(IssueRecordJsonWriter.BufferSink::new);
+
+    protected KeelIssueRecordBufferRender() {
+
+    }
+
+    public static KeelIssueRecordBufferRender getInstance() {
+        return instance;
+    }
+
+    @Nonnull
+    @Override
+    public Buffer renderIssueRecord(@Nonnull KeelIssueRecord<?> issueRecord) {
+        Buffer buffer = Buffer.buffer(256);
+        appendIssueRecord(buffer, issueRecord);
+        return buffer;
+    }
+
+    /**
+     * Render the issue record to the end of the given buffer, such as a batch of lines to send or write.
+     */
+    public void appendIssueRecord(@Nonnull Buffer buffer, @Nonnull KeelIssueRecord<?> issueRecord) {
+        IssueRecordJsonWriter.BufferSink sink = sinkThreadLocal.get().reset(buffer);
+        // as the json object render, the topic is neglected
+        sink.appendAscii("{\"level\":");
+        IssueRecordJsonWriter.writeString(sink, issueRecord.level().name());
+        sink.appendAscii(",\"classification\":");
+        IssueRecordJsonWriter.writeList(sink, issueRecord.classification());
+        for (Map.Entry<String, Object> attribute : issueRecord.attributes()) {
+            sink.appendChar(',');
+            IssueRecordJsonWriter.writeString(sink, attribute.getKey());
+            sink.appendChar(':');
+            IssueRecordJsonWriter.writeValue(sink, attribute.getValue());
+        }
+        Throwable exception = issueRecord.exception();
+        if (exception != null) {
+            sink.appendAscii(",\"exception\":");
+            IssueRecordJsonWriter.writeValue(sink, KeelHelpers.jsonHelper().renderThrowableChain(exception, ignorableStackPackageSet()));
+        }
+        sink.appendChar('}');
+    }
+
+    @Nonnull
+    @Override
+    public Buffer renderThrowable(@Nonnull Throwable throwable) {
+        Buffer buffer = Buffer.buffer();
+        IssueRecordJsonWriter.writeValue(
+                sinkThreadLocal.get().reset(buffer),
+                Objects.requireNonNull(KeelHelpers.jsonHelper().renderThrowableChain(throwable, ignorableStackPackageSet()))
+        );
+        return buffer;
+    }
+}
@@ -3,6 +3,7 @@ package io.github.sinri.keel.logger.issue.recorder.render;
 import io.github.sinri.keel.core.TechnicalPreview;
 import io.github.sinri.keel.helper.KeelRuntimeHelper;
 import io.github.sinri.keel.logger.issue.record.KeelIssueRecord;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 
 import javax.annotation.Nonnull;
@@ -22,6 +23,13 @@ public interface KeelIssueRecordRender<R> {
         return KeelIssueRecordJsonObjectRender.getInstance();
     }
 
+    /**
+     * @since 3.3.0
+     */
+    static KeelIssueRecordRender<Buffer> renderForBuffer() {
+        return KeelIssueRecordBufferRender.getInstance();
+    }
+
     @Nonnull
     R renderIssueRecord(@Nonnull KeelIssueRecord<?> issueRecord);
 
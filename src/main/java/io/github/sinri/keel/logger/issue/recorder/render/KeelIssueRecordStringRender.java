@@ -3,8 +3,15 @@ package io.github.sinri.keel.logger.issue.recorder.render;
 import io.github.sinri.keel.core.TechnicalPreview;
 import io.github.sinri.keel.helper.KeelDateTimeHelper;
 import io.github.sinri.keel.logger.issue.record.KeelIssueRecord;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 
 import javax.annotation.Nonnull;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 
 import static io.github.sinri.keel.helper.KeelHelpersInterface.KeelHelpers;
 
@@ -14,6 +21,9 @@ import static io.github.sinri.keel.helper.KeelHelpersInterface.KeelHelpers;
 @TechnicalPreview(since = "3.1.10")
 public class KeelIssueRecordStringRender implements KeelIssueRecordRender<String> {
     private static final KeelIssueRecordStringRender instance = new KeelIssueRecordStringRender();
+    private static final int MAX_REUSED_BUILDER_CAPACITY = 64 * 1024;
+    private static final DateTimeFormatter SECOND_FORMATTER = DateTimeFormatter.ofPattern(KeelDateTimeHelper.MYSQL_DATETIME_PATTERN);
+    private static final ThreadLocal<RenderState> renderStateThreadLocal = ThreadLocal.withInitial(RenderState::new);
 
     protected KeelIssueRecordStringRender() {
 
@@ -26,20 +36,52 @@ public class KeelIssueRecordStringRender implements KeelIssueRecordRender<String
     @Nonnull
     @Override
     public String renderIssueRecord(@Nonnull KeelIssueRecord<?> issueRecord) {
-        StringBuilder s = new StringBuilder("㏒ ");
-        s.append(KeelHelpers.datetimeHelper().getDateExpression(issueRecord.timestamp(), KeelDateTimeHelper.MYSQL_DATETIME_MS_PATTERN));
+        // since 3.3.0, rendered in the builder reused by the thread
+        RenderState state = renderStateThreadLocal.get();
+        StringBuilder s = state.builder;
+        s.setLength(0);
+        appendIssueRecord(s, issueRecord);
+        String rendered = s.toString();
+        if (s.capacity() > MAX_REUSED_BUILDER_CAPACITY) {
+            // do not keep the huge one of a long exception
+            state.builder = new StringBuilder(256);
+        }
+        return rendered;
+    }
+
+    /**
+     * Render the issue record to the end of the given builder, without intermediate strings,
+     * for the adapters writing a batch of records into one builder.
+     *
+     * @since 3.3.0
+     */
+    public void appendIssueRecord(@Nonnull StringBuilder s, @Nonnull KeelIssueRecord<?> issueRecord) {
+        RenderState state = renderStateThreadLocal.get();
+        s.append("㏒ ");
+        state.appendTimestamp(s, issueRecord.timestamp());
         s.append(" [").append(issueRecord.level().name()).append("]");
-        s.append(" ").append(issueRecord.topic()).append(" (").append(KeelHelpers.stringHelper().joinStringArray(issueRecord.classification(), ",")).append(")");
-        if (!issueRecord.attributes().isEmpty()) {
-            issueRecord.attributes().forEach(attribute -> {
-                s.append("\n ▪ ").append(attribute.getKey()).append(": ").append(attribute.getValue());
-            });
+        s.append(" ").append(issueRecord.topic()).append(" (");
+        List<String> classification = issueRecord.classification();
+        for (int i = 0; i < classification.size(); i++) {
+            if (i > 0) s.append(",");
+            s.append(classification.get(i));
+        }
+        s.append(")");
+        IssueRecordJsonWriter.StringBuilderSink sink = state.sink.reset(s);
+        for (Map.Entry<String, Object> attribute : issueRecord.attributes()) {
+            s.append("\n ▪ ").append(attribute.getKey()).append(": ");
+            Object value = attribute.getValue();
+            if (value instanceof JsonObject || value instanceof JsonArray) {
+                // stream the JSON into the builder, rather than encode it into a string first
+                IssueRecordJsonWriter.writeValue(sink, value);
+            } else {
+                s.append(value);
+            }
         }
         Throwable exception = issueRecord.exception();
         if (exception != null) {
             s.append("\n ⊹ Exception Thrown:\n").append(renderThrowable(exception));
         }
-        return s.toString();
     }
 
     @Nonnull
@@ -47,4 +89,34 @@ public class KeelIssueRecordStringRender implements KeelIssueRecordRender<String
     public String renderThrowable(@Nonnull Throwable throwable) {
         return KeelHelpers.stringHelper().renderThrowableChain(throwable, ignorableStackPackageSet());
     }
+
+    /**
+     * The builder, the JSON sink and the timestamp cache reused by one thread.
+     *
+     * @since 3.3.0
+     */
+    private static final class RenderState {
+        private final IssueRecordJsonWriter.StringBuilderSink sink = new IssueRecordJsonWriter.StringBuilderSink();
+        private StringBuilder builder = new StringBuilder(256);
+        private long cachedSecond = Long.MIN_VALUE;
+        private String cachedSecondExpression;
+
+        /**
+         * Append the timestamp as {@link KeelDateTimeHelper#MYSQL_DATETIME_MS_PATTERN} in the default time zone,
+         * formatting the part of seconds only when the second changes;
+         * the default time zone is read then as well, as reading it copies the zone.
+         */
+        void appendTimestamp(@Nonnull StringBuilder s, long timestamp) {
+            long second = Math.floorDiv(timestamp, 1000L);
+            if (second != cachedSecond) {
+                cachedSecondExpression = SECOND_FORMATTER.format(Instant.ofEpochSecond(second).atZone(ZoneId.systemDefault()));
+                cachedSecond = second;
+            }
+            int millis = (int) Math.floorMod(timestamp, 1000L);
+            s.append(cachedSecondExpression).append('.');
+            if (millis < 100) s.append('0');
+            if (millis < 10) s.append('0');
+            s.append(millis);
+        }
+    }
 }
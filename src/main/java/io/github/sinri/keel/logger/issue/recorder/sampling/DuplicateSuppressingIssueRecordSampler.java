@@ -0,0 +1,141 @@
+package io.github.sinri.keel.logger.issue.recorder.sampling;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+import io.github.sinri.keel.logger.KeelLogLevel;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keep a record once within the window for each topic, level and message, and count the duplicates suppressed,
+ * which are written into the summary with their messages.
+ * The records without message are kept.
+ * At most the max count of messages are tracked for each topic and level, the new ones beyond are kept untracked.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class DuplicateSuppressingIssueRecordSampler implements KeelIssueRecordSampler {
+    private final long windowMillis;
+    private int maxTrackedMessages = 1000;
+    /**
+     * The tracked messages of each topic, indexed by the ordinal of level.
+     */
+    private final Map<String, EnumMap<KeelLogLevel, Map<String, Occurrence>>> occurrencesMap = new ConcurrentHashMap<>();
+
+    public DuplicateSuppressingIssueRecordSampler(long windowMillis) {
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("windowMillis should be positive");
+        }
+        this.windowMillis = windowMillis;
+    }
+
+    public DuplicateSuppressingIssueRecordSampler setMaxTrackedMessages(int maxTrackedMessages) {
+        this.maxTrackedMessages = Math.max(1, maxTrackedMessages);
+        return this;
+    }
+
+    @Nullable
+    @Override
+    public Boolean sample(@Nonnull String topic, @Nonnull KeelLogLevel level, @Nullable String message, boolean messageKnown) {
+        if (message == null) {
+            // decide when the message known
+            return messageKnown ? Boolean.TRUE : null;
+        }
+        Map<String, Occurrence> occurrences = getOccurrences(topic, level);
+        long now = System.currentTimeMillis();
+        Occurrence occurrence = occurrences.get(message);
+        if (occurrence == null) {
+            if (occurrences.size() >= maxTrackedMessages) {
+                return true;
+            }
+            occurrence = occurrences.putIfAbsent(message, new Occurrence(now));
+            if (occurrence == null) {
+                return true;
+            }
+        }
+        return occurrence.tryKeep(now);
+    }
+
+    private Map<String, Occurrence> getOccurrences(@Nonnull String topic, @Nonnull KeelLogLevel level) {
+        EnumMap<KeelLogLevel, Map<String, Occurrence>> byLevel = occurrencesMap.get(topic);
+        if (byLevel == null) {
+            byLevel = occurrencesMap.computeIfAbsent(topic, x -> {
+                // filled up once, then only read, so it is safe to share
+                EnumMap<KeelLogLevel, Map<String, Occurrence>> created = new EnumMap<>(KeelLogLevel.class);
+                for (KeelLogLevel each : KeelLogLevel.values()) {
+                    created.put(each, new ConcurrentHashMap<>());
+                }
+                return created;
+            });
+        }
+        return byLevel.get(level);
+    }
+
+    @Override
+    public void drainSummary(@Nonnull JsonObject summary) {
+        long now = System.currentTimeMillis();
+        JsonArray duplicates = new JsonArray();
+        occurrencesMap.forEach((topic, byLevel) -> byLevel.forEach((level, occurrences) -> {
+            Iterator<Map.Entry<String, Occurrence>> iterator = occurrences.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Occurrence> entry = iterator.next();
+                long suppressed = entry.getValue().drain(now);
+                if (suppressed > 0) {
+                    duplicates.add(new JsonObject()
+                            .put("topic", topic)
+                            .put("level", level.name())
+                            .put("message", entry.getKey())
+                            .put("suppressed", suppressed));
+                } else if (suppressed < 0) {
+                    // idle for a whole window, stop tracking it
+                    iterator.remove();
+                }
+            }
+        }));
+        if (!duplicates.isEmpty()) {
+            summary.put("duplicates", duplicates);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "duplicates suppressed in " + windowMillis + " ms";
+    }
+
+    private final class Occurrence {
+        private long windowStartTime;
+        private long suppressed = 0;
+
+        Occurrence(long windowStartTime) {
+            this.windowStartTime = windowStartTime;
+        }
+
+        synchronized boolean tryKeep(long now) {
+            if (now - windowStartTime >= windowMillis) {
+                windowStartTime = now;
+                return true;
+            }
+            suppressed++;
+            return false;
+        }
+
+        /**
+         * @return the count suppressed since the last drain; or -1 if none and the window passed.
+         */
+        synchronized long drain(long now) {
+            long x = suppressed;
+            suppressed = 0;
+            if (x == 0 && now - windowStartTime >= windowMillis) {
+                return -1;
+            }
+            return x;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.sinri.keel.logger.issue.recorder.sampling;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+import io.github.sinri.keel.logger.KeelLogLevel;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keep a fixed ratio of the records, randomly.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class FixedRateIssueRecordSampler implements KeelIssueRecordSampler {
+    private final double rate;
+
+    /**
+     * @param rate the ratio in [0, 1] of records kept.
+     */
+    public FixedRateIssueRecordSampler(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("rate should be in [0, 1]");
+        }
+        this.rate = rate;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    @Nullable
+    @Override
+    public Boolean sample(@Nonnull String topic, @Nonnull KeelLogLevel level, @Nullable String message, boolean messageKnown) {
+        return rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    @Override
+    public String toString() {
+        return "fixed rate " + rate;
+    }
+}
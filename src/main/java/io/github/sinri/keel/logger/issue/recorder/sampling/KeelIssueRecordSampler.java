@@ -0,0 +1,56 @@
+package io.github.sinri.keel.logger.issue.recorder.sampling;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+import io.github.sinri.keel.logger.KeelLogLevel;
+import io.vertx.core.json.JsonObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Decide whether an issue record is kept or suppressed, used in the rules of {@link KeelIssueRecordSamplingPolicy}.
+ * It is asked before the record built, with the message only if the caller gave it directly;
+ * it might leave the decision to the built record, asked again then.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public interface KeelIssueRecordSampler {
+    /**
+     * @param rate the ratio in [0, 1] of records kept, randomly.
+     */
+    static KeelIssueRecordSampler fixedRate(double rate) {
+        return new FixedRateIssueRecordSampler(rate);
+    }
+
+    /**
+     * @param permitsPerSecond the records kept per second for each topic and level, in the long run.
+     * @param burst            the records kept at most in a burst for each topic and level.
+     */
+    static KeelIssueRecordSampler tokenBucket(double permitsPerSecond, int burst) {
+        return new TokenBucketIssueRecordSampler(permitsPerSecond, burst);
+    }
+
+    /**
+     * @param windowMillis the records of the same topic, level and message are kept once within this window.
+     */
+    static KeelIssueRecordSampler suppressDuplicates(long windowMillis) {
+        return new DuplicateSuppressingIssueRecordSampler(windowMillis);
+    }
+
+    /**
+     * @param topic        the topic of the recorder.
+     * @param level        the level of the record.
+     * @param message      the message of the record, or null if none or not known yet.
+     * @param messageKnown whether the message is known, i.e. given directly or the record built.
+     * @return TRUE to keep, FALSE to suppress; null to decide when the record built, only if the message not known.
+     */
+    @Nullable
+    Boolean sample(@Nonnull String topic, @Nonnull KeelLogLevel level, @Nullable String message, boolean messageKnown);
+
+    /**
+     * Write the details of the records suppressed since the last summary into the summary, if any, and reset them.
+     */
+    default void drainSummary(@Nonnull JsonObject summary) {
+    }
+}
@@ -0,0 +1,277 @@
+package io.github.sinri.keel.logger.issue.recorder.sampling;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+import io.github.sinri.keel.logger.KeelLogLevel;
+import io.github.sinri.keel.logger.issue.record.KeelIssueRecord;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
+/**
+ * The sampling of the issue records of recorders, set with
+ * {@link io.github.sinri.keel.logger.issue.recorder.KeelIssueRecorder#setSamplingPolicy(KeelIssueRecordSamplingPolicy)}.
+ * <p>
+ * The first rule matching the topic, level and classification of a record decides it with its sampler;
+ * the records matching no rule are kept.
+ * The rules are checked before the record built, with the message if given directly, such as
+ * {@code recorder.error("message")}; a rule on classification, or a sampler needing the message not given,
+ * is checked when the record built, before it handed to the adapters.
+ * <p>
+ * The counts of records suppressed are summarized once an interval, by a timer of the policy started on suppression,
+ * and recorded as a warning by the recorder taking the policy (or along with its next record, before Vert.x initialized).
+ * Call {@link #flushSummary()} to record the ones left when closing.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class KeelIssueRecordSamplingPolicy {
+    private final List<Rule> rules = new CopyOnWriteArrayList<>();
+    private final AtomicLong suppressedCount = new AtomicLong(0);
+    private final AtomicLong suppressedSinceSummary = new AtomicLong(0);
+    private final AtomicLong lastSummaryTime = new AtomicLong(System.currentTimeMillis());
+    private volatile long summaryInterval = 60_000L;
+    private volatile Handler<JsonObject> summaryHandler;
+    private volatile long summaryTimerID = -1L;
+
+    public KeelIssueRecordSamplingPolicy addRule(@Nonnull Rule rule) {
+        this.rules.add(rule);
+        return this;
+    }
+
+    @Nonnull
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @param summaryInterval the min interval in ms between the summaries; one minute by default.
+     */
+    public KeelIssueRecordSamplingPolicy setSummaryInterval(long summaryInterval) {
+        this.summaryInterval = Math.max(1, summaryInterval);
+        return this;
+    }
+
+    public long getSummaryInterval() {
+        return summaryInterval;
+    }
+
+    /**
+     * @param summaryHandler the handler to record the summaries; set by the first recorder taking this policy if not set.
+     */
+    public KeelIssueRecordSamplingPolicy setSummaryHandler(@Nullable Handler<JsonObject> summaryHandler) {
+        this.summaryHandler = summaryHandler;
+        return this;
+    }
+
+    @Nullable
+    public Handler<JsonObject> getSummaryHandler() {
+        return summaryHandler;
+    }
+
+    /**
+     * @return the count of records suppressed in total.
+     */
+    public long getSuppressedCount() {
+        return suppressedCount.get();
+    }
+
+    /**
+     * @param topic       the topic of the recorder.
+     * @param level       the level of the record.
+     * @param issueRecord the built record, or null before built.
+     * @param message     the message given directly before built, or null.
+     * @return TRUE to keep, FALSE to suppress; null to decide when built, only before built.
+     */
+    @Nullable
+    public Boolean sample(@Nonnull String topic, @Nonnull KeelLogLevel level, @Nullable KeelIssueRecord<?> issueRecord, @Nullable String message) {
+        boolean built = issueRecord != null;
+        if (built) {
+            message = issueRecord.message();
+        }
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            if (!rule.matchesTopicAndLevel(topic, level)) {
+                continue;
+            }
+            if (rule.classification != null) {
+                if (!built) {
+                    return null;
+                }
+                if (!issueRecord.classification().contains(rule.classification)) {
+                    continue;
+                }
+            }
+            Boolean sampled = rule.sampler.sample(topic, level, message, built || message != null);
+            if (sampled == null) {
+                return built ? Boolean.TRUE : null;
+            }
+            if (!sampled) {
+                rule.suppressedCount.incrementAndGet();
+                suppressedCount.incrementAndGet();
+                if (suppressedSinceSummary.getAndIncrement() == 0) {
+                    scheduleSummary();
+                }
+            }
+            return sampled;
+        }
+        return Boolean.TRUE;
+    }
+
+    /**
+     * @return the summary of the records suppressed since the last one, if any and the interval passed; otherwise null.
+     */
+    @Nullable
+    public JsonObject pollSummary() {
+        if (suppressedSinceSummary.get() == 0) {
+            return null;
+        }
+        long last = lastSummaryTime.get();
+        long now = System.currentTimeMillis();
+        if (now - last < summaryInterval || !lastSummaryTime.compareAndSet(last, now)) {
+            return null;
+        }
+        return drainSummary(last, now);
+    }
+
+    /**
+     * Start the timer to summarize the first suppression since the last summary, one at a time for this policy.
+     */
+    private synchronized void scheduleSummary() {
+        if (summaryTimerID >= 0 || summaryHandler == null || !Keel.isVertxInitialized()) {
+            return;
+        }
+        long delay = Math.max(1, lastSummaryTime.get() + summaryInterval - System.currentTimeMillis());
+        summaryTimerID = Keel.getVertx().setTimer(delay, timerID -> {
+            synchronized (this) {
+                summaryTimerID = -1L;
+            }
+            JsonObject summary = drainSummary();
+            Handler<JsonObject> handler = summaryHandler;
+            if (summary != null && handler != null) {
+                handler.handle(summary);
+            }
+        });
+    }
+
+    /**
+     * Cancel the summary timer and record the summary of the records suppressed and not summarized yet, if any;
+     * such as when the recorder or its adapter closing.
+     */
+    public void flushSummary() {
+        synchronized (this) {
+            if (summaryTimerID >= 0) {
+                Keel.getVertx().cancelTimer(summaryTimerID);
+                summaryTimerID = -1L;
+            }
+        }
+        JsonObject summary = drainSummary();
+        Handler<JsonObject> handler = summaryHandler;
+        if (summary != null && handler != null) {
+            handler.handle(summary);
+        }
+    }
+
+    /**
+     * @return the summary of the records suppressed since the last one, regardless of the interval; null if none.
+     */
+    @Nullable
+    public JsonObject drainSummary() {
+        long now = System.currentTimeMillis();
+        return drainSummary(lastSummaryTime.getAndSet(now), now);
+    }
+
+    @Nullable
+    private JsonObject drainSummary(long since, long until) {
+        long suppressed = suppressedSinceSummary.getAndSet(0);
+        if (suppressed == 0) {
+            return null;
+        }
+        JsonObject summary = new JsonObject()
+                .put("since", since)
+                .put("until", until)
+                .put("suppressed", suppressed);
+        JsonArray ruleSummaries = new JsonArray();
+        for (Rule rule : rules) {
+            long ruleSuppressed = rule.suppressedCount.getAndSet(0);
+            if (ruleSuppressed > 0) {
+                ruleSummaries.add(rule.toJsonObject().put("suppressed", ruleSuppressed));
+            }
+            rule.sampler.drainSummary(summary);
+        }
+        summary.put("rules", ruleSummaries);
+        return summary;
+    }
+
+    /**
+     * A sampler for the records of the topic, levels and classification, or any if not set.
+     */
+    public static class Rule {
+        private final KeelIssueRecordSampler sampler;
+        private final AtomicLong suppressedCount = new AtomicLong(0);
+        private String topic;
+        private boolean[] levels;
+        private String classification;
+
+        public Rule(@Nonnull KeelIssueRecordSampler sampler) {
+            this.sampler = sampler;
+        }
+
+        public Rule topic(@Nullable String topic) {
+            this.topic = topic;
+            return this;
+        }
+
+        public Rule levels(@Nonnull KeelLogLevel... levels) {
+            boolean[] array = new boolean[KeelLogLevel.values().length];
+            for (KeelLogLevel level : levels) {
+                array[level.ordinal()] = true;
+            }
+            this.levels = array;
+            return this;
+        }
+
+        /**
+         * @param classification the record matches when its classification contains it; checked when the record built.
+         */
+        public Rule classification(@Nullable String classification) {
+            this.classification = classification;
+            return this;
+        }
+
+        @Nonnull
+        public KeelIssueRecordSampler getSampler() {
+            return sampler;
+        }
+
+        private boolean matchesTopicAndLevel(@Nonnull String topic, @Nonnull KeelLogLevel level) {
+            return (this.topic == null || this.topic.equals(topic))
+                    && (this.levels == null || this.levels[level.ordinal()]);
+        }
+
+        @Nonnull
+        public JsonObject toJsonObject() {
+            JsonArray levelArray = null;
+            if (levels != null) {
+                levelArray = new JsonArray();
+                for (KeelLogLevel level : KeelLogLevel.values()) {
+                    if (levels[level.ordinal()]) {
+                        levelArray.add(level.name());
+                    }
+                }
+            }
+            return new JsonObject()
+                    .put("topic", topic)
+                    .put("levels", levelArray)
+                    .put("classification", classification)
+                    .put("sampler", sampler.toString());
+        }
+    }
+}
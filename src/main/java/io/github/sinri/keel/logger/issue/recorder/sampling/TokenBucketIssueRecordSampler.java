@@ -0,0 +1,81 @@
+package io.github.sinri.keel.logger.issue.recorder.sampling;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+import io.github.sinri.keel.logger.KeelLogLevel;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keep the records within a token bucket for each topic and level:
+ * the bucket holds at most the burst of tokens, refilled at the permits per second, and a kept record takes one.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class TokenBucketIssueRecordSampler implements KeelIssueRecordSampler {
+    private final double permitsPerMilli;
+    private final int burst;
+    /**
+     * The buckets of each topic, indexed by the ordinal of level.
+     */
+    private final Map<String, Bucket[]> bucketsMap = new ConcurrentHashMap<>();
+
+    public TokenBucketIssueRecordSampler(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond and burst should be positive");
+        }
+        this.permitsPerMilli = permitsPerSecond / 1000.0;
+        this.burst = burst;
+    }
+
+    @Nullable
+    @Override
+    public Boolean sample(@Nonnull String topic, @Nonnull KeelLogLevel level, @Nullable String message, boolean messageKnown) {
+        Bucket[] buckets = bucketsMap.get(topic);
+        if (buckets == null) {
+            buckets = bucketsMap.computeIfAbsent(topic, x -> new Bucket[KeelLogLevel.values().length]);
+        }
+        int index = level.ordinal();
+        Bucket bucket = buckets[index];
+        if (bucket == null) {
+            synchronized (buckets) {
+                bucket = buckets[index];
+                if (bucket == null) {
+                    bucket = new Bucket(burst, System.currentTimeMillis());
+                    buckets[index] = bucket;
+                }
+            }
+        }
+        return bucket.tryAcquire(System.currentTimeMillis());
+    }
+
+    @Override
+    public String toString() {
+        return "token bucket " + (permitsPerMilli * 1000) + "/s burst " + burst;
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long refilledTime;
+
+        Bucket(double tokens, long refilledTime) {
+            this.tokens = tokens;
+            this.refilledTime = refilledTime;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            if (now > refilledTime) {
+                tokens = Math.min(burst, tokens + (now - refilledTime) * permitsPerMilli);
+                refilledTime = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+    }
+}
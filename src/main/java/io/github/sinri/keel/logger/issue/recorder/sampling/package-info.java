@@ -0,0 +1 @@
+package io.github.sinri.keel.logger.issue.recorder.sampling;
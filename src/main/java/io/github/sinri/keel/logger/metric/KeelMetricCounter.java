@@ -0,0 +1,45 @@
+package io.github.sinri.keel.logger.metric;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A monotonic counter, flushed as its total since registered.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class KeelMetricCounter extends KeelMetricInstrument {
+    private final LongAdder adder = new LongAdder();
+
+    public KeelMetricCounter(@Nonnull String topic, @Nonnull String metricName, @Nonnull Map<String, String> labels) {
+        super(topic, metricName, labels);
+    }
+
+    public void increment() {
+        adder.increment();
+    }
+
+    /**
+     * @param delta not negative, as the counter is monotonic.
+     */
+    public void add(long delta) {
+        if (delta < 0) {
+            throw new IllegalArgumentException("delta of a counter should not be negative");
+        }
+        adder.add(delta);
+    }
+
+    public long get() {
+        return adder.sum();
+    }
+
+    @Override
+    protected void flush(long timestamp, @Nonnull Consumer<KeelMetricRecord> metricRecordConsumer) {
+        metricRecordConsumer.accept(buildMetricRecord(metricName(), get(), timestamp));
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.sinri.keel.logger.metric;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A gauge of the latest value set, flushed as it is at the time.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class KeelMetricGauge extends KeelMetricInstrument {
+    /**
+     * The bits of the double value.
+     */
+    private final AtomicLong bits = new AtomicLong(Double.doubleToRawLongBits(0));
+
+    public KeelMetricGauge(@Nonnull String topic, @Nonnull String metricName, @Nonnull Map<String, String> labels) {
+        super(topic, metricName, labels);
+    }
+
+    public void set(double value) {
+        bits.set(Double.doubleToRawLongBits(value));
+    }
+
+    public void add(double delta) {
+        while (true) {
+            long current = bits.get();
+            long next = Double.doubleToRawLongBits(Double.longBitsToDouble(current) + delta);
+            if (bits.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    public double get() {
+        return Double.longBitsToDouble(bits.get());
+    }
+
+    @Override
+    protected void flush(long timestamp, @Nonnull Consumer<KeelMetricRecord> metricRecordConsumer) {
+        metricRecordConsumer.accept(buildMetricRecord(metricName(), get(), timestamp));
+    }
+}
@@ -0,0 +1,238 @@
+package io.github.sinri.keel.logger.metric;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Consumer;
+
+/**
+ * A histogram in fixed memory, with log-linear buckets:
+ * each power of two from 2^-20 to 2^41 (about 1e-6 to 4e12) is split into 16 linear buckets,
+ * so a percentile is estimated within about 3% of the value;
+ * the values not positive fall in the bucket of zero, and the larger ones in the bucket of overflow.
+ * <p>
+ * Flushed once an interval as the count, sum, min, max and percentiles of the values recorded in the interval,
+ * named with the suffixes such as {@code _count} and {@code _p99}.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class KeelMetricHistogram extends KeelMetricInstrument {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = -20;
+    private static final int MAX_EXPONENT = 41;
+    /**
+     * The zero bucket, the log-linear buckets, and the overflow bucket.
+     */
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS + 2;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final DoubleAdder sum = new DoubleAdder();
+    private final AtomicLong intervalMinBits = new AtomicLong(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+    private final AtomicLong intervalMaxBits = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+
+    // the followings are used in flush, one at a time
+    private final long[] flushedBuckets = new long[BUCKET_COUNT];
+    private final long[] intervalBuckets = new long[BUCKET_COUNT];
+    private double flushedSum = 0;
+    private volatile double[] percentiles = {0.5, 0.9, 0.99};
+    private volatile String[] percentileNames = {"_p50", "_p90", "_p99"};
+
+    public KeelMetricHistogram(@Nonnull String topic, @Nonnull String metricName, @Nonnull Map<String, String> labels) {
+        super(topic, metricName, labels);
+    }
+
+    static int bucketIndex(double value) {
+        if (!(value > 0)) {
+            // zero, negative or NaN
+            return 0;
+        }
+        int exponent = Math.getExponent(value);
+        if (exponent < MIN_EXPONENT) {
+            return 0;
+        }
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) ((Double.doubleToRawLongBits(value) >>> (52 - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the upper bound of the values in the bucket; infinity for the overflow bucket.
+     */
+    static double bucketUpperBound(int index) {
+        if (index == 0) {
+            return 0;
+        }
+        if (index >= BUCKET_COUNT - 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int exponent = MIN_EXPONENT + (index - 1) / SUB_BUCKETS;
+        int subBucket = (index - 1) % SUB_BUCKETS;
+        return Math.scalb(1.0 + (subBucket + 1.0) / SUB_BUCKETS, exponent);
+    }
+
+    private static double bucketLowerBound(int index) {
+        if (index == 0) {
+            return 0;
+        }
+        if (index >= BUCKET_COUNT - 1) {
+            return Math.scalb(1.0, MAX_EXPONENT + 1);
+        }
+        int exponent = MIN_EXPONENT + (index - 1) / SUB_BUCKETS;
+        int subBucket = (index - 1) % SUB_BUCKETS;
+        return Math.scalb(1.0 + (double) subBucket / SUB_BUCKETS, exponent);
+    }
+
+    /**
+     * Record a value, without lock or allocation.
+     * A NaN is ignored, as it would turn the sum into NaN for good.
+     */
+    public void record(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        buckets.incrementAndGet(bucketIndex(value));
+        sum.add(value);
+        long bits = Double.doubleToRawLongBits(value);
+        while (true) {
+            long current = intervalMinBits.get();
+            if (!(value < Double.longBitsToDouble(current)) || intervalMinBits.compareAndSet(current, bits)) {
+                break;
+            }
+        }
+        while (true) {
+            long current = intervalMaxBits.get();
+            if (!(value > Double.longBitsToDouble(current)) || intervalMaxBits.compareAndSet(current, bits)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @param percentiles the percentiles in (0, 1] to flush, such as 0.5 and 0.999.
+     */
+    public KeelMetricHistogram setPercentiles(double... percentiles) {
+        String[] names = new String[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            if (!(percentiles[i] > 0 && percentiles[i] <= 1)) {
+                throw new IllegalArgumentException("percentile should be in (0, 1]");
+            }
+            String expression = String.valueOf(Math.round(percentiles[i] * 100_000) / 1000.0);
+            if (expression.endsWith(".0")) {
+                expression = expression.substring(0, expression.length() - 2);
+            }
+            names[i] = "_p" + expression;
+        }
+        this.percentiles = percentiles.clone();
+        this.percentileNames = names;
+        return this;
+    }
+
+    /**
+     * @return the count of values recorded since registered.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of values recorded since registered.
+     */
+    public double getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * @param percentile in (0, 1].
+     * @return the estimated percentile of the values recorded since registered; NaN if none.
+     */
+    public double getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            count += snapshot[i];
+        }
+        return estimatePercentile(snapshot, count, percentile);
+    }
+
+    /**
+     * Call the consumer with the upper bound and the count since registered of each bucket not empty, in order;
+     * the bucket of zero, holding the values not positive or below 2^-20, is bounded by 2^-20;
+     * the last one might be of infinity.
+     */
+    public void forEachBucket(@Nonnull BucketConsumer consumer) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = buckets.get(i);
+            if (count > 0) {
+                consumer.accept(i == 0 ? bucketLowerBound(1) : bucketUpperBound(i), count);
+            }
+        }
+    }
+
+    private static double estimatePercentile(@Nonnull long[] bucketCounts, long count, double percentile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                // the middle of the bucket
+                return (bucketLowerBound(i) + Math.min(bucketUpperBound(i), Double.MAX_VALUE)) / 2;
+            }
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    protected void flush(long timestamp, @Nonnull Consumer<KeelMetricRecord> metricRecordConsumer) {
+        // the values of the interval are the differences from the last flush, so no value recorded meanwhile is lost
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long current = buckets.get(i);
+            intervalBuckets[i] = current - flushedBuckets[i];
+            flushedBuckets[i] = current;
+            count += intervalBuckets[i];
+        }
+        double currentSum = sum.sum();
+        double intervalSum = currentSum - flushedSum;
+        flushedSum = currentSum;
+        double min = Double.longBitsToDouble(intervalMinBits.getAndSet(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY)));
+        double max = Double.longBitsToDouble(intervalMaxBits.getAndSet(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY)));
+
+        metricRecordConsumer.accept(buildMetricRecord(metricName() + "_count", count, timestamp));
+        if (count == 0) {
+            return;
+        }
+        metricRecordConsumer.accept(buildMetricRecord(metricName() + "_sum", intervalSum, timestamp));
+        metricRecordConsumer.accept(buildMetricRecord(metricName() + "_min", min, timestamp));
+        metricRecordConsumer.accept(buildMetricRecord(metricName() + "_max", max, timestamp));
+        double[] percentiles = this.percentiles;
+        String[] percentileNames = this.percentileNames;
+        for (int i = 0; i < percentiles.length; i++) {
+            double estimated = estimatePercentile(intervalBuckets, count, percentiles[i]);
+            if (min <= max) {
+                // within the real range of the interval
+                estimated = Math.max(min, Math.min(max, estimated));
+            }
+            metricRecordConsumer.accept(buildMetricRecord(metricName() + percentileNames[i], estimated, timestamp));
+        }
+    }
+
+    public interface BucketConsumer {
+        void accept(double upperBound, long count);
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.sinri.keel.logger.metric;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * An instrument aggregating the values of one metric with the certain labels in process,
+ * registered once in {@link KeelMetricRecorder} and kept by the caller to record on the hot path;
+ * the aggregates are flushed as metric records once an interval.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public abstract class KeelMetricInstrument {
+    private final @Nonnull String topic;
+    private final @Nonnull String metricName;
+    private final @Nonnull Map<String, String> labels;
+
+    protected KeelMetricInstrument(@Nonnull String topic, @Nonnull String metricName, @Nonnull Map<String, String> labels) {
+        this.topic = topic;
+        this.metricName = metricName;
+        this.labels = Collections.unmodifiableMap(new TreeMap<>(labels));
+    }
+
+    /**
+     * @return the key to intern the instrument by, with the labels sorted by name.
+     */
+    @Nonnull
+    static String buildKey(@Nonnull String topic, @Nonnull String metricName, @Nonnull Map<String, String> labels) {
+        StringBuilder key = new StringBuilder(topic).append('\u0000').append(metricName);
+        new TreeMap<>(labels).forEach((name, value) -> key.append('\u0000').append(name).append('=').append(value));
+        return key.toString();
+    }
+
+    @Nonnull
+    public String topic() {
+        return topic;
+    }
+
+    @Nonnull
+    public String metricName() {
+        return metricName;
+    }
+
+    /**
+     * @return the labels sorted by name, not modifiable.
+     */
+    @Nonnull
+    public Map<String, String> labels() {
+        return labels;
+    }
+
+    @Nonnull
+    protected KeelMetricRecord buildMetricRecord(@Nonnull String metricName, double value, long timestamp) {
+        KeelMetricRecord metricRecord = new KeelMetricRecord(topic, metricName, value);
+        metricRecord.timestamp(timestamp);
+        labels.forEach(metricRecord::label);
+        return metricRecord;
+    }
+
+    /**
+     * Output the aggregates of the past interval as metric records; called by the recorder, one flush at a time.
+     */
+    protected abstract void flush(long timestamp, @Nonnull Consumer<KeelMetricRecord> metricRecordConsumer);
+}
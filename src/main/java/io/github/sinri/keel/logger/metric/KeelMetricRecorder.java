@@ -4,17 +4,31 @@ import io.github.sinri.keel.core.TechnicalPreview;
 import io.github.sinri.keel.facade.async.KeelAsyncKit;
 import io.vertx.core.Future;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
 /**
  * @since 3.1.9 Technical Preview
+ * @since 3.3.0 Aggregating instruments: counters, gauges and histograms, registered once and flushed once an interval.
  */
 @TechnicalPreview(since = "3.1.9")
 abstract public class KeelMetricRecorder {
     private final AtomicBoolean endSwitch = new AtomicBoolean(false);
     private final Queue<KeelMetricRecord> metricRecordQueue = new ConcurrentLinkedQueue<>();
+    /**
+     * @since 3.3.0
+     */
+    private final Map<String, KeelMetricInstrument> instrumentMap = new ConcurrentHashMap<>();
+    /**
+     * @since 3.3.0
+     */
+    private volatile long flushTimerId = -1;
 
     public void recordMetric(KeelMetricRecord metricRecord) {
         this.metricRecordQueue.add(metricRecord);
@@ -24,7 +38,18 @@ abstract public class KeelMetricRecorder {
         return 1000;
     }
 
+    /**
+     * @return the interval in ms to flush the aggregates of the instruments.
+     * @since 3.3.0
+     */
+    protected long aggregationInterval() {
+        return 60_000L;
+    }
+
     public void start() {
+        // since 3.3.0
+        this.flushTimerId = Keel.getVertx().setPeriodic(aggregationInterval(), timerId -> flushInstruments());
+
         KeelAsyncKit.repeatedlyCall(routineResult -> {
             return Future.succeededFuture()
                     .compose(v -> {
@@ -55,6 +80,13 @@ abstract public class KeelMetricRecorder {
     }
 
     public void end() {
+        // since 3.3.0, the last aggregates
+        if (this.flushTimerId >= 0) {
+            Keel.getVertx().cancelTimer(this.flushTimerId);
+            this.flushTimerId = -1;
+        }
+        flushInstruments();
+
         endSwitch.set(true);
     }
 
@@ -68,4 +100,74 @@ abstract public class KeelMetricRecorder {
     }
 
     abstract protected Future<Void> handleForTopic(String topic, List<KeelMetricRecord> buffer);
+
+    /**
+     * Get the counter of the metric with the labels, registered at the first time;
+     * keep it to count on the hot path.
+     *
+     * @since 3.3.0
+     */
+    @Nonnull
+    public KeelMetricCounter counter(@Nonnull String topic, @Nonnull String metricName, @Nullable Map<String, String> labels) {
+        return registerInstrument(KeelMetricCounter.class, topic, metricName, labels, KeelMetricCounter::new);
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    @Nonnull
+    public KeelMetricGauge gauge(@Nonnull String topic, @Nonnull String metricName, @Nullable Map<String, String> labels) {
+        return registerInstrument(KeelMetricGauge.class, topic, metricName, labels, KeelMetricGauge::new);
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    @Nonnull
+    public KeelMetricHistogram histogram(@Nonnull String topic, @Nonnull String metricName, @Nullable Map<String, String> labels) {
+        return registerInstrument(KeelMetricHistogram.class, topic, metricName, labels, KeelMetricHistogram::new);
+    }
+
+    private <I extends KeelMetricInstrument> I registerInstrument(
+            @Nonnull Class<I> instrumentClass,
+            @Nonnull String topic,
+            @Nonnull String metricName,
+            @Nullable Map<String, String> labels,
+            @Nonnull InstrumentBuilder<I> builder
+    ) {
+        Map<String, String> labelMap = labels == null ? Map.of() : labels;
+        String key = KeelMetricInstrument.buildKey(topic, metricName, labelMap);
+        KeelMetricInstrument instrument = instrumentMap.computeIfAbsent(key, k -> builder.build(topic, metricName, labelMap));
+        if (!instrumentClass.isInstance(instrument)) {
+            throw new IllegalStateException("Metric " + metricName + " of topic " + topic
+                    + " with the labels is registered as " + instrument.getClass().getSimpleName());
+        }
+        return instrumentClass.cast(instrument);
+    }
+
+    /**
+     * @return the instruments registered.
+     * @since 3.3.0
+     */
+    @Nonnull
+    public Collection<KeelMetricInstrument> getInstruments() {
+        return Collections.unmodifiableCollection(instrumentMap.values());
+    }
+
+    /**
+     * Flush the aggregates of all the instruments into the queue of metric records.
+     *
+     * @since 3.3.0
+     */
+    protected synchronized void flushInstruments() {
+        long timestamp = System.currentTimeMillis();
+        instrumentMap.values().forEach(instrument -> instrument.flush(timestamp, this::recordMetric));
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    private interface InstrumentBuilder<I extends KeelMetricInstrument> {
+        I build(@Nonnull String topic, @Nonnull String metricName, @Nonnull Map<String, String> labels);
+    }
 }
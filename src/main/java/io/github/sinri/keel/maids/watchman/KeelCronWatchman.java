@@ -172,7 +172,7 @@ public class KeelCronWatchman extends KeelWatchmanImpl {
                 .compose(entries -> {
                     entries.forEach((k, v) -> {
                         String cronExpression = String.valueOf(k);
-                        if (new KeelCronExpression(cronExpression).match(calendar)) {
+                        if (KeelCronExpression.parse(cronExpression).match(calendar)) {
                             JsonArray eventHandlerClassNameArray = new JsonArray(String.valueOf(v));
                             eventHandlerClassNameArray.forEach(eventHandlerClassName -> {
                                 try {
@@ -0,0 +1,93 @@
+package io.github.sinri.keel.mysql;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * A component of SQL which could be written either as a literal (quoted by {@link Quoter} if needed),
+ * or as a {@code ?} placeholder with the value bound as a parameter of the prepared statement.
+ * An expression is never bound.
+ *
+ * @since 3.3.0
+ */
+public final class BindableValue {
+    private static final BindableValue NULL = new BindableValue(null, "NULL", true);
+
+    private final @Nullable Object value;
+    private final @Nonnull String literal;
+    private final boolean bindable;
+
+    private BindableValue(@Nullable Object value, @Nonnull String literal, boolean bindable) {
+        this.value = value;
+        this.literal = literal;
+        this.bindable = bindable;
+    }
+
+    /**
+     * @param expression Not be quoted or bound, may be fields, functions, etc.
+     */
+    public static BindableValue ofExpression(@Nonnull String expression) {
+        return new BindableValue(null, expression, false);
+    }
+
+    /**
+     * @param string Be quoted as literal, or bound as string.
+     */
+    public static BindableValue ofString(@Nullable String string) {
+        if (string == null) {
+            return NULL;
+        }
+        return new BindableValue(string, new Quoter(string).toString(), true);
+    }
+
+    /**
+     * @param number Written as literal by {@link String#valueOf(Object)} as before, or bound as number.
+     */
+    public static BindableValue ofNumber(@Nullable Number number) {
+        if (number == null) {
+            return NULL;
+        }
+        return new BindableValue(number, String.valueOf(number), true);
+    }
+
+    public static BindableValue ofNull() {
+        return NULL;
+    }
+
+    /**
+     * Escape the LIKE wildcards and the escape character itself, to build a LIKE pattern for {@link #ofString(String)}.
+     */
+    public static @Nonnull String escapeLikePattern(@Nonnull String s) {
+        return s.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    public boolean isBindable() {
+        return bindable;
+    }
+
+    @Nullable
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * @param parameters the list to collect bound values in order; null for the literal mode.
+     * @return the literal, or {@code ?} after the value appended to parameters.
+     */
+    @Nonnull
+    public String render(@Nullable List<Object> parameters) {
+        if (parameters == null || !bindable) {
+            return literal;
+        }
+        parameters.add(value);
+        return "?";
+    }
+
+    @Override
+    public String toString() {
+        return literal;
+    }
+}
@@ -9,6 +9,7 @@ import io.vertx.mysqlclient.MySQLConnectOptions;
 import io.vertx.sqlclient.PoolOptions;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -60,6 +61,16 @@ public class KeelMySQLConfiguration extends KeelConfigElement {
             mySQLConnectOptions.setConnectTimeout(connectionTimeout);
         }
 
+        // since 3.3.0
+        Boolean cachePreparedStatements = getCachePreparedStatements();
+        if (cachePreparedStatements != null) {
+            mySQLConnectOptions.setCachePreparedStatements(cachePreparedStatements);
+        }
+        Integer preparedStatementCacheMaxSize = getPreparedStatementCacheMaxSize();
+        if (preparedStatementCacheMaxSize != null) {
+            mySQLConnectOptions.setPreparedStatementCacheMaxSize(preparedStatementCacheMaxSize);
+        }
+
         return mySQLConnectOptions;
     }
 
@@ -143,6 +154,28 @@ public class KeelMySQLConfiguration extends KeelConfigElement {
         return x.getValueAsInteger();
     }
 
+    /**
+     * Whether the prepared statements are cached on each connection;
+     * it works well with the parameterized statements, which share one prepared statement for the same shape.
+     *
+     * @see io.github.sinri.keel.mysql.statement.AbstractStatement#setParameterized(boolean)
+     * @since 3.3.0
+     */
+    @Nullable
+    public Boolean getCachePreparedStatements() {
+        return readBoolean(List.of("cachePreparedStatements"));
+    }
+
+    /**
+     * The max size of the prepared statement cache of each connection.
+     *
+     * @since 3.3.0
+     */
+    @Nullable
+    public Integer getPreparedStatementCacheMaxSize() {
+        return readInteger(List.of("preparedStatementCacheMaxSize"));
+    }
+
     /**
      * Set the amount of time a client will wait for a connection from the pool.
      * If the time is exceeded without a connection available, an exception is provided.
@@ -3,19 +3,24 @@ package io.github.sinri.keel.mysql;
 import io.github.sinri.keel.mysql.exception.KeelMySQLConnectionException;
 import io.github.sinri.keel.mysql.exception.KeelMySQLException;
 import io.github.sinri.keel.mysql.matrix.ResultMatrix;
+import io.github.sinri.keel.mysql.matrix.ResultRow;
+import io.github.sinri.keel.mysql.statement.AbstractReadStatement;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.json.JsonObject;
 import io.vertx.mysqlclient.MySQLBuilder;
 import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PoolOptions;
 import io.vertx.sqlclient.SqlConnection;
 import io.vertx.sqlclient.TransactionRollbackException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 import static io.github.sinri.keel.facade.KeelInstance.Keel;
@@ -35,6 +40,18 @@ public class NamedMySQLDataSource<C extends NamedMySQLConnection> {
      * @since 3.0.2
      */
     private final AtomicInteger connectionAvailableCounter = new AtomicInteger(0);
+    /**
+     * @since 3.3.0
+     */
+    private final AtomicInteger connectionPendingCounter = new AtomicInteger(0);
+    /**
+     * @since 3.3.0
+     */
+    private final LongAdder connectionFailureCounter = new LongAdder();
+    /**
+     * @since 3.3.0
+     */
+    private final int maxPoolSize;
 
     private final Function<SqlConnection, C> sqlConnectionWrapper;
 
@@ -57,8 +74,10 @@ public class NamedMySQLDataSource<C extends NamedMySQLConnection> {
     ) {
         this.configuration = configuration;
         this.sqlConnectionWrapper = sqlConnectionWrapper;
+        PoolOptions poolOptions = configuration.getPoolOptions();
+        this.maxPoolSize = poolOptions.getMaxSize();
         pool = MySQLBuilder.pool()
-                .with(configuration.getPoolOptions())
+                .with(poolOptions)
                 .connectingTo(configuration.getConnectOptions())
                 .using(Keel.getVertx())
                 .withConnectHandler(sqlConnection -> {
@@ -103,6 +122,37 @@ public class NamedMySQLDataSource<C extends NamedMySQLConnection> {
         return connectionAvailableCounter.get();
     }
 
+    /**
+     * @return the number of connections the pool holds right now, in use or idle.
+     * @since 3.3.0
+     */
+    public int getPoolSize() {
+        return pool.size();
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * @return the number of requests waiting for a connection from the pool right now.
+     * @since 3.3.0
+     */
+    public int getPendingConnectionCount() {
+        return connectionPendingCounter.get();
+    }
+
+    /**
+     * @return the number of failures to get a connection from the pool since created.
+     * @since 3.3.0
+     */
+    public long getConnectionFailureCount() {
+        return connectionFailureCounter.sum();
+    }
+
     /**
      * @since 3.1.0
      */
@@ -181,6 +231,21 @@ public class NamedMySQLDataSource<C extends NamedMySQLConnection> {
         });
     }
 
+    /**
+     * Read the rows of the statement in batches through a cursor, on a connection of this data source.
+     *
+     * @see AbstractReadStatement#queryForRowStream(NamedMySQLConnection, Class, int, Function)
+     * @since 3.3.0
+     */
+    public <T extends ResultRow> Future<Long> withRowStream(
+            @Nonnull AbstractReadStatement readStatement,
+            @Nonnull Class<T> classT,
+            int fetchSize,
+            @Nonnull Function<List<T>, Future<Void>> batchConsumer
+    ) {
+        return withConnection(c -> readStatement.queryForRowStream(c, classT, fetchSize, batchConsumer));
+    }
+
     /**
      * @since 3.0.5
      */
@@ -196,8 +261,10 @@ public class NamedMySQLDataSource<C extends NamedMySQLConnection> {
     }
 
     protected Future<C> fetchMySQLConnection() {
+        connectionPendingCounter.incrementAndGet();
         return pool.getConnection()
                 .compose(sqlConnection -> {
+                    connectionPendingCounter.decrementAndGet();
                     connectionAvailableCounter.decrementAndGet();
                     C c = this.sqlConnectionWrapper.apply(sqlConnection);
 
@@ -206,6 +273,8 @@ public class NamedMySQLDataSource<C extends NamedMySQLConnection> {
 
                     return Future.succeededFuture(c);
                 }, throwable -> {
+                    connectionPendingCounter.decrementAndGet();
+                    connectionFailureCounter.increment();
                     return Future.failedFuture(new KeelMySQLConnectionException(
                             "MySQLDataSource Failed to get SqlConnection From Pool " +
                                     "`" + this.getConfiguration().getDataSourceName() + "` " +
@@ -1,5 +1,6 @@
 package io.github.sinri.keel.mysql.condition;
 
+import io.github.sinri.keel.mysql.BindableValue;
 import io.github.sinri.keel.mysql.Quoter;
 import io.github.sinri.keel.mysql.exception.KeelSQLGenerateError;
 import io.github.sinri.keel.mysql.statement.AbstractReadStatement;
@@ -17,12 +18,33 @@ import static io.github.sinri.keel.helper.KeelHelpersInterface.KeelHelpers;
 public class AmongstCondition implements MySQLCondition {
     public static final String OP_IN = "IN";
     protected final List<String> targetSet;
+    /**
+     * The bindable values of the target set, in the same order; null for the expressions.
+     *
+     * @since 3.3.0
+     */
+    protected final List<BindableValue> targetValues;
     protected String element;
+    /**
+     * The bindable value of element, or null when element is an expression.
+     *
+     * @since 3.3.0
+     */
+    protected BindableValue elementValue;
     protected boolean inverseOperator;
 
     public AmongstCondition() {
         this.inverseOperator = false;
         this.targetSet = new ArrayList<>();
+        this.targetValues = new ArrayList<>();
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    private void addTarget(@Nonnull String literal, @Nullable BindableValue value) {
+        this.targetSet.add(literal);
+        this.targetValues.add(value);
     }
 
     public AmongstCondition not() {
@@ -63,16 +85,19 @@ public class AmongstCondition implements MySQLCondition {
 
     public AmongstCondition elementAsExpression(@Nonnull String element) {
         this.element = element;
+        this.elementValue = null;
         return this;
     }
 
     public AmongstCondition elementAsValue(@Nullable String element) {
         this.element = new Quoter(element).toString();
+        this.elementValue = BindableValue.ofString(element);
         return this;
     }
 
     public AmongstCondition elementAsValue(@Nullable Number element) {
         this.element = new Quoter(element).toString();
+        this.elementValue = BindableValue.ofNumber(element);
         return this;
     }
 
@@ -108,7 +133,7 @@ public class AmongstCondition implements MySQLCondition {
     @Deprecated(since = "3.1.8", forRemoval = true)
     public AmongstCondition amongstValueList(@Nonnull Collection<?> targetSet) {
         for (Object next : targetSet) {
-            this.targetSet.add(new Quoter(String.valueOf(next)).toString());
+            this.addTarget(new Quoter(String.valueOf(next)).toString(), BindableValue.ofString(String.valueOf(next)));
         }
         return this;
     }
@@ -141,7 +166,7 @@ public class AmongstCondition implements MySQLCondition {
     @Deprecated(since = "3.1.8", forRemoval = true)
     public AmongstCondition amongstValueArray(@Nonnull Object[] targetSet) {
         for (Object next : targetSet) {
-            this.targetSet.add(new Quoter(String.valueOf(next)).toString());
+            this.addTarget(new Quoter(String.valueOf(next)).toString(), BindableValue.ofString(String.valueOf(next)));
         }
         return this;
     }
@@ -151,7 +176,7 @@ public class AmongstCondition implements MySQLCondition {
      */
     @Deprecated(since = "3.1.8")
     public AmongstCondition amongstValue(@Nullable String value) {
-        this.targetSet.add(new Quoter(value).toString());
+        this.addTarget(new Quoter(value).toString(), BindableValue.ofString(value));
         return this;
     }
 
@@ -160,9 +185,9 @@ public class AmongstCondition implements MySQLCondition {
      */
     protected AmongstCondition amongstLiteralValue(@Nullable Object value) {
         if (value == null) {
-            this.targetSet.add("NULL");
+            this.addTarget("NULL", BindableValue.ofNull());
         } else {
-            this.targetSet.add(new Quoter(String.valueOf(value)).toString());
+            this.addTarget(new Quoter(String.valueOf(value)).toString(), BindableValue.ofString(String.valueOf(value)));
         }
         return this;
     }
@@ -172,7 +197,7 @@ public class AmongstCondition implements MySQLCondition {
      */
     @Deprecated(since = "3.1.8", forRemoval = true)
     public AmongstCondition amongstValue(@Nullable Number value) {
-        this.targetSet.add(new Quoter(value).toString());
+        this.addTarget(new Quoter(value).toString(), BindableValue.ofNumber(value));
         return this;
     }
 
@@ -181,12 +206,12 @@ public class AmongstCondition implements MySQLCondition {
      */
     protected AmongstCondition amongstNumericValue(@Nullable Number value) {
         if (value == null) {
-            this.targetSet.add("NULL");
+            this.addTarget("NULL", BindableValue.ofNull());
         } else {
             if (value instanceof BigDecimal) {
-                this.targetSet.add(((BigDecimal) value).toPlainString());
+                this.addTarget(((BigDecimal) value).toPlainString(), BindableValue.ofNumber(value));
             } else {
-                this.targetSet.add(value.toString());
+                this.addTarget(value.toString(), BindableValue.ofNumber(value));
             }
         }
         return this;
@@ -196,7 +221,7 @@ public class AmongstCondition implements MySQLCondition {
      * @since 3.1.8 protected
      */
     protected AmongstCondition amongstExpression(@Nonnull String value) {
-        this.targetSet.add(Objects.requireNonNull(value));
+        this.addTarget(Objects.requireNonNull(value), null);
         return this;
     }
 
@@ -234,4 +259,33 @@ public class AmongstCondition implements MySQLCondition {
         s += " " + OP_IN + " (" + KeelHelpers.stringHelper().joinStringArray(targetSet, ",") + ")";
         return s;
     }
+
+    /**
+     * 生成SQL的比较条件表达式文本，值以占位符代替。如果出错，则抛出 KeelSQLGenerateError 异常。
+     *
+     * @throws KeelSQLGenerateError sql generate error
+     * @since 3.3.0
+     */
+    @Override
+    public String toParameterizedString(@Nonnull List<Object> parameters) {
+        if (targetSet.isEmpty()) {
+            throw new KeelSQLGenerateError("AmongstCondition Target Set Empty");
+        }
+        if (targetSet.size() != targetValues.size()) {
+            // target set modified directly, values not tracked
+            return toString();
+        }
+
+        String s = elementValue == null ? element : elementValue.render(parameters);
+        if (inverseOperator) {
+            s += " NOT";
+        }
+        List<String> targets = new ArrayList<>(targetSet.size());
+        for (int i = 0; i < targetSet.size(); i++) {
+            BindableValue value = targetValues.get(i);
+            targets.add(value == null ? targetSet.get(i) : value.render(parameters));
+        }
+        s += " " + OP_IN + " (" + KeelHelpers.stringHelper().joinStringArray(targets, ",") + ")";
+        return s;
+    }
 }
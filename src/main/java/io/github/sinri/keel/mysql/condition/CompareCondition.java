@@ -1,10 +1,12 @@
 package io.github.sinri.keel.mysql.condition;
 
+import io.github.sinri.keel.mysql.BindableValue;
 import io.github.sinri.keel.mysql.Quoter;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
+import java.util.List;
 
 public class CompareCondition implements MySQLCondition {
     public static final String OP_EQ = "=";
@@ -20,6 +22,18 @@ public class CompareCondition implements MySQLCondition {
     protected String operator;
     protected String rightSide;
     protected boolean inverseOperator;
+    /**
+     * The bindable value of left side, or null when left side is an expression.
+     *
+     * @since 3.3.0
+     */
+    protected @Nullable BindableValue leftSideValue;
+    /**
+     * The bindable value of right side, or null when right side is an expression.
+     *
+     * @since 3.3.0
+     */
+    protected @Nullable BindableValue rightSideValue;
 
     public CompareCondition() {
         this.leftSide = null;
@@ -123,11 +137,13 @@ public class CompareCondition implements MySQLCondition {
 
     public CompareCondition compareExpression(@Nonnull Object leftSide) {
         this.leftSide = leftSide.toString();
+        this.leftSideValue = null;
         return this;
     }
 
     public CompareCondition compareValue(@Nullable Object leftSide) {
         this.leftSide = String.valueOf(new Quoter(String.valueOf(leftSide)));
+        this.leftSideValue = BindableValue.ofString(String.valueOf(leftSide));
         return this;
     }
 
@@ -165,6 +181,7 @@ public class CompareCondition implements MySQLCondition {
 
     public CompareCondition againstExpression(@Nonnull String rightSide) {
         this.rightSide = rightSide;
+        this.rightSideValue = null;
         return this;
     }
 
@@ -183,6 +200,7 @@ public class CompareCondition implements MySQLCondition {
      */
     public CompareCondition againstLiteralValue(@Nullable Object rightSide) {
         this.rightSide = String.valueOf(new Quoter(String.valueOf(rightSide)));
+        this.rightSideValue = BindableValue.ofString(String.valueOf(rightSide));
         return this;
     }
 
@@ -195,30 +213,35 @@ public class CompareCondition implements MySQLCondition {
         } else {
             this.rightSide = rightSide.toString();
         }
+        this.rightSideValue = BindableValue.ofNumber(rightSide);
         return this;
     }
 
     public CompareCondition isNull() {
         this.operator = OP_IS;
         this.rightSide = "NULL";
+        this.rightSideValue = null;
         return this;
     }
 
     public CompareCondition isTrue() {
         this.operator = OP_IS;
         this.rightSide = "TRUE";
+        this.rightSideValue = null;
         return this;
     }
 
     public CompareCondition isFalse() {
         this.operator = OP_IS;
         this.rightSide = "FALSE";
+        this.rightSideValue = null;
         return this;
     }
 
     public CompareCondition isUnknown() {
         this.operator = OP_IS;
         this.rightSide = "UNKNOWN";
+        this.rightSideValue = null;
         return this;
     }
 
@@ -226,6 +249,7 @@ public class CompareCondition implements MySQLCondition {
         this.operator = OP_LIKE;
         String x = Quoter.escapeStringWithWildcards(rightSide);
         this.rightSide = "'%" + x + "%'";
+        this.rightSideValue = BindableValue.ofString("%" + BindableValue.escapeLikePattern(rightSide) + "%");
         return this;
     }
 
@@ -233,6 +257,7 @@ public class CompareCondition implements MySQLCondition {
         this.operator = "like";
         String x = Quoter.escapeStringWithWildcards(rightSide);
         this.rightSide = "'" + x + "%'";
+        this.rightSideValue = BindableValue.ofString(BindableValue.escapeLikePattern(rightSide) + "%");
         return this;
     }
 
@@ -240,6 +265,7 @@ public class CompareCondition implements MySQLCondition {
         this.operator = "like";
         String x = Quoter.escapeStringWithWildcards(rightSide);
         this.rightSide = "'%" + x + "'";
+        this.rightSideValue = BindableValue.ofString("%" + BindableValue.escapeLikePattern(rightSide));
         return this;
     }
 
@@ -294,4 +320,20 @@ public class CompareCondition implements MySQLCondition {
         }
         return x;
     }
+
+    /**
+     * 生成SQL的条件表达式文本，值以占位符代替
+     *
+     * @since 3.3.0
+     */
+    @Override
+    public String toParameterizedString(@Nonnull List<Object> parameters) {
+        String l = leftSideValue == null ? leftSide : leftSideValue.render(parameters);
+        String r = rightSideValue == null ? rightSide : rightSideValue.render(parameters);
+        String x = l + " " + operator + " " + r;
+        if (inverseOperator) {
+            x = "NOT (" + x + ")";
+        }
+        return x;
+    }
 }
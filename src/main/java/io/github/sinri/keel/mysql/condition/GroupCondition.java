@@ -51,4 +51,24 @@ public class GroupCondition implements MySQLCondition {
         }
         return "(" + x + ")";
     }
+
+    /**
+     * 生成SQL的组合逻辑条件表达式文本，值以占位符代替。
+     *
+     * @since 3.3.0
+     */
+    @Override
+    public String toParameterizedString(@Nonnull List<Object> parameters) {
+        if (conditions.isEmpty()) {
+            return "";
+        }
+        StringBuilder x = new StringBuilder();
+        for (MySQLCondition condition : conditions) {
+            if (x.length() > 0) {
+                x.append(" ").append(junction).append(" ");
+            }
+            x.append(condition.toParameterizedString(parameters));
+        }
+        return "(" + x + ")";
+    }
 }
@@ -2,6 +2,9 @@ package io.github.sinri.keel.mysql.condition;
 
 import io.github.sinri.keel.mysql.exception.KeelSQLGenerateError;
 
+import javax.annotation.Nonnull;
+import java.util.List;
+
 /**
  * @since 2.8 became interface
  */
@@ -13,4 +16,17 @@ public interface MySQLCondition {
      * @throws KeelSQLGenerateError when the sql component could not be generated correctly
      */
     String toString();
-}
\ No newline at end of file
+
+    /**
+     * 生成SQL的条件表达式文本，其中可绑定的值以 {@code ?} 占位，并按顺序追加到 parameters 中。
+     * 默认不绑定任何值，与 {@link #toString()} 相同。
+     *
+     * @param parameters the list to collect bound values in order
+     * @return The generated SQL component with placeholders as String
+     * @throws KeelSQLGenerateError when the sql component could not be generated correctly
+     * @since 3.3.0
+     */
+    default String toParameterizedString(@Nonnull List<Object> parameters) {
+        return toString();
+    }
+}
@@ -1,13 +1,21 @@
 package io.github.sinri.keel.mysql.statement;
 
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
 import io.github.sinri.keel.mysql.NamedMySQLConnection;
+import io.github.sinri.keel.mysql.matrix.ResultMatrix;
 import io.github.sinri.keel.mysql.matrix.ResultRow;
 import io.vertx.core.Future;
+import io.vertx.sqlclient.Cursor;
+import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Transaction;
+import io.vertx.sqlclient.Tuple;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 
@@ -101,6 +109,103 @@ public abstract class AbstractReadStatement extends AbstractStatement {
         return ResultRow.fetchResultRowsToCategorizedMap(sqlConnection, this, classT, categoryGenerator);
     }
 
+    /**
+     * @since 3.3.0
+     */
+    public <T extends ResultRow> Future<Long> queryForRowStream(
+            @Nonnull NamedMySQLConnection namedMySQLConnection,
+            @Nonnull Class<T> classT,
+            int fetchSize,
+            @Nonnull Function<List<T>, Future<Void>> batchConsumer
+    ) {
+        return queryForRowStream(namedMySQLConnection.getSqlConnection(), classT, fetchSize, batchConsumer);
+    }
+
+    /**
+     * 以游标分批读取结果，每批最多 fetchSize 行，内存占用只与 fetchSize 相关而与结果总行数无关。
+     * 上一批的 batchConsumer 返回的 Future 完成后才会读取下一批（即背压）；任何一批处理失败则停止读取。
+     * <p>
+     * MySQL 的游标需在事务中使用：若连接尚未开启事务，则在此开启，读取结束后提交（失败时回滚）；
+     * 若已在事务中（如通过 {@code withTransaction}），则沿用之。
+     * 通常在 {@code NamedMySQLDataSource.withConnection} 中调用。
+     *
+     * @param sqlConnection SqlConnection
+     * @param classT        class of type of result object
+     * @param fetchSize     max rows to fetch in one batch
+     * @param batchConsumer handle one batch of rows, never called with an empty list
+     * @param <T>           type of result object
+     * @return 异步返回读取的总行数
+     * @since 3.3.0
+     */
+    public <T extends ResultRow> Future<Long> queryForRowStream(
+            @Nonnull SqlConnection sqlConnection,
+            @Nonnull Class<T> classT,
+            int fetchSize,
+            @Nonnull Function<List<T>, Future<Void>> batchConsumer
+    ) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetch size <= 0");
+        }
+        List<Object> parameters = new ArrayList<>();
+        String sql = this.isParameterized() ? this.toParameterizedString(parameters) : this.toString();
+        if (parameters.isEmpty()) {
+            getSqlAuditIssueRecorder().info(r -> r.setPreparation(statement_uuid, sql));
+        } else {
+            getSqlAuditIssueRecorder().info(r -> r.setPreparation(statement_uuid, sql, parameters));
+        }
+        AtomicLong totalRows = new AtomicLong(0);
+        Future<Transaction> transactionFuture;
+        if (sqlConnection.transaction() == null) {
+            transactionFuture = sqlConnection.begin();
+        } else {
+            transactionFuture = Future.succeededFuture(null);
+        }
+        return transactionFuture
+                .compose(transaction -> sqlConnection.prepare(sql)
+                        .compose(preparedStatement -> {
+                            Cursor cursor = parameters.isEmpty()
+                                    ? preparedStatement.cursor()
+                                    : preparedStatement.cursor(Tuple.from(parameters));
+                            return KeelAsyncKit.repeatedlyCall(routineResult -> cursor.read(fetchSize)
+                                            .compose(rows -> {
+                                                if (!cursor.hasMore()) {
+                                                    routineResult.stop();
+                                                }
+                                                if (rows.size() == 0) {
+                                                    return Future.succeededFuture();
+                                                }
+                                                List<T> batch = new ArrayList<>(rows.size());
+                                                try {
+                                                    for (Row row : rows) {
+                                                        batch.add(ResultMatrix.buildTableRow(row.toJson(), classT));
+                                                    }
+                                                } catch (Throwable e) {
+                                                    return Future.failedFuture(e);
+                                                }
+                                                totalRows.addAndGet(batch.size());
+                                                return batchConsumer.apply(batch);
+                                            }))
+                                    .eventually(() -> cursor.close())
+                                    .eventually(() -> preparedStatement.close());
+                        })
+                        .compose(v -> {
+                            if (transaction == null) return Future.succeededFuture();
+                            return transaction.commit();
+                        }, throwable -> {
+                            if (transaction == null) return Future.failedFuture(throwable);
+                            // whatever the rollback results in, fail with the original cause
+                            return transaction.rollback()
+                                    .transform(ar -> Future.failedFuture(throwable));
+                        }))
+                .compose(v -> {
+                    getSqlAuditIssueRecorder().info(r -> r.setForDone(statement_uuid, sql, 0, (int) Math.min(Integer.MAX_VALUE, totalRows.get())));
+                    return Future.succeededFuture(totalRows.get());
+                }, throwable -> {
+                    getSqlAuditIssueRecorder().exception(throwable, r -> r.setForFailed(statement_uuid, sql));
+                    return Future.failedFuture(throwable);
+                });
+    }
+
     /**
      * @since 2.9.4
      */
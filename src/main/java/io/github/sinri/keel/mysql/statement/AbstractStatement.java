@@ -5,10 +5,15 @@ import io.github.sinri.keel.logger.issue.record.BaseIssueRecord;
 import io.github.sinri.keel.logger.issue.recorder.KeelIssueRecorder;
 import io.github.sinri.keel.mysql.matrix.ResultMatrix;
 import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Tuple;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -22,8 +27,16 @@ abstract public class AbstractStatement implements AnyStatement {
     protected static @Nonnull KeelIssueRecorder<MySQLAuditIssueRecord> sqlAuditIssueRecorder = KeelIssueRecordCenterAsSilent.getInstance()
             .generateIssueRecorder(MySQLAuditIssueRecord.AttributeMysqlAudit, MySQLAuditIssueRecord::new);
     protected static @Nonnull String SQL_COMPONENT_SEPARATOR = " ";//"\n";
+    /**
+     * @since 3.3.0
+     */
+    private static boolean parameterizedByDefault = false;
     protected final @Nonnull String statement_uuid;
     private @Nonnull String remarkAsComment = "";
+    /**
+     * @since 3.3.0
+     */
+    private @Nullable Boolean parameterized = null;
 
     public AbstractStatement() {
         this.statement_uuid = UUID.randomUUID().toString();
@@ -42,6 +55,49 @@ abstract public class AbstractStatement implements AnyStatement {
         SQL_COMPONENT_SEPARATOR = sqlComponentSeparator;
     }
 
+    /**
+     * Set whether the statements are executed with bound parameters by default,
+     * for those not set by {@link #setParameterized(boolean)}.
+     * Literal mode is the default.
+     *
+     * @since 3.3.0
+     */
+    public static void setParameterizedByDefault(boolean parameterizedByDefault) {
+        AbstractStatement.parameterizedByDefault = parameterizedByDefault;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    public boolean isParameterized() {
+        if (parameterized == null) return parameterizedByDefault;
+        return parameterized;
+    }
+
+    /**
+     * In parameterized mode, the values are not quoted into SQL,
+     * but written as {@code ?} placeholders and bound as a parameter tuple when executing;
+     * so the statements in the same shape share one prepared statement (cached on the connection if enabled).
+     * In literal mode, the values are quoted into SQL, i.e. the same as {@link #toString()}.
+     *
+     * @since 3.3.0
+     */
+    public AbstractStatement setParameterized(boolean parameterized) {
+        this.parameterized = parameterized;
+        return this;
+    }
+
+    /**
+     * Generate SQL with {@code ?} placeholders for the bindable values, which are appended into parameters in order.
+     * The statements not supporting it return {@link #toString()} and bind nothing.
+     *
+     * @param parameters the list to collect bound values in order
+     * @since 3.3.0
+     */
+    public String toParameterizedString(@Nonnull List<Object> parameters) {
+        return toString();
+    }
+
     @Nonnull
     protected String getRemarkAsComment() {
         return remarkAsComment;
@@ -70,15 +126,22 @@ abstract public class AbstractStatement implements AnyStatement {
      * @return the result matrix wrapped in a future, any error would cause a failed future
      * @since 2.8 将整个运作体加入了try-catch，统一加入审计日志，出现异常时一律异步报错。
      * @since 3.0.0 removed try-catch
+     * @since 3.3.0 bind parameters in parameterized mode
      */
     @Override
     public final Future<ResultMatrix> execute(@Nonnull SqlConnection sqlConnection) {
         AtomicReference<String> theSql = new AtomicReference<>();
-        return Future.succeededFuture(this.toString())
+        List<Object> parameters = new ArrayList<>();
+        return Future.succeededFuture(this.isParameterized() ? this.toParameterizedString(parameters) : this.toString())
                 .compose(sql -> {
                     theSql.set(sql);
-                    getSqlAuditIssueRecorder().info(r -> r.setPreparation(statement_uuid, sql));
-                    return sqlConnection.preparedQuery(sql).execute()
+                    if (parameters.isEmpty()) {
+                        getSqlAuditIssueRecorder().info(r -> r.setPreparation(statement_uuid, sql));
+                    } else {
+                        getSqlAuditIssueRecorder().info(r -> r.setPreparation(statement_uuid, sql, parameters));
+                    }
+                    var preparedQuery = sqlConnection.preparedQuery(sql);
+                    return (parameters.isEmpty() ? preparedQuery.execute() : preparedQuery.execute(Tuple.from(parameters)))
                             .compose(rows -> {
                                 ResultMatrix resultMatrix = ResultMatrix.create(rows);
                                 return Future.succeededFuture(resultMatrix);
@@ -98,6 +161,7 @@ abstract public class AbstractStatement implements AnyStatement {
         public static final String AttributeMysqlAudit = "MysqlAudit";
         public static final String KeyStatementUuid = "statement_uuid";
         public static final String KeySql = "sql";
+        public static final String KeyParameters = "parameters";
         public static final String KeyTotalAffectedRows = "TotalAffectedRows";
         public static final String KeyTotalFetchedRows = "TotalFetchedRows";
 
@@ -122,6 +186,19 @@ abstract public class AbstractStatement implements AnyStatement {
             return this;
         }
 
+        /**
+         * @since 3.3.0
+         */
+        public MySQLAuditIssueRecord setPreparation(@Nonnull String statement_uuid, @Nonnull String sql, @Nonnull List<Object> parameters) {
+            this.message("MySQL query prepared.")
+                    .attribute(AttributeMysqlAudit, new JsonObject()
+                            .put(KeyStatementUuid, statement_uuid)
+                            .put(KeySql, sql)
+                            .put(KeyParameters, new JsonArray(new ArrayList<>(parameters)))
+                    );
+            return this;
+        }
+
         public MySQLAuditIssueRecord setForDone(
                 @Nonnull String statement_uuid,
                 @Nonnull String sql,
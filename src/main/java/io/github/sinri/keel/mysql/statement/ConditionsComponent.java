@@ -206,4 +206,18 @@ public class ConditionsComponent {
         if (conditions.isEmpty()) return "";
         return KeelHelpers.stringHelper().joinStringArray(conditions, " and ");
     }
+
+    /**
+     * @param parameters the list to collect bound values in order
+     * @return the conditions with placeholders for the bindable values
+     * @since 3.3.0
+     */
+    public String toParameterizedString(@Nonnull List<Object> parameters) {
+        if (conditions.isEmpty()) return "";
+        List<String> list = new ArrayList<>(conditions.size());
+        for (MySQLCondition condition : conditions) {
+            list.add(condition.toParameterizedString(parameters));
+        }
+        return KeelHelpers.stringHelper().joinStringArray(list, " and ");
+    }
 }
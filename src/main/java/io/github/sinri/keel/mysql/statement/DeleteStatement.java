@@ -67,13 +67,31 @@ public class DeleteStatement extends AbstractModifyStatement {
     }
 
     public String toString() {
+        return render(null);
+    }
+
+    /**
+     * The conditions of WHERE are bound as parameters.
+     *
+     * @since 3.3.0
+     */
+    @Override
+    public String toParameterizedString(@Nonnull List<Object> parameters) {
+        return render(parameters);
+    }
+
+    /**
+     * @param parameters null for literal mode
+     * @since 3.3.0
+     */
+    private String render(@Nullable List<Object> parameters) {
         String sql = "DELETE FROM ";
         if (schema != null) {
             sql += schema + ".";
         }
         sql += table;
         if (!whereConditionsComponent.isEmpty()) {
-            sql += AbstractStatement.SQL_COMPONENT_SEPARATOR + "WHERE " + whereConditionsComponent;
+            sql += AbstractStatement.SQL_COMPONENT_SEPARATOR + "WHERE " + (parameters == null ? whereConditionsComponent.toString() : whereConditionsComponent.toParameterizedString(parameters));
         }
         if (!sortRules.isEmpty()) {
             sql += AbstractStatement.SQL_COMPONENT_SEPARATOR + "ORDER BY " + KeelHelpers.stringHelper().joinStringArray(sortRules, ",");
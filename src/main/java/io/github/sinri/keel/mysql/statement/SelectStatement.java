@@ -1,5 +1,6 @@
 package io.github.sinri.keel.mysql.statement;
 
+import io.github.sinri.keel.mysql.BindableValue;
 import io.github.sinri.keel.mysql.NamedMySQLConnection;
 import io.github.sinri.keel.mysql.condition.CompareCondition;
 import io.github.sinri.keel.mysql.condition.GroupCondition;
@@ -208,6 +209,24 @@ public class SelectStatement extends AbstractReadStatement {
     }
 
     public String toString() {
+        return render(null);
+    }
+
+    /**
+     * The conditions of WHERE and HAVING, and LIMIT with OFFSET, are bound as parameters.
+     *
+     * @since 3.3.0
+     */
+    @Override
+    public String toParameterizedString(@Nonnull List<Object> parameters) {
+        return render(parameters);
+    }
+
+    /**
+     * @param parameters null for literal mode
+     * @since 3.3.0
+     */
+    private String render(@Nullable List<Object> parameters) {
         StringBuilder sql = new StringBuilder();
         sql.append("SELECT ");
 
@@ -228,19 +247,22 @@ public class SelectStatement extends AbstractReadStatement {
             sql.append(AbstractStatement.SQL_COMPONENT_SEPARATOR).append("FROM ").append(KeelHelpers.stringHelper().joinStringArray(tables, AbstractStatement.SQL_COMPONENT_SEPARATOR));
         }
         if (!whereConditionsComponent.isEmpty()) {
-            sql.append(AbstractStatement.SQL_COMPONENT_SEPARATOR).append("WHERE ").append(whereConditionsComponent);
+            sql.append(AbstractStatement.SQL_COMPONENT_SEPARATOR).append("WHERE ").append(parameters == null ? whereConditionsComponent.toString() : whereConditionsComponent.toParameterizedString(parameters));
         }
         if (!categories.isEmpty()) {
             sql.append(AbstractStatement.SQL_COMPONENT_SEPARATOR).append("GROUP BY ").append(KeelHelpers.stringHelper().joinStringArray(categories, ","));
         }
         if (!havingConditionsComponent.isEmpty()) {
-            sql.append(AbstractStatement.SQL_COMPONENT_SEPARATOR).append("HAVING ").append(havingConditionsComponent);
+            sql.append(AbstractStatement.SQL_COMPONENT_SEPARATOR).append("HAVING ").append(parameters == null ? havingConditionsComponent.toString() : havingConditionsComponent.toParameterizedString(parameters));
         }
         if (!sortRules.isEmpty()) {
             sql.append(AbstractStatement.SQL_COMPONENT_SEPARATOR).append("ORDER BY ").append(KeelHelpers.stringHelper().joinStringArray(sortRules, ","));
         }
         if (limit > 0) {
-            sql.append(AbstractStatement.SQL_COMPONENT_SEPARATOR).append("LIMIT ").append(limit).append(" OFFSET ").append(offset);
+            sql.append(AbstractStatement.SQL_COMPONENT_SEPARATOR).append("LIMIT ")
+                    .append(BindableValue.ofNumber(limit).render(parameters))
+                    .append(" OFFSET ")
+                    .append(BindableValue.ofNumber(offset).render(parameters));
         }
         if (!lockMode.isEmpty()) {
             sql.append(AbstractStatement.SQL_COMPONENT_SEPARATOR).append(lockMode);
@@ -118,6 +118,24 @@ public class UpdateStatement extends AbstractModifyStatement {
     }
 
     public String toString() {
+        return render(null);
+    }
+
+    /**
+     * The assigned values and the conditions of WHERE are bound as parameters.
+     *
+     * @since 3.3.0
+     */
+    @Override
+    public String toParameterizedString(@Nonnull List<Object> parameters) {
+        return render(parameters);
+    }
+
+    /**
+     * @param parameters null for literal mode
+     * @since 3.3.0
+     */
+    private String render(@Nullable List<Object> parameters) {
         String sql = "UPDATE " + ignoreMark;
         if (schema != null) {
             sql += " " + schema + ".";
@@ -127,12 +145,12 @@ public class UpdateStatement extends AbstractModifyStatement {
         // since 3.0.19
         List<String> setPairs = new ArrayList<>();
         assignments.forEach(assignment -> {
-            setPairs.add(assignment.toString());
+            setPairs.add(parameters == null ? assignment.toString() : assignment.toParameterizedString(parameters));
         });
         sql += AbstractStatement.SQL_COMPONENT_SEPARATOR + "SET " + KeelHelpers.stringHelper().joinStringArray(setPairs, ", ");
 
         if (!whereConditionsComponent.isEmpty()) {
-            sql += AbstractStatement.SQL_COMPONENT_SEPARATOR + "WHERE " + whereConditionsComponent;
+            sql += AbstractStatement.SQL_COMPONENT_SEPARATOR + "WHERE " + (parameters == null ? whereConditionsComponent.toString() : whereConditionsComponent.toParameterizedString(parameters));
         }
         if (!sortRules.isEmpty()) {
             sql += AbstractStatement.SQL_COMPONENT_SEPARATOR + "ORDER BY " + KeelHelpers.stringHelper().joinStringArray(sortRules, ",");
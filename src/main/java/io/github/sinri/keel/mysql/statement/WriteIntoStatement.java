@@ -1,7 +1,7 @@
 package io.github.sinri.keel.mysql.statement;
 
+import io.github.sinri.keel.mysql.BindableValue;
 import io.github.sinri.keel.mysql.NamedMySQLConnection;
-import io.github.sinri.keel.mysql.Quoter;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.json.JsonArray;
@@ -25,8 +25,11 @@ public class WriteIntoStatement extends AbstractModifyStatement {
     public static final String REPLACE = "REPLACE";
     @Nonnull
     final List<String> columns = new ArrayList<>();
+    /**
+     * @since 3.3.0 values kept as BindableValue to support parameterized mode
+     */
     @Nonnull
-    final List<List<String>> batchValues = new ArrayList<>();
+    final List<List<BindableValue>> batchValues = new ArrayList<>();
     @Nonnull
     final Map<String, String> onDuplicateKeyUpdateAssignmentMap = new HashMap<>();
     @Nonnull
@@ -80,12 +83,12 @@ public class WriteIntoStatement extends AbstractModifyStatement {
     }
 
     public WriteIntoStatement addDataRow(@Nonnull List<Object> row) {
-        List<String> t = new ArrayList<>();
+        List<BindableValue> t = new ArrayList<>();
         for (Object item : row) {
             if (item == null) {
-                t.add("NULL");
+                t.add(BindableValue.ofNull());
             } else {
-                t.add(new Quoter(String.valueOf(item)).toString());
+                t.add(BindableValue.ofString(String.valueOf(item)));
             }
         }
         this.batchValues.add(t);
@@ -107,7 +110,7 @@ public class WriteIntoStatement extends AbstractModifyStatement {
                 throw new RuntimeException();
             }
 
-            List<String> dataRow = new ArrayList<>();
+            List<BindableValue> dataRow = new ArrayList<>();
 
             if (columns.isEmpty()) {
                 columns.addAll(row.map.keySet());
@@ -115,7 +118,7 @@ public class WriteIntoStatement extends AbstractModifyStatement {
 
             columns.forEach(key -> {
                 var value = row.map.get(key);
-                dataRow.add(value);
+                dataRow.add(value == null ? BindableValue.ofNull() : value);
             });
 
             this.batchValues.add(dataRow);
@@ -130,7 +133,7 @@ public class WriteIntoStatement extends AbstractModifyStatement {
     public WriteIntoStatement macroWriteOneRow(@Nonnull RowToWrite row) {
         columns.clear();
         this.batchValues.clear();
-        List<String> dataRow = new ArrayList<>();
+        List<BindableValue> dataRow = new ArrayList<>();
         row.map.forEach((column, expression) -> {
             columns.add(column);
             dataRow.add(expression);
@@ -219,6 +222,24 @@ public class WriteIntoStatement extends AbstractModifyStatement {
     }
 
     public String toString() {
+        return render(null);
+    }
+
+    /**
+     * The values of rows are bound as parameters, while expressions stay in SQL.
+     *
+     * @since 3.3.0
+     */
+    @Override
+    public String toParameterizedString(@Nonnull List<Object> parameters) {
+        return render(parameters);
+    }
+
+    /**
+     * @param parameters null for literal mode
+     * @since 3.3.0
+     */
+    private String render(@Nullable List<Object> parameters) {
         String sql = writeType + " " + ignoreMark + " INTO ";
         if (schema != null) {
             sql += schema + ".";
@@ -232,8 +253,12 @@ public class WriteIntoStatement extends AbstractModifyStatement {
         } else {
             sql += AbstractStatement.SQL_COMPONENT_SEPARATOR + "VALUES" + AbstractStatement.SQL_COMPONENT_SEPARATOR;
             List<String> items = new ArrayList<>();
-            for (List<String> row : batchValues) {
-                items.add("(" + KeelHelpers.stringHelper().joinStringArray(row, ",") + ")");
+            for (List<BindableValue> row : batchValues) {
+                List<String> values = new ArrayList<>(row.size());
+                for (BindableValue value : row) {
+                    values.add(value.render(parameters));
+                }
+                items.add("(" + KeelHelpers.stringHelper().joinStringArray(values, ",") + ")");
             }
             sql += KeelHelpers.stringHelper().joinStringArray(items, "," + AbstractStatement.SQL_COMPONENT_SEPARATOR);
         }
@@ -298,7 +323,10 @@ public class WriteIntoStatement extends AbstractModifyStatement {
     }
 
     public static class RowToWrite {
-        final Map<String, String> map = new ConcurrentHashMap<>();
+        /**
+         * @since 3.3.0 values kept as BindableValue to support parameterized mode
+         */
+        final Map<String, BindableValue> map = new ConcurrentHashMap<>();
 
         /**
          * @since 3.0.1
@@ -308,7 +336,7 @@ public class WriteIntoStatement extends AbstractModifyStatement {
         }
 
         public RowToWrite putExpression(@Nonnull String columnName, @Nonnull String expression) {
-            map.put(columnName, expression);
+            map.put(columnName, BindableValue.ofExpression(expression));
             return this;
         }
 
@@ -316,12 +344,14 @@ public class WriteIntoStatement extends AbstractModifyStatement {
          * @since 3.1.0
          */
         public RowToWrite put(@Nonnull String columnName, @Nullable Object value) {
-            if (value == null) return this.putExpression(columnName, "NULL");
-            else if (value instanceof Number) {
-                return putExpression(columnName, String.valueOf(value));
+            if (value == null) {
+                map.put(columnName, BindableValue.ofNull());
+            } else if (value instanceof Number) {
+                map.put(columnName, BindableValue.ofNumber((Number) value));
             } else {
-                return putExpression(columnName, new Quoter(value.toString()).toString());
+                map.put(columnName, BindableValue.ofString(value.toString()));
             }
+            return this;
         }
 
         /**
@@ -1,10 +1,11 @@
 package io.github.sinri.keel.mysql.statement.component;
 
 import io.github.sinri.keel.core.TechnicalPreview;
-import io.github.sinri.keel.mysql.Quoter;
+import io.github.sinri.keel.mysql.BindableValue;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.List;
 
 /**
  * @since 3.0.19
@@ -12,35 +13,38 @@ import javax.annotation.Nullable;
 @TechnicalPreview(since = "3.0.19")
 public class UpdateSetAssignmentComponent {
     private final @Nonnull String fieldName;
-    private @Nonnull String expression;
+    /**
+     * @since 3.3.0 kept as BindableValue to support parameterized mode
+     */
+    private @Nonnull BindableValue expression = BindableValue.ofNull();
 
     public UpdateSetAssignmentComponent(@Nonnull String fieldName) {
         this.fieldName = fieldName;
     }
 
     public UpdateSetAssignmentComponent assignmentToExpression(@Nonnull String expression) {
-        this.expression = expression;
+        this.expression = BindableValue.ofExpression(expression);
         return this;
     }
 
     public UpdateSetAssignmentComponent assignmentToValue(@Nullable Object expression) {
         if(expression==null){
-            this.expression = "NULL";
+            this.expression = BindableValue.ofNull();
         }else if (expression instanceof Number){
-            this.expression = expression.toString();
+            this.expression = BindableValue.ofNumber((Number) expression);
         }else{
-            this.expression = new Quoter(expression.toString()).toString();
+            this.expression = BindableValue.ofString(expression.toString());
         }
         return this;
     }
 
     public UpdateSetAssignmentComponent assignmentToNull() {
-        this.expression = "NULL";
+        this.expression = BindableValue.ofNull();
         return this;
     }
 
     public UpdateSetAssignmentComponent assignmentToCaseOperator(@Nonnull CaseOperator caseOperator) {
-        this.expression = caseOperator.toString();
+        this.expression = BindableValue.ofExpression(caseOperator.toString());
         return this;
     }
 
@@ -49,4 +53,11 @@ public class UpdateSetAssignmentComponent {
         return fieldName + "=" + expression;
     }
 
+    /**
+     * @since 3.3.0
+     */
+    public String toParameterizedString(@Nonnull List<Object> parameters) {
+        return fieldName + "=" + expression.render(parameters);
+    }
+
 }
@@ -10,26 +10,19 @@ import java.math.BigDecimal;
  */
 @TechnicalPreview(since = "3.1.1")
 public class CsvCell {
-    private final @Nullable BigDecimal number;
     private final @Nullable String string;
+    /**
+     * @since 3.3.0 parsed on first use, instead of in constructor.
+     */
+    private @Nullable BigDecimal number;
+    private boolean numberParsed = false;
 
     public CsvCell(@Nullable String s) {
         this.string = s;
-
-        BigDecimal number1;
-        if (s == null) number1 = null;
-        else {
-            try {
-                number1 = new BigDecimal(s);
-            } catch (NumberFormatException numberFormatException) {
-                number1 = null;
-            }
-        }
-        this.number = number1;
     }
 
     public boolean isNumber() {
-        return this.number != null;
+        return this.getNumber() != null;
     }
 
     public boolean isEmpty() {
@@ -42,6 +35,16 @@ public class CsvCell {
 
     @Nullable
     public BigDecimal getNumber() {
+        if (!numberParsed) {
+            if (string != null) {
+                try {
+                    number = new BigDecimal(string);
+                } catch (NumberFormatException numberFormatException) {
+                    number = null;
+                }
+            }
+            numberParsed = true;
+        }
         return number;
     }
 
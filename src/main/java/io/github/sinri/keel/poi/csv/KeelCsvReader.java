@@ -1,29 +1,53 @@
 package io.github.sinri.keel.poi.csv;
 
 import io.github.sinri.keel.core.TechnicalPreview;
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
 import io.vertx.core.Future;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.*;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
 
 /**
  * @since 3.1.1 Technical Preview
  */
 @TechnicalPreview(since = "3.1.1")
 public class KeelCsvReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
     //private Charset charset = StandardCharsets.UTF_8;
-    private final BufferedReader br;
+    private final Reader reader;
     //private final @Nonnull InputStream inputStream;
     private String separator = ",";
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPosition = 0;
+    private int bufferLimit = 0;
+    /**
+     * The last char read is CR, so a following LF belongs to the same line break.
+     */
+    private boolean skipLineFeed = false;
+    private final ReusableCsvRow reusableRow = new ReusableCsvRow();
 
     public KeelCsvReader(@Nonnull InputStream inputStream, Charset charset) {
-        this(new BufferedReader(new InputStreamReader(inputStream, charset)));
+        // the reader has its own buffer, no need of BufferedReader
+        this(new InputStreamReader(inputStream, charset));
     }
 
     public KeelCsvReader(@Nonnull BufferedReader br) {
-        this.br = br;
+        this((Reader) br);
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    public KeelCsvReader(@Nonnull Reader reader) {
+        this.reader = reader;
     }
 
     public static Future<KeelCsvReader> create(@Nonnull InputStream inputStream, @Nonnull Charset charset) {
@@ -53,8 +77,34 @@ public class KeelCsvReader {
         return this;
     }
 
+    /**
+     * Read the next row into a new {@link CsvRow}.
+     *
+     * @return the row, or null when no more rows.
+     * @since 3.3.0 parsed by the single pass state machine.
+     */
     public @Nullable CsvRow blockReadRow() throws IOException {
-        CsvRow row = null;
+        if (blockReadRow(reusableRow)) {
+            return reusableRow.toCsvRow();
+        }
+        return null;
+    }
+
+    /**
+     * Read the next row into the given reusable row, in one pass over the char buffer,
+     * so that no string is created for the row unless asked.
+     * <p>
+     * Quoted fields, escaped quotes ({@code ""}) and line breaks ({@code \n}, {@code \r\n} or {@code \r})
+     * inside quoted fields are handled as the line based parsing before, where a line break inside a field is kept as {@code \n}.
+     *
+     * @return false when no more rows, and the given row is left empty.
+     * @since 3.3.0
+     */
+    public boolean blockReadRow(@Nonnull ReusableCsvRow row) throws IOException {
+        row.clear();
+
+        boolean separatorAsChar = separator != null && separator.length() == 1;
+        char separatorChar = separatorAsChar ? separator.charAt(0) : 0;
 
         /*
          * Three options: 0,1,2
@@ -64,65 +114,139 @@ public class KeelCsvReader {
          * < 0111211122
          */
         int quoterFlag = 0;
-        String buffer = null;
+        // a line break inside quotes is appended only when any char follows it, as the line based parsing did
+        boolean pendingLineBreak = false;
+        boolean anyCharRead = false;
 
-        String line;
         while (true) {
-            line = br.readLine();
-
-            if (line == null) {
+            if (bufferPosition >= bufferLimit && !fillBuffer()) {
                 // no more chars...
-                if (row == null) return null;
-                else {
-                    if (buffer != null) {
-                        row.addCell(new CsvCell(buffer));
-                    }
-                    break;
+                if (!anyCharRead) {
+                    return false;
                 }
+                row.endCell();
+                return true;
             }
 
-            if (row == null) row = new CsvRow();
-            if (buffer == null) buffer = "";
-            else {
-                buffer += "\n";
+            char c = buffer[bufferPosition];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    // the second half of CRLF
+                    bufferPosition++;
+                    continue;
+                }
             }
+            anyCharRead = true;
 
-            for (int i = 0; i < line.length(); i++) {
-                var singleString = line.substring(i, i + 1);
-                if (singleString.equals("\"")) {
-                    if (quoterFlag == 0) {
-                        quoterFlag = 1;
-                    } else if (quoterFlag == 1) {
-                        quoterFlag = 2;
-                    } else {
-                        buffer += singleString;
-                        quoterFlag = 1;
+            if (c == '\n' || c == '\r') {
+                bufferPosition++;
+                skipLineFeed = (c == '\r');
+                if (quoterFlag == 1) {
+                    // the row expends to the next line
+                    if (pendingLineBreak) {
+                        row.appendChar('\n');
                     }
-                } else if (singleString.equals(separator)) {
-                    if (quoterFlag == 0 || quoterFlag == 2) {
-                        // buffer to cell
-                        row.addCell(new CsvCell(buffer));
-                        quoterFlag = 0;
-                        buffer = "";
-                    } else {
-                        buffer += singleString;
-                    }
-                } else {
-                    buffer += singleString;
+                    pendingLineBreak = true;
+                    continue;
                 }
+                // the row ends within this line
+                row.endCell();
+                return true;
             }
 
-            // now this line ends
-            if (quoterFlag == 0 || quoterFlag == 2) {
-                // the row ends within this line
-                row.addCell(new CsvCell(buffer));
-                break;
+            if (pendingLineBreak) {
+                row.appendChar('\n');
+                pendingLineBreak = false;
+            }
+
+            if (c == '"') {
+                bufferPosition++;
+                if (quoterFlag == 0) {
+                    quoterFlag = 1;
+                } else if (quoterFlag == 1) {
+                    quoterFlag = 2;
+                } else {
+                    row.appendChar(c);
+                    quoterFlag = 1;
+                }
+            } else if (separatorAsChar && c == separatorChar) {
+                bufferPosition++;
+                if (quoterFlag == 1) {
+                    row.appendChar(c);
+                } else {
+                    row.endCell();
+                    quoterFlag = 0;
+                }
             } else {
-                // the row expends to the next line
+                // copy the run of plain chars at once
+                int start = bufferPosition++;
+                while (bufferPosition < bufferLimit) {
+                    char d = buffer[bufferPosition];
+                    if (d == '"' || d == '\n' || d == '\r' || (separatorAsChar && d == separatorChar)) {
+                        break;
+                    }
+                    bufferPosition++;
+                }
+                row.appendChars(buffer, start, bufferPosition - start);
             }
         }
+    }
+
+    private boolean fillBuffer() throws IOException {
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        bufferPosition = 0;
+        if (read < 0) {
+            bufferLimit = 0;
+            return false;
+        }
+        bufferLimit = read;
+        return true;
+    }
+
+    /**
+     * Read up to the given count of rows in a worker thread.
+     *
+     * @return the rows read, fewer than the batch size (even empty) only when no more rows.
+     * @since 3.3.0
+     */
+    public Future<List<CsvRow>> readRows(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize should be positive");
+        }
+        // a verticle for each batch costs too much here, so the worker pool of Vert.x is used directly
+        return Keel.getVertx().executeBlocking(() -> {
+            List<CsvRow> rows = new ArrayList<>(batchSize);
+            while (rows.size() < batchSize && blockReadRow(reusableRow)) {
+                rows.add(reusableRow.toCsvRow());
+            }
+            return rows;
+        });
+    }
 
-        return row;
+    /**
+     * Read all the rows left in batches, each batch is handled before the next one is read.
+     *
+     * @return the count of rows read.
+     * @since 3.3.0
+     */
+    public Future<Long> readRowsInBatches(int batchSize, @Nonnull Function<List<CsvRow>, Future<Void>> batchHandler) {
+        AtomicLong counter = new AtomicLong(0);
+        return KeelAsyncKit.repeatedlyCall(routineResult -> readRows(batchSize)
+                        .compose(rows -> {
+                            if (rows.size() < batchSize) {
+                                routineResult.stop();
+                            }
+                            if (rows.isEmpty()) {
+                                return Future.succeededFuture();
+                            }
+                            counter.addAndGet(rows.size());
+                            return batchHandler.apply(rows);
+                        }))
+                .compose(v -> Future.succeededFuture(counter.get()));
     }
 
     public Future<CsvRow> readRow() {
@@ -138,7 +262,7 @@ public class KeelCsvReader {
     }
 
     public void blockClose() throws IOException {
-        this.br.close();
+        this.reader.close();
     }
 
     public Future<Void> close() {
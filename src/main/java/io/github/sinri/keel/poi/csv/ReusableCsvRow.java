@@ -0,0 +1,93 @@
+package io.github.sinri.keel.poi.csv;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * A row of CSV to be filled again and again by the reader, to avoid allocation for each row.
+ * The characters of all cells are kept in one array with the end offsets of the cells,
+ * a cell is only turned into a string when asked.
+ * <p>
+ * The content is only valid until the next read into it; use {@link #toCsvRow()} to keep a copy.
+ *
+ * @since 3.3.0
+ */
+public class ReusableCsvRow {
+    private char[] chars = new char[256];
+    private int length = 0;
+    private int[] cellEnds = new int[16];
+    private int size = 0;
+
+    void clear() {
+        length = 0;
+        size = 0;
+    }
+
+    void appendChar(char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    void appendChars(char[] source, int start, int count) {
+        if (length + count > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + count));
+        }
+        System.arraycopy(source, start, chars, length, count);
+        length += count;
+    }
+
+    void endCell() {
+        if (size == cellEnds.length) {
+            cellEnds = Arrays.copyOf(cellEnds, cellEnds.length * 2);
+        }
+        cellEnds[size++] = length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int cellStart(int i) {
+        return i == 0 ? 0 : cellEnds[i - 1];
+    }
+
+    /**
+     * @return the length of the cell, without making a string.
+     */
+    public int getCellLength(int i) {
+        checkIndex(i);
+        return cellEnds[i] - cellStart(i);
+    }
+
+    @Nonnull
+    public String getString(int i) {
+        checkIndex(i);
+        int start = cellStart(i);
+        return new String(chars, start, cellEnds[i] - start);
+    }
+
+    @Nonnull
+    public CsvCell getCell(int i) {
+        return new CsvCell(getString(i));
+    }
+
+    /**
+     * @return a standalone copy of this row.
+     */
+    @Nonnull
+    public CsvRow toCsvRow() {
+        CsvRow csvRow = new CsvRow();
+        for (int i = 0; i < size; i++) {
+            csvRow.addCell(getCell(i));
+        }
+        return csvRow;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Cell " + i + " out of " + size);
+        }
+    }
+}
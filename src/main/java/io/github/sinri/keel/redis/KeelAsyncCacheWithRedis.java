@@ -1,6 +1,8 @@
 package io.github.sinri.keel.redis;
 
 import io.github.sinri.keel.cache.KeelAsyncCacheInterface;
+import io.github.sinri.keel.cache.KeelCacheLoadStatistics;
+import io.github.sinri.keel.cache.SingleFlightLoader;
 import io.vertx.core.Future;
 
 import javax.annotation.Nonnull;
@@ -13,9 +15,11 @@ import java.util.function.Function;
  */
 public class KeelAsyncCacheWithRedis implements KeelAsyncCacheInterface<String, String> {
     private final RedisKit redisKit;
+    private final SingleFlightLoader<String, String> singleFlightLoader;
 
     public KeelAsyncCacheWithRedis(String redisInstanceKey) {
         this.redisKit = new RedisKit(redisInstanceKey);
+        this.singleFlightLoader = new SingleFlightLoader<>();
     }
 
     @Override
@@ -37,26 +41,42 @@ public class KeelAsyncCacheWithRedis implements KeelAsyncCacheInterface<String,
         });
     }
 
+    /**
+     * Concurrent misses of the same key in this instance share one call of the generator.
+     *
+     * @since 3.3.0 single flight
+     */
     @Override
     public Future<String> read(@Nonnull String key, Function<String, Future<String>> generator, long lifeInSeconds) {
-        return this.read(key).compose(s -> {
-                    Objects.requireNonNull(s);
-                    return Future.succeededFuture(s);
-                })
+        return this.read(key)
                 .recover(throwable -> {
-                    return generator.apply(key)
-                            .compose(v -> {
-                                return save(key, v, lifeInSeconds)
-                                        .recover(saveFailed -> {
-                                            return Future.succeededFuture();
-                                        })
-                                        .compose(anyway -> {
-                                            return Future.succeededFuture(v);
-                                        });
-                            });
+                    return Future.succeededFuture(null);
+                })
+                .compose(s -> {
+                    return singleFlightLoader.read(key, s, k -> {
+                        return generator.apply(k)
+                                .compose(v -> {
+                                    return save(k, v, lifeInSeconds)
+                                            .recover(saveFailed -> {
+                                                return Future.succeededFuture();
+                                            })
+                                            .compose(anyway -> {
+                                                return Future.succeededFuture(v);
+                                            });
+                                });
+                    });
                 });
     }
 
+    /**
+     * @since 3.3.0
+     */
+    @Nonnull
+    @Override
+    public KeelCacheLoadStatistics getLoadStatistics() {
+        return singleFlightLoader.getStatistics();
+    }
+
     @Override
     public Future<Void> remove(@Nonnull String key) {
         return redisKit.deleteKey(key).compose(x -> {
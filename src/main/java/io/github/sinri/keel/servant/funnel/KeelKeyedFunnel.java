@@ -0,0 +1,171 @@
+package io.github.sinri.keel.servant.funnel;
+
+import io.github.sinri.keel.logger.event.KeelEventLogger;
+import io.github.sinri.keel.logger.issue.center.KeelIssueRecordCenter;
+import io.github.sinri.keel.verticles.KeelVerticleImplWithEventLogger;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * A funnel with a lane for each key: the tasks of one key run one after another in the order added,
+ * while the tasks of different keys run concurrently, no more than the max concurrency in total.
+ * The keys waiting for a free slot take turns; a lane is removed once it has no task, so keys are not kept.
+ *
+ * @param <K> The type of key
+ * @since 3.3.0
+ */
+public class KeelKeyedFunnel<K> extends KeelVerticleImplWithEventLogger {
+    private final Map<K, Lane<K>> laneMap = new HashMap<>();
+    /**
+     * The lanes with tasks and not running, waiting for a free slot.
+     */
+    private final Queue<Lane<K>> readyLanes = new ArrayDeque<>();
+    private volatile int maxConcurrency;
+    private int runningCount = 0;
+    private long pendingCount = 0;
+    private volatile Context funnelContext;
+
+    /**
+     * @param maxConcurrency the max count of tasks running at the same time, of different keys.
+     */
+    public KeelKeyedFunnel(int maxConcurrency) {
+        super();
+        setMaxConcurrency(maxConcurrency);
+    }
+
+    public KeelKeyedFunnel() {
+        this(16);
+    }
+
+    @Override
+    protected KeelEventLogger buildEventLogger() {
+        return KeelIssueRecordCenter.outputCenter().generateEventLogger("KeyedFunnel");
+    }
+
+    public KeelKeyedFunnel<K> setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.maxConcurrency = maxConcurrency;
+        if (this.funnelContext != null) {
+            this.funnelContext.runOnContext(v -> dispatch());
+        }
+        return this;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void add(@Nonnull K key, @Nonnull Supplier<Future<Void>> supplier) {
+        synchronized (this) {
+            Lane<K> lane = laneMap.computeIfAbsent(key, Lane::new);
+            lane.tasks.add(supplier);
+            pendingCount++;
+            if (!lane.running && !lane.ready) {
+                lane.ready = true;
+                readyLanes.add(lane);
+            }
+        }
+        Context context = this.funnelContext;
+        if (context != null) {
+            context.runOnContext(v -> dispatch());
+        }
+    }
+
+    @Override
+    protected void startAsKeelVerticle() {
+        this.funnelContext = context;
+        dispatch();
+    }
+
+    /**
+     * Start the head task of the ready lanes while there are free slots.
+     */
+    private void dispatch() {
+        while (true) {
+            Lane<K> lane;
+            Supplier<Future<Void>> supplier;
+            synchronized (this) {
+                if (runningCount >= maxConcurrency) {
+                    return;
+                }
+                lane = readyLanes.poll();
+                if (lane == null) {
+                    return;
+                }
+                supplier = lane.tasks.poll();
+                pendingCount--;
+                lane.ready = false;
+                lane.running = true;
+                runningCount++;
+            }
+            runTask(lane, Objects.requireNonNull(supplier));
+        }
+    }
+
+    private void runTask(@Nonnull Lane<K> lane, @Nonnull Supplier<Future<Void>> supplier) {
+        Future<Void> future;
+        try {
+            future = supplier.get();
+            if (future == null) {
+                // as a failed task, not to leave the lane running forever
+                future = Future.failedFuture(new NullPointerException("keyed funnel task returned null"));
+            }
+        } catch (Throwable throwable) {
+            future = Future.failedFuture(throwable);
+        }
+        future.onComplete(ar -> {
+            if (ar.failed()) {
+                getLogger().exception(ar.cause(), r -> r.message("keyed funnel task error")
+                        .context("key", String.valueOf(lane.key)));
+            }
+            synchronized (this) {
+                runningCount--;
+                lane.running = false;
+                if (lane.tasks.isEmpty()) {
+                    // reclaim the idle lane
+                    laneMap.remove(lane.key);
+                } else {
+                    lane.ready = true;
+                    readyLanes.add(lane);
+                }
+            }
+            // continue on the context, not in the stack of the finished task
+            funnelContext.runOnContext(v -> dispatch());
+        });
+    }
+
+    /**
+     * @return the count of keys with tasks running or waiting.
+     */
+    public synchronized int getLaneCount() {
+        return laneMap.size();
+    }
+
+    public synchronized int getRunningCount() {
+        return runningCount;
+    }
+
+    /**
+     * @return the count of tasks waiting to run.
+     */
+    public synchronized long getPendingCount() {
+        return pendingCount;
+    }
+
+    private static class Lane<K> {
+        final K key;
+        final Queue<Supplier<Future<Void>>> tasks = new ArrayDeque<>();
+        boolean running = false;
+        boolean ready = false;
+
+        Lane(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package io.github.sinri.keel.servant.intravenous;
 
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 /**
  * @param <T> The type of drop
@@ -11,6 +16,9 @@ import java.util.function.Function;
  */
 public class KeelIntravenous<T> extends KeelIntravenousBase<T> {
     private final Function<List<T>, Future<Void>> processor;
+    private Handler<Boolean> watermarkHandler;
+    private ToLongFunction<T> weigher;
+    private BiConsumer<List<T>, Throwable> deadLetterHandler;
 
 
     public KeelIntravenous(Function<List<T>, Future<Void>> processor) {
@@ -30,6 +38,95 @@ public class KeelIntravenous<T> extends KeelIntravenousBase<T> {
         return this;
     }
 
+    /**
+     * @param lingerTime the max time in ms a drop waits for more to form a batch, zero to process at once.
+     * @since 3.3.0
+     */
+    public KeelIntravenous<T> setLingerTime(long lingerTime) {
+        this.lingerTime = Math.max(0, lingerTime);
+        return this;
+    }
+
+    /**
+     * @param batchWeightLimit the max total weight of a batch, zero for unlimited.
+     * @param weigher          to weigh a drop, such as its size in bytes.
+     * @since 3.3.0
+     */
+    public KeelIntravenous<T> setBatchWeightLimit(long batchWeightLimit, @Nonnull ToLongFunction<T> weigher) {
+        this.batchWeightLimit = Math.max(0, batchWeightLimit);
+        this.weigher = weigher;
+        return this;
+    }
+
+    @Override
+    protected long weigh(T t) {
+        if (weigher == null) {
+            return super.weigh(t);
+        }
+        return weigher.applyAsLong(t);
+    }
+
+    /**
+     * @param capacity       the max count of drops in queue, zero for unbounded.
+     * @param overflowPolicy what to do when a drop comes to a full queue.
+     * @since 3.3.0
+     */
+    public KeelIntravenous<T> setCapacity(int capacity, @Nonnull OverflowPolicy overflowPolicy) {
+        this.capacity = Math.max(0, capacity);
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * @param watermarkHandler called with true when the depth reaches the high watermark,
+     *                         and with false when it falls back to the low watermark.
+     * @since 3.3.0
+     */
+    public KeelIntravenous<T> setWatermarks(int highWatermark, int lowWatermark, @Nullable Handler<Boolean> watermarkHandler) {
+        if (highWatermark > 0 && lowWatermark >= highWatermark) {
+            throw new IllegalArgumentException("low watermark should be less than high watermark");
+        }
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        this.watermarkHandler = watermarkHandler;
+        return this;
+    }
+
+    @Override
+    protected void whenWatermarkCrossed(boolean overHighWatermark, int depth) {
+        if (watermarkHandler != null) {
+            watermarkHandler.handle(overHighWatermark);
+        }
+    }
+
+    /**
+     * @param retryPolicy how to retry a failed batch, null for no retry.
+     *                    The retry runs after its backoff, aside from the newer batches, which are not held back.
+     * @since 3.3.0
+     */
+    public KeelIntravenous<T> setRetryPolicy(@Nullable KeelIntravenousRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * @param deadLetterHandler called with the drops failed in all attempts and the last failure; null to log them.
+     * @since 3.3.0
+     */
+    public KeelIntravenous<T> setDeadLetterHandler(@Nullable BiConsumer<List<T>, Throwable> deadLetterHandler) {
+        this.deadLetterHandler = deadLetterHandler;
+        return this;
+    }
+
+    @Override
+    protected void handleDeadLetters(@Nonnull List<T> drops, @Nonnull Throwable throwable) {
+        if (deadLetterHandler == null) {
+            super.handleDeadLetters(drops, throwable);
+        } else {
+            deadLetterHandler.accept(drops, throwable);
+        }
+    }
+
     @Override
     protected Future<Void> process(List<T> list) {
         return processor.apply(list);
@@ -7,22 +7,97 @@ import io.github.sinri.keel.verticles.KeelVerticleImplWithEventLogger;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
 /**
  * @param <T>
  * @since 3.0.1 redesigned from the original KeelIntravenous
+ * @since 3.3.0 could be bounded with a capacity and an overflow policy, and tell the depth of the queue by watermarks.
+ * @since 3.3.0 could linger for a larger batch, flushed by count, by weight or by the time the oldest drop waited.
+ * @since 3.3.0 a failed batch could be retried by a {@link KeelIntravenousRetryPolicy}, and the drops finally failed go to the dead letters.
  */
 abstract public class KeelIntravenousBase<T> extends KeelVerticleImplWithEventLogger {
-    private final Queue<T> queue;
+    private final Queue<QueuedDrop<T>> queue;
     private final AtomicReference<Promise<Void>> interruptRef;
     protected long sleepTime = 1_000L;
     protected int batchSize = 1;
+    /**
+     * The max count of drops in queue, zero or negative for unbounded.
+     *
+     * @since 3.3.0
+     */
+    protected int capacity = 0;
+    /**
+     * @since 3.3.0
+     */
+    protected OverflowPolicy overflowPolicy = OverflowPolicy.REJECT;
+    /**
+     * When the depth reaches the high watermark, {@link #whenWatermarkCrossed(boolean, int)} is called with true;
+     * then when it falls to the low watermark, with false. Zero or negative high watermark to disable.
+     *
+     * @since 3.3.0
+     */
+    protected int highWatermark = 0;
+    /**
+     * @since 3.3.0
+     */
+    protected int lowWatermark = 0;
+    /**
+     * The max time in ms a drop waits for more to form a batch, zero to process at once as before.
+     *
+     * @since 3.3.0
+     */
+    protected long lingerTime = 0L;
+    /**
+     * The max total weight of a batch, zero or negative for unlimited; a single drop over it still makes a batch.
+     *
+     * @see #weigh(Object)
+     * @since 3.3.0
+     */
+    protected long batchWeightLimit = 0L;
+    /**
+     * Null for no retry, as before.
+     *
+     * @since 3.3.0
+     */
+    protected KeelIntravenousRetryPolicy retryPolicy = null;
     private boolean queueAcceptTask = false;
+    /**
+     * The count of drops in queue, as {@link ConcurrentLinkedQueue#size()} is not constant time.
+     *
+     * @since 3.3.0
+     */
+    private final AtomicInteger depth = new AtomicInteger(0);
+    private final AtomicBoolean overHighWatermark = new AtomicBoolean(false);
+    private final Queue<PendingDrop<T>> pendingDrops = new ConcurrentLinkedQueue<>();
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    /**
+     * The count of batches taken out of queue and not processed yet.
+     *
+     * @since 3.3.0
+     */
+    private final AtomicInteger processingBatchCount = new AtomicInteger(0);
+    /**
+     * @since 3.3.0
+     */
+    private final AtomicLong queuedWeight = new AtomicLong(0);
+    private final AtomicLong processedBatchCount = new AtomicLong(0);
+    private final AtomicLong retriedCount = new AtomicLong(0);
+    private final AtomicLong deadLetterCount = new AtomicLong(0);
 
     public KeelIntravenousBase() {
         this.queue = new ConcurrentLinkedQueue<>();
@@ -31,16 +106,273 @@ abstract public class KeelIntravenousBase<T> extends KeelVerticleImplWithEventLo
 
     abstract protected Future<Void> process(List<T> list);
 
+    /**
+     * @throws IllegalStateException      if shutdown declared.
+     * @throws RejectedExecutionException if the queue is full, and the overflow policy is not {@link OverflowPolicy#DROP_OLDEST}.
+     * @since 3.3.0 bounded by the capacity.
+     */
     public void add(T t) {
         if (!queueAcceptTask) {
             throw new IllegalStateException("shutdown declared");
         }
 
-        queue.add(t);
-        Promise<Void> currentInterrupt = getCurrentInterrupt();
-        if (currentInterrupt != null) {
-            currentInterrupt.tryComplete();
+        if (!enqueue(t, false)) {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("intravenous queue full, capacity " + getCapacity());
+        }
+    }
+
+    /**
+     * Add a drop, and the async result is done when it is accepted into the queue.
+     * If the queue is full, it fails for {@link OverflowPolicy#REJECT},
+     * drops the oldest one for {@link OverflowPolicy#DROP_OLDEST},
+     * or waits for the space freed in order for {@link OverflowPolicy#WAIT}.
+     *
+     * @since 3.3.0
+     */
+    public Future<Void> addAsync(T t) {
+        if (!queueAcceptTask) {
+            return Future.failedFuture(new IllegalStateException("shutdown declared"));
+        }
+
+        if (getOverflowPolicy() == OverflowPolicy.WAIT && !pendingDrops.isEmpty()) {
+            // keep the order of the waiting ones
+            return waitForSpace(t);
+        }
+        if (enqueue(t, false)) {
+            return Future.succeededFuture();
         }
+        if (getOverflowPolicy() == OverflowPolicy.WAIT) {
+            return waitForSpace(t);
+        }
+        rejectedCount.incrementAndGet();
+        return Future.failedFuture(new RejectedExecutionException("intravenous queue full, capacity " + getCapacity()));
+    }
+
+    private Future<Void> waitForSpace(T t) {
+        PendingDrop<T> pendingDrop = new PendingDrop<>(t);
+        pendingDrops.add(pendingDrop);
+        // the space might be freed before the drop is put to wait
+        admitPendingDrops();
+        return pendingDrop.promise.future();
+    }
+
+    /**
+     * @param admitting whether the drop is a waiting one, which is never dropped
+     * @return whether the drop is put into queue.
+     */
+    private boolean enqueue(T t, boolean admitting) {
+        int configuredCapacity = getCapacity();
+        if (configuredCapacity > 0) {
+            while (true) {
+                int current = depth.get();
+                if (current < configuredCapacity) {
+                    if (depth.compareAndSet(current, current + 1)) {
+                        break;
+                    }
+                } else if (!admitting && getOverflowPolicy() == OverflowPolicy.DROP_OLDEST) {
+                    QueuedDrop<T> oldest = queue.poll();
+                    if (oldest != null) {
+                        queuedWeight.addAndGet(-oldest.weight);
+                        droppedCount.incrementAndGet();
+                        whenDropDiscarded(oldest.drop);
+                        // the depth is kept, as one out and one in
+                        break;
+                    }
+                } else {
+                    return false;
+                }
+            }
+        } else {
+            depth.incrementAndGet();
+        }
+
+        long weight = getBatchWeightLimit() > 0 ? weigh(t) : 0L;
+        queue.add(new QueuedDrop<>(t, System.currentTimeMillis(), weight));
+        queuedWeight.addAndGet(weight);
+        checkHighWatermark();
+        // since 3.3.0, when lingering, wake the consumer only for the first drop, or a full batch
+        if (getLingerTime() <= 0 || depth.get() <= 1 || getLingerRemaining(null) <= 0) {
+            Promise<Void> currentInterrupt = getCurrentInterrupt();
+            if (currentInterrupt != null) {
+                currentInterrupt.tryComplete();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the drop taken out of queue, or null if empty.
+     * @since 3.3.0
+     */
+    private QueuedDrop<T> pollDrop() {
+        QueuedDrop<T> queuedDrop = queue.poll();
+        if (queuedDrop != null) {
+            queuedWeight.addAndGet(-queuedDrop.weight);
+            int current = depth.decrementAndGet();
+            checkLowWatermark(current);
+        }
+        return queuedDrop;
+    }
+
+    /**
+     * @param head the oldest drop in queue, or null to peek.
+     * @return how long to linger for more drops; zero or negative if a batch should be processed now.
+     * @since 3.3.0
+     */
+    private long getLingerRemaining(QueuedDrop<T> head) {
+        long configuredLingerTime = getLingerTime();
+        if (configuredLingerTime <= 0 || !queueAcceptTask) {
+            return 0;
+        }
+        if (depth.get() >= getBatchSize()) {
+            return 0;
+        }
+        long configuredBatchWeightLimit = getBatchWeightLimit();
+        if (configuredBatchWeightLimit > 0 && queuedWeight.get() >= configuredBatchWeightLimit) {
+            return 0;
+        }
+        if (head == null) {
+            head = queue.peek();
+            if (head == null) {
+                return 0;
+            }
+        }
+        return head.queuedTime + configuredLingerTime - System.currentTimeMillis();
+    }
+
+    /**
+     * @return the drops of one batch, limited by the batch size and the batch weight limit.
+     * @since 3.3.0
+     */
+    private List<T> takeBatch(int configuredBatchSize) {
+        long configuredBatchWeightLimit = getBatchWeightLimit();
+        List<T> buffer = new ArrayList<>();
+        long batchWeight = 0;
+        while (buffer.size() < configuredBatchSize) {
+            if (configuredBatchWeightLimit > 0 && !buffer.isEmpty()) {
+                QueuedDrop<T> next = queue.peek();
+                if (next == null || batchWeight + next.weight > configuredBatchWeightLimit) {
+                    break;
+                }
+            }
+            QueuedDrop<T> queuedDrop = pollDrop();
+            if (queuedDrop == null) {
+                break;
+            }
+            buffer.add(queuedDrop.drop);
+            batchWeight += queuedDrop.weight;
+        }
+        return buffer;
+    }
+
+    private void admitPendingDrops() {
+        while (true) {
+            PendingDrop<T> pendingDrop = pendingDrops.peek();
+            if (pendingDrop == null) {
+                return;
+            }
+            synchronized (pendingDrops) {
+                if (pendingDrops.peek() != pendingDrop) {
+                    continue;
+                }
+                if (!enqueue(pendingDrop.drop, true)) {
+                    return;
+                }
+                pendingDrops.poll();
+            }
+            pendingDrop.promise.complete();
+        }
+    }
+
+    private void checkHighWatermark() {
+        int configuredHighWatermark = getHighWatermark();
+        if (configuredHighWatermark > 0 && depth.get() >= configuredHighWatermark
+                && overHighWatermark.compareAndSet(false, true)) {
+            whenWatermarkCrossed(true, depth.get());
+        }
+    }
+
+    private void checkLowWatermark(int current) {
+        if (current <= getLowWatermark() && overHighWatermark.compareAndSet(true, false)) {
+            whenWatermarkCrossed(false, current);
+        }
+    }
+
+    /**
+     * Called when the depth reaches the high watermark, or falls back to the low watermark after that,
+     * for producers to shed load.
+     *
+     * @param overHighWatermark true when the high watermark reached, false when the low watermark reached.
+     * @param depth             the depth of the queue then.
+     * @since 3.3.0
+     */
+    protected void whenWatermarkCrossed(boolean overHighWatermark, int depth) {
+        // do nothing by default
+    }
+
+    /**
+     * Called when the oldest drop is discarded by {@link OverflowPolicy#DROP_OLDEST}.
+     *
+     * @since 3.3.0
+     */
+    protected void whenDropDiscarded(T t) {
+        // do nothing by default
+    }
+
+    /**
+     * @return the count of drops in queue, not including the ones waiting for space.
+     * @since 3.3.0
+     */
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * @return the count of drops waiting for space with {@link OverflowPolicy#WAIT}.
+     * @since 3.3.0
+     */
+    public int getPendingDropCount() {
+        return pendingDrops.size();
+    }
+
+    /**
+     * @return the count of batches taken out of queue to process, i.e. the calls of {@link #process(List)} except retries.
+     * @since 3.3.0
+     */
+    public long getProcessedBatchCount() {
+        return processedBatchCount.get();
+    }
+
+    /**
+     * @return the count of retries scheduled.
+     * @since 3.3.0
+     */
+    public long getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    /**
+     * @return the count of drops sent to {@link #handleDeadLetters(List, Throwable)}.
+     * @since 3.3.0
+     */
+    public long getDeadLetterCount() {
+        return deadLetterCount.get();
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * @return the count of drops discarded by {@link OverflowPolicy#DROP_OLDEST}.
+     * @since 3.3.0
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
     }
 
     private Promise<Void> getCurrentInterrupt() {
@@ -56,36 +388,46 @@ abstract public class KeelIntravenousBase<T> extends KeelVerticleImplWithEventLo
             this.interruptRef.set(null);
 
             KeelAsyncKit.repeatedlyCall(routineResult -> {
-                        List<T> buffer = new ArrayList<>();
-                        while (true) {
-                            T t = queue.poll();
-                            if (t != null) {
-                                buffer.add(t);
-                                if (buffer.size() >= configuredBatchSize) {
-                                    break;
-                                }
-                            } else {
-                                break;
-                            }
+                        QueuedDrop<T> head = queue.peek();
+                        if (head == null) {
+                            routineResult.stop();
+                            return Future.succeededFuture();
                         }
+                        // since 3.3.0, linger until a full batch or the oldest drop waited enough
+                        long lingerRemaining = getLingerRemaining(head);
+                        if (lingerRemaining > 0) {
+                            Promise<Void> interrupt = Promise.promise();
+                            this.interruptRef.set(interrupt);
+                            return KeelAsyncKit.sleep(lingerRemaining, interrupt);
+                        }
+
+                        List<T> buffer = takeBatch(configuredBatchSize);
                         if (buffer.isEmpty()) {
                             routineResult.stop();
                             return Future.succeededFuture();
                         }
+                        // since 3.3.0, space freed
+                        admitPendingDrops();
+                        processingBatchCount.incrementAndGet();
+                        processedBatchCount.incrementAndGet();
 
                         // got one job to do, no matter if done
-                        return Future.succeededFuture()
-                                .compose(v -> {
-                                    return this.process(buffer);
-                                })
+                        return attemptToProcess(buffer)
                                 .compose(v -> {
+                                    processingBatchCount.decrementAndGet();
                                     return Future.succeededFuture();
                                 }, throwable -> {
+                                    // since 3.3.0, retried aside, not blocking the batches behind
+                                    whenBatchFailed(buffer, 1, throwable);
                                     return Future.succeededFuture();
                                 });
                     })
                     .andThen(ar -> {
                         this.interruptRef.set(Promise.promise());
+                        if (!queue.isEmpty()) {
+                            // since 3.3.0, a drop came before the interrupt set
+                            getCurrentInterrupt().tryComplete();
+                        }
 
                         KeelAsyncKit.sleep(sleptTime(), getCurrentInterrupt())
                                 .andThen(slept -> {
@@ -95,6 +437,73 @@ abstract public class KeelIntravenousBase<T> extends KeelVerticleImplWithEventLo
         });
     }
 
+    private Future<Void> attemptToProcess(List<T> batch) {
+        return Future.succeededFuture()
+                .compose(v -> this.process(batch));
+    }
+
+    /**
+     * Retry the failed batch after backoff, or send it to the dead letters;
+     * the batch is counted as in process until then.
+     *
+     * @since 3.3.0
+     */
+    private void whenBatchFailed(List<T> batch, int failedAttempts, Throwable throwable) {
+        KeelIntravenousRetryPolicy policy = getRetryPolicy();
+        if (policy == null || !policy.shouldRetry(failedAttempts)) {
+            deadLetterCount.addAndGet(batch.size());
+            try {
+                handleDeadLetters(batch, throwable);
+            } catch (Throwable e) {
+                getLogger().exception(e, r -> r.message("intravenous dead letter handler error"));
+            } finally {
+                processingBatchCount.decrementAndGet();
+            }
+            return;
+        }
+        if (policy.getRetryMode() == KeelIntravenousRetryPolicy.RetryMode.ITEM && batch.size() > 1) {
+            // each drop goes on alone, and this batch ends
+            for (T t : batch) {
+                processingBatchCount.incrementAndGet();
+                scheduleRetry(Collections.singletonList(t), failedAttempts, policy);
+            }
+            processingBatchCount.decrementAndGet();
+            return;
+        }
+        scheduleRetry(batch, failedAttempts, policy);
+    }
+
+    private void scheduleRetry(List<T> batch, int failedAttempts, @Nonnull KeelIntravenousRetryPolicy policy) {
+        retriedCount.incrementAndGet();
+        Keel.getVertx().setTimer(policy.computeBackoff(failedAttempts), timerID -> attemptToProcess(batch)
+                .onComplete(ar -> {
+                    if (ar.succeeded()) {
+                        processingBatchCount.decrementAndGet();
+                    } else {
+                        whenBatchFailed(batch, failedAttempts + 1, ar.cause());
+                    }
+                }));
+    }
+
+    /**
+     * Called with the drops failed in all attempts; by default, logged to the event logger.
+     *
+     * @param drops     the failed batch, or one drop of it in {@link KeelIntravenousRetryPolicy.RetryMode#ITEM}.
+     * @param throwable the failure of the last attempt.
+     * @since 3.3.0
+     */
+    protected void handleDeadLetters(@Nonnull List<T> drops, @Nonnull Throwable throwable) {
+        getLogger().exception(throwable, r -> r.message("intravenous drops failed: " + drops.size()));
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    @Nullable
+    protected KeelIntravenousRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
     protected int getBatchSize() {
         return batchSize;
     }
@@ -103,12 +512,68 @@ abstract public class KeelIntravenousBase<T> extends KeelVerticleImplWithEventLo
         return sleepTime;
     }
 
+    /**
+     * @since 3.3.0
+     */
+    protected long getLingerTime() {
+        return lingerTime;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    protected long getBatchWeightLimit() {
+        return batchWeightLimit;
+    }
+
+    /**
+     * @return the weight of a drop, such as its size in bytes, used only when the batch weight limit is set; 1 by default.
+     * @since 3.3.0
+     */
+    protected long weigh(T t) {
+        return 1L;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    protected int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    @Nonnull
+    protected OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    protected int getHighWatermark() {
+        return highWatermark;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    protected int getLowWatermark() {
+        return lowWatermark;
+    }
+
     /**
      * @since 3.0.12
      */
     public void declareShutdown() {
         // declare shutdown, to avoid new tasks coming.
         this.queueAcceptTask = false;
+        // since 3.3.0, stop lingering
+        Promise<Void> currentInterrupt = getCurrentInterrupt();
+        if (currentInterrupt != null) {
+            currentInterrupt.tryComplete();
+        }
     }
 
     /**
@@ -117,9 +582,9 @@ abstract public class KeelIntravenousBase<T> extends KeelVerticleImplWithEventLo
      */
     public Future<Void> shutdown() {
         declareShutdown();
-        // waiting for the queue clear
+        // waiting for the queue clear, and since 3.3.0 the batches in process done
         return KeelAsyncKit.repeatedlyCall(routineResult -> {
-                    if (this.queue.isEmpty()) {
+                    if (this.queue.isEmpty() && this.pendingDrops.isEmpty() && this.processingBatchCount.get() == 0) {
                         routineResult.stop();
                         return Future.succeededFuture();
                     } else {
@@ -127,6 +592,10 @@ abstract public class KeelIntravenousBase<T> extends KeelVerticleImplWithEventLo
                     }
                 })
                 .compose(allTasksInQueueIsConsumed -> {
+                    if (this.context == null) {
+                        // since 3.3.0, started directly without deployment, as the issue recorder adapters do
+                        return Future.succeededFuture();
+                    }
                     return this.undeployMe();
                 });
     }
@@ -139,4 +608,45 @@ abstract public class KeelIntravenousBase<T> extends KeelVerticleImplWithEventLo
         return KeelIssueRecordCenter.silentCenter().generateEventLogger(getClass().getName());
     }
 
+    /**
+     * What to do when a drop comes to a full queue.
+     *
+     * @since 3.3.0
+     */
+    public enum OverflowPolicy {
+        /**
+         * Refuse the new drop.
+         */
+        REJECT,
+        /**
+         * Discard the oldest drop in queue to make room.
+         */
+        DROP_OLDEST,
+        /**
+         * With {@link #addAsync(Object)}, wait until space freed; with {@link #add(Object)}, as {@link #REJECT}.
+         */
+        WAIT
+    }
+
+    private static class QueuedDrop<T> {
+        final T drop;
+        final long queuedTime;
+        final long weight;
+
+        QueuedDrop(T drop, long queuedTime, long weight) {
+            this.drop = drop;
+            this.queuedTime = queuedTime;
+            this.weight = weight;
+        }
+    }
+
+    private static class PendingDrop<T> {
+        final T drop;
+        final Promise<Void> promise = Promise.promise();
+
+        PendingDrop(T drop) {
+            this.drop = drop;
+        }
+    }
+
 }
@@ -0,0 +1,126 @@
+package io.github.sinri.keel.servant.intravenous;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How an intravenous retries a failed batch: the max attempts, the exponential backoff with jitter between them,
+ * and whether to retry the whole batch or each drop of it.
+ * The retries wait on timers aside the consumer, so the batches behind go on;
+ * thus the drops of a retried batch might be processed after the later ones.
+ *
+ * @since 3.3.0
+ */
+public class KeelIntravenousRetryPolicy {
+    private int maxAttempts = 3;
+    private long initialBackoff = 100L;
+    private double backoffMultiplier = 2.0;
+    private long maxBackoff = 10_000L;
+    private double jitter = 0.2;
+    private RetryMode retryMode = RetryMode.BATCH;
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param maxAttempts the max count of attempts including the first one; 1 for no retry.
+     */
+    public KeelIntravenousRetryPolicy setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts should be positive");
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * @param initialBackoff the backoff in ms before the second attempt.
+     */
+    public KeelIntravenousRetryPolicy setInitialBackoff(long initialBackoff) {
+        this.initialBackoff = Math.max(1, initialBackoff);
+        return this;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    public KeelIntravenousRetryPolicy setBackoffMultiplier(double backoffMultiplier) {
+        if (backoffMultiplier < 1) {
+            throw new IllegalArgumentException("backoffMultiplier should not be less than 1");
+        }
+        this.backoffMultiplier = backoffMultiplier;
+        return this;
+    }
+
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public KeelIntravenousRetryPolicy setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = Math.max(1, maxBackoff);
+        return this;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * @param jitter the ratio in [0, 1] the backoff randomly varies by, to spread the retries of batches failed together.
+     */
+    public KeelIntravenousRetryPolicy setJitter(double jitter) {
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("jitter should be in [0, 1]");
+        }
+        this.jitter = jitter;
+        return this;
+    }
+
+    @Nonnull
+    public RetryMode getRetryMode() {
+        return retryMode;
+    }
+
+    public KeelIntravenousRetryPolicy setRetryMode(@Nonnull RetryMode retryMode) {
+        this.retryMode = retryMode;
+        return this;
+    }
+
+    /**
+     * @param failedAttempts the count of attempts failed.
+     * @return whether to attempt again.
+     */
+    public boolean shouldRetry(int failedAttempts) {
+        return failedAttempts < maxAttempts;
+    }
+
+    /**
+     * @param failedAttempts the count of attempts failed, at least 1.
+     * @return the backoff in ms before the next attempt.
+     */
+    public long computeBackoff(int failedAttempts) {
+        double backoff = initialBackoff * Math.pow(backoffMultiplier, Math.max(0, failedAttempts - 1));
+        backoff = Math.min(backoff, maxBackoff);
+        if (jitter > 0) {
+            backoff = backoff * (1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1));
+        }
+        return Math.max(1L, Math.round(backoff));
+    }
+
+    public enum RetryMode {
+        /**
+         * Retry the failed batch as a whole.
+         */
+        BATCH,
+        /**
+         * Retry each drop of the failed batch alone, so that only the bad ones go to the dead letters.
+         */
+        ITEM
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.sinri.keel.servant.intravenous;
+
+import io.github.sinri.keel.logger.event.KeelEventLogger;
+import io.github.sinri.keel.logger.issue.center.KeelIssueRecordCenter;
+import io.github.sinri.keel.verticles.KeelVerticleImplWithEventLogger;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * An intravenous with several consumers running in parallel, each of which is a {@link KeelIntravenous} as a partition.
+ * The drops with the same partition key go to the same partition, and are processed in the order added,
+ * except for the retried ones: a failed batch is retried after its backoff while the partition goes on with the newer drops,
+ * so a retried drop could be processed after the ones added later with the same key;
+ * without the partition key function, drops are spread to partitions in turn, and the order is not kept.
+ * The batch size, sleep time, linger time, batch weight limit, capacity and retry policy are of each partition.
+ * The partitions are deployed as child verticles when this one deployed.
+ *
+ * @param <T> The type of drop
+ * @since 3.3.0
+ */
+public class KeelParallelIntravenous<T> extends KeelVerticleImplWithEventLogger {
+    private final Function<List<T>, Future<Void>> processor;
+    private final List<KeelIntravenous<T>> partitions = new ArrayList<>();
+    private final AtomicLong roundRobinCounter = new AtomicLong(0);
+    private int consumerCount = 1;
+    private Function<T, ?> partitionKeyFunction;
+    private int batchSize = 1;
+    private long sleepTime = 1_000L;
+    private int capacity = 0;
+    private KeelIntravenousBase.OverflowPolicy overflowPolicy = KeelIntravenousBase.OverflowPolicy.REJECT;
+    private long lingerTime = 0L;
+    private long batchWeightLimit = 0L;
+    private ToLongFunction<T> weigher;
+    private KeelIntravenousRetryPolicy retryPolicy;
+    private BiConsumer<List<T>, Throwable> deadLetterHandler;
+    private volatile boolean queueAcceptTask = false;
+
+    public KeelParallelIntravenous(@Nonnull Function<List<T>, Future<Void>> processor) {
+        super();
+        this.processor = processor;
+    }
+
+    public KeelParallelIntravenous<T> setConsumerCount(int consumerCount) {
+        if (consumerCount < 1) consumerCount = 1;
+        this.consumerCount = consumerCount;
+        return this;
+    }
+
+    /**
+     * @param partitionKeyFunction to get the key of a drop, whose hash code decides the partition; null to spread in turn.
+     */
+    public KeelParallelIntravenous<T> setPartitionKeyFunction(@Nullable Function<T, ?> partitionKeyFunction) {
+        this.partitionKeyFunction = partitionKeyFunction;
+        return this;
+    }
+
+    public KeelParallelIntravenous<T> setBatchSize(int batchSize) {
+        if (batchSize < 1) batchSize = 1;
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public KeelParallelIntravenous<T> setSleepTime(long sleepTime) {
+        if (sleepTime < 1) sleepTime = 1;
+        this.sleepTime = sleepTime;
+        return this;
+    }
+
+    /**
+     * @param capacity the max count of drops in each partition, zero for unbounded.
+     */
+    public KeelParallelIntravenous<T> setCapacity(int capacity, @Nonnull KeelIntravenousBase.OverflowPolicy overflowPolicy) {
+        this.capacity = Math.max(0, capacity);
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * @see KeelIntravenous#setLingerTime(long)
+     */
+    public KeelParallelIntravenous<T> setLingerTime(long lingerTime) {
+        this.lingerTime = Math.max(0, lingerTime);
+        return this;
+    }
+
+    /**
+     * @see KeelIntravenous#setBatchWeightLimit(long, ToLongFunction)
+     */
+    public KeelParallelIntravenous<T> setBatchWeightLimit(long batchWeightLimit, @Nonnull ToLongFunction<T> weigher) {
+        this.batchWeightLimit = Math.max(0, batchWeightLimit);
+        this.weigher = weigher;
+        return this;
+    }
+
+    /**
+     * Note that the retried drops lose their order among the drops with the same partition key.
+     *
+     * @see KeelIntravenous#setRetryPolicy(KeelIntravenousRetryPolicy)
+     */
+    public KeelParallelIntravenous<T> setRetryPolicy(@Nullable KeelIntravenousRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * @see KeelIntravenous#setDeadLetterHandler(BiConsumer)
+     */
+    public KeelParallelIntravenous<T> setDeadLetterHandler(@Nullable BiConsumer<List<T>, Throwable> deadLetterHandler) {
+        this.deadLetterHandler = deadLetterHandler;
+        return this;
+    }
+
+    public int getConsumerCount() {
+        return consumerCount;
+    }
+
+    @Override
+    protected KeelEventLogger buildEventLogger() {
+        return KeelIssueRecordCenter.silentCenter().generateEventLogger(getClass().getName());
+    }
+
+    @Override
+    protected void startAsKeelVerticle(Promise<Void> startPromise) {
+        partitions.clear();
+        List<Future<String>> deployed = new ArrayList<>();
+        for (int i = 0; i < consumerCount; i++) {
+            KeelIntravenous<T> partition = new KeelIntravenous<>(processor)
+                    .setBatchSize(batchSize)
+                    .setSleepTime(sleepTime)
+                    .setCapacity(capacity, overflowPolicy)
+                    .setLingerTime(lingerTime)
+                    .setRetryPolicy(retryPolicy)
+                    .setDeadLetterHandler(deadLetterHandler);
+            if (weigher != null) {
+                partition.setBatchWeightLimit(batchWeightLimit, weigher);
+            }
+            partitions.add(partition);
+            deployed.add(partition.deployMe(new DeploymentOptions().setThreadingModel(context.threadingModel())));
+        }
+        Future.all(deployed)
+                .onSuccess(v -> {
+                    queueAcceptTask = true;
+                    startPromise.complete();
+                })
+                .onFailure(startPromise::fail);
+    }
+
+    @Override
+    protected void startAsKeelVerticle() {
+        // the partitions are deployed in the async start
+    }
+
+    private KeelIntravenous<T> choosePartition(T t) {
+        if (!queueAcceptTask) {
+            throw new IllegalStateException("shutdown declared");
+        }
+        int index;
+        if (partitionKeyFunction == null) {
+            index = (int) (roundRobinCounter.getAndIncrement() % partitions.size());
+        } else {
+            Object key = partitionKeyFunction.apply(t);
+            index = Math.floorMod(key == null ? 0 : key.hashCode(), partitions.size());
+        }
+        return partitions.get(index);
+    }
+
+    /**
+     * @see KeelIntravenousBase#add(Object)
+     */
+    public void add(T t) {
+        choosePartition(t).add(t);
+    }
+
+    /**
+     * @see KeelIntravenousBase#addAsync(Object)
+     */
+    public Future<Void> addAsync(T t) {
+        KeelIntravenous<T> partition;
+        try {
+            partition = choosePartition(t);
+        } catch (IllegalStateException e) {
+            return Future.failedFuture(e);
+        }
+        return partition.addAsync(t);
+    }
+
+    /**
+     * @return the count of drops in all partitions.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (KeelIntravenous<T> partition : partitions) {
+            depth += partition.getQueueDepth();
+        }
+        return depth;
+    }
+
+    public void declareShutdown() {
+        this.queueAcceptTask = false;
+        partitions.forEach(KeelIntravenousBase::declareShutdown);
+    }
+
+    /**
+     * @return Async result is done after all partitions drained and this instance undeploy.
+     */
+    public Future<Void> shutdown() {
+        declareShutdown();
+        List<Future<Void>> drained = new ArrayList<>();
+        partitions.forEach(partition -> drained.add(partition.shutdown()));
+        return Future.all(drained)
+                .compose(allPartitionsDrained -> this.undeployMe());
+    }
+}
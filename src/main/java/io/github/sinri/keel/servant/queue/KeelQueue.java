@@ -4,9 +4,16 @@ import io.github.sinri.keel.facade.async.KeelAsyncKit;
 import io.github.sinri.keel.verticles.KeelVerticleImplWithIssueRecorder;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.ThreadingModel;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.eventbus.MessageConsumer;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
 
 import static io.github.sinri.keel.facade.KeelInstance.Keel;
 
@@ -22,6 +29,26 @@ public abstract class KeelQueue extends KeelVerticleImplWithIssueRecorder<QueueM
     private QueueWorkerPoolManager queueWorkerPoolManager;
     private SignalReader signalReader;
     private QueueStatus queueStatus = QueueStatus.INIT;
+    /**
+     * Held open while the queue runs, so that the named worker pool is not closed between the tasks deployed on it.
+     *
+     * @since 3.3.0
+     */
+    private WorkerExecutor taskWorkerExecutor;
+    private String taskWorkerPoolName;
+    private int taskWorkerPoolSize;
+    /**
+     * @since 3.3.0
+     */
+    private final Object wakeUpLock = new Object();
+    private boolean wakeUpPending = false;
+    private Promise<Void> wakeUpWaiter;
+    private long wakeUpTimerID;
+    private MessageConsumer<Object> newTaskSignalConsumer;
+    /**
+     * @since 3.3.0
+     */
+    private KeelQueueTaskScheduler taskScheduler;
 
     public QueueStatus getQueueStatus() {
         return queueStatus;
@@ -33,15 +60,64 @@ public abstract class KeelQueue extends KeelVerticleImplWithIssueRecorder<QueueM
     }
 
     /**
-     * Create a new instance of QueueWorkerPoolManager when routine starts.
+     * Create a new instance of QueueWorkerPoolManager when the queue starts.
      * By default, it uses an unlimited pool, this could be override if needed.
+     * The max worker count and weight of each task category could be set on it as well.
      *
      * @since 3.0.9
+     * @since 3.3.0 called once when the queue starts, instead of each routine.
      */
     protected @Nonnull QueueWorkerPoolManager getQueueWorkerPoolManager() {
         return new QueueWorkerPoolManager(0);
     }
 
+    /**
+     * @return how to run the tasks, by default each task is deployed as a worker verticle.
+     * @since 3.3.0
+     */
+    protected @Nonnull TaskExecutionMode getTaskExecutionMode() {
+        return TaskExecutionMode.DEPLOYMENT;
+    }
+
+    /**
+     * @return the size of the named worker pool to run tasks in {@link TaskExecutionMode#POOLED} mode;
+     *         by default the max worker count of the pool manager, or the default worker pool size of Vert.x if unlimited.
+     * @since 3.3.0
+     */
+    protected int getTaskWorkerExecutorPoolSize() {
+        int maxWorkerCount = this.queueWorkerPoolManager.getMaxWorkerCount();
+        return maxWorkerCount > 0 ? maxWorkerCount : VertxOptions.DEFAULT_WORKER_POOL_SIZE;
+    }
+
+    /**
+     * @return the max count of tasks to seek in one call of {@link KeelQueueNextTaskSeeker#getBatch(int, Map)};
+     *         the count is limited by the free workers as well.
+     * @since 3.3.0
+     */
+    protected int getMaxSeekBatchSize() {
+        return 16;
+    }
+
+    /**
+     * @return how many tasks could be claimed more than the free workers, waiting in memory,
+     *         so that the scheduler could choose among categories and priorities; 0 by default, to claim only what could start.
+     *         The claimed tasks not started when the queue stops are handed back by
+     *         {@link KeelQueueNextTaskSeeker#releaseClaimedTasks(List)}.
+     * @since 3.3.0
+     */
+    protected int getSeekLookAhead() {
+        return 0;
+    }
+
+    /**
+     * @return the address on event bus to listen for the signal of new tasks, or null to not listen.
+     * @see #signalNewTask(String)
+     * @since 3.3.0
+     */
+    protected @Nullable String getNewTaskSignalAddress() {
+        return null;
+    }
+
     /**
      * Create a new instance of KeelQueueNextTaskSeeker when routine starts.
      */
@@ -58,6 +134,24 @@ public abstract class KeelQueue extends KeelVerticleImplWithIssueRecorder<QueueM
     protected void startAsKeelVerticle() {
         this.queueStatus = QueueStatus.RUNNING;
 
+        // since 3.3.0, kept through the routines, so that the running workers of each category are counted
+        this.queueWorkerPoolManager = getQueueWorkerPoolManager();
+        this.queueWorkerPoolManager.setWorkerFreedHandler(this::wakeUp);
+        this.taskScheduler = new KeelQueueTaskScheduler(this.queueWorkerPoolManager);
+
+        if (getTaskExecutionMode() == TaskExecutionMode.POOLED) {
+            // since 3.3.0
+            this.taskWorkerPoolName = "KeelQueue-" + getClass().getName() + "-" + deploymentID();
+            this.taskWorkerPoolSize = getTaskWorkerExecutorPoolSize();
+            this.taskWorkerExecutor = Keel.getVertx().createSharedWorkerExecutor(taskWorkerPoolName, taskWorkerPoolSize);
+        }
+
+        String newTaskSignalAddress = getNewTaskSignalAddress();
+        if (newTaskSignalAddress != null) {
+            // since 3.3.0
+            this.newTaskSignalConsumer = Keel.getVertx().eventBus().consumer(newTaskSignalAddress, message -> wakeUp());
+        }
+
         try {
             routine();
         } catch (Exception e) {
@@ -69,7 +163,6 @@ public abstract class KeelQueue extends KeelVerticleImplWithIssueRecorder<QueueM
     protected final void routine() {
         getIssueRecorder().debug(r -> r.message("KeelQueue::routine start"));
         this.signalReader = getSignalReader();
-        this.queueWorkerPoolManager = getQueueWorkerPoolManager();
         this.nextTaskSeeker = getNextTaskSeeker();
 
         Future.succeededFuture()
@@ -96,7 +189,8 @@ public abstract class KeelQueue extends KeelVerticleImplWithIssueRecorder<QueueM
                 .eventually(() -> {
                     long waitingMs = nextTaskSeeker.waitingMs();
                     getIssueRecorder().debug(r -> r.message("set timer for next routine after " + waitingMs + " ms"));
-                    Keel.getVertx().setTimer(waitingMs, timerID -> routine());
+                    // since 3.3.0, the next routine might be woken up earlier
+                    waitForWakeUp(waitingMs).onComplete(ar -> routine());
                     return Future.succeededFuture();
                 })
         ;
@@ -107,52 +201,58 @@ public abstract class KeelQueue extends KeelVerticleImplWithIssueRecorder<QueueM
             this.queueStatus = QueueStatus.STOPPED;
             getIssueRecorder().notice(r -> r.message("Signal Stop Received"));
         }
-        return Future.succeededFuture();
+        // since 3.3.0
+        return releaseClaimedTasks();
+    }
+
+    /**
+     * Hand the claimed tasks not started back to the seeker, as they would not start after the queue stops.
+     *
+     * @since 3.3.0
+     */
+    private Future<Void> releaseClaimedTasks() {
+        if (taskScheduler == null || nextTaskSeeker == null) {
+            return Future.succeededFuture();
+        }
+        List<KeelQueueTask> tasks = taskScheduler.drain();
+        if (tasks.isEmpty()) {
+            return Future.succeededFuture();
+        }
+        tasks.forEach(task -> getIssueRecorder().warning(r -> r.message("Claimed task not started, to release: " + task.getTaskReference())));
+        return Future.succeededFuture()
+                .compose(v -> nextTaskSeeker.releaseClaimedTasks(tasks))
+                .recover(throwable -> {
+                    getIssueRecorder().exception(throwable, r -> r.message("Failed to release " + tasks.size() + " claimed tasks"));
+                    return Future.succeededFuture();
+                });
     }
 
     private Future<Void> whenSignalRunCame(KeelQueueNextTaskSeeker nextTaskSeeker) {
         this.queueStatus = QueueStatus.RUNNING;
 
         return KeelAsyncKit.repeatedlyCall(routineResult -> {
-                    if (this.queueWorkerPoolManager.isBusy()) {
-                        return KeelAsyncKit.sleep(1_000L);
-                    }
-
-                    return Future.succeededFuture()
-                            .compose(v -> nextTaskSeeker.get())
-                            .compose(task -> {
-                                if (task == null) {
-                                    // 队列里已经空了，不必再找
-                                    getIssueRecorder().debug(r -> r.message("No more task todo"));
-                                    // 通知 FutureUntil 结束
-                                    routineResult.stop();
-                                    return Future.succeededFuture();
+                    return dispatchReadyTasks()
+                            .compose(dispatched -> {
+                                int limit = getSeekLimit();
+                                if (limit <= 0) {
+                                    // since 3.3.0, no free worker for more tasks,
+                                    // woken up as soon as a worker ends, or check again after a second
+                                    return waitForWakeUp(1_000L);
                                 }
-
-                                // 队列里找出来一个task, deploy it (至于能不能跑起来有没有锁就不管了)
-                                getIssueRecorder().info(r -> r.message("To run task: " + task.getTaskReference()));
-                                getIssueRecorder().info(r -> r.message("Trusted that task is already locked by seeker: " + task.getTaskReference()));
-
-                                // since 3.0.9
-                                task.setQueueWorkerPoolManager(this.queueWorkerPoolManager);
-
                                 return Future.succeededFuture()
-                                        .compose(v -> task.deployMe(new DeploymentOptions()
-                                                .setThreadingModel(ThreadingModel.WORKER)
-                                        ))
-                                        .compose(
-                                                deploymentID -> {
-                                                    getIssueRecorder().info(r -> r.message("TASK [" + task.getTaskReference() + "] VERTICLE DEPLOYED: " + deploymentID));
-                                                    // 通知 FutureUntil 继续下一轮
-                                                    return Future.succeededFuture();
-                                                },
-                                                throwable -> {
-                                                    getIssueRecorder().exception(throwable, r -> r.message("CANNOT DEPLOY TASK [" + task.getTaskReference() + "] VERTICLE"));
-                                                    // 通知 FutureUntil 继续下一轮
-                                                    return Future.succeededFuture();
-                                                }
-                                        );
-
+                                        .compose(v -> nextTaskSeeker.getBatch(limit, taskScheduler.getCategoryQuotas()))
+                                        .compose(tasks -> {
+                                            if (tasks == null || tasks.isEmpty()) {
+                                                // 队列里已经空了，不必再找
+                                                getIssueRecorder().debug(r -> r.message("No more task todo"));
+                                                // 通知 FutureUntil 结束
+                                                routineResult.stop();
+                                                return Future.succeededFuture();
+                                            }
+                                            // since 3.3.0, started by category weight and task priority in the next round
+                                            tasks.forEach(taskScheduler::offer);
+                                            return Future.succeededFuture();
+                                        });
                             });
                 })
                 .recover(throwable -> {
@@ -161,9 +261,169 @@ public abstract class KeelQueue extends KeelVerticleImplWithIssueRecorder<QueueM
                 });
     }
 
+    /**
+     * Start the claimed tasks one by one, while the pool and their categories have free workers.
+     *
+     * @since 3.3.0
+     */
+    private Future<Void> dispatchReadyTasks() {
+        KeelQueueTask task = taskScheduler.poll();
+        if (task == null) {
+            return Future.succeededFuture();
+        }
+        return startTask(task).compose(v -> dispatchReadyTasks());
+    }
+
+    /**
+     * @since 3.3.0 extracted from the routine, to start each task of a batch.
+     */
+    private Future<Void> startTask(@Nonnull KeelQueueTask task) {
+        // 队列里找出来一个task, deploy it (至于能不能跑起来有没有锁就不管了)
+        getIssueRecorder().info(r -> r.message("To run task: " + task.getTaskReference()));
+        getIssueRecorder().info(r -> r.message("Trusted that task is already locked by seeker: " + task.getTaskReference()));
+
+        // since 3.0.9
+        task.setQueueWorkerPoolManager(this.queueWorkerPoolManager);
+
+        DeploymentOptions deploymentOptions = new DeploymentOptions()
+                .setThreadingModel(ThreadingModel.WORKER);
+        if (this.taskWorkerPoolName != null) {
+            // since 3.3.0, on the named worker pool of this queue
+            deploymentOptions.setWorkerPoolName(taskWorkerPoolName)
+                    .setWorkerPoolSize(taskWorkerPoolSize);
+        }
+
+        return Future.succeededFuture()
+                .compose(v -> task.deployMe(deploymentOptions))
+                .compose(
+                        deploymentID -> {
+                            getIssueRecorder().info(r -> r.message("TASK [" + task.getTaskReference() + "] VERTICLE DEPLOYED: " + deploymentID));
+                            // 通知 FutureUntil 继续下一轮
+                            return Future.succeededFuture();
+                        },
+                        throwable -> {
+                            getIssueRecorder().exception(throwable, r -> r.message("CANNOT DEPLOY TASK [" + task.getTaskReference() + "] VERTICLE"));
+                            // 通知 FutureUntil 继续下一轮
+                            return Future.succeededFuture();
+                        }
+                );
+    }
+
+    /**
+     * @return how many tasks to seek in one call: the free workers of the pool (the max seek batch size for an unlimited pool)
+     *         and the look-ahead, less the claimed tasks waiting; as the ready tasks are dispatched before,
+     *         the waiting ones are held by busy categories and count against the free workers.
+     * @since 3.3.0
+     */
+    private int getSeekLimit() {
+        int freeWorkers;
+        int maxWorkerCount = queueWorkerPoolManager.getMaxWorkerCount();
+        if (maxWorkerCount > 0) {
+            freeWorkers = maxWorkerCount - queueWorkerPoolManager.getRunningWorkerCount();
+        } else {
+            freeWorkers = getMaxSeekBatchSize();
+        }
+        int limit = freeWorkers + Math.max(0, getSeekLookAhead()) - taskScheduler.size();
+        return Math.min(getMaxSeekBatchSize(), limit);
+    }
+
+    /**
+     * @return the statistics of each task category since the queue started, empty before that.
+     * @since 3.3.0
+     */
+    @Nonnull
+    public Map<String, QueueCategoryStatistics> getCategoryStatistics() {
+        if (this.queueWorkerPoolManager == null) {
+            return Map.of();
+        }
+        return this.queueWorkerPoolManager.getCategoryStatistics();
+    }
+
+    /**
+     * Wake the routine up if it is waiting for the next round or for a free worker,
+     * so that new tasks are sought at once; if it is not waiting, the next wait ends at once.
+     * It is called when a worker ends on a busy pool, or a new task signal comes through the event bus.
+     *
+     * @since 3.3.0
+     */
+    public final void wakeUp() {
+        Promise<Void> waiter;
+        long timerID;
+        synchronized (wakeUpLock) {
+            if (wakeUpWaiter == null) {
+                wakeUpPending = true;
+                return;
+            }
+            waiter = wakeUpWaiter;
+            timerID = wakeUpTimerID;
+            wakeUpWaiter = null;
+        }
+        Keel.getVertx().cancelTimer(timerID);
+        // the caller might be on another context, such as a task verticle just undeployed;
+        // the routine goes on in the context of the queue
+        context.runOnContext(v -> waiter.tryComplete());
+    }
+
+    /**
+     * @return a future completed when woken up, or after the given time.
+     * @since 3.3.0
+     */
+    private Future<Void> waitForWakeUp(long waitingMs) {
+        synchronized (wakeUpLock) {
+            if (wakeUpPending) {
+                wakeUpPending = false;
+                return Future.succeededFuture();
+            }
+            Promise<Void> waiter = Promise.promise();
+            wakeUpWaiter = waiter;
+            wakeUpTimerID = Keel.getVertx().setTimer(waitingMs, timerID -> {
+                synchronized (wakeUpLock) {
+                    if (wakeUpWaiter == waiter) {
+                        wakeUpWaiter = null;
+                    }
+                }
+                waiter.tryComplete();
+            });
+            return waiter.future();
+        }
+    }
+
+    /**
+     * Signal the queues listening on the address that new tasks come.
+     *
+     * @see #getNewTaskSignalAddress()
+     * @since 3.3.0
+     */
+    public static void signalNewTask(@Nonnull String address) {
+        Keel.getVertx().eventBus().publish(address, null);
+    }
+
+    /**
+     * @since 3.3.0 stopped after the claimed tasks not started handed back.
+     */
+    @Override
+    public void stop(Promise<Void> stopPromise) {
+        this.queueStatus = QueueStatus.STOPPED;
+        releaseClaimedTasks()
+                .onComplete(released -> {
+                    try {
+                        stop();
+                        stopPromise.complete();
+                    } catch (Exception e) {
+                        stopPromise.fail(e);
+                    }
+                });
+    }
+
     @Override
     public void stop() {
         this.queueStatus = QueueStatus.STOPPED;
+        if (this.newTaskSignalConsumer != null) {
+            this.newTaskSignalConsumer.unregister();
+        }
+        if (this.taskWorkerExecutor != null) {
+            this.taskWorkerExecutor.close();
+        }
     }
 
     public enum QueueSignal {
@@ -171,6 +431,23 @@ public abstract class KeelQueue extends KeelVerticleImplWithIssueRecorder<QueueM
         STOP
     }
 
+    /**
+     * @since 3.3.0
+     */
+    public enum TaskExecutionMode {
+        /**
+         * Each task is deployed as a worker verticle and undeployed when done.
+         */
+        DEPLOYMENT,
+        /**
+         * Each task is deployed as a worker verticle on the named worker pool of the queue,
+         * sized by {@link #getTaskWorkerExecutorPoolSize()}, instead of the default worker pool of Vert.x;
+         * so the tasks of the queue do not take the threads of the others, and could not take more than the pool.
+         * As in {@link #DEPLOYMENT}, the task and all its continuations run on its own worker context.
+         */
+        POOLED
+    }
+
     public enum QueueStatus {
         INIT,
         RUNNING,
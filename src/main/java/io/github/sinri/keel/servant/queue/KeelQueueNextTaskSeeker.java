@@ -2,6 +2,9 @@ package io.github.sinri.keel.servant.queue;
 
 import io.vertx.core.Future;
 
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 /**
@@ -20,6 +23,49 @@ public interface KeelQueueNextTaskSeeker extends Supplier<Future<KeelQueueTask>>
     @Override
     Future<KeelQueueTask> get();
 
+    /**
+     * 找出至多 limit 个 task 且保证其完成锁定，以一次调用代替逐个查找。
+     * 默认实现仅调用一次 {@link #get()}，即最多返回一个任务，以保持原有实现的行为。
+     *
+     * @param limit 上限，至少为 1。
+     * @return Future为成功时，如列表为空，则说明已经找不到任务；否则为准备好的任务。Future为失败时表示获取任务过程失败。
+     * @since 3.3.0
+     */
+    default Future<List<KeelQueueTask>> getBatch(int limit) {
+        return get().compose(task -> {
+            if (task == null) {
+                return Future.succeededFuture(List.of());
+            }
+            return Future.succeededFuture(List.of(task));
+        });
+    }
+
+    /**
+     * 找出至多 limit 个 task 且保证其完成锁定，并按各类别的剩余配额取任务。
+     * 配额为 0 的类别不应返回；不在配额表中的类别仅受 limit 约束。
+     * 超出配额的任务不会丢失，只是在队列中等待其类别有空闲的 worker，因此遵守配额即可让其他类别的任务更早开始。
+     * 默认实现忽略配额，调用 {@link #getBatch(int)}。
+     *
+     * @param limit          上限，为空闲 worker 数量加预取数量减去已领取待运行的任务数量，且不超过单次查找数量上限，至少为 1。
+     * @param categoryQuotas 设有并发上限的类别（见 {@link QueueWorkerPoolManager#changeCategoryMaxWorkerCount(String, int)}）还可领取的任务数量。
+     * @return 同 {@link #getBatch(int)}。
+     * @since 3.3.0
+     */
+    default Future<List<KeelQueueTask>> getBatch(int limit, @Nonnull Map<String, Integer> categoryQuotas) {
+        return getBatch(limit);
+    }
+
+    /**
+     * 归还已领取（已锁定）但未能开始运行的任务，如队列停止时仍在内存中等待的任务，以便解锁后由其他队列领取。
+     * 默认实现不做任何处理，这些任务仅记录于队列日志中，保持锁定直到锁过期。
+     *
+     * @param tasks 已领取未运行的任务。
+     * @since 3.3.0
+     */
+    default Future<Void> releaseClaimedTasks(@Nonnull List<KeelQueueTask> tasks) {
+        return Future.succeededFuture();
+    }
+
     /**
      * @since 2.8 default to 10s
      */
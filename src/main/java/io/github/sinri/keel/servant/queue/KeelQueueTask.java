@@ -7,9 +7,18 @@ import javax.annotation.Nonnull;
 
 /**
  * @since 2.1
+ * @since 3.3.0 the time waiting in the queue and running is counted by category, see {@link QueueCategoryStatistics}.
+ * @since 3.3.0 could be deployed on the named worker pool of the queue, see {@link KeelQueue.TaskExecutionMode#POOLED}.
  */
 public abstract class KeelQueueTask extends KeelVerticleImplWithIssueRecorder<QueueTaskIssueRecord> {
     QueueWorkerPoolManager queueWorkerPoolManager;
+    /**
+     * When claimed and put into the scheduler of the queue, and when started.
+     *
+     * @since 3.3.0
+     */
+    long queuedTime;
+    private long startTime;
 
     final void setQueueWorkerPoolManager(QueueWorkerPoolManager queueWorkerPoolManager) {
         this.queueWorkerPoolManager = queueWorkerPoolManager;
@@ -21,9 +30,27 @@ public abstract class KeelQueueTask extends KeelVerticleImplWithIssueRecorder<Qu
     @Nonnull
     abstract public String getTaskCategory();
 
+    /**
+     * @return the priority among the claimed tasks of the same category, the higher one starts first; 0 by default.
+     * @since 3.3.0
+     */
+    public int getTaskPriority() {
+        return 0;
+    }
+
+    private void whenStarts() {
+        this.startTime = System.currentTimeMillis();
+        long waitMillis = queuedTime > 0 ? startTime - queuedTime : 0;
+        this.queueWorkerPoolManager.whenOneWorkerStarts(getTaskCategory(), waitMillis);
+    }
+
+    private void whenEnds() {
+        this.queueWorkerPoolManager.whenOneWorkerEnds(getTaskCategory(), System.currentTimeMillis() - startTime);
+    }
+
     @Override
     protected final void startAsKeelVerticle() {
-        this.queueWorkerPoolManager.whenOneWorkerStarts();
+        whenStarts();
 
         Future.succeededFuture()
                 .compose(v -> {
@@ -39,7 +66,7 @@ public abstract class KeelQueueTask extends KeelVerticleImplWithIssueRecorder<Qu
                     getIssueRecorder().info(r -> r.message("KeelQueueTask to undeploy"));
                     notifyBeforeUndeploy();
                     return undeployMe().onSuccess(done -> {
-                        this.queueWorkerPoolManager.whenOneWorkerEnds();
+                        whenEnds();
                     });
                 });
     }
@@ -0,0 +1,139 @@
+package io.github.sinri.keel.servant.queue;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Holds the claimed tasks until their categories have free workers,
+ * and decides which category runs next by weighted fair scheduling (stride scheduling):
+ * each category has a pass which grows by the reciprocal of its weight each time one of its tasks starts,
+ * and the category with the least pass among the runnable ones goes first.
+ * Within a category, the task with higher priority goes first, then the earlier claimed one.
+ *
+ * @since 3.3.0
+ */
+final class KeelQueueTaskScheduler {
+    private final QueueWorkerPoolManager queueWorkerPoolManager;
+    private final Map<String, CategoryQueue> categoryQueueMap = new HashMap<>();
+    private long sequence = 0;
+    /**
+     * The pass of the category last started, a category coming back from idle starts from here,
+     * so that it could not take the turns it missed.
+     */
+    private double virtualTime = 0;
+    private int size = 0;
+
+    KeelQueueTaskScheduler(@Nonnull QueueWorkerPoolManager queueWorkerPoolManager) {
+        this.queueWorkerPoolManager = queueWorkerPoolManager;
+    }
+
+    synchronized void offer(@Nonnull KeelQueueTask task) {
+        String category = task.getTaskCategory();
+        CategoryQueue categoryQueue = categoryQueueMap.computeIfAbsent(category, CategoryQueue::new);
+        if (categoryQueue.tasks.isEmpty()) {
+            categoryQueue.pass = Math.max(categoryQueue.pass, virtualTime);
+        }
+        task.queuedTime = System.currentTimeMillis();
+        categoryQueue.tasks.add(new QueuedTask(task, task.getTaskPriority(), sequence++));
+        size++;
+        queueWorkerPoolManager.whenOneTaskQueued(category);
+    }
+
+    /**
+     * @return the next task to start, or null if none could start for now.
+     */
+    @Nullable
+    synchronized KeelQueueTask poll() {
+        if (size == 0 || queueWorkerPoolManager.isBusy()) {
+            return null;
+        }
+        CategoryQueue chosen = null;
+        for (CategoryQueue categoryQueue : categoryQueueMap.values()) {
+            if (categoryQueue.tasks.isEmpty() || queueWorkerPoolManager.isCategoryBusy(categoryQueue.category)) {
+                continue;
+            }
+            if (chosen == null || categoryQueue.pass < chosen.pass) {
+                chosen = categoryQueue;
+            }
+        }
+        if (chosen == null) {
+            return null;
+        }
+        QueuedTask queuedTask = chosen.tasks.poll();
+        size--;
+        virtualTime = chosen.pass;
+        chosen.pass += 1.0 / queueWorkerPoolManager.getCategoryWeight(chosen.category);
+        queueWorkerPoolManager.whenOneTaskDequeued(chosen.category);
+        return Objects.requireNonNull(queuedTask).task;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Remove all the claimed tasks not started.
+     *
+     * @return the tasks removed, in the order of category then priority.
+     */
+    @Nonnull
+    synchronized List<KeelQueueTask> drain() {
+        List<KeelQueueTask> tasks = new ArrayList<>(size);
+        for (CategoryQueue categoryQueue : categoryQueueMap.values()) {
+            while (!categoryQueue.tasks.isEmpty()) {
+                tasks.add(categoryQueue.tasks.poll().task);
+                queueWorkerPoolManager.whenOneTaskDequeued(categoryQueue.category);
+            }
+        }
+        size = 0;
+        return tasks;
+    }
+
+    /**
+     * @return for each category with max worker count set, how many more tasks could be claimed for it.
+     */
+    @Nonnull
+    synchronized Map<String, Integer> getCategoryQuotas() {
+        Map<String, Integer> quotas = new HashMap<>();
+        for (String category : queueWorkerPoolManager.getLimitedCategories()) {
+            CategoryQueue categoryQueue = categoryQueueMap.get(category);
+            int queued = categoryQueue == null ? 0 : categoryQueue.tasks.size();
+            int quota = queueWorkerPoolManager.getCategoryMaxWorkerCount(category)
+                    - queueWorkerPoolManager.getCategoryRunningWorkerCount(category)
+                    - queued;
+            quotas.put(category, Math.max(0, quota));
+        }
+        return quotas;
+    }
+
+    private static class CategoryQueue {
+        final String category;
+        final PriorityQueue<QueuedTask> tasks = new PriorityQueue<>();
+        double pass = 0;
+
+        CategoryQueue(String category) {
+            this.category = category;
+        }
+    }
+
+    private static class QueuedTask implements Comparable<QueuedTask> {
+        final KeelQueueTask task;
+        final int priority;
+        final long sequence;
+
+        QueuedTask(KeelQueueTask task, int priority, long sequence) {
+            this.task = task;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(@Nonnull QueuedTask o) {
+            if (priority != o.priority) {
+                return Integer.compare(o.priority, priority);
+            }
+            return Long.compare(sequence, o.sequence);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.sinri.keel.servant.queue;
+
+import io.vertx.core.json.JsonObject;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A snapshot of the tasks of one category in a queue:
+ * the queue-wait time is from a task claimed by the seeker to its start, and the run time is from its start to its end.
+ *
+ * @since 3.3.0
+ */
+public final class QueueCategoryStatistics {
+    private final String category;
+    private final int maxWorkerCount;
+    private final int weight;
+    private final int pendingCount;
+    private final int runningCount;
+    private final long startedCount;
+    private final long finishedCount;
+    private final long totalWaitMillis;
+    private final long maxWaitMillis;
+    private final long totalRunMillis;
+    private final long maxRunMillis;
+
+    QueueCategoryStatistics(
+            @Nonnull String category,
+            int maxWorkerCount,
+            int weight,
+            int pendingCount,
+            int runningCount,
+            long startedCount,
+            long finishedCount,
+            long totalWaitMillis,
+            long maxWaitMillis,
+            long totalRunMillis,
+            long maxRunMillis
+    ) {
+        this.category = category;
+        this.maxWorkerCount = maxWorkerCount;
+        this.weight = weight;
+        this.pendingCount = pendingCount;
+        this.runningCount = runningCount;
+        this.startedCount = startedCount;
+        this.finishedCount = finishedCount;
+        this.totalWaitMillis = totalWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.totalRunMillis = totalRunMillis;
+        this.maxRunMillis = maxRunMillis;
+    }
+
+    @Nonnull
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * @return zero or negative for unlimited.
+     */
+    public int getMaxWorkerCount() {
+        return maxWorkerCount;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return the count of the tasks claimed and waiting for a free worker of this category.
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public int getRunningCount() {
+        return runningCount;
+    }
+
+    public long getStartedCount() {
+        return startedCount;
+    }
+
+    public long getFinishedCount() {
+        return finishedCount;
+    }
+
+    public long getTotalWaitMillis() {
+        return totalWaitMillis;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public double getAverageWaitMillis() {
+        return startedCount == 0 ? 0 : 1.0 * totalWaitMillis / startedCount;
+    }
+
+    public long getTotalRunMillis() {
+        return totalRunMillis;
+    }
+
+    public long getMaxRunMillis() {
+        return maxRunMillis;
+    }
+
+    public double getAverageRunMillis() {
+        return finishedCount == 0 ? 0 : 1.0 * totalRunMillis / finishedCount;
+    }
+
+    @Nonnull
+    public JsonObject toJsonObject() {
+        return new JsonObject()
+                .put("category", category)
+                .put("max_worker_count", maxWorkerCount)
+                .put("weight", weight)
+                .put("pending", pendingCount)
+                .put("running", runningCount)
+                .put("started", startedCount)
+                .put("finished", finishedCount)
+                .put("wait_avg_ms", getAverageWaitMillis())
+                .put("wait_max_ms", maxWaitMillis)
+                .put("run_avg_ms", getAverageRunMillis())
+                .put("run_max_ms", maxRunMillis);
+    }
+
+    @Override
+    public String toString() {
+        return toJsonObject().toString();
+    }
+}
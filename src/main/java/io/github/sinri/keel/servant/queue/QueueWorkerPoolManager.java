@@ -1,13 +1,24 @@
 package io.github.sinri.keel.servant.queue;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @since 3.0.9
+ * @since 3.3.0 the max worker count and the scheduling weight could be set for each task category,
+ * and the queue-wait and run time of each category are counted.
  */
 public class QueueWorkerPoolManager {
     private final AtomicInteger maxWorkerCountRef;
     private final AtomicInteger runningWorkerCounter;
+    private volatile Runnable workerFreedHandler;
+    /**
+     * @since 3.3.0
+     */
+    private final Map<String, CategoryState> categoryStateMap = new ConcurrentHashMap<>();
 
     /**
      * @param maxWorkerCount If zero, unlimited workers would be thought.
@@ -25,6 +36,21 @@ public class QueueWorkerPoolManager {
         this.maxWorkerCountRef.set(maxWorkerCount);
     }
 
+    /**
+     * @return the max count of workers, zero or negative for unlimited.
+     * @since 3.3.0
+     */
+    public int getMaxWorkerCount() {
+        return maxWorkerCountRef.get();
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    public int getRunningWorkerCount() {
+        return runningWorkerCounter.get();
+    }
+
     public boolean isBusy() {
         if (maxWorkerCountRef.get() <= 0) {
             return false;
@@ -36,7 +62,192 @@ public class QueueWorkerPoolManager {
         this.runningWorkerCounter.incrementAndGet();
     }
 
+    /**
+     * @since 3.3.0 call the worker freed handler if the pool was busy.
+     */
     public void whenOneWorkerEnds() {
-        this.runningWorkerCounter.decrementAndGet();
+        int runningBefore = this.runningWorkerCounter.getAndDecrement();
+        int maxWorkerCount = maxWorkerCountRef.get();
+        if (maxWorkerCount > 0 && runningBefore >= maxWorkerCount) {
+            notifyWorkerFreed();
+        }
+    }
+
+    /**
+     * @param workerFreedHandler called when a worker ends and frees the busy pool, or the busy category.
+     * @since 3.3.0
+     */
+    public void setWorkerFreedHandler(@Nullable Runnable workerFreedHandler) {
+        this.workerFreedHandler = workerFreedHandler;
+    }
+
+    private void notifyWorkerFreed() {
+        Runnable handler = this.workerFreedHandler;
+        if (handler != null) {
+            handler.run();
+        }
+    }
+
+    private CategoryState getCategoryState(@Nonnull String category) {
+        return categoryStateMap.computeIfAbsent(category, CategoryState::new);
+    }
+
+    /**
+     * @param maxWorkerCount If zero, the category is only limited by the whole pool.
+     * @since 3.3.0
+     */
+    public QueueWorkerPoolManager changeCategoryMaxWorkerCount(@Nonnull String category, int maxWorkerCount) {
+        getCategoryState(category).maxWorkerCount = maxWorkerCount;
+        return this;
+    }
+
+    /**
+     * @param weight the share of workers a category takes when tasks of several categories are waiting, 1 by default.
+     * @since 3.3.0
+     */
+    public QueueWorkerPoolManager changeCategoryWeight(@Nonnull String category, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight should be positive");
+        }
+        getCategoryState(category).weight = weight;
+        return this;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    public int getCategoryMaxWorkerCount(@Nonnull String category) {
+        CategoryState state = categoryStateMap.get(category);
+        return state == null ? 0 : state.maxWorkerCount;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    public int getCategoryWeight(@Nonnull String category) {
+        CategoryState state = categoryStateMap.get(category);
+        return state == null ? 1 : state.weight;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    public int getCategoryRunningWorkerCount(@Nonnull String category) {
+        CategoryState state = categoryStateMap.get(category);
+        return state == null ? 0 : state.running.get();
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    public boolean isCategoryBusy(@Nonnull String category) {
+        CategoryState state = categoryStateMap.get(category);
+        if (state == null || state.maxWorkerCount <= 0) {
+            return false;
+        }
+        return state.running.get() >= state.maxWorkerCount;
+    }
+
+    /**
+     * @return the categories with max worker count set.
+     * @since 3.3.0
+     */
+    @Nonnull
+    public Set<String> getLimitedCategories() {
+        Set<String> set = new HashSet<>();
+        categoryStateMap.forEach((category, state) -> {
+            if (state.maxWorkerCount > 0) {
+                set.add(category);
+            }
+        });
+        return set;
+    }
+
+    /**
+     * @param waitMillis the time from the task claimed to started.
+     * @since 3.3.0
+     */
+    public void whenOneWorkerStarts(@Nonnull String category, long waitMillis) {
+        whenOneWorkerStarts();
+        getCategoryState(category).whenStarts(waitMillis);
+    }
+
+    /**
+     * @param runMillis the time from the task started to ended.
+     * @since 3.3.0
+     */
+    public void whenOneWorkerEnds(@Nonnull String category, long runMillis) {
+        CategoryState state = getCategoryState(category);
+        int runningBefore = state.whenEnds(runMillis);
+        int runningBeforeInPool = this.runningWorkerCounter.getAndDecrement();
+        int maxWorkerCount = maxWorkerCountRef.get();
+        if ((maxWorkerCount > 0 && runningBeforeInPool >= maxWorkerCount)
+                || (state.maxWorkerCount > 0 && runningBefore >= state.maxWorkerCount)) {
+            notifyWorkerFreed();
+        }
+    }
+
+    void whenOneTaskQueued(@Nonnull String category) {
+        getCategoryState(category).pending.incrementAndGet();
+    }
+
+    void whenOneTaskDequeued(@Nonnull String category) {
+        getCategoryState(category).pending.decrementAndGet();
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    @Nonnull
+    public Map<String, QueueCategoryStatistics> getCategoryStatistics() {
+        Map<String, QueueCategoryStatistics> map = new TreeMap<>();
+        categoryStateMap.forEach((category, state) -> map.put(category, state.toStatistics()));
+        return map;
+    }
+
+    /**
+     * @since 3.3.0
+     */
+    private static class CategoryState {
+        final String category;
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger pending = new AtomicInteger(0);
+        volatile int maxWorkerCount = 0;
+        volatile int weight = 1;
+        private long startedCount = 0;
+        private long finishedCount = 0;
+        private long totalWaitMillis = 0;
+        private long maxWaitMillis = 0;
+        private long totalRunMillis = 0;
+        private long maxRunMillis = 0;
+
+        CategoryState(String category) {
+            this.category = category;
+        }
+
+        void whenStarts(long waitMillis) {
+            running.incrementAndGet();
+            synchronized (this) {
+                startedCount++;
+                totalWaitMillis += waitMillis;
+                maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+            }
+        }
+
+        int whenEnds(long runMillis) {
+            synchronized (this) {
+                finishedCount++;
+                totalRunMillis += runMillis;
+                maxRunMillis = Math.max(maxRunMillis, runMillis);
+            }
+            return running.getAndDecrement();
+        }
+
+        synchronized QueueCategoryStatistics toStatistics() {
+            return new QueueCategoryStatistics(
+                    category, maxWorkerCount, weight, pending.get(), running.get(),
+                    startedCount, finishedCount, totalWaitMillis, maxWaitMillis, totalRunMillis, maxRunMillis
+            );
+        }
     }
 }
@@ -1,15 +1,14 @@
 package io.github.sinri.keel.servant.sundial;
 
-import io.github.sinri.keel.core.KeelCronExpression;
 import io.github.sinri.keel.facade.async.KeelAsyncKit;
 import io.github.sinri.keel.logger.event.KeelEventLogger;
 import io.github.sinri.keel.logger.issue.center.KeelIssueRecordCenter;
 import io.github.sinri.keel.verticles.KeelVerticleImplWithEventLogger;
-import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
-import io.vertx.core.ThreadingModel;
 import io.vertx.core.json.JsonObject;
 
+import javax.annotation.Nonnull;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -19,11 +18,17 @@ import static io.github.sinri.keel.facade.KeelInstance.Keel;
 /**
  * @since 3.0.0
  * @since 3.2.4 use verticle to handle the sundial plan executing.
+ * @since 3.3.0 plans are scheduled by their next fire times on a hashed timing wheel ticking each second,
+ * so a tick only touches the due plans, and cron expressions with seconds are supported;
+ * a late tick still fires the passed plans (see {@link KeelSundialPlan#catchUpMissedRun()}),
+ * and plans run in the worker pool without deploying verticles.
  */
 public abstract class KeelSundial extends KeelVerticleImplWithEventLogger {
-    private final Map<String, KeelSundialPlan> planMap = new ConcurrentHashMap<>();
-    private Long timerID;
-    private final AtomicInteger planFetchingSemaphore = new AtomicInteger(0);
+    private final Map<String, ScheduledPlan> planMap = new ConcurrentHashMap<>();
+    private KeelSundialTimingWheel<ScheduledPlan> timingWheel;
+    private Long tickTimerID;
+    private Long refreshTimerID;
+    private volatile boolean stopped = false;
 
 
     @Override
@@ -31,41 +36,111 @@ public abstract class KeelSundial extends KeelVerticleImplWithEventLogger {
         return KeelIssueRecordCenter.outputCenter().generateEventLogger("Sundial");
     }
 
+    /**
+     * @return the duration of a tick of the timing wheel, as the precision of firing.
+     * @since 3.3.0
+     */
+    protected long tickMillis() {
+        return 1000L;
+    }
+
+    /**
+     * @return the zone to compute the fire times in.
+     * @since 3.3.0
+     */
+    protected ZoneId zoneId() {
+        return ZoneId.systemDefault();
+    }
+
     @Override
     protected void startAsKeelVerticle() {
-        int delaySeconds = 61 - KeelCronExpression.parseCalenderToElements(Calendar.getInstance()).second;
-        this.timerID = Keel.getVertx().setPeriodic(delaySeconds * 1000L, 60_000L, timerID -> {
-            handleEveryMinute(Calendar.getInstance());
-            refreshPlans();
+        this.timingWheel = new KeelSundialTimingWheel<>(tickMillis(), 512, System.currentTimeMillis());
+        refreshPlans();
+        this.refreshTimerID = Keel.getVertx().setPeriodic(60_000L, timerID -> refreshPlans());
+        scheduleNextTick();
+    }
+
+    private void scheduleNextTick() {
+        long tick = timingWheel.getTickMillis();
+        long delay = tick - System.currentTimeMillis() % tick;
+        this.tickTimerID = Keel.getVertx().setTimer(delay, timerID -> {
+            if (stopped) return;
+            handleTick(System.currentTimeMillis());
+            scheduleNextTick();
         });
     }
 
-    private void handleEveryMinute(Calendar now) {
-        KeelCronExpression.ParsedCalenderElements parsedCalenderElements = new KeelCronExpression.ParsedCalenderElements(now);
-        planMap.forEach((key, plan) -> {
-            if (plan.cronExpression().match(parsedCalenderElements)) {
-                getLogger().debug("Sundial Plan Matched", new JsonObject()
+    private void handleTick(long now) {
+        timingWheel.advanceTo(now, (scheduledPlan, fireTime) -> {
+            if (planMap.get(scheduledPlan.key) != scheduledPlan) {
+                // removed or replaced since scheduled
+                return;
+            }
+            KeelSundialPlan plan = scheduledPlan.plan;
+            if (now - fireTime >= timingWheel.getTickMillis() && !plan.catchUpMissedRun()) {
+                getLogger().warning("Sundial Plan Missed", new JsonObject()
                         .put("plan_key", plan.key())
-                        .put("plan_cron", plan.cronExpression())
-                        .put("now", parsedCalenderElements.toString())
+                        .put("plan_cron", plan.cronExpression().getRawCronExpression())
+                        .put("fire_time", fireTime)
+                        .put("now", now)
                 );
-
-                // since 3.2.5
-                new KeelSundialVerticle(plan, now).deployMe(new DeploymentOptions()
-                        .setThreadingModel(ThreadingModel.WORKER)
-                );
-            } else {
-                getLogger().debug("Sundial Plan Not Match", new JsonObject()
+            } else if (scheduledPlan.runningCount.get() > 0 && plan.skipIfStillRunning()) {
+                getLogger().info("Sundial Plan Skipped As Still Running", new JsonObject()
                         .put("plan_key", plan.key())
-                        .put("plan_cron", plan.cronExpression())
-                        .put("now", parsedCalenderElements.toString())
+                        .put("plan_cron", plan.cronExpression().getRawCronExpression())
+                        .put("fire_time", fireTime)
                 );
+            } else {
+                runPlan(scheduledPlan, fireTime);
             }
+            // the missed fire times before now are skipped, at most one catch-up run
+            scheduleNextRun(scheduledPlan, Math.max(now, fireTime));
         });
     }
 
+    private void scheduleNextRun(@Nonnull ScheduledPlan scheduledPlan, long after) {
+        long nextFireTime = scheduledPlan.plan.cronExpression().nextFireTime(after, zoneId());
+        if (nextFireTime < 0) {
+            getLogger().warning("Sundial Plan Would Never Fire", new JsonObject()
+                    .put("plan_key", scheduledPlan.key)
+                    .put("plan_cron", scheduledPlan.plan.cronExpression().getRawCronExpression())
+            );
+            return;
+        }
+        timingWheel.schedule(nextFireTime, scheduledPlan);
+    }
+
+    private void runPlan(@Nonnull ScheduledPlan scheduledPlan, long fireTime) {
+        KeelSundialPlan plan = scheduledPlan.plan;
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone(zoneId()));
+        calendar.setTimeInMillis(fireTime);
+
+        getLogger().debug(r -> r.message("Sundial Plan Fired")
+                .context(c -> c
+                        .put("plan_key", plan.key())
+                        .put("plan_cron", plan.cronExpression().getRawCronExpression())
+                        .put("fire_time", fireTime)
+                )
+        );
+
+        scheduledPlan.runningCount.incrementAndGet();
+        // since 3.3.0, the plan starts in the worker pool, instead of a worker verticle deployed for each run
+        Keel.getVertx().executeBlocking(() -> plan.execute(calendar), false)
+                .compose(future -> future)
+                .onComplete(ar -> {
+                    scheduledPlan.runningCount.decrementAndGet();
+                    if (ar.failed()) {
+                        getLogger().exception(ar.cause(), "Sundial Plan Failed", new JsonObject()
+                                .put("plan_key", plan.key())
+                                .put("fire_time", fireTime)
+                        );
+                    }
+                });
+    }
+
     /**
      * @since 3.2.4
+     * @since 3.3.0 a new or re-scheduled plan is put onto the timing wheel by its next fire time.
      */
     private void refreshPlans() {
         KeelAsyncKit.exclusivelyCall(
@@ -76,10 +151,20 @@ public abstract class KeelSundial extends KeelVerticleImplWithEventLogger {
                             .compose(plans -> {
                                 // treat null as NOT MODIFIED
                                 if (plans != null) {
+                                    long now = System.currentTimeMillis();
                                     Set<String> toDelete = new HashSet<>(planMap.keySet());
                                     plans.forEach(plan -> {
                                         toDelete.remove(plan.key());
-                                        planMap.put(plan.key(), plan);
+                                        ScheduledPlan existing = planMap.get(plan.key());
+                                        if (existing != null && existing.plan.cronExpression().getRawCronExpression()
+                                                .equals(plan.cronExpression().getRawCronExpression())) {
+                                            // keep the schedule
+                                            existing.plan = plan;
+                                        } else {
+                                            ScheduledPlan scheduledPlan = new ScheduledPlan(plan);
+                                            planMap.put(plan.key(), scheduledPlan);
+                                            scheduleNextRun(scheduledPlan, now);
+                                        }
                                     });
                                     if (!toDelete.isEmpty()) {
                                         toDelete.forEach(planMap::remove);
@@ -101,9 +186,26 @@ public abstract class KeelSundial extends KeelVerticleImplWithEventLogger {
     @Override
     public void stop() throws Exception {
         super.stop();
-        if (this.timerID != null) {
-            Keel.getVertx().cancelTimer(this.timerID);
+        this.stopped = true;
+        if (this.tickTimerID != null) {
+            Keel.getVertx().cancelTimer(this.tickTimerID);
+        }
+        if (this.refreshTimerID != null) {
+            Keel.getVertx().cancelTimer(this.refreshTimerID);
         }
     }
 
+    /**
+     * @since 3.3.0
+     */
+    private static class ScheduledPlan {
+        final String key;
+        final AtomicInteger runningCount = new AtomicInteger(0);
+        volatile KeelSundialPlan plan;
+
+        ScheduledPlan(@Nonnull KeelSundialPlan plan) {
+            this.key = plan.key();
+            this.plan = plan;
+        }
+    }
 }
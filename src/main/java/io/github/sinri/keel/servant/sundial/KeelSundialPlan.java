@@ -8,11 +8,34 @@ import java.util.Calendar;
 /**
  * @since 3.0.0
  * @since 3.2.4 change sync method `execute` to be async.
+ * @since 3.3.0 the cron expression could have seconds; policies for missed and overlapping runs.
  */
 public interface KeelSundialPlan {
     String key();
 
     KeelCronExpression cronExpression();
 
+    /**
+     * @param now the fire time of this run, since 3.3.0 it is the scheduled time, not the time of the tick.
+     */
     Future<Void> execute(Calendar now);
+
+    /**
+     * When the sundial is late (e.g. the event loop was blocked) and the fire time has passed for more than a tick,
+     * whether to run once for the missed fire times, or skip them.
+     *
+     * @since 3.3.0
+     */
+    default boolean catchUpMissedRun() {
+        return true;
+    }
+
+    /**
+     * Whether to skip a run when the last run of this plan has not finished yet.
+     *
+     * @since 3.3.0
+     */
+    default boolean skipIfStillRunning() {
+        return false;
+    }
 }
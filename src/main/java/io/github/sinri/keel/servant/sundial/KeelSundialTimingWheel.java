@@ -0,0 +1,103 @@
+package io.github.sinri.keel.servant.sundial;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A hashed timing wheel, the entries are put into slots by their fire ticks,
+ * so that each tick only scans the entries hashed into its slot, instead of all.
+ * An entry stays in its slot for rounds until its fire tick comes.
+ * <p>
+ * Not thread safe, it should be used in one context (i.e. the sundial verticle).
+ *
+ * @since 3.3.0
+ */
+class KeelSundialTimingWheel<E> {
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<Entry<E>>> slots;
+    private long lastTick;
+    private int size = 0;
+
+    /**
+     * @param tickMillis the duration of one tick
+     * @param slotCount  rounded up to a power of two
+     * @param startTime  the epoch milliseconds from when the wheel runs
+     */
+    KeelSundialTimingWheel(long tickMillis, int slotCount, long startTime) {
+        this.tickMillis = tickMillis;
+        int n = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.mask = n - 1;
+        this.slots = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.lastTick = startTime / tickMillis;
+    }
+
+    /**
+     * @param fireTime the epoch milliseconds; if already passed, the entry fires on the next advance.
+     */
+    void schedule(long fireTime, @Nonnull E element) {
+        long fireTick = Math.max(lastTick + 1, fireTime / tickMillis);
+        slots.get((int) (fireTick & mask)).add(new Entry<>(fireTick, fireTime, element));
+        size++;
+    }
+
+    /**
+     * Process the ticks since the last advance till the given time, the due entries are removed and handled.
+     * If the advance is late for several ticks, all the ticks passed are processed, so that no entry is missed.
+     *
+     * @param dueHandler handles the element and its fire time
+     */
+    void advanceTo(long now, @Nonnull DueHandler<E> dueHandler) {
+        long currentTick = now / tickMillis;
+        if (currentTick <= lastTick) {
+            return;
+        }
+        List<Entry<E>> dueEntries = new ArrayList<>();
+        long ticksToScan = Math.min(currentTick - lastTick, mask + 1L);
+        for (long i = 0; i < ticksToScan; i++) {
+            List<Entry<E>> slot = slots.get((int) ((currentTick - i) & mask));
+            Iterator<Entry<E>> iterator = slot.iterator();
+            while (iterator.hasNext()) {
+                Entry<E> entry = iterator.next();
+                if (entry.fireTick <= currentTick) {
+                    iterator.remove();
+                    size--;
+                    dueEntries.add(entry);
+                }
+            }
+        }
+        lastTick = currentTick;
+        // in order of fire time, the handler might schedule new entries
+        dueEntries.sort((a, b) -> Long.compare(a.fireTime, b.fireTime));
+        dueEntries.forEach(entry -> dueHandler.handle(entry.element, entry.fireTime));
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getTickMillis() {
+        return tickMillis;
+    }
+
+    interface DueHandler<E> {
+        void handle(E element, long fireTime);
+    }
+
+    private static class Entry<E> {
+        final long fireTick;
+        final long fireTime;
+        final E element;
+
+        Entry(long fireTick, long fireTime, E element) {
+            this.fireTick = fireTick;
+            this.fireTime = fireTime;
+            this.element = element;
+        }
+    }
+}
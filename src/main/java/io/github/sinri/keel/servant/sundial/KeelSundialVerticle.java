@@ -9,6 +9,7 @@ import java.util.Calendar;
 /**
  * @since 3.2.4
  * @since 3.2.5 Used in KeelSundial
+ * @since 3.3.0 No longer used in KeelSundial, which runs plans in the worker pool directly.
  */
 public class KeelSundialVerticle extends KeelVerticleImplPure {
     private final KeelSundialPlan sundialPlan;
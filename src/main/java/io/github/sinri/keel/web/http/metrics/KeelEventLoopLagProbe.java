@@ -0,0 +1,96 @@
+package io.github.sinri.keel.web.http.metrics;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+import io.github.sinri.keel.logger.metric.KeelMetricGauge;
+import io.github.sinri.keel.logger.metric.KeelMetricHistogram;
+import io.github.sinri.keel.logger.metric.KeelMetricInstrument;
+import io.vertx.core.Context;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
+/**
+ * Measure how late a timer fires on one event loop, as the lag of the tasks queued there.
+ * <p>
+ * Start one probe on each context to watch, such as in the start of each verticle instance.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class KeelEventLoopLagProbe {
+    public static final String TOPIC = "vertx";
+
+    private final long interval;
+    private final KeelMetricHistogram lagHistogram;
+    private final KeelMetricGauge lastLagGauge;
+    private volatile boolean running = false;
+    private volatile long timerId = -1;
+
+    /**
+     * @param loopName the value of the label {@code loop}.
+     * @param interval the interval in ms to probe.
+     */
+    public KeelEventLoopLagProbe(@Nonnull String loopName, long interval) {
+        this.interval = interval;
+        Map<String, String> labels = Map.of("loop", loopName);
+        this.lagHistogram = new KeelMetricHistogram(TOPIC, "vertx_event_loop_lag_seconds", labels);
+        this.lastLagGauge = new KeelMetricGauge(TOPIC, "vertx_event_loop_last_lag_seconds", labels);
+    }
+
+    public KeelEventLoopLagProbe(@Nonnull String loopName) {
+        this(loopName, 100L);
+    }
+
+    /**
+     * Probe the event loop of the current context, or of a new context if called out of any.
+     */
+    public void start() {
+        start(Keel.getVertx().getOrCreateContext());
+    }
+
+    public void start(@Nonnull Context context) {
+        running = true;
+        context.runOnContext(v -> scheduleProbe());
+    }
+
+    public void stop() {
+        running = false;
+        long id = timerId;
+        if (id >= 0) {
+            Keel.getVertx().cancelTimer(id);
+        }
+    }
+
+    private void scheduleProbe() {
+        if (!running) {
+            return;
+        }
+        long expected = System.nanoTime() + interval * 1_000_000L;
+        timerId = Keel.getVertx().setTimer(interval, id -> {
+            double lag = Math.max(0, System.nanoTime() - expected) / 1e9;
+            lagHistogram.record(lag);
+            lastLagGauge.set(lag);
+            scheduleProbe();
+        });
+    }
+
+    @Nonnull
+    public KeelMetricHistogram getLagHistogram() {
+        return lagHistogram;
+    }
+
+    /**
+     * @return the lag in seconds measured lately.
+     */
+    public double getLastLag() {
+        return lastLagGauge.get();
+    }
+
+    @Nonnull
+    public List<KeelMetricInstrument> getInstruments() {
+        return List.of(lagHistogram, lastLagGauge);
+    }
+}
@@ -0,0 +1,278 @@
+package io.github.sinri.keel.web.http.metrics;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+import io.github.sinri.keel.helper.KeelRuntimeHelper;
+import io.github.sinri.keel.helper.runtime.CPUTimeResult;
+import io.github.sinri.keel.helper.runtime.GCStatResult;
+import io.github.sinri.keel.helper.runtime.JVMMemoryResult;
+import io.github.sinri.keel.logger.metric.*;
+import io.github.sinri.keel.mysql.NamedMySQLDataSource;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.RoutingContext;
+
+import javax.annotation.Nonnull;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+import static io.github.sinri.keel.helper.KeelHelpersInterface.KeelHelpers;
+
+/**
+ * Render the current metrics in the Prometheus text exposition format, to be mounted on a route to scrape, such as
+ * {@code router.get("/metrics").handler(metricsHandler)} in {@link io.github.sinri.keel.web.http.KeelHttpServer#configureRoutes}.
+ * <p>
+ * The metrics rendered are:
+ * the JVM memory, GC and CPU, read from {@link KeelRuntimeHelper} as cumulative values at the scraping;
+ * the pools of the MySQL data sources added;
+ * and the instruments of the sources added, such as {@link KeelMetricRecorder}, {@link KeelRouteStatisticsHandler}
+ * and {@link KeelEventLoopLagProbe}, each named with its metric name and labeled with its topic.
+ * <p>
+ * The names and labels of an instrument are escaped once and kept, so a scraping only writes the values,
+ * in a worker thread into a reused builder; the scrapings within the minimum render interval share the last output.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class KeelPrometheusMetricsHandler implements Handler<RoutingContext> {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final List<Supplier<Collection<? extends KeelMetricInstrument>>> instrumentSources = new ArrayList<>();
+    private final Map<NamedMySQLDataSource<?>, String> mySQLDataSourceLabels = new LinkedHashMap<>();
+    private boolean runtimeMetricsEnabled = true;
+    private long minRenderInterval = 1000L;
+
+    // the followings are used in render, one at a time
+    private final StringBuilder builder = new StringBuilder(16 * 1024);
+    private final PrometheusTextWriter writer = new PrometheusTextWriter(builder);
+    private final List<KeelMetricInstrument> gatheredInstruments = new ArrayList<>();
+    private final Map<KeelMetricInstrument, InstrumentEntry> entryMap = new HashMap<>();
+    private final List<InstrumentEntry> sortedEntries = new ArrayList<>();
+    private Buffer lastRendered = null;
+    private long lastRenderTime = 0;
+
+    /**
+     * @param instrumentSource called at each rendering, returning all the instruments to render.
+     */
+    public synchronized KeelPrometheusMetricsHandler addInstrumentSource(@Nonnull Supplier<Collection<? extends KeelMetricInstrument>> instrumentSource) {
+        this.instrumentSources.add(instrumentSource);
+        return this;
+    }
+
+    public KeelPrometheusMetricsHandler addMetricRecorder(@Nonnull KeelMetricRecorder metricRecorder) {
+        return addInstrumentSource(metricRecorder::getInstruments);
+    }
+
+    public KeelPrometheusMetricsHandler addRouteStatistics(@Nonnull KeelRouteStatisticsHandler routeStatisticsHandler) {
+        return addInstrumentSource(routeStatisticsHandler::getInstruments);
+    }
+
+    public KeelPrometheusMetricsHandler addEventLoopLagProbe(@Nonnull KeelEventLoopLagProbe eventLoopLagProbe) {
+        return addInstrumentSource(eventLoopLagProbe::getInstruments);
+    }
+
+    public synchronized KeelPrometheusMetricsHandler addMySQLDataSource(@Nonnull NamedMySQLDataSource<?> dataSource) {
+        this.mySQLDataSourceLabels.put(dataSource, PrometheusTextWriter.buildLabelContent(
+                Map.of("data_source", String.valueOf(dataSource.getConfiguration().getDataSourceName()))
+        ));
+        return this;
+    }
+
+    /**
+     * @param runtimeMetricsEnabled whether to render the JVM memory, GC and CPU; true by default.
+     */
+    public synchronized KeelPrometheusMetricsHandler setRuntimeMetricsEnabled(boolean runtimeMetricsEnabled) {
+        this.runtimeMetricsEnabled = runtimeMetricsEnabled;
+        return this;
+    }
+
+    /**
+     * @param minRenderInterval the interval in ms within which the scrapings share the last output; 1000 by default.
+     */
+    public synchronized KeelPrometheusMetricsHandler setMinRenderInterval(long minRenderInterval) {
+        this.minRenderInterval = minRenderInterval;
+        return this;
+    }
+
+    @Override
+    public void handle(RoutingContext routingContext) {
+        Keel.getVertx().executeBlocking(this::render, false)
+                .onComplete(ar -> {
+                    if (ar.succeeded()) {
+                        routingContext.response()
+                                .putHeader(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE)
+                                .end(ar.result());
+                    } else {
+                        routingContext.fail(ar.cause());
+                    }
+                });
+    }
+
+    /**
+     * @return the metrics in the Prometheus text exposition format.
+     */
+    @Nonnull
+    public synchronized Buffer render() {
+        long now = System.currentTimeMillis();
+        if (lastRendered != null && now - lastRenderTime < minRenderInterval) {
+            return lastRendered;
+        }
+
+        builder.setLength(0);
+        if (runtimeMetricsEnabled) {
+            writeRuntimeMetrics();
+        }
+        if (!mySQLDataSourceLabels.isEmpty()) {
+            writeMySQLPoolMetrics();
+        }
+        writeInstruments();
+
+        lastRendered = Buffer.buffer(builder.toString());
+        lastRenderTime = now;
+        if (builder.capacity() > 4 * builder.length() + 1024 * 1024) {
+            // do not keep the memory of a rare burst
+            builder.setLength(0);
+            builder.trimToSize();
+        }
+        return lastRendered;
+    }
+
+    private void writeRuntimeMetrics() {
+        KeelRuntimeHelper runtimeHelper = KeelHelpers.runtimeHelper();
+
+        MemoryUsage heap = runtimeHelper.getHeapMemoryUsage();
+        MemoryUsage nonHeap = runtimeHelper.getNonHeapMemoryUsage();
+        writer.writeFamily("jvm_memory_bytes_used", "gauge", "Used bytes of a given JVM memory area.");
+        writer.writeSample("jvm_memory_bytes_used", "area=\"heap\"", heap.getUsed());
+        writer.writeSample("jvm_memory_bytes_used", "area=\"nonheap\"", nonHeap.getUsed());
+        writer.writeFamily("jvm_memory_bytes_committed", "gauge", "Committed bytes of a given JVM memory area.");
+        writer.writeSample("jvm_memory_bytes_committed", "area=\"heap\"", heap.getCommitted());
+        writer.writeSample("jvm_memory_bytes_committed", "area=\"nonheap\"", nonHeap.getCommitted());
+        writer.writeFamily("jvm_memory_bytes_max", "gauge", "Max bytes of a given JVM memory area, -1 if undefined.");
+        writer.writeSample("jvm_memory_bytes_max", "area=\"heap\"", heap.getMax());
+        writer.writeSample("jvm_memory_bytes_max", "area=\"nonheap\"", nonHeap.getMax());
+
+        JVMMemoryResult jvmMemoryResult = runtimeHelper.makeJVMMemorySnapshot();
+        writer.writeFamily("system_memory_bytes_total", "gauge", "Total bytes of the physical memory.");
+        writer.writeSample("system_memory_bytes_total", null, jvmMemoryResult.getPhysicalMaxBytes());
+        writer.writeFamily("system_memory_bytes_used", "gauge", "Used bytes of the physical memory.");
+        writer.writeSample("system_memory_bytes_used", null, jvmMemoryResult.getPhysicalUsedBytes());
+
+        GCStatResult gcStatResult = runtimeHelper.getGCSnapshot();
+        writer.writeFamily("jvm_gc_collections_total", "counter", "Count of the GC since the JVM started.");
+        writer.writeSample("jvm_gc_collections_total", "generation=\"minor\"", gcStatResult.getYoungGCCount());
+        writer.writeSample("jvm_gc_collections_total", "generation=\"major\"", gcStatResult.getOldGCCount());
+        writer.writeFamily("jvm_gc_collection_seconds_total", "counter", "Time spent in the GC since the JVM started.");
+        writer.writeSample("jvm_gc_collection_seconds_total", "generation=\"minor\"", gcStatResult.getYoungGCTime() / 1000.0);
+        writer.writeSample("jvm_gc_collection_seconds_total", "generation=\"major\"", gcStatResult.getOldGCTime() / 1000.0);
+
+        CPUTimeResult cpuTimeResult = runtimeHelper.getCPUTimeSnapshot();
+        writer.writeFamily("system_cpu_seconds_total", "counter", "Time the CPUs spent in each state since the system booted.");
+        writer.writeSample("system_cpu_seconds_total", "state=\"user\"", cpuTimeResult.getSpentInUserState() / 1000.0);
+        writer.writeSample("system_cpu_seconds_total", "state=\"nice\"", cpuTimeResult.getSpentInNiceState() / 1000.0);
+        writer.writeSample("system_cpu_seconds_total", "state=\"system\"", cpuTimeResult.getSpentInSystemState() / 1000.0);
+        writer.writeSample("system_cpu_seconds_total", "state=\"idle\"", cpuTimeResult.getSpentInIdleState() / 1000.0);
+        writer.writeSample("system_cpu_seconds_total", "state=\"iowait\"", cpuTimeResult.getSpentInIOWaitState() / 1000.0);
+        writer.writeSample("system_cpu_seconds_total", "state=\"irq\"", cpuTimeResult.getSpentInIRQState() / 1000.0);
+        writer.writeSample("system_cpu_seconds_total", "state=\"softirq\"", cpuTimeResult.getSpentInSoftIRQState() / 1000.0);
+        writer.writeSample("system_cpu_seconds_total", "state=\"steal\"", cpuTimeResult.getSpentInStealState() / 1000.0);
+
+        OperatingSystemMXBean osMX = ManagementFactory.getOperatingSystemMXBean();
+        if (osMX instanceof com.sun.management.OperatingSystemMXBean) {
+            long processCpuTime = ((com.sun.management.OperatingSystemMXBean) osMX).getProcessCpuTime();
+            if (processCpuTime >= 0) {
+                writer.writeFamily("process_cpu_seconds_total", "counter", "CPU time spent by the JVM process.");
+                writer.writeSample("process_cpu_seconds_total", null, processCpuTime / 1e9);
+            }
+        }
+        double systemLoadAverage = runtimeHelper.getSystemLoadAverage();
+        if (systemLoadAverage >= 0) {
+            writer.writeFamily("system_load_average_1m", "gauge", "System load average of the last minute.");
+            writer.writeSample("system_load_average_1m", null, systemLoadAverage);
+        }
+    }
+
+    private void writeMySQLPoolMetrics() {
+        writer.writeFamily("mysql_pool_connections", "gauge", "Connections held by the pool, in use or idle.");
+        mySQLDataSourceLabels.forEach((dataSource, labelContent) -> writer.writeSample("mysql_pool_connections", labelContent, dataSource.getPoolSize()));
+        writer.writeFamily("mysql_pool_max_connections", "gauge", "Max connections of the pool.");
+        mySQLDataSourceLabels.forEach((dataSource, labelContent) -> writer.writeSample("mysql_pool_max_connections", labelContent, dataSource.getMaxPoolSize()));
+        writer.writeFamily("mysql_pool_pending_requests", "gauge", "Requests waiting for a connection from the pool.");
+        mySQLDataSourceLabels.forEach((dataSource, labelContent) -> writer.writeSample("mysql_pool_pending_requests", labelContent, dataSource.getPendingConnectionCount()));
+        writer.writeFamily("mysql_pool_connection_failures_total", "counter", "Failures to get a connection from the pool.");
+        mySQLDataSourceLabels.forEach((dataSource, labelContent) -> writer.writeSample("mysql_pool_connection_failures_total", labelContent, dataSource.getConnectionFailureCount()));
+    }
+
+    private void writeInstruments() {
+        gatheredInstruments.clear();
+        instrumentSources.forEach(source -> gatheredInstruments.addAll(source.get()));
+        // instruments are only added, so sort again only when some added;
+        // check each one, as the count could match while a source returns duplicates or the sources changed
+        boolean added = false;
+        for (KeelMetricInstrument instrument : gatheredInstruments) {
+            if (!entryMap.containsKey(instrument)) {
+                InstrumentEntry entry = new InstrumentEntry(instrument);
+                entryMap.put(instrument, entry);
+                if (entry.type != null) {
+                    sortedEntries.add(entry);
+                }
+                added = true;
+            }
+        }
+        if (added) {
+            sortedEntries.sort(Comparator.comparing((InstrumentEntry entry) -> entry.familyName)
+                    .thenComparing(entry -> entry.type)
+                    .thenComparing(entry -> entry.labelContent));
+        }
+
+        String familyName = null;
+        String familyType = null;
+        for (InstrumentEntry entry : sortedEntries) {
+            if (!entry.familyName.equals(familyName)) {
+                familyName = entry.familyName;
+                familyType = entry.type;
+                writer.writeFamily(familyName, familyType, null);
+            } else if (!entry.type.equals(familyType)) {
+                // a family is of one type, so the instruments of the same name but another type are left out
+                continue;
+            }
+            KeelMetricInstrument instrument = entry.instrument;
+            if (instrument instanceof KeelMetricCounter) {
+                writer.writeSample(familyName, entry.labelContent, ((KeelMetricCounter) instrument).get());
+            } else if (instrument instanceof KeelMetricGauge) {
+                writer.writeSample(familyName, entry.labelContent, ((KeelMetricGauge) instrument).get());
+            } else if (instrument instanceof KeelMetricHistogram) {
+                writer.writeHistogram(familyName, entry.labelContent, (KeelMetricHistogram) instrument);
+            }
+        }
+    }
+
+    private static final class InstrumentEntry {
+        private final KeelMetricInstrument instrument;
+        private final String familyName;
+        private final String type;
+        private final String labelContent;
+
+        InstrumentEntry(@Nonnull KeelMetricInstrument instrument) {
+            this.instrument = instrument;
+            this.familyName = PrometheusTextWriter.sanitizeName(instrument.metricName());
+            if (instrument instanceof KeelMetricCounter) {
+                this.type = "counter";
+            } else if (instrument instanceof KeelMetricHistogram) {
+                this.type = "histogram";
+            } else if (instrument instanceof KeelMetricGauge) {
+                this.type = "gauge";
+            } else {
+                // not known how to render
+                this.type = null;
+            }
+            Map<String, String> labels = new TreeMap<>(instrument.labels());
+            labels.putIfAbsent("topic", instrument.topic());
+            this.labelContent = PrometheusTextWriter.buildLabelContent(labels);
+        }
+    }
+}
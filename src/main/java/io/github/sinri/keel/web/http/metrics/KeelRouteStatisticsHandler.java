@@ -0,0 +1,114 @@
+package io.github.sinri.keel.web.http.metrics;
+
+import io.github.sinri.keel.core.TechnicalPreview;
+import io.github.sinri.keel.logger.metric.KeelMetricCounter;
+import io.github.sinri.keel.logger.metric.KeelMetricHistogram;
+import io.github.sinri.keel.logger.metric.KeelMetricInstrument;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.PlatformHandler;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Count the requests by route, method and status code, and record the durations by route and method,
+ * till the response ended.
+ * <p>
+ * Mount it on each route to watch, in which case the route is labeled with its name or path,
+ * such as through {@link io.github.sinri.keel.web.http.prehandler.PreHandlerChain};
+ * the requests on a route of neither name nor path are labeled as {@code *}.
+ *
+ * @since 3.3.0
+ */
+@TechnicalPreview(since = "3.3.0")
+public class KeelRouteStatisticsHandler implements PlatformHandler {
+    public static final String TOPIC = "http";
+    private static final String UNNAMED_ROUTE = "*";
+
+    private final ConcurrentMap<String, ConcurrentMap<HttpMethod, RouteStatistics>> statisticsMap = new ConcurrentHashMap<>();
+    private final Queue<KeelMetricInstrument> instruments = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void handle(RoutingContext routingContext) {
+        long start = System.nanoTime();
+        RouteStatistics routeStatistics = getRouteStatistics(routingContext.currentRoute(), routingContext.request().method());
+        routingContext.addEndHandler(ar -> routeStatistics.record(
+                routingContext.response().getStatusCode(),
+                (System.nanoTime() - start) / 1e9
+        ));
+        routingContext.next();
+    }
+
+    @Nonnull
+    private RouteStatistics getRouteStatistics(Route route, @Nonnull HttpMethod method) {
+        String routeName = UNNAMED_ROUTE;
+        if (route != null) {
+            if (route.getName() != null) {
+                routeName = route.getName();
+            } else if (route.getPath() != null) {
+                routeName = route.getPath();
+            }
+        }
+        ConcurrentMap<HttpMethod, RouteStatistics> byMethod = statisticsMap.get(routeName);
+        if (byMethod == null) {
+            byMethod = statisticsMap.computeIfAbsent(routeName, k -> new ConcurrentHashMap<>());
+        }
+        RouteStatistics routeStatistics = byMethod.get(method);
+        if (routeStatistics == null) {
+            String finalRouteName = routeName;
+            routeStatistics = byMethod.computeIfAbsent(method, m -> new RouteStatistics(finalRouteName, m));
+        }
+        return routeStatistics;
+    }
+
+    /**
+     * @return the counters and histograms of the routes handled.
+     */
+    @Nonnull
+    public Collection<KeelMetricInstrument> getInstruments() {
+        return Collections.unmodifiableCollection(instruments);
+    }
+
+    private final class RouteStatistics {
+        private static final int MIN_STATUS_CODE = 100;
+        private static final int MAX_STATUS_CODE = 599;
+        private final String routeName;
+        private final HttpMethod method;
+        private final KeelMetricHistogram durationHistogram;
+        private final AtomicReferenceArray<KeelMetricCounter> counters = new AtomicReferenceArray<>(MAX_STATUS_CODE - MIN_STATUS_CODE + 1);
+
+        RouteStatistics(@Nonnull String routeName, @Nonnull HttpMethod method) {
+            this.routeName = routeName;
+            this.method = method;
+            this.durationHistogram = new KeelMetricHistogram(TOPIC, "http_server_request_duration_seconds",
+                    Map.of("route", routeName, "method", method.name()));
+            instruments.add(durationHistogram);
+        }
+
+        void record(int statusCode, double seconds) {
+            durationHistogram.record(seconds);
+            int index = Math.max(MIN_STATUS_CODE, Math.min(MAX_STATUS_CODE, statusCode)) - MIN_STATUS_CODE;
+            KeelMetricCounter counter = counters.get(index);
+            if (counter == null) {
+                KeelMetricCounter created = new KeelMetricCounter(TOPIC, "http_server_requests_total",
+                        Map.of("route", routeName, "method", method.name(), "status", String.valueOf(index + MIN_STATUS_CODE)));
+                if (counters.compareAndSet(index, null, created)) {
+                    instruments.add(created);
+                    counter = created;
+                } else {
+                    counter = counters.get(index);
+                }
+            }
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package io.github.sinri.keel.web.http.metrics;
+
+import io.github.sinri.keel.logger.metric.KeelMetricHistogram;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Write the lines of the Prometheus text exposition format (version 0.0.4) into a reused builder.
+ *
+ * @since 3.3.0
+ */
+final class PrometheusTextWriter {
+    private final @Nonnull StringBuilder builder;
+    private final HistogramBucketWriter histogramBucketWriter = new HistogramBucketWriter();
+
+    PrometheusTextWriter(@Nonnull StringBuilder builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * @return the name with the characters not allowed replaced by underscores.
+     */
+    @Nonnull
+    static String sanitizeName(@Nonnull String name) {
+        StringBuilder sanitized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':'
+                    || (i > 0 && c >= '0' && c <= '9');
+            sanitized.append(allowed ? c : '_');
+        }
+        return sanitized.toString();
+    }
+
+    /**
+     * @return the labels as {@code a="1",b="2"}, escaped, to be written in the braces.
+     */
+    @Nonnull
+    static String buildLabelContent(@Nonnull Map<String, String> labels) {
+        StringBuilder content = new StringBuilder();
+        labels.forEach((name, value) -> {
+            if (content.length() > 0) {
+                content.append(',');
+            }
+            content.append(sanitizeName(name)).append("=\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '\\') {
+                    content.append("\\\\");
+                } else if (c == '"') {
+                    content.append("\\\"");
+                } else if (c == '\n') {
+                    content.append("\\n");
+                } else {
+                    content.append(c);
+                }
+            }
+            content.append('"');
+        });
+        return content.toString();
+    }
+
+    void writeFamily(@Nonnull String name, @Nonnull String type, @Nullable String help) {
+        if (help != null) {
+            builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        }
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    void writeSample(@Nonnull String name, @Nullable String labelContent, double value) {
+        builder.append(name);
+        if (labelContent != null && !labelContent.isEmpty()) {
+            builder.append('{').append(labelContent).append('}');
+        }
+        builder.append(' ');
+        writeValue(value);
+        builder.append('\n');
+    }
+
+    /**
+     * Write the buckets, sum and count of the histogram, with the buckets merged to one per power of two,
+     * as the log-linear buckets are too fine to scrape.
+     * As the buckets of the histogram hold their lower bounds rather than the upper ones,
+     * a value just on a power of two is counted in the bucket above it.
+     */
+    void writeHistogram(@Nonnull String name, @Nonnull String labelContent, @Nonnull KeelMetricHistogram histogram) {
+        double sum = histogram.getSum();
+        histogramBucketWriter.reset(name, labelContent);
+        histogram.forEachBucket(histogramBucketWriter);
+        long count = histogramBucketWriter.finish();
+        writeSample(name + "_sum", labelContent, sum);
+        writeSample(name + "_count", labelContent, count);
+    }
+
+    private void writeValue(double value) {
+        if (Double.isNaN(value)) {
+            builder.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            builder.append(value > 0 ? "+Inf" : "-Inf");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            builder.append((long) value);
+        } else {
+            builder.append(value);
+        }
+    }
+
+    private void writeBucket(@Nonnull String name, @Nonnull String labelContent, double upperBound, long cumulativeCount) {
+        builder.append(name).append("_bucket{");
+        if (!labelContent.isEmpty()) {
+            builder.append(labelContent).append(',');
+        }
+        builder.append("le=\"");
+        writeValue(upperBound);
+        builder.append("\"} ").append(cumulativeCount).append('\n');
+    }
+
+    private final class HistogramBucketWriter implements KeelMetricHistogram.BucketConsumer {
+        private String name;
+        private String labelContent;
+        /**
+         * The power of two bounding the buckets being merged, NaN before the first.
+         */
+        private double pendingUpperBound;
+        private long cumulativeCount;
+        private long overflowCount;
+
+        void reset(@Nonnull String name, @Nonnull String labelContent) {
+            this.name = name;
+            this.labelContent = labelContent;
+            this.pendingUpperBound = Double.NaN;
+            this.cumulativeCount = 0;
+            this.overflowCount = 0;
+        }
+
+        @Override
+        public void accept(double upperBound, long count) {
+            if (Double.isInfinite(upperBound)) {
+                // only counted in the bucket of +Inf
+                overflowCount += count;
+                return;
+            }
+            double powerOfTwoBound = roundUpToPowerOfTwo(upperBound);
+            if (!Double.isNaN(pendingUpperBound) && powerOfTwoBound != pendingUpperBound) {
+                writeBucket(name, labelContent, pendingUpperBound, cumulativeCount);
+            }
+            pendingUpperBound = powerOfTwoBound;
+            cumulativeCount += count;
+        }
+
+        /**
+         * @return the count of all the values.
+         */
+        long finish() {
+            if (!Double.isNaN(pendingUpperBound)) {
+                writeBucket(name, labelContent, pendingUpperBound, cumulativeCount);
+            }
+            long count = cumulativeCount + overflowCount;
+            writeBucket(name, labelContent, Double.POSITIVE_INFINITY, count);
+            return count;
+        }
+
+        private double roundUpToPowerOfTwo(double value) {
+            double floor = Math.scalb(1.0, Math.getExponent(value));
+            return floor == value ? value : floor * 2;
+        }
+    }
+}
@@ -0,0 +1 @@
+package io.github.sinri.keel.web.http.metrics;
\ No newline at end of file
@@ -0,0 +1,134 @@
+package io.github.sinri.keel.web.http.prehandler;
+
+import javax.annotation.Nonnull;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+import static io.github.sinri.keel.helper.KeelHelpersInterface.KeelHelpers;
+
+/**
+ * A node-local generator of request IDs in snowflake style, without any cluster-wide coordination.
+ * <p>
+ * The numeric ID is composed of 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node ID and 12 bits of sequence;
+ * its fixed width hex form is prefixed by the local host address resolved once on class loading,
+ * i.e. {@code 192.168.0.1-0a1b2c3d4e5f6789}.
+ * IDs from one generator are increasing, so they are sortable by time.
+ * <p>
+ * As the processes on one host share the prefix, give each of them a distinct node ID
+ * by the configuration {@code request_id.node_id} for the default instance, or by {@link #KeelRequestIdGenerator(long)};
+ * otherwise a random one is taken, which might collide with another process by chance (1 in 1024 for each pair).
+ * <p>
+ * When the clock goes back or more than 4096 IDs are required in one millisecond,
+ * the generator keeps on with the last timestamp borrowed forward, instead of waiting for the clock.
+ *
+ * @since 3.3.0
+ */
+public class KeelRequestIdGenerator {
+    /**
+     * 2024-01-01T00:00:00Z
+     */
+    public static final long EPOCH = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final String LOCAL_HOST_ADDRESS = Objects.requireNonNullElse(KeelHelpers.netHelper().getLocalHostAddress(), "0.0.0.0");
+    /**
+     * The random base of the derived node IDs, so that the processes on one host do not follow one sequence.
+     */
+    private static final int NODE_ID_BASE = new SecureRandom().nextInt((int) MAX_NODE_ID + 1);
+    private static final AtomicInteger instanceCounter = new AtomicInteger(0);
+
+    private final long nodeId;
+    /**
+     * The last timestamp (since epoch) shifted left by sequence bits, with the last sequence.
+     */
+    private final AtomicLong lastState = new AtomicLong(0);
+
+    /**
+     * The node ID is derived from a random base of this JVM and the count of instances in it,
+     * so the instances in one JVM (up to 1024) never share one.
+     */
+    public KeelRequestIdGenerator() {
+        this(deriveNodeId());
+    }
+
+    /**
+     * @param nodeId in [0, 1023], should be unique among the generators sharing one host.
+     */
+    public KeelRequestIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID should be in [0, " + MAX_NODE_ID + "]");
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * @return the instance created on first call, with the node ID configured as {@code request_id.node_id} if any.
+     */
+    public static KeelRequestIdGenerator getDefaultInstance() {
+        return DefaultInstanceHolder.instance;
+    }
+
+    private static long deriveNodeId() {
+        return (NODE_ID_BASE + instanceCounter.getAndIncrement()) & MAX_NODE_ID;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return a unique and increasing ID of this generator.
+     */
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH;
+        while (true) {
+            long last = lastState.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // same millisecond, clock back or sequence overflow: go on from the last state
+                next = last + 1;
+            }
+            if (lastState.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & SEQUENCE_MASK;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    /**
+     * @return the local host address and the next ID in 16 hex digits.
+     */
+    @Nonnull
+    public String nextRequestId() {
+        String hex = Long.toHexString(nextId());
+        StringBuilder sb = new StringBuilder(LOCAL_HOST_ADDRESS.length() + 17);
+        sb.append(LOCAL_HOST_ADDRESS).append('-');
+        for (int i = hex.length(); i < 16; i++) {
+            sb.append('0');
+        }
+        return sb.append(hex).toString();
+    }
+
+    private static final class DefaultInstanceHolder {
+        private static final KeelRequestIdGenerator instance = createDefaultInstance();
+
+        private static KeelRequestIdGenerator createDefaultInstance() {
+            Long configuredNodeId = Keel.getConfiguration().readLong(List.of("request_id", "node_id"));
+            if (configuredNodeId != null) {
+                return new KeelRequestIdGenerator(configuredNodeId);
+            }
+            return new KeelRequestIdGenerator();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.sinri.keel.web.http.prehandler;
 
 import io.github.sinri.keel.web.http.ApiMeta;
+import io.github.sinri.keel.web.http.metrics.KeelRouteStatisticsHandler;
 import io.vertx.core.Handler;
 import io.vertx.ext.web.Route;
 import io.vertx.ext.web.RoutingContext;
@@ -36,10 +37,21 @@ public class PreHandlerChain {
 
     protected Handler<RoutingContext> failureHandler = null;
 
+    /**
+     * The statistics of the requests by route, shared by the routes; none by default.
+     *
+     * @since 3.3.0
+     */
+    protected KeelRouteStatisticsHandler routeStatisticsHandler = null;
+
     public final void executeHandlers(Route route, ApiMeta apiMeta) {
         // === HANDLERS WEIGHT IN ORDER ===
         // PLATFORM
         route.handler(new KeelPlatformHandler());
+        if (routeStatisticsHandler != null) {
+            // since 3.3.0, PlatformHandler
+            route.handler(routeStatisticsHandler);
+        }
         if (apiMeta.timeout() > 0) {
             // PlatformHandler
             route.handler(TimeoutHandler.create(apiMeta.timeout(), apiMeta.statusCodeForTimeout()));
@@ -0,0 +1,112 @@
+package io.github.sinri.keel.test.lab.blocking;
+
+import io.github.sinri.keel.facade.async.FailedInParallel;
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.Future;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel iteration with max concurrency.
+ */
+public class BoundedParallelTest extends KeelTest {
+    private static List<Integer> range(int n) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @TestUnit
+    public Future<Void> testConcurrencyAndOrder() {
+        AtomicInteger inFlight = new AtomicInteger(0);
+        AtomicInteger maxInFlight = new AtomicInteger(0);
+        return KeelAsyncKit.parallelForAllResult(range(200), 8, i -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    // later items complete earlier, to shuffle the completion order
+                    return KeelAsyncKit.sleep(1 + (200 - i) % 7)
+                            .compose(v -> {
+                                inFlight.decrementAndGet();
+                                return Future.succeededFuture(i * 2);
+                            });
+                })
+                .compose(parallelResult -> {
+                    getLogger().info("max in flight: " + maxInFlight.get());
+                    if (maxInFlight.get() != 8) {
+                        return Future.failedFuture("max in flight should be 8 but " + maxInFlight.get());
+                    }
+                    List<Integer> results = parallelResult.getResultList();
+                    for (int i = 0; i < 200; i++) {
+                        if (results.get(i) != i * 2) {
+                            return Future.failedFuture("result out of order at " + i);
+                        }
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testFailFast() {
+        AtomicInteger started = new AtomicInteger(0);
+        return KeelAsyncKit.parallelForAllSuccess(range(1000), 4, i -> {
+                    started.incrementAndGet();
+                    return KeelAsyncKit.sleep(5L)
+                            .compose(v -> i == 10 ? Future.failedFuture("item 10 failed") : Future.succeededFuture());
+                })
+                .compose(
+                        v -> Future.failedFuture("should fail"),
+                        throwable -> KeelAsyncKit.sleep(100L).compose(v -> {
+                            getLogger().info("failed with " + throwable.getMessage() + ", started " + started.get());
+                            if (started.get() > 20) {
+                                return Future.failedFuture("too many started after failure: " + started.get());
+                            }
+                            return Future.succeededFuture();
+                        })
+                );
+    }
+
+    @TestUnit
+    public Future<Void> testCollectAll() {
+        AtomicInteger processed = new AtomicInteger(0);
+        return KeelAsyncKit.parallelForAllComplete(range(100), 10, i -> {
+                    processed.incrementAndGet();
+                    return KeelAsyncKit.sleep(2L)
+                            .compose(v -> i % 10 == 0 ? Future.failedFuture("item " + i) : Future.succeededFuture());
+                })
+                .compose(
+                        v -> Future.failedFuture("should fail"),
+                        throwable -> {
+                            if (!(throwable instanceof FailedInParallel)) {
+                                return Future.failedFuture(throwable);
+                            }
+                            int causes = ((FailedInParallel) throwable).getCauses().size();
+                            getLogger().info("processed " + processed.get() + ", causes: " + causes);
+                            if (processed.get() != 100 || causes != 10) {
+                                return Future.failedFuture("not all processed");
+                            }
+                            return Future.succeededFuture();
+                        }
+                );
+    }
+
+    @TestUnit
+    public Future<Void> testSynchronousItems() {
+        // items completed synchronously should not overflow the stack
+        AtomicInteger processed = new AtomicInteger(0);
+        return KeelAsyncKit.parallelForAllSuccess(range(200_000), 16, i -> {
+                    processed.incrementAndGet();
+                    return Future.succeededFuture();
+                })
+                .compose(v -> {
+                    if (processed.get() != 200_000) {
+                        return Future.failedFuture("processed " + processed.get());
+                    }
+                    return KeelAsyncKit.parallelForAnySuccess(range(100), 4, i -> i == 50 ? Future.succeededFuture() : Future.failedFuture("no"));
+                });
+    }
+}
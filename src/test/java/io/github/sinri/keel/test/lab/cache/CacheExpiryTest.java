@@ -0,0 +1,108 @@
+package io.github.sinri.keel.test.lab.cache;
+
+import io.github.sinri.keel.cache.impl.KeelCacheAlef;
+import io.github.sinri.keel.cache.impl.KeelCacheBet;
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.Future;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
+/**
+ * Check the timing wheel based clean up of KeelCacheAlef and KeelCacheBet.
+ */
+public class CacheExpiryTest extends KeelTest {
+    private static final int ENTRIES = 1_000_000;
+
+    @TestUnit
+    public Future<Void> testAlef() {
+        KeelCacheAlef<String, String> cache = new KeelCacheAlef<>();
+        // one in ten expires in 3 seconds, others live for an hour
+        for (int i = 0; i < ENTRIES; i++) {
+            cache.save("key-" + i, "value-" + i, i % 10 == 0 ? 3 : 3600);
+        }
+        long start = System.nanoTime();
+        cache.cleanUp();
+        getLogger().info("clean up with nothing due spent " + (System.nanoTime() - start) / 1000 + " us");
+
+        if (cache.read("key-" + (ENTRIES - 10)) == null) {
+            return Future.failedFuture("the last short-lived key should be alive");
+        }
+        return KeelAsyncKit.sleep(3500L)
+                .compose(v -> {
+                    if (cache.read("key-" + (ENTRIES - 10)) != null) {
+                        return Future.failedFuture("the short-lived key should be rejected by read even before clean up");
+                    }
+                    if (cache.getEntryCount() != ENTRIES) {
+                        return Future.failedFuture("removed before clean up: " + cache.getEntryCount());
+                    }
+                    long t = System.nanoTime();
+                    cache.cleanUp();
+                    getLogger().info("clean up with " + (ENTRIES / 10) + " due spent " + (System.nanoTime() - t) / 1000 + " us");
+                    // the snapshot skips the dead ones, so count what is held
+                    int size = cache.getEntryCount();
+                    if (size != ENTRIES - ENTRIES / 10) {
+                        return Future.failedFuture("unexpected size after clean up: " + size);
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testBet() {
+        KeelCacheBet<String, String> cache = new KeelCacheBet<>();
+        return cache.save("short", "S", 1)
+                .compose(v -> cache.save("long", "L", 3600))
+                .compose(v -> cache.save("replaced", "R1", 1))
+                .compose(v -> cache.save("replaced", "R2", 3600))
+                .compose(v -> KeelAsyncKit.sleep(2500L))
+                .compose(v -> cache.cleanUp())
+                .compose(v -> cache.getSnapshotMap())
+                .compose(snapshot -> {
+                    getLogger().info("snapshot: " + snapshot);
+                    if (cache.getEntryCount() != 2 || snapshot.size() != 2 || !"R2".equals(snapshot.get("replaced"))) {
+                        return Future.failedFuture("unexpected snapshot");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testRemoveAllWhileSaving() {
+        KeelCacheAlef<String, String> cache = new KeelCacheAlef<>();
+        // short-lived entries saved on several threads, while all removed again and again
+        AtomicInteger savers = new AtomicInteger(4);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(Keel.getVertx().executeBlocking(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    cache.save("key-" + thread + "-" + (i % 1000), "value", 1);
+                }
+                savers.decrementAndGet();
+                return null;
+            }, false));
+        }
+        futures.add(Keel.getVertx().executeBlocking(() -> {
+            while (savers.get() > 0) {
+                cache.removeAll();
+            }
+            return null;
+        }, false));
+        return Future.all(futures)
+                .compose(v -> KeelAsyncKit.sleep(2500L))
+                .compose(v -> {
+                    cache.cleanUp();
+                    getLogger().info("held after clean up: " + cache.getEntryCount());
+                    if (cache.getEntryCount() != 0) {
+                        return Future.failedFuture("entries left out of the expiry wheel: " + cache.getEntryCount());
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+}
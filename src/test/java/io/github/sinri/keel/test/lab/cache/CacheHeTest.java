@@ -0,0 +1,142 @@
+package io.github.sinri.keel.test.lab.cache;
+
+import io.github.sinri.keel.cache.KeelCacheInterface;
+import io.github.sinri.keel.cache.impl.KeelCacheHe;
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Compare KeelCacheAlef (unbounded), a plain LRU and KeelCacheHe (W-TinyLFU) on a skewed (Zipf) workload.
+ */
+public class CacheHeTest extends KeelTest {
+    private static final int KEY_SPACE = 1_000_000;
+    private static final int CAPACITY = 10_000;
+    private static final int REQUESTS = 2_000_000;
+
+    private static long[] zipfTrace(long seed) {
+        // inverse CDF sampling of Zipf with s=1.0 over KEY_SPACE keys
+        double[] cdf = new double[KEY_SPACE];
+        double sum = 0;
+        for (int i = 0; i < KEY_SPACE; i++) {
+            sum += 1.0 / (i + 1);
+            cdf[i] = sum;
+        }
+        Random random = new Random(seed);
+        long[] trace = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            double x = random.nextDouble() * sum;
+            int index = Arrays.binarySearch(cdf, x);
+            if (index < 0) index = -index - 1;
+            // scatter the ranks so that hot keys are not adjacent
+            trace[i] = (index * 0x9E3779B97F4A7C15L) >>> 20;
+        }
+        return trace;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private String run(String name, long[] trace, Function<String, Boolean> accessor) {
+        long heapBefore = usedHeap();
+        long hits = 0;
+        long start = System.currentTimeMillis();
+        for (long key : trace) {
+            if (accessor.apply("key-" + key)) {
+                hits++;
+            }
+        }
+        long spent = System.currentTimeMillis() - start;
+        long heapAfter = usedHeap();
+        return name + " | hit ratio " + String.format("%.4f", 1.0 * hits / trace.length)
+                + " | retained heap ~" + ((heapAfter - heapBefore) / 1024) + " KB"
+                + " | spent " + spent + " ms";
+    }
+
+    @TestUnit
+    public Future<Void> compareOnZipf() {
+        long[] trace = zipfTrace(42L);
+
+        KeelCacheInterface<String, JsonObject> alef = KeelCacheInterface.createDefaultInstance();
+        String alefResult = run("Alef (unbounded)", trace, key -> {
+            if (alef.read(key) != null) return true;
+            alef.save(key, new JsonObject().put("key", key), 3600);
+            return false;
+        });
+        getLogger().info(alefResult + " | entries " + alef.getSnapshotMap().size());
+        alef.removeAll();
+
+        Map<String, JsonObject> lru = new LinkedHashMap<>(CAPACITY, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JsonObject> eldest) {
+                return size() > CAPACITY;
+            }
+        };
+        String lruResult = run("LRU (" + CAPACITY + ")", trace, key -> {
+            if (lru.get(key) != null) return true;
+            lru.put(key, new JsonObject().put("key", key));
+            return false;
+        });
+        getLogger().info(lruResult + " | entries " + lru.size());
+        lru.clear();
+
+        KeelCacheInterface<String, JsonObject> he = KeelCacheInterface.createBoundedInstance(CAPACITY);
+        String heResult = run("He (" + CAPACITY + ")", trace, key -> {
+            if (he.read(key) != null) return true;
+            he.save(key, new JsonObject().put("key", key), 3600);
+            return false;
+        });
+        getLogger().info(heResult + " | entries " + he.getSnapshotMap().size()
+                + " | weighted size " + ((KeelCacheHe<String, JsonObject>) he).getWeightedSize());
+
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> boundedByWeight() {
+        KeelCacheInterface<String, String> he = KeelCacheInterface.createBoundedInstance(
+                1024 * 1024, 1024, (k, v) -> k.length() + v.length()
+        );
+        Random random = new Random(7L);
+        for (int i = 0; i < 100_000; i++) {
+            String value = "x".repeat(random.nextInt(4096));
+            he.save("key-" + i, value, 3600);
+        }
+        long weightedSize = ((KeelCacheHe<String, String>) he).getWeightedSize();
+        getLogger().info("weighted size " + weightedSize + " entries " + he.getSnapshotMap().size());
+        if (weightedSize > 1024 * 1024) {
+            return Future.failedFuture("weighted size overflowed: " + weightedSize);
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> keepLifetime() {
+        KeelCacheInterface<String, String> he = KeelCacheInterface.createBoundedInstance(100);
+        he.save("a", "A", 1);
+        if (!"A".equals(he.read("a"))) {
+            return Future.failedFuture("a should be alive");
+        }
+        return Future.succeededFuture()
+                .compose(v -> KeelAsyncKit.sleep(1500L))
+                .compose(v -> {
+                    if (he.read("a") != null) {
+                        return Future.failedFuture("a should be expired");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+}
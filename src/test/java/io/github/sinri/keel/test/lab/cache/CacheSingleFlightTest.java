@@ -0,0 +1,115 @@
+package io.github.sinri.keel.test.lab.cache;
+
+import io.github.sinri.keel.cache.KeelAsyncCacheInterface;
+import io.github.sinri.keel.cache.KeelCacheInterface;
+import io.github.sinri.keel.cache.SingleFlightLoader;
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.Future;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Concurrent misses of a hot key should call the generator only once.
+ */
+public class CacheSingleFlightTest extends KeelTest {
+    private static final int CONCURRENCY = 1000;
+
+    private static Function<String, Future<String>> slowGenerator(AtomicInteger backendCalls) {
+        return key -> {
+            backendCalls.incrementAndGet();
+            return KeelAsyncKit.sleep(200L).compose(v -> Future.succeededFuture("value of " + key));
+        };
+    }
+
+    @TestUnit
+    public Future<Void> testSync() {
+        KeelCacheInterface<String, String> cache = KeelCacheInterface.createDefaultInstance();
+        AtomicInteger backendCalls = new AtomicInteger();
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            futures.add(cache.read("hot", slowGenerator(backendCalls), 60));
+        }
+        return Future.all(futures)
+                .compose(v -> cache.read("hot", slowGenerator(backendCalls), 60))
+                .compose(v -> {
+                    getLogger().info("backend calls: " + backendCalls.get() + " statistics: " + cache.getLoadStatistics());
+                    if (backendCalls.get() != 1) {
+                        return Future.failedFuture("generator called " + backendCalls.get() + " times");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testAsync() {
+        KeelAsyncCacheInterface<String, String> cache = KeelAsyncCacheInterface.createDefaultInstance();
+        AtomicInteger backendCalls = new AtomicInteger();
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            futures.add(cache.read("hot", slowGenerator(backendCalls), 60));
+        }
+        return Future.all(futures)
+                .compose(v -> {
+                    getLogger().info("backend calls: " + backendCalls.get() + " statistics: " + cache.getLoadStatistics());
+                    if (backendCalls.get() != 1) {
+                        return Future.failedFuture("generator called " + backendCalls.get() + " times");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testFailureNotCached() {
+        KeelCacheInterface<String, String> cache = KeelCacheInterface.createDefaultInstance();
+        AtomicInteger backendCalls = new AtomicInteger();
+        Function<String, Future<String>> failingGenerator = key -> {
+            backendCalls.incrementAndGet();
+            return KeelAsyncKit.sleep(100L).compose(v -> Future.failedFuture("backend down"));
+        };
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            futures.add(cache.read("hot", failingGenerator, 60));
+        }
+        return Future.join(futures)
+                .recover(throwable -> {
+                    for (Future<String> future : futures) {
+                        if (future.succeeded()) {
+                            return Future.failedFuture("a failed load should be shared by all");
+                        }
+                    }
+                    return cache.read("hot", failingGenerator, 60)
+                            .compose(x -> Future.failedFuture("should fail again"), failedAgain -> Future.succeededFuture());
+                })
+                .compose(v -> {
+                    getLogger().info("backend calls: " + backendCalls.get() + " statistics: " + cache.getLoadStatistics());
+                    if (backendCalls.get() != 2) {
+                        return Future.failedFuture("generator called " + backendCalls.get() + " times");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testNullLoadNotStuck() {
+        SingleFlightLoader<String, String> loader = new SingleFlightLoader<>();
+        return loader.load("hot", key -> null)
+                .compose(x -> Future.failedFuture("a null load should fail"), throwable -> {
+                    if (loader.getInFlightCount() != 0) {
+                        return Future.failedFuture("a null load left in flight");
+                    }
+                    return loader.load("hot", key -> Future.succeededFuture("value of " + key));
+                })
+                .compose(value -> {
+                    getLogger().info("loaded after a null load: " + value + ", statistics: " + loader.getStatistics());
+                    if (!"value of hot".equals(value)) {
+                        return Future.failedFuture("not loaded after a null load: " + value);
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.sinri.keel.test.lab.csv;
+
+import io.github.sinri.keel.poi.csv.CsvCell;
+import io.github.sinri.keel.poi.csv.CsvRow;
+import io.github.sinri.keel.poi.csv.KeelCsvReader;
+import io.github.sinri.keel.poi.csv.ReusableCsvRow;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.github.sinri.keel.tesuto.TestUnitResult;
+import io.vertx.core.Future;
+
+import javax.annotation.Nonnull;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Check the state machine reader against the line based parsing it replaced,
+ * then read a generated large file (1 GB by default, or the bytes given by {@code -Dkeel.csv.benchmark.bytes})
+ * in the blocking way with a reusable row, with new rows, and in async batches.
+ */
+public class CsvReadBenchmarkTest extends KeelTest {
+    private File file;
+    private long fileRows;
+
+    /**
+     * The line based parsing before 3.3.0, as the reference.
+     */
+    private static CsvRow lineBasedReadRow(BufferedReader br, String separator) throws IOException {
+        CsvRow row = null;
+        int quoterFlag = 0;
+        StringBuilder buffer = null;
+        String line;
+        while (true) {
+            line = br.readLine();
+            if (line == null) {
+                if (row == null) return null;
+                if (buffer != null) row.addCell(new CsvCell(buffer.toString()));
+                break;
+            }
+            if (row == null) row = new CsvRow();
+            if (buffer == null) buffer = new StringBuilder();
+            else buffer.append("\n");
+
+            for (int i = 0; i < line.length(); i++) {
+                var singleString = line.substring(i, i + 1);
+                if (singleString.equals("\"")) {
+                    if (quoterFlag == 0) {
+                        quoterFlag = 1;
+                    } else if (quoterFlag == 1) {
+                        quoterFlag = 2;
+                    } else {
+                        buffer.append(singleString);
+                        quoterFlag = 1;
+                    }
+                } else if (singleString.equals(separator)) {
+                    if (quoterFlag == 0 || quoterFlag == 2) {
+                        row.addCell(new CsvCell(buffer.toString()));
+                        quoterFlag = 0;
+                        buffer = new StringBuilder();
+                    } else {
+                        buffer.append(singleString);
+                    }
+                } else {
+                    buffer.append(singleString);
+                }
+            }
+            if (quoterFlag == 0 || quoterFlag == 2) {
+                row.addCell(new CsvCell(buffer.toString()));
+                break;
+            }
+        }
+        return row;
+    }
+
+    private static String describe(CsvRow row) {
+        if (row == null) return "null";
+        List<String> cells = new ArrayList<>();
+        for (int i = 0; i < row.size(); i++) {
+            cells.add(row.getCell(i).getString());
+        }
+        return cells.toString();
+    }
+
+    @Nonnull
+    @Override
+    protected Future<Void> starting() {
+        long targetBytes = Long.getLong("keel.csv.benchmark.bytes", 1024L * 1024 * 1024);
+        try {
+            file = File.createTempFile("keel-csv-benchmark", ".csv");
+            file.deleteOnExit();
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 20)) {
+                long bytes = 0;
+                StringBuilder sb = new StringBuilder();
+                while (bytes < targetBytes) {
+                    sb.setLength(0);
+                    sb.append(fileRows).append(",name-").append(fileRows)
+                            .append(",\"quoted, with \"\"escaped\"\" quotes\",")
+                            .append(fileRows * 7 % 100000).append(".25,")
+                            .append(fileRows % 10 == 0 ? "\"multi\nline\"" : "plain text field")
+                            .append("\r\n");
+                    writer.write(sb.toString());
+                    bytes += sb.length();
+                    fileRows++;
+                }
+            }
+            getLogger().info("generated " + file.length() + " bytes in " + fileRows + " rows");
+            return Future.succeededFuture();
+        } catch (IOException e) {
+            return Future.failedFuture(e);
+        }
+    }
+
+    @Nonnull
+    @Override
+    protected Future<Void> ending(List<TestUnitResult> testUnitResults) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException ignored) {
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testSameAsLineBased() throws IOException {
+        String[] pieces = {"a", "bc", ",", ";", "\"", "\"\"", "\n", "\r\n", "\r", " ", "12.5", "中文", ""};
+        Random random = new Random(42);
+        for (int round = 0; round < 20000; round++) {
+            StringBuilder sb = new StringBuilder();
+            int n = random.nextInt(30);
+            for (int i = 0; i < n; i++) {
+                sb.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String content = sb.toString();
+            String separator = round % 5 == 0 ? ";" : ",";
+
+            BufferedReader br = new BufferedReader(new StringReader(content));
+            KeelCsvReader reader = new KeelCsvReader(new StringReader(content)).setSeparator(separator);
+            while (true) {
+                String expected = describe(lineBasedReadRow(br, separator));
+                String actual = describe(reader.blockReadRow());
+                if (!expected.equals(actual)) {
+                    return Future.failedFuture("differs for " + content.replace("\r", "\\r").replace("\n", "\\n")
+                            + ": expected " + expected + " but " + actual);
+                }
+                if ("null".equals(expected)) break;
+            }
+        }
+        return Future.succeededFuture();
+    }
+
+    private Future<Void> checkRows(String mode, long rows, long startTime) {
+        long cost = System.currentTimeMillis() - startTime;
+        getLogger().info(mode + ": " + rows + " rows in " + cost + " ms, "
+                + (file.length() / 1024.0 / 1024.0 * 1000 / Math.max(1, cost)) + " MB/s");
+        if (rows != fileRows) {
+            return Future.failedFuture(mode + " read " + rows + " rows but " + fileRows + " written");
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testReusableRow() throws IOException {
+        long startTime = System.currentTimeMillis();
+        long rows = 0;
+        long totalLength = 0;
+        KeelCsvReader reader = new KeelCsvReader(new FileInputStream(file), StandardCharsets.UTF_8);
+        try {
+            ReusableCsvRow row = new ReusableCsvRow();
+            while (reader.blockReadRow(row)) {
+                totalLength += row.getCellLength(2);
+                rows++;
+            }
+        } finally {
+            reader.blockClose();
+        }
+        if (totalLength != rows * "quoted, with \"escaped\" quotes".length()) {
+            return Future.failedFuture("quoted cells not parsed as expected");
+        }
+        return checkRows("reusable row", rows, startTime);
+    }
+
+    @TestUnit
+    public Future<Void> testNewRows() throws IOException {
+        long startTime = System.currentTimeMillis();
+        long rows = 0;
+        KeelCsvReader reader = new KeelCsvReader(new FileInputStream(file), StandardCharsets.UTF_8);
+        try {
+            while (reader.blockReadRow() != null) {
+                rows++;
+            }
+        } finally {
+            reader.blockClose();
+        }
+        return checkRows("new rows", rows, startTime);
+    }
+
+    @TestUnit
+    public Future<Void> testAsyncBatches() {
+        long startTime = System.currentTimeMillis();
+        AtomicLong multiLineCells = new AtomicLong(0);
+        return KeelCsvReader.create(file, StandardCharsets.UTF_8)
+                .compose(reader -> reader.readRowsInBatches(10000, rows -> {
+                            for (CsvRow row : rows) {
+                                if ("multi\nline".equals(row.getCell(4).getString())) {
+                                    multiLineCells.incrementAndGet();
+                                }
+                            }
+                            return Future.succeededFuture();
+                        })
+                        .eventually(() -> reader.close()))
+                .compose(rows -> {
+                    if (multiLineCells.get() != (fileRows + 9) / 10) {
+                        return Future.failedFuture("multi line cells: " + multiLineCells.get());
+                    }
+                    return checkRows("async batches", rows, startTime);
+                });
+    }
+}
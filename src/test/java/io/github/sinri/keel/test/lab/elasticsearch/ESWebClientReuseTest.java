@@ -0,0 +1,136 @@
+package io.github.sinri.keel.test.lab.elasticsearch;
+
+import io.github.sinri.keel.elasticsearch.ESApiMixin;
+import io.github.sinri.keel.elasticsearch.ESWebClientHolder;
+import io.github.sinri.keel.elasticsearch.ElasticSearchKit;
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.github.sinri.keel.tesuto.TestUnitResult;
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.parsetools.JsonEventType;
+import io.vertx.core.parsetools.JsonParser;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
+/**
+ * With a local HTTP server standing in for ES, check that the calls reuse the pooled connections,
+ * and that a large response could be parsed as a stream.
+ */
+public class ESWebClientReuseTest extends KeelTest {
+    private static final int HITS = 100_000;
+    private final AtomicInteger connectionCount = new AtomicInteger(0);
+    private final AtomicInteger requestCount = new AtomicInteger(0);
+    private HttpServer server;
+    private String bigResponse;
+
+    @Nonnull
+    @Override
+    protected Future<Void> starting() {
+        JsonArray hits = new JsonArray();
+        for (int i = 0; i < HITS; i++) {
+            hits.add(new JsonObject().put("_id", String.valueOf(i)).put("_source", new JsonObject().put("n", i)));
+        }
+        bigResponse = new JsonObject()
+                .put("took", 1)
+                .put("hits", new JsonObject().put("total", new JsonObject().put("value", HITS)).put("hits", hits))
+                .toString();
+
+        server = Keel.getVertx().createHttpServer()
+                .connectionHandler(connection -> connectionCount.incrementAndGet())
+                .requestHandler(request -> {
+                    requestCount.incrementAndGet();
+                    if (request.path().startsWith("/big")) {
+                        request.response().putHeader("Content-Type", "application/json").end(bigResponse);
+                    } else if (request.path().startsWith("/missing")) {
+                        request.response().setStatusCode(404).end("{\"error\":\"missing\"}");
+                    } else {
+                        request.response().putHeader("Content-Type", "application/json")
+                                .end(new JsonObject().put("path", request.path()).toString());
+                    }
+                });
+        return server.listen(0, "127.0.0.1")
+                .compose(listened -> {
+                    Properties properties = new Properties();
+                    properties.setProperty("es.standIn.username", "elastic");
+                    properties.setProperty("es.standIn.password", "secret");
+                    properties.setProperty("es.standIn.cluster.host", "127.0.0.1");
+                    properties.setProperty("es.standIn.cluster.port", String.valueOf(listened.actualPort()));
+                    properties.setProperty("es.standIn.client.poolMaxSize", "4");
+                    Keel.getConfiguration().loadProperties(properties);
+                    return Future.succeededFuture();
+                });
+    }
+
+    @Nonnull
+    @Override
+    protected Future<Void> ending(List<TestUnitResult> testUnitResults) {
+        ESWebClientHolder.closeAll();
+        return server.close();
+    }
+
+    @TestUnit
+    public Future<Void> testConnectionReuse() {
+        List<Integer> calls = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            calls.add(i);
+        }
+        int requestsBefore = requestCount.get();
+        return KeelAsyncKit.parallelForAllSuccess(calls, 16, i -> new ElasticSearchKit("standIn")
+                        .call(HttpMethod.GET, "/index-" + i, new ESApiMixin.ESApiQueries(), null)
+                        .compose(resp -> Future.succeededFuture()))
+                .compose(v -> {
+                    getLogger().info("requests: " + (requestCount.get() - requestsBefore) + " connections: " + connectionCount.get());
+                    if (connectionCount.get() > 4) {
+                        return Future.failedFuture("connections not reused: " + connectionCount.get());
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testStreamingParse() {
+        AtomicInteger hitCount = new AtomicInteger(0);
+        JsonParser parser = JsonParser.newParser();
+        parser.handler(event -> {
+            if (event.type() == JsonEventType.START_ARRAY && "hits".equals(event.fieldName())) {
+                // each hit as a whole object, while others as tokens
+                parser.objectValueMode();
+            } else if (event.type() == JsonEventType.VALUE && event.isObject()) {
+                hitCount.incrementAndGet();
+            } else if (event.type() == JsonEventType.END_ARRAY) {
+                parser.objectEventMode();
+            }
+        });
+        return new ElasticSearchKit("standIn")
+                .callWithJsonParser(HttpMethod.GET, "/big/_search", null, null, parser)
+                .compose(v -> {
+                    getLogger().info("hits parsed as stream: " + hitCount.get());
+                    if (hitCount.get() != HITS) {
+                        return Future.failedFuture("hits: " + hitCount.get());
+                    }
+                    return new ElasticSearchKit("standIn")
+                            .callWithJsonParser(HttpMethod.GET, "/missing", null, null, JsonParser.newParser())
+                            .compose(
+                                    x -> Future.failedFuture("404 should fail"),
+                                    throwable -> {
+                                        getLogger().info("404 failed as " + throwable);
+                                        if (!(throwable instanceof ESApiMixin.ESApiException)) {
+                                            return Future.failedFuture(throwable);
+                                        }
+                                        return Future.succeededFuture();
+                                    }
+                            );
+                });
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.sinri.keel.test.lab.funnel;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.servant.funnel.KeelKeyedFunnel;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tasks of one key in order, and independent keys in parallel with speedup linear to the key count.
+ */
+public class KeyedFunnelTest extends KeelTest {
+    private static final int TASKS = 48;
+    private static final long TASK_MILLIS = 20L;
+
+    private static Future<Void> waitUntil(BooleanSupplier condition) {
+        return KeelAsyncKit.repeatedlyCall(routineResult -> {
+            if (condition.getAsBoolean()) {
+                routineResult.stop();
+                return Future.succeededFuture();
+            }
+            return KeelAsyncKit.sleep(2L);
+        });
+    }
+
+    /**
+     * @return the time to run all tasks spread on the given count of keys.
+     */
+    private Future<Long> measure(int keyCount) {
+        KeelKeyedFunnel<String> funnel = new KeelKeyedFunnel<>(16);
+        Map<String, List<Integer>> doneByKey = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> runningByKey = new ConcurrentHashMap<>();
+        AtomicInteger overlapped = new AtomicInteger(0);
+        AtomicInteger done = new AtomicInteger(0);
+        return funnel.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    long startTime = System.currentTimeMillis();
+                    for (int i = 0; i < TASKS; i++) {
+                        String key = "entity-" + (i % keyCount);
+                        int seq = i / keyCount;
+                        funnel.add(key, () -> {
+                            if (runningByKey.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet() > 1) {
+                                overlapped.incrementAndGet();
+                            }
+                            return KeelAsyncKit.sleep(TASK_MILLIS)
+                                    .onComplete(ar -> {
+                                        runningByKey.get(key).decrementAndGet();
+                                        doneByKey.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(seq);
+                                        done.incrementAndGet();
+                                    });
+                        });
+                    }
+                    return waitUntil(() -> done.get() == TASKS && funnel.getLaneCount() == 0)
+                            .compose(v -> {
+                                long cost = System.currentTimeMillis() - startTime;
+                                getLogger().info(keyCount + " keys: " + TASKS + " tasks in " + cost + " ms");
+                                if (overlapped.get() > 0) {
+                                    return Future.failedFuture("one key ran concurrently");
+                                }
+                                for (List<Integer> sequence : doneByKey.values()) {
+                                    List<Integer> sorted = new ArrayList<>(sequence);
+                                    sorted.sort(Integer::compareTo);
+                                    if (!sorted.equals(sequence)) {
+                                        return Future.failedFuture("order not kept in key: " + sequence);
+                                    }
+                                }
+                                return funnel.undeployMe().map(cost);
+                            });
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testSpeedup() {
+        return measure(1)
+                .compose(single -> measure(4)
+                        .compose(four -> measure(16)
+                                .compose(sixteen -> {
+                                    double speedup4 = 1.0 * single / four;
+                                    double speedup16 = 1.0 * single / sixteen;
+                                    getLogger().info("speedup: 4 keys " + speedup4 + ", 16 keys " + speedup16);
+                                    if (speedup4 < 3 || speedup16 < 10) {
+                                        return Future.failedFuture("not linear across keys");
+                                    }
+                                    return Future.succeededFuture();
+                                })));
+    }
+
+    @TestUnit
+    public Future<Void> testMaxConcurrency() {
+        KeelKeyedFunnel<Integer> funnel = new KeelKeyedFunnel<>(3);
+        AtomicInteger running = new AtomicInteger(0);
+        AtomicInteger maxRunning = new AtomicInteger(0);
+        AtomicInteger done = new AtomicInteger(0);
+        return funnel.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    for (int i = 0; i < 30; i++) {
+                        funnel.add(i % 10, () -> {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            return KeelAsyncKit.sleep(5L).onComplete(ar -> {
+                                running.decrementAndGet();
+                                done.incrementAndGet();
+                            });
+                        });
+                    }
+                    // a failed task, or one returning null, does not block its key
+                    funnel.add(0, () -> Future.failedFuture("expected failure"));
+                    funnel.add(0, () -> null);
+                    funnel.add(0, () -> {
+                        done.incrementAndGet();
+                        return Future.succeededFuture();
+                    });
+                    return waitUntil(() -> done.get() == 31 && funnel.getLaneCount() == 0);
+                })
+                .compose(v -> {
+                    getLogger().info("max running " + maxRunning.get() + ", lanes left " + funnel.getLaneCount());
+                    if (maxRunning.get() > 3) {
+                        return Future.failedFuture("max concurrency exceeded");
+                    }
+                    return funnel.undeployMe();
+                });
+    }
+}
@@ -0,0 +1 @@
+package io.github.sinri.keel.test.lab.funnel;
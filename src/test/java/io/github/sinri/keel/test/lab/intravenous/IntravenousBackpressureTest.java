@@ -0,0 +1,181 @@
+package io.github.sinri.keel.test.lab.intravenous;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.servant.intravenous.KeelIntravenous;
+import io.github.sinri.keel.servant.intravenous.KeelIntravenousBase;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bounded intravenous with each overflow policy, and the watermarks.
+ */
+public class IntravenousBackpressureTest extends KeelTest {
+
+    private static Future<Void> waitUntil(BooleanSupplier condition) {
+        return KeelAsyncKit.repeatedlyCall(routineResult -> {
+            if (condition.getAsBoolean()) {
+                routineResult.stop();
+                return Future.succeededFuture();
+            }
+            return KeelAsyncKit.sleep(5L);
+        });
+    }
+
+    @TestUnit
+    public Future<Void> testReject() {
+        Promise<Void> gate = Promise.promise();
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        KeelIntravenous<Integer> intravenous = new KeelIntravenous<Integer>(list -> {
+            processed.addAll(list);
+            return gate.future();
+        })
+                .setBatchSize(1)
+                .setSleepTime(10)
+                .setCapacity(10, KeelIntravenousBase.OverflowPolicy.REJECT);
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    // the first one taken into process, and then the queue is filled
+                    intravenous.add(0);
+                    return waitUntil(() -> processed.size() == 1);
+                })
+                .compose(v -> {
+                    for (int i = 1; i <= 10; i++) {
+                        intravenous.add(i);
+                    }
+                    try {
+                        intravenous.add(11);
+                        return Future.failedFuture("not rejected when full");
+                    } catch (RejectedExecutionException e) {
+                        getLogger().info("rejected: " + e.getMessage());
+                    }
+                    return intravenous.addAsync(12)
+                            .compose(x -> Future.failedFuture("async add not rejected when full"), throwable -> {
+                                getLogger().info("depth " + intravenous.getQueueDepth() + ", rejected " + intravenous.getRejectedCount());
+                                if (intravenous.getQueueDepth() != 10 || intravenous.getRejectedCount() != 2) {
+                                    return Future.failedFuture("wrong depth or rejected count");
+                                }
+                                gate.complete();
+                                return waitUntil(() -> processed.size() == 11);
+                            });
+                })
+                .compose(v -> intravenous.shutdown());
+    }
+
+    @TestUnit
+    public Future<Void> testDropOldest() {
+        Promise<Void> gate = Promise.promise();
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        KeelIntravenous<Integer> intravenous = new KeelIntravenous<Integer>(list -> {
+            processed.addAll(list);
+            return gate.future();
+        })
+                .setBatchSize(1)
+                .setSleepTime(10)
+                .setCapacity(5, KeelIntravenousBase.OverflowPolicy.DROP_OLDEST);
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    intravenous.add(0);
+                    return waitUntil(() -> processed.size() == 1);
+                })
+                .compose(v -> {
+                    for (int i = 1; i < 20; i++) {
+                        intravenous.add(i);
+                    }
+                    gate.complete();
+                    return waitUntil(() -> processed.size() == 6);
+                })
+                .compose(v -> {
+                    getLogger().info("processed " + processed + ", dropped " + intravenous.getDroppedCount());
+                    if (!processed.equals(List.of(0, 15, 16, 17, 18, 19)) || intravenous.getDroppedCount() != 14) {
+                        return Future.failedFuture("the oldest not dropped");
+                    }
+                    return intravenous.shutdown();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testWait() {
+        AtomicInteger maxDepth = new AtomicInteger(0);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        KeelIntravenous<Integer> intravenous = new KeelIntravenous<>(list -> {
+            processed.addAll(list);
+            return KeelAsyncKit.sleep(2L);
+        });
+        intravenous.setBatchSize(3)
+                .setSleepTime(10)
+                .setCapacity(5, KeelIntravenousBase.OverflowPolicy.WAIT);
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    List<Future<Void>> futures = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) {
+                        futures.add(intravenous.addAsync(i));
+                        maxDepth.accumulateAndGet(intravenous.getQueueDepth(), Math::max);
+                    }
+                    getLogger().info("waiting for space: " + intravenous.getPendingDropCount());
+                    return Future.all(futures);
+                })
+                .compose(v -> waitUntil(() -> processed.size() == 100))
+                .compose(v -> {
+                    List<Integer> expected = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) {
+                        expected.add(i);
+                    }
+                    getLogger().info("max depth " + maxDepth.get() + ", rejected " + intravenous.getRejectedCount());
+                    if (!processed.equals(expected)) {
+                        return Future.failedFuture("not processed in order: " + processed);
+                    }
+                    if (maxDepth.get() > 5 || intravenous.getRejectedCount() != 0) {
+                        return Future.failedFuture("capacity exceeded or rejected");
+                    }
+                    return intravenous.shutdown();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testWatermarks() {
+        Promise<Void> gate = Promise.promise();
+        List<Boolean> crossings = new CopyOnWriteArrayList<>();
+        AtomicInteger processedCount = new AtomicInteger(0);
+        KeelIntravenous<Integer> intravenous = new KeelIntravenous<Integer>(list -> {
+            processedCount.addAndGet(list.size());
+            return gate.future();
+        })
+                .setBatchSize(2)
+                .setSleepTime(10)
+                .setWatermarks(8, 2, crossings::add);
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    intravenous.add(0);
+                    return waitUntil(() -> processedCount.get() == 1);
+                })
+                .compose(v -> {
+                    for (int i = 1; i <= 10; i++) {
+                        intravenous.add(i);
+                    }
+                    getLogger().info("crossings after filled: " + crossings);
+                    if (!crossings.equals(List.of(true))) {
+                        return Future.failedFuture("high watermark not reported");
+                    }
+                    gate.complete();
+                    return waitUntil(() -> processedCount.get() == 11);
+                })
+                .compose(v -> {
+                    getLogger().info("crossings after drained: " + crossings);
+                    if (!crossings.equals(List.of(true, false))) {
+                        return Future.failedFuture("low watermark not reported");
+                    }
+                    return intravenous.shutdown();
+                });
+    }
+}
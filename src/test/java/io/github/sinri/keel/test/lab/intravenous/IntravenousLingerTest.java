@@ -0,0 +1,143 @@
+package io.github.sinri.keel.test.lab.intravenous;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.servant.intravenous.KeelIntravenous;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batches flushed by count, by weight, or by the time the oldest drop waited.
+ */
+public class IntravenousLingerTest extends KeelTest {
+
+    private Future<Long> trickle(long lingerTime) {
+        AtomicInteger processed = new AtomicInteger(0);
+        KeelIntravenous<Integer> intravenous = new KeelIntravenous<Integer>(list -> {
+            processed.addAndGet(list.size());
+            return Future.succeededFuture();
+        })
+                .setBatchSize(100)
+                .setSleepTime(1000)
+                .setLingerTime(lingerTime);
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    AtomicInteger i = new AtomicInteger(0);
+                    // a drop each 5 ms
+                    return KeelAsyncKit.repeatedlyCall(routineResult -> {
+                        if (i.get() >= 50) {
+                            routineResult.stop();
+                            return Future.succeededFuture();
+                        }
+                        intravenous.add(i.getAndIncrement());
+                        return KeelAsyncKit.sleep(5L);
+                    });
+                })
+                .compose(v -> intravenous.shutdown())
+                .compose(v -> {
+                    getLogger().info("linger " + lingerTime + " ms: 50 drops in " + intravenous.getProcessedBatchCount() + " batches");
+                    if (processed.get() != 50) {
+                        return Future.failedFuture("lost drops: " + processed.get());
+                    }
+                    return Future.succeededFuture(intravenous.getProcessedBatchCount());
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testTrickle() {
+        return trickle(0)
+                .compose(withoutLinger -> trickle(50)
+                        .compose(withLinger -> {
+                            if (withLinger * 3 > withoutLinger) {
+                                return Future.failedFuture("not batched by linger");
+                            }
+                            return Future.succeededFuture();
+                        }));
+    }
+
+    @TestUnit
+    public Future<Void> testLatency() {
+        AtomicLong processedTime = new AtomicLong(0);
+        KeelIntravenous<Integer> intravenous = new KeelIntravenous<Integer>(list -> {
+            processedTime.set(System.currentTimeMillis());
+            return Future.succeededFuture();
+        })
+                .setBatchSize(10)
+                .setSleepTime(5000)
+                .setLingerTime(50);
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> KeelAsyncKit.sleep(100L))
+                .compose(v -> {
+                    // a single drop waits for the linger time only, not the sleep time
+                    long startTime = System.currentTimeMillis();
+                    intravenous.add(1);
+                    return KeelAsyncKit.sleep(500L)
+                            .compose(slept -> {
+                                long latency = processedTime.get() - startTime;
+                                getLogger().info("single drop processed after " + latency + " ms");
+                                if (processedTime.get() == 0 || latency < 40 || latency > 300) {
+                                    return Future.failedFuture("not flushed by linger time");
+                                }
+                                // a full batch goes at once
+                                processedTime.set(0);
+                                long fullStartTime = System.currentTimeMillis();
+                                for (int i = 0; i < 10; i++) {
+                                    intravenous.add(i);
+                                }
+                                return KeelAsyncKit.sleep(200L)
+                                        .compose(x -> {
+                                            long fullLatency = processedTime.get() - fullStartTime;
+                                            getLogger().info("full batch processed after " + fullLatency + " ms");
+                                            if (processedTime.get() == 0 || fullLatency > 40) {
+                                                return Future.failedFuture("full batch lingered");
+                                            }
+                                            return Future.succeededFuture();
+                                        });
+                            });
+                })
+                .compose(v -> intravenous.shutdown());
+    }
+
+    @TestUnit
+    public Future<Void> testWeight() {
+        List<Integer> batchWeights = new CopyOnWriteArrayList<>();
+        KeelIntravenous<String> intravenous = new KeelIntravenous<String>(list -> {
+            batchWeights.add(list.stream().mapToInt(String::length).sum());
+            return Future.succeededFuture();
+        })
+                .setBatchSize(100)
+                .setSleepTime(1000)
+                .setLingerTime(200)
+                .setBatchWeightLimit(100, String::length);
+        String drop = "x".repeat(30);
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    long startTime = System.currentTimeMillis();
+                    for (int i = 0; i < 12; i++) {
+                        intravenous.add(drop);
+                    }
+                    return KeelAsyncKit.sleep(100L)
+                            .compose(v -> {
+                                getLogger().info("batch weights " + batchWeights + " in " + (System.currentTimeMillis() - startTime) + " ms");
+                                // 360 bytes in batches of at most 100, the last one of 30 lingers
+                                if (!batchWeights.equals(List.of(90, 90, 90))) {
+                                    return Future.failedFuture("not batched by weight");
+                                }
+                                return intravenous.shutdown();
+                            });
+                })
+                .compose(v -> {
+                    if (!batchWeights.equals(List.of(90, 90, 90, 90))) {
+                        return Future.failedFuture("not flushed on shutdown: " + batchWeights);
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+}
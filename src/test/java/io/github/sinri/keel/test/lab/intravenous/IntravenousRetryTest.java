@@ -0,0 +1,163 @@
+package io.github.sinri.keel.test.lab.intravenous;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.servant.intravenous.KeelIntravenous;
+import io.github.sinri.keel.servant.intravenous.KeelIntravenousRetryPolicy;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Failed batches retried with backoff aside the consumer, and the drops finally failed sent to the dead letters.
+ */
+public class IntravenousRetryTest extends KeelTest {
+
+    @TestUnit
+    public Future<Void> testBackoff() {
+        KeelIntravenousRetryPolicy policy = new KeelIntravenousRetryPolicy()
+                .setInitialBackoff(100)
+                .setBackoffMultiplier(2)
+                .setMaxBackoff(1000)
+                .setJitter(0);
+        long[] expected = {100, 200, 400, 800, 1000, 1000};
+        for (int i = 0; i < expected.length; i++) {
+            if (policy.computeBackoff(i + 1) != expected[i]) {
+                return Future.failedFuture("backoff of attempt " + (i + 1) + ": " + policy.computeBackoff(i + 1));
+            }
+        }
+        policy.setJitter(0.2);
+        for (int i = 0; i < 1000; i++) {
+            long backoff = policy.computeBackoff(1);
+            if (backoff < 80 || backoff > 120) {
+                return Future.failedFuture("jitter out of range: " + backoff);
+            }
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testBatchRetry() {
+        AtomicInteger attempts = new AtomicInteger(0);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        List<Integer> deadLetters = new CopyOnWriteArrayList<>();
+        KeelIntravenous<Integer> intravenous = new KeelIntravenous<Integer>(list -> {
+            // fails twice, then succeeds
+            if (attempts.incrementAndGet() <= 2) {
+                return Future.failedFuture("flaky sink");
+            }
+            processed.addAll(list);
+            return Future.succeededFuture();
+        })
+                .setBatchSize(10)
+                .setSleepTime(10)
+                .setRetryPolicy(new KeelIntravenousRetryPolicy().setMaxAttempts(3).setInitialBackoff(20))
+                .setDeadLetterHandler((drops, throwable) -> deadLetters.addAll(drops));
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    for (int i = 0; i < 5; i++) {
+                        intravenous.add(i);
+                    }
+                    return intravenous.shutdown();
+                })
+                .compose(v -> {
+                    getLogger().info("processed " + processed + " after " + attempts.get() + " attempts, retried "
+                            + intravenous.getRetriedCount() + ", dead letters " + deadLetters);
+                    if (!processed.equals(List.of(0, 1, 2, 3, 4)) || intravenous.getRetriedCount() != 2 || !deadLetters.isEmpty()) {
+                        return Future.failedFuture("batch not retried");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testItemRetry() {
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        List<Integer> deadLetters = new CopyOnWriteArrayList<>();
+        KeelIntravenous<Integer> intravenous = new KeelIntravenous<Integer>(list -> {
+            // the drop 3 is poison
+            if (list.contains(3)) {
+                return Future.failedFuture("poison drop");
+            }
+            processed.addAll(list);
+            return Future.succeededFuture();
+        })
+                .setBatchSize(10)
+                .setSleepTime(10)
+                .setRetryPolicy(new KeelIntravenousRetryPolicy()
+                        .setMaxAttempts(3)
+                        .setInitialBackoff(10)
+                        .setRetryMode(KeelIntravenousRetryPolicy.RetryMode.ITEM))
+                .setDeadLetterHandler((drops, throwable) -> deadLetters.addAll(drops));
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    for (int i = 1; i <= 5; i++) {
+                        intravenous.add(i);
+                    }
+                    return intravenous.shutdown();
+                })
+                .compose(v -> {
+                    List<Integer> sorted = new CopyOnWriteArrayList<>(processed);
+                    sorted.sort(Integer::compareTo);
+                    getLogger().info("processed " + sorted + ", dead letters " + deadLetters
+                            + ", dead letter count " + intravenous.getDeadLetterCount());
+                    if (!sorted.equals(List.of(1, 2, 4, 5)) || !deadLetters.equals(List.of(3))) {
+                        return Future.failedFuture("not retried by item");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testNoStall() {
+        Map<String, Long> processedTime = new ConcurrentHashMap<>();
+        List<String> deadLetters = new CopyOnWriteArrayList<>();
+        KeelIntravenous<String> intravenous = new KeelIntravenous<String>(list -> {
+            if (list.contains("bad")) {
+                return Future.failedFuture("always fails");
+            }
+            list.forEach(s -> processedTime.put(s, System.currentTimeMillis()));
+            return Future.succeededFuture();
+        })
+                .setBatchSize(1)
+                .setSleepTime(10)
+                .setRetryPolicy(new KeelIntravenousRetryPolicy().setMaxAttempts(3).setInitialBackoff(200).setJitter(0))
+                .setDeadLetterHandler((drops, throwable) -> {
+                    drops.forEach(deadLetters::add);
+                    processedTime.put("dead", System.currentTimeMillis());
+                });
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    long startTime = System.currentTimeMillis();
+                    intravenous.add("bad");
+                    for (int i = 0; i < 5; i++) {
+                        intravenous.add("good-" + i);
+                    }
+                    return KeelAsyncKit.sleep(100L)
+                            .compose(v -> {
+                                long goodDone = processedTime.getOrDefault("good-4", 0L) - startTime;
+                                getLogger().info("healthy batches done in " + goodDone + " ms, while the bad one is retrying");
+                                if (goodDone < 0 || goodDone > 80 || !deadLetters.isEmpty()) {
+                                    return Future.failedFuture("healthy batches stalled by retries");
+                                }
+                                return intravenous.shutdown();
+                            })
+                            .compose(v -> {
+                                long deadTime = processedTime.get("dead") - startTime;
+                                getLogger().info("dead letter after " + deadTime + " ms: " + deadLetters);
+                                // 200 + 400 ms of backoff
+                                if (!deadLetters.equals(List.of("bad")) || deadTime < 550) {
+                                    return Future.failedFuture("not sent to dead letters after backoff");
+                                }
+                                return Future.succeededFuture();
+                            });
+                });
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.sinri.keel.test.lab.intravenous;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.servant.intravenous.KeelParallelIntravenous;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Partitions processed in parallel, the order kept in each key, and drained on shutdown.
+ */
+public class ParallelIntravenousTest extends KeelTest {
+    private static final int DROPS = 200;
+
+    private Future<Long> measure(int consumerCount) {
+        AtomicInteger processed = new AtomicInteger(0);
+        KeelParallelIntravenous<Integer> intravenous = new KeelParallelIntravenous<Integer>(list -> {
+            // a sink taking 20 ms for each write
+            return KeelAsyncKit.sleep(20L).onSuccess(v -> processed.addAndGet(list.size()));
+        })
+                .setConsumerCount(consumerCount)
+                .setBatchSize(5)
+                .setSleepTime(10);
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    long startTime = System.currentTimeMillis();
+                    for (int i = 0; i < DROPS; i++) {
+                        intravenous.add(i);
+                    }
+                    return intravenous.shutdown()
+                            .compose(v -> {
+                                long cost = System.currentTimeMillis() - startTime;
+                                getLogger().info(consumerCount + " consumers: " + DROPS + " drops in " + cost + " ms");
+                                if (processed.get() != DROPS) {
+                                    return Future.failedFuture("not drained on shutdown: " + processed.get());
+                                }
+                                return Future.succeededFuture(cost);
+                            });
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testSpeedup() {
+        return measure(1)
+                .compose(single -> measure(4)
+                        .compose(parallel -> {
+                            double speedup = 1.0 * single / Math.max(1, parallel);
+                            getLogger().info("speedup of 4 consumers: " + speedup);
+                            if (speedup < 2.5) {
+                                return Future.failedFuture("not processed in parallel");
+                            }
+                            return Future.succeededFuture();
+                        }));
+    }
+
+    @TestUnit
+    public Future<Void> testOrderInKey() {
+        Map<Integer, List<Integer>> processedByKey = new ConcurrentHashMap<>();
+        Map<Integer, AtomicInteger> runningByKey = new ConcurrentHashMap<>();
+        AtomicInteger overlapped = new AtomicInteger(0);
+        KeelParallelIntravenous<int[]> intravenous = new KeelParallelIntravenous<int[]>(list -> {
+            list.forEach(drop -> {
+                if (runningByKey.computeIfAbsent(drop[0], k -> new AtomicInteger()).incrementAndGet() > 1) {
+                    overlapped.incrementAndGet();
+                }
+                processedByKey.computeIfAbsent(drop[0], k -> new CopyOnWriteArrayList<>()).add(drop[1]);
+            });
+            return KeelAsyncKit.sleep(2L).onComplete(ar -> list.forEach(drop -> runningByKey.get(drop[0]).decrementAndGet()));
+        })
+                .setConsumerCount(4)
+                .setPartitionKeyFunction(drop -> drop[0])
+                .setBatchSize(1)
+                .setSleepTime(10);
+        return intravenous.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> {
+                    for (int seq = 0; seq < 30; seq++) {
+                        for (int key = 0; key < 10; key++) {
+                            intravenous.add(new int[]{key, seq});
+                        }
+                    }
+                    return intravenous.shutdown();
+                })
+                .compose(v -> {
+                    for (int key = 0; key < 10; key++) {
+                        List<Integer> sequence = processedByKey.get(key);
+                        for (int seq = 0; seq < 30; seq++) {
+                            if (sequence == null || sequence.size() != 30 || sequence.get(seq) != seq) {
+                                return Future.failedFuture("order not kept for key " + key + ": " + sequence);
+                            }
+                        }
+                    }
+                    getLogger().info("order kept in each key, overlapped " + overlapped.get());
+                    if (overlapped.get() > 0) {
+                        return Future.failedFuture("one key processed concurrently");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.sinri.keel.test.lab.logger.issue;
+
+import io.github.sinri.keel.helper.KeelDateTimeHelper;
+import io.github.sinri.keel.logger.KeelLogLevel;
+import io.github.sinri.keel.logger.issue.record.KeelIssueRecord;
+import io.github.sinri.keel.logger.issue.recorder.render.KeelIssueRecordBufferRender;
+import io.github.sinri.keel.logger.issue.recorder.render.KeelIssueRecordJsonObjectRender;
+import io.github.sinri.keel.logger.issue.recorder.render.KeelIssueRecordStringRender;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntConsumer;
+
+import static io.github.sinri.keel.helper.KeelHelpersInterface.KeelHelpers;
+
+/**
+ * Compare the allocation of the renders with the former way of rendering, and check they render the same.
+ */
+public class IssueRecordRenderAllocationTest extends KeelTest {
+    private static final int ROUNDS = 200_000;
+    private static final int RECORDS = 1000;
+
+    private static long allocatedBytes(IntConsumer action) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        // warm up for JIT
+        for (int i = 0; i < ROUNDS; i++) {
+            action.accept(i);
+        }
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) {
+            action.accept(i);
+        }
+        return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static AlefIssueRecord[] buildRecords() {
+        AlefIssueRecord[] records = new AlefIssueRecord[RECORDS];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < RECORDS; i++) {
+            records[i] = new AlefIssueRecord()
+                    .timestamp(now + i * 7L)
+                    .level(KeelLogLevel.WARNING)
+                    .classification("render", "bench")
+                    .message("record " + i + " with \"quotes\", tab\t, 中文 and 😀")
+                    .context(new JsonObject()
+                            .put("index", i)
+                            .put("ratio", i / 3.0)
+                            .put("ok", i % 2 == 0)
+                            .put("tags", new JsonArray().add("a").add("b\nc"))
+                            .put("nested", new JsonObject().put("none", (Object) null)));
+        }
+        return records;
+    }
+
+    /**
+     * As the string render did before.
+     */
+    private static String renderAsBefore(KeelIssueRecord<?> issueRecord) {
+        StringBuilder s = new StringBuilder("㏒ ");
+        s.append(KeelHelpers.datetimeHelper().getDateExpression(issueRecord.timestamp(), KeelDateTimeHelper.MYSQL_DATETIME_MS_PATTERN));
+        s.append(" [").append(issueRecord.level().name()).append("]");
+        s.append(" ").append(issueRecord.topic()).append(" (").append(KeelHelpers.stringHelper().joinStringArray(issueRecord.classification(), ",")).append(")");
+        if (!issueRecord.attributes().isEmpty()) {
+            issueRecord.attributes().forEach(attribute -> {
+                s.append("\n ▪ ").append(attribute.getKey()).append(": ").append(attribute.getValue());
+            });
+        }
+        return s.toString();
+    }
+
+    @TestUnit
+    public Future<Void> testSameOutput() {
+        AlefIssueRecord[] records = buildRecords();
+        records[0].exception(new RuntimeException("outer", new IllegalStateException("inner")));
+        // a control char in the hex escape, and lone high surrogates before an escape, a char and the end
+        records[2].message("escape \u001b, lone \uD83D\" and \uD83Dx").context("tail", "end \uD83D");
+        for (int i = 1; i < RECORDS; i++) {
+            if (!renderAsBefore(records[i]).equals(KeelIssueRecordStringRender.getInstance().renderIssueRecord(records[i]))) {
+                return Future.failedFuture("string render differs: " + KeelIssueRecordStringRender.getInstance().renderIssueRecord(records[i]));
+            }
+        }
+        for (int i = 0; i < RECORDS; i++) {
+            String expected = KeelIssueRecordJsonObjectRender.getInstance().renderIssueRecord(records[i]).encode();
+            Buffer actual = KeelIssueRecordBufferRender.getInstance().renderIssueRecord(records[i]);
+            // encoded in UTF-8 as the string, a lone surrogate turns into '?'
+            if (!Buffer.buffer(expected).equals(actual)) {
+                return Future.failedFuture("buffer render differs:\n" + expected + "\n" + actual);
+            }
+        }
+        getLogger().info("same output: " + KeelIssueRecordBufferRender.getInstance().renderIssueRecord(records[1]));
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testStringRenderAllocation() {
+        AlefIssueRecord[] records = buildRecords();
+        KeelIssueRecordStringRender render = KeelIssueRecordStringRender.getInstance();
+        long before = allocatedBytes(i -> renderAsBefore(records[i % RECORDS]));
+        long now = allocatedBytes(i -> render.renderIssueRecord(records[i % RECORDS]));
+        StringBuilder batch = new StringBuilder();
+        long appended = allocatedBytes(i -> {
+            if (i % 100 == 0) batch.setLength(0);
+            render.appendIssueRecord(batch, records[i % RECORDS]);
+        });
+        getLogger().info("string render of " + ROUNDS + " records: before " + before + " bytes;"
+                + " now " + now + " bytes;"
+                + " appended to a batch " + appended + " bytes");
+        if (now * 2 > before || appended * 2 > now) {
+            return Future.failedFuture("string render allocation not reduced");
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testBufferRenderAllocation() {
+        AlefIssueRecord[] records = buildRecords();
+        KeelIssueRecordJsonObjectRender jsonObjectRender = KeelIssueRecordJsonObjectRender.getInstance();
+        KeelIssueRecordBufferRender bufferRender = KeelIssueRecordBufferRender.getInstance();
+        long encoded = allocatedBytes(i -> Buffer.buffer(jsonObjectRender.renderIssueRecord(records[i % RECORDS]).encode()));
+        long rendered = allocatedBytes(i -> bufferRender.renderIssueRecord(records[i % RECORDS]));
+        getLogger().info("json of " + ROUNDS + " records: json object encoded " + encoded + " bytes;"
+                + " buffer render " + rendered + " bytes");
+        if (rendered * 2 > encoded) {
+            return Future.failedFuture("buffer render allocation not reduced");
+        }
+        return Future.succeededFuture();
+    }
+}
@@ -0,0 +1,196 @@
+package io.github.sinri.keel.test.lab.logger.issue;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.logger.KeelLogLevel;
+import io.github.sinri.keel.logger.issue.center.KeelIssueRecordCenterAsSync;
+import io.github.sinri.keel.logger.issue.record.KeelIssueRecord;
+import io.github.sinri.keel.logger.issue.recorder.KeelIssueRecorder;
+import io.github.sinri.keel.logger.issue.recorder.adapter.KeelIssueRecorderAdapter;
+import io.github.sinri.keel.logger.issue.recorder.render.KeelIssueRecordRender;
+import io.github.sinri.keel.logger.issue.recorder.sampling.KeelIssueRecordSampler;
+import io.github.sinri.keel.logger.issue.recorder.sampling.KeelIssueRecordSamplingPolicy;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The records kept by the sampling policies, decided before built if possible, and the summary of the suppressed.
+ */
+public class IssueRecordSamplingTest extends KeelTest {
+
+    private static long count(List<KeelIssueRecord<?>> records, String message) {
+        return records.stream().filter(r -> message.equals(r.message())).count();
+    }
+
+    @TestUnit
+    public Future<Void> testFixedRateBeforeBuilt() {
+        CollectingAdapter adapter = new CollectingAdapter();
+        AtomicInteger built = new AtomicInteger(0);
+        KeelIssueRecorder<AlefIssueRecord> recorder = new KeelIssueRecordCenterAsSync(adapter)
+                .generateIssueRecorder("Sampling", () -> {
+                    built.incrementAndGet();
+                    return new AlefIssueRecord();
+                });
+        recorder.setSamplingPolicy(new KeelIssueRecordSamplingPolicy()
+                .addRule(new KeelIssueRecordSamplingPolicy.Rule(KeelIssueRecordSampler.fixedRate(0.1))
+                        .levels(KeelLogLevel.INFO)));
+        for (int i = 0; i < 100_000; i++) {
+            int index = i;
+            recorder.info(r -> r.message("fixed rate").context("index", index));
+        }
+        recorder.warning("not sampled");
+        getLogger().info("fixed rate 0.1: kept " + adapter.records.size() + ", built " + built.get()
+                + ", suppressed " + recorder.getSamplingPolicy().getSuppressedCount());
+        long kept = count(adapter.records, "fixed rate");
+        if (kept < 9_000 || kept > 11_000 || built.get() != adapter.records.size() || count(adapter.records, "not sampled") != 1) {
+            return Future.failedFuture("fixed rate not sampled before built");
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testTokenBucket() {
+        CollectingAdapter adapter = new CollectingAdapter();
+        KeelIssueRecorder<AlefIssueRecord> recorder = new KeelIssueRecordCenterAsSync(adapter)
+                .generateIssueRecorder("Sampling", AlefIssueRecord::new);
+        recorder.setSamplingPolicy(new KeelIssueRecordSamplingPolicy()
+                .addRule(new KeelIssueRecordSamplingPolicy.Rule(KeelIssueRecordSampler.tokenBucket(20, 5))));
+        for (int i = 0; i < 10_000; i++) {
+            recorder.error("burst " + i);
+        }
+        int keptInBurst = adapter.records.size();
+        return KeelAsyncKit.sleep(500L)
+                .compose(v -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        recorder.error("refilled " + i);
+                    }
+                    int keptAfterRefill = adapter.records.size() - keptInBurst;
+                    getLogger().info("token bucket 20/s burst 5: kept " + keptInBurst + " in burst, "
+                            + keptAfterRefill + " after 500 ms");
+                    if (keptInBurst < 5 || keptInBurst > 6 || keptAfterRefill < 5 || keptAfterRefill > 6) {
+                        return Future.failedFuture("not limited by token bucket");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testDuplicateSuppressionWithSummary() {
+        CollectingAdapter adapter = new CollectingAdapter();
+        KeelIssueRecorder<AlefIssueRecord> recorder = new KeelIssueRecordCenterAsSync(adapter)
+                .generateIssueRecorder("Sampling", AlefIssueRecord::new);
+        KeelIssueRecordSamplingPolicy policy = new KeelIssueRecordSamplingPolicy()
+                .setSummaryInterval(200)
+                .addRule(new KeelIssueRecordSamplingPolicy.Rule(KeelIssueRecordSampler.suppressDuplicates(60_000))
+                        .levels(KeelLogLevel.ERROR));
+        recorder.setSamplingPolicy(policy);
+        RuntimeException exception = new RuntimeException("connection refused");
+        for (int i = 0; i < 10_000; i++) {
+            recorder.exception(exception, "db down");
+        }
+        recorder.error("cache down");
+        return KeelAsyncKit.sleep(300L)
+                .compose(v -> {
+                    // the summary recorded by the timer, without any record after
+                    KeelIssueRecord<?> summaryRecord = adapter.records.stream()
+                            .filter(r -> r.level() == KeelLogLevel.WARNING).findFirst().orElse(null);
+                    getLogger().info("duplicates: kept " + adapter.records.size() + ", summary "
+                            + (summaryRecord == null ? null : summaryRecord.attributes().readJsonObject("context")));
+                    if (count(adapter.records, "db down") != 1 || count(adapter.records, "cache down") != 1 || summaryRecord == null) {
+                        return Future.failedFuture("duplicates not suppressed");
+                    }
+                    JsonObject summary = summaryRecord.attributes().readJsonObject("context");
+                    if (summary == null || summary.getLong("suppressed") != 9_999
+                            || summary.getJsonArray("duplicates").getJsonObject(0).getLong("suppressed") != 9_999) {
+                        return Future.failedFuture("summary not correct");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testFlushSummary() {
+        CollectingAdapter adapter = new CollectingAdapter();
+        KeelIssueRecorder<AlefIssueRecord> recorder = new KeelIssueRecordCenterAsSync(adapter)
+                .generateIssueRecorder("Sampling", AlefIssueRecord::new);
+        KeelIssueRecordSamplingPolicy policy = new KeelIssueRecordSamplingPolicy()
+                .addRule(new KeelIssueRecordSamplingPolicy.Rule(KeelIssueRecordSampler.fixedRate(0)));
+        recorder.setSamplingPolicy(policy);
+        for (int i = 0; i < 100; i++) {
+            recorder.info("dropped " + i);
+        }
+        // far before the interval of one minute passed
+        policy.flushSummary();
+        policy.flushSummary();
+        long summaries = adapter.records.stream().filter(r -> r.level() == KeelLogLevel.WARNING).count();
+        getLogger().info("flushed: kept " + adapter.records.size() + ", summaries " + summaries);
+        if (adapter.records.size() != 1 || summaries != 1
+                || adapter.records.get(0).attributes().readJsonObject("context").getLong("suppressed") != 100) {
+            return Future.failedFuture("summary not flushed");
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testClassificationAfterBuilt() {
+        CollectingAdapter adapter = new CollectingAdapter();
+        KeelIssueRecorder<AlefIssueRecord> recorder = new KeelIssueRecordCenterAsSync(adapter)
+                .generateIssueRecorder("Sampling", AlefIssueRecord::new);
+        recorder.setSamplingPolicy(new KeelIssueRecordSamplingPolicy()
+                .addRule(new KeelIssueRecordSamplingPolicy.Rule(KeelIssueRecordSampler.fixedRate(0))
+                        .classification("noisy"))
+                .addRule(new KeelIssueRecordSamplingPolicy.Rule(KeelIssueRecordSampler.fixedRate(1))
+                        .topic("Sampling")));
+        for (int i = 0; i < 100; i++) {
+            recorder.info(r -> r.classification("noisy", "db").message("noisy"));
+            recorder.info(r -> r.classification("quiet").message("quiet"));
+        }
+        // the level known after built
+        recorder.record(r -> r.level(KeelLogLevel.NOTICE).classification("noisy").message("noisy"));
+        getLogger().info("classification: kept " + count(adapter.records, "quiet") + " quiet, "
+                + count(adapter.records, "noisy") + " noisy");
+        if (count(adapter.records, "noisy") != 0 || count(adapter.records, "quiet") != 100) {
+            return Future.failedFuture("not sampled by classification");
+        }
+        return Future.succeededFuture();
+    }
+
+    private static class CollectingAdapter implements KeelIssueRecorderAdapter {
+        final List<KeelIssueRecord<?>> records = new CopyOnWriteArrayList<>();
+
+        @Override
+        public KeelIssueRecordRender<?> issueRecordRender() {
+            return KeelIssueRecordRender.renderForString();
+        }
+
+        @Override
+        public void record(@Nonnull String topic, @Nullable KeelIssueRecord<?> issueRecord) {
+            if (issueRecord != null) {
+                records.add(issueRecord);
+            }
+        }
+
+        @Override
+        public void close(@Nonnull Promise<Void> promise) {
+            promise.complete();
+        }
+
+        @Override
+        public boolean isStopped() {
+            return false;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.sinri.keel.test.lab.logger.issue;
+
+import io.github.sinri.keel.logger.KeelLogLevel;
+import io.github.sinri.keel.logger.event.KeelEventLogger;
+import io.github.sinri.keel.logger.issue.center.KeelIssueRecordCenter;
+import io.github.sinri.keel.logger.issue.center.KeelIssueRecordCenterAsSync;
+import io.github.sinri.keel.logger.issue.recorder.KeelIssueRecorder;
+import io.github.sinri.keel.logger.issue.recorder.adapter.SilentAdapter;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.Future;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntConsumer;
+
+/**
+ * Compare the allocation of suppressed records with the one of recorded (into the silent adapter) records.
+ */
+public class IssueRecorderLevelGateTest extends KeelTest {
+    private static final int ROUNDS = 1_000_000;
+
+    private static long allocatedBytes(IntConsumer action) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        // warm up for JIT
+        for (int i = 0; i < ROUNDS; i++) {
+            action.accept(i);
+        }
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) {
+            action.accept(i);
+        }
+        return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    @TestUnit
+    public Future<Void> testIssueRecorder() {
+        KeelIssueRecordCenter center = new KeelIssueRecordCenterAsSync(SilentAdapter.getInstance());
+        KeelIssueRecorder<AlefIssueRecord> recorder = center.generateIssueRecorder("LevelGate", AlefIssueRecord::new);
+
+        recorder.setVisibleLevel(KeelLogLevel.DEBUG);
+        long recorded = allocatedBytes(i -> recorder.debug("debug message"));
+
+        recorder.setVisibleLevel(KeelLogLevel.INFO);
+        if (recorder.isDebugEnabled()) {
+            return Future.failedFuture("debug should be disabled");
+        }
+        long suppressed = allocatedBytes(i -> recorder.debug("debug message"));
+        long suppressedWithHandler = allocatedBytes(i -> recorder.debug(t -> t.message("debug message")));
+
+        getLogger().info("issue recorder: " + ROUNDS + " debug records"
+                + " recorded " + recorded + " bytes;"
+                + " suppressed " + suppressed + " bytes;"
+                + " suppressed with handler " + suppressedWithHandler + " bytes");
+        // a few bytes may come from the measurement itself
+        if (suppressed > 64 * 1024 || suppressedWithHandler > 64 * 1024) {
+            return Future.failedFuture("suppressed records allocated");
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testEventLogger() {
+        KeelIssueRecordCenter center = new KeelIssueRecordCenterAsSync(SilentAdapter.getInstance());
+        KeelEventLogger logger = center.generateEventLogger("LevelGate");
+
+        logger.setVisibleLevel(KeelLogLevel.DEBUG);
+        long recorded = allocatedBytes(i -> logger.debug("debug message"));
+
+        logger.setVisibleLevel(KeelLogLevel.INFO);
+        long suppressed = allocatedBytes(i -> logger.debug("debug message"));
+
+        getLogger().info("event logger: " + ROUNDS + " debug logs"
+                + " recorded " + recorded + " bytes;"
+                + " suppressed " + suppressed + " bytes");
+        if (suppressed > 64 * 1024) {
+            return Future.failedFuture("suppressed logs allocated");
+        }
+        return Future.succeededFuture();
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.sinri.keel.test.lab.logger.issue;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.logger.issue.center.KeelIssueRecordCenterAsSync;
+import io.github.sinri.keel.logger.issue.recorder.KeelIssueRecorder;
+import io.github.sinri.keel.logger.issue.recorder.adapter.AsyncStdoutAdapter;
+import io.github.sinri.keel.logger.issue.recorder.adapter.RollingFileIssueAdapter;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Records per second written by the rolling file adapter, against the async stdout adapter redirected to a file;
+ * and the rotation, compression and overflow of the rolling file adapter.
+ */
+public class RollingFileIssueAdapterTest extends KeelTest {
+    private static final int RECORDS = 200_000;
+    /**
+     * The async stdout adapter prints one by one with a timer tick between, fewer records to keep the test short.
+     */
+    private static final int STDOUT_RECORDS = 5_000;
+
+    private static Future<Void> waitUntil(BooleanSupplier condition) {
+        return KeelAsyncKit.repeatedlyCall(routineResult -> {
+            if (condition.getAsBoolean()) {
+                routineResult.stop();
+                return Future.succeededFuture();
+            }
+            return KeelAsyncKit.sleep(5L);
+        });
+    }
+
+    private static List<String> listFileNames(Path directory) {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TestUnit
+    public Future<Void> testThroughput() throws IOException {
+        Path directory = Files.createTempDirectory("keel-rolling-");
+        RollingFileIssueAdapter adapter = new RollingFileIssueAdapter(directory, "bench")
+                .setQueueCapacity(RECORDS);
+        adapter.start();
+        KeelIssueRecorder<AlefIssueRecord> fileRecorder = new KeelIssueRecordCenterAsSync(adapter)
+                .generateIssueRecorder("Bench", AlefIssueRecord::new);
+
+        // as stdout piped to a file
+        AtomicLong printed = new AtomicLong(0);
+        PrintStream originalOut = System.out;
+        PrintStream pipedOut = new PrintStream(new FileOutputStream(directory.resolve("stdout.log").toFile()), true) {
+            @Override
+            public void println(String x) {
+                super.println(x);
+                printed.incrementAndGet();
+            }
+        };
+        KeelIssueRecorder<AlefIssueRecord> stdoutRecorder = new KeelIssueRecordCenterAsSync(AsyncStdoutAdapter.getInstance())
+                .generateIssueRecorder("Bench", AlefIssueRecord::new);
+
+        long fileStart = System.currentTimeMillis();
+        for (int i = 0; i < RECORDS; i++) {
+            int index = i;
+            fileRecorder.info(r -> r.message("benchmark record").context("index", index));
+        }
+        return waitUntil(() -> adapter.getWrittenCount() + adapter.getDroppedCount() >= RECORDS)
+                .compose(v -> {
+                    long fileCost = Math.max(1, System.currentTimeMillis() - fileStart);
+
+                    System.setOut(pipedOut);
+                    long stdoutStart = System.currentTimeMillis();
+                    for (int i = 0; i < STDOUT_RECORDS; i++) {
+                        int index = i;
+                        stdoutRecorder.info(r -> r.message("benchmark record").context("index", index));
+                    }
+                    return waitUntil(() -> printed.get() >= STDOUT_RECORDS)
+                            .compose(vv -> {
+                                long stdoutCost = Math.max(1, System.currentTimeMillis() - stdoutStart);
+                                System.setOut(originalOut);
+                                pipedOut.close();
+
+                                long fileRate = RECORDS * 1000L / fileCost;
+                                long stdoutRate = STDOUT_RECORDS * 1000L / stdoutCost;
+                                getLogger().info("rolling file: " + fileRate + " records/s, "
+                                        + adapter.getWrittenBytes() + " bytes, dropped " + adapter.getDroppedCount()
+                                        + "; async stdout: " + stdoutRate + " records/s");
+                                if (adapter.getDroppedCount() > 0) {
+                                    return Future.failedFuture("dropped within capacity");
+                                }
+                                if (fileRate < stdoutRate) {
+                                    return Future.failedFuture("rolling file slower than async stdout");
+                                }
+                                return Future.succeededFuture();
+                            }, throwable -> {
+                                System.setOut(originalOut);
+                                return Future.failedFuture(throwable);
+                            });
+                })
+                .compose(v -> {
+                    Promise<Void> promise = Promise.promise();
+                    adapter.close(promise);
+                    return promise.future();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testRotation() throws IOException {
+        Path directory = Files.createTempDirectory("keel-rolling-");
+        RollingFileIssueAdapter adapter = new RollingFileIssueAdapter(directory, "rotate")
+                .setMaxFileSize(64 * 1024)
+                .setCompressRotatedFiles(true)
+                .setBatchSize(100)
+                .setLingerTime(0);
+        adapter.start();
+        KeelIssueRecorder<AlefIssueRecord> recorder = new KeelIssueRecordCenterAsSync(adapter)
+                .generateIssueRecorder("Rotate", AlefIssueRecord::new);
+
+        for (int i = 0; i < 5000; i++) {
+            int index = i;
+            recorder.info(r -> r.message("rotation record").context("index", index));
+        }
+        return waitUntil(() -> adapter.getWrittenCount() >= 5000)
+                .compose(v -> {
+                    Promise<Void> promise = Promise.promise();
+                    adapter.close(promise);
+                    return promise.future();
+                })
+                .compose(v -> waitUntil(() -> listFileNames(directory).stream().noneMatch(name -> name.matches("rotate\\..+\\.log"))))
+                .compose(v -> {
+                    List<String> fileNames = listFileNames(directory);
+                    getLogger().info("rotated " + adapter.getRotatedCount() + " times: " + fileNames);
+                    long compressed = fileNames.stream().filter(name -> name.endsWith(".log.gz")).count();
+                    if (adapter.getRotatedCount() < 1 || compressed != adapter.getRotatedCount() || !fileNames.contains("rotate.log")) {
+                        return Future.failedFuture("not rotated and compressed");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testOverflow() throws IOException {
+        Path directory = Files.createTempDirectory("keel-rolling-");
+        RollingFileIssueAdapter adapter = new RollingFileIssueAdapter(directory, "overflow")
+                .setQueueCapacity(100)
+                .setLingerTime(200);
+        adapter.start();
+        KeelIssueRecorder<AlefIssueRecord> recorder = new KeelIssueRecordCenterAsSync(adapter)
+                .generateIssueRecorder("Overflow", AlefIssueRecord::new);
+
+        // all in one go on this thread, the consumer can not take any before the queue is full
+        for (int i = 0; i < 1000; i++) {
+            recorder.info("overflow record " + i);
+        }
+        return waitUntil(() -> adapter.getWrittenCount() + adapter.getDroppedCount() >= 1000)
+                .compose(v -> {
+                    getLogger().info("written " + adapter.getWrittenCount() + ", dropped " + adapter.getDroppedCount());
+                    if (adapter.getDroppedCount() < 800) {
+                        return Future.failedFuture("overflow not dropped");
+                    }
+                    Promise<Void> promise = Promise.promise();
+                    adapter.close(promise);
+                    return promise.future();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testWriteFailure() throws IOException {
+        Path directory = Files.createTempDirectory("keel-rolling-");
+        RollingFileIssueAdapter adapter = new RollingFileIssueAdapter(directory, "failure")
+                .setLingerTime(0);
+        KeelIssueRecorder<AlefIssueRecord> recorder = new KeelIssueRecordCenterAsSync(adapter)
+                .generateIssueRecorder("Failure", AlefIssueRecord::new);
+
+        // not started yet
+        recorder.info("before start");
+        if (adapter.getDroppedCount() != 1) {
+            return Future.failedFuture("record before start not dropped");
+        }
+
+        // the active file can not be opened while a directory takes its name
+        Path blocker = Files.createDirectory(directory.resolve("failure.log"));
+        adapter.start();
+        for (int i = 0; i < 10; i++) {
+            recorder.info("failing record " + i);
+        }
+        return waitUntil(() -> adapter.getDroppedCount() >= 11)
+                .compose(v -> {
+                    try {
+                        Files.delete(blocker);
+                    } catch (IOException e) {
+                        return Future.failedFuture(e);
+                    }
+                    for (int i = 0; i < 10; i++) {
+                        recorder.info("recovered record " + i);
+                    }
+                    return waitUntil(() -> adapter.getWrittenCount() >= 10);
+                })
+                .compose(v -> {
+                    getLogger().info("written " + adapter.getWrittenCount() + ", dropped " + adapter.getDroppedCount());
+                    if (adapter.getDroppedCount() != 11 || !Files.isRegularFile(blocker)) {
+                        return Future.failedFuture("write failure not counted or not recovered");
+                    }
+                    Promise<Void> promise = Promise.promise();
+                    adapter.close(promise);
+                    return promise.future();
+                });
+    }
+}
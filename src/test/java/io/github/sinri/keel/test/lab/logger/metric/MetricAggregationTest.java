@@ -0,0 +1,166 @@
+package io.github.sinri.keel.test.lab.logger.metric;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.logger.metric.*;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.Future;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
+/**
+ * The aggregating instruments: allocation-free recording, the accuracy of percentiles, and the flush once an interval.
+ */
+public class MetricAggregationTest extends KeelTest {
+    private static final int ROUNDS = 1_000_000;
+
+    private static long allocatedBytes(IntConsumer action) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        // warm up for JIT
+        for (int i = 0; i < ROUNDS; i++) {
+            action.accept(i);
+        }
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) {
+            action.accept(i);
+        }
+        return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static Map<String, Double> lastValues(List<KeelMetricRecord> records) {
+        Map<String, Double> map = new HashMap<>();
+        records.forEach(r -> map.put(r.metricName(), r.value()));
+        return map;
+    }
+
+    @TestUnit
+    public Future<Void> testAllocationFree() {
+        CollectingMetricRecorder recorder = new CollectingMetricRecorder();
+        KeelMetricCounter counter = recorder.counter("api", "requests", Map.of("route", "/a"));
+        KeelMetricGauge gauge = recorder.gauge("api", "in_flight", null);
+        KeelMetricHistogram histogram = recorder.histogram("api", "latency_ms", Map.of("route", "/a"));
+
+        long counted = allocatedBytes(i -> counter.increment());
+        long gauged = allocatedBytes(gauge::set);
+        long histogrammed = allocatedBytes(i -> histogram.record(i % 1000 + 0.5));
+        long asRecords = allocatedBytes(i -> new KeelMetricRecord("api", "latency_ms", i % 1000 + 0.5).label("route", "/a"));
+        getLogger().info(ROUNDS + " samples: counter " + counted + " bytes; gauge " + gauged + " bytes; histogram "
+                + histogrammed + " bytes; as metric records " + asRecords + " bytes");
+        // a few bytes may come from the measurement itself
+        if (counted > 64 * 1024 || gauged > 64 * 1024 || histogrammed > 64 * 1024) {
+            return Future.failedFuture("recording allocated");
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testPercentiles() {
+        CollectingMetricRecorder recorder = new CollectingMetricRecorder();
+        KeelMetricHistogram histogram = recorder.histogram("api", "latency_ms", null);
+        // 0.01 to 1000 ms, evenly
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i * 0.01);
+        }
+        // ignored, not to poison the sum
+        histogram.record(Double.NaN);
+        double[] percentiles = {0.5, 0.9, 0.99, 0.999};
+        for (double percentile : percentiles) {
+            double estimated = histogram.getPercentile(percentile);
+            double expected = percentile * 1000;
+            double error = Math.abs(estimated - expected) / expected;
+            getLogger().info("p" + (percentile * 100) + ": estimated " + estimated + ", expected " + expected + ", error " + error);
+            if (error > 0.04) {
+                return Future.failedFuture("percentile not accurate");
+            }
+        }
+        if (histogram.getCount() != 100_000) {
+            return Future.failedFuture("count lost");
+        }
+        if (Double.isNaN(histogram.getSum())) {
+            return Future.failedFuture("sum poisoned by NaN");
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testConcurrentRecording() {
+        CollectingMetricRecorder recorder = new CollectingMetricRecorder();
+        KeelMetricCounter counter = recorder.counter("api", "requests", null);
+        KeelMetricHistogram histogram = recorder.histogram("api", "latency_ms", null);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(Keel.getVertx().executeBlocking(() -> {
+                for (int i = 0; i < 250_000; i++) {
+                    counter.increment();
+                    histogram.record(i % 100);
+                }
+                return null;
+            }, false));
+        }
+        return Future.all(futures)
+                .compose(v -> {
+                    getLogger().info("concurrent: counter " + counter.get() + ", histogram count " + histogram.getCount());
+                    if (counter.get() != 1_000_000 || histogram.getCount() != 1_000_000) {
+                        return Future.failedFuture("lost in concurrency");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testFlush() {
+        CollectingMetricRecorder recorder = new CollectingMetricRecorder();
+        // labels interned regardless of the order
+        KeelMetricCounter counter = recorder.counter("api", "requests", Map.of("route", "/a", "method", "GET"));
+        if (counter != recorder.counter("api", "requests", new TreeMap<>(Map.of("method", "GET", "route", "/a")))) {
+            return Future.failedFuture("labels not interned");
+        }
+        KeelMetricHistogram histogram = recorder.histogram("api", "latency_ms", Map.of("route", "/a"));
+        recorder.start();
+        for (int i = 1; i <= 100; i++) {
+            counter.increment();
+            histogram.record(i);
+        }
+        // the record-level api kept
+        recorder.recordMetric(new KeelMetricRecord("api", "single", 42));
+        return KeelAsyncKit.sleep(1500L)
+                .compose(v -> {
+                    Map<String, Double> values = lastValues(recorder.records);
+                    getLogger().info("flushed " + recorder.records.size() + " records, last values " + values);
+                    // the counter is monotonic, the histogram of the interval
+                    if (values.get("requests") != 100 || values.get("latency_ms_count") != 0
+                            || values.get("single") != 42
+                            || recorder.records.stream().noneMatch(r -> r.metricName().equals("latency_ms_p99") && r.value() >= 96 && r.value() <= 100)
+                            || !"/a".equals(recorder.records.stream().filter(r -> r.metricName().equals("requests")).findFirst().get().labels().get("route"))) {
+                        return Future.failedFuture("not flushed as expected");
+                    }
+                    recorder.end();
+                    return Future.succeededFuture();
+                });
+    }
+
+    private static class CollectingMetricRecorder extends KeelMetricRecorder {
+        final List<KeelMetricRecord> records = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected long aggregationInterval() {
+            return 200L;
+        }
+
+        @Override
+        protected Future<Void> handleForTopic(String topic, List<KeelMetricRecord> buffer) {
+            records.addAll(buffer);
+            return Future.succeededFuture();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.sinri.keel.test.lab.mysql;
+
+import io.github.sinri.keel.mysql.BindableValue;
+import io.github.sinri.keel.mysql.condition.CompareCondition;
+import io.github.sinri.keel.mysql.statement.AbstractStatement;
+import io.github.sinri.keel.mysql.statement.DeleteStatement;
+import io.github.sinri.keel.mysql.statement.SelectStatement;
+import io.github.sinri.keel.mysql.statement.UpdateStatement;
+import io.github.sinri.keel.mysql.statement.WriteIntoStatement;
+import io.github.sinri.keel.mysql.statement.component.UpdateSetAssignmentComponent;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.Future;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The parameterized SQL, with the bound values written back as literals, should be the same as the literal SQL.
+ */
+public class ParameterizedStatementTest extends KeelTest {
+
+    private static String inline(String parameterizedSql, List<Object> parameters) {
+        StringBuilder sb = new StringBuilder();
+        int index = 0;
+        for (char c : parameterizedSql.toCharArray()) {
+            if (c == '?') {
+                Object parameter = parameters.get(index++);
+                if (parameter == null) {
+                    sb.append(BindableValue.ofNull());
+                } else if (parameter instanceof Number) {
+                    sb.append(BindableValue.ofNumber((Number) parameter));
+                } else {
+                    sb.append(BindableValue.ofString(parameter.toString()));
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        if (index != parameters.size()) {
+            throw new IllegalStateException("placeholders " + index + " but parameters " + parameters.size());
+        }
+        return sb.toString();
+    }
+
+    private Future<Void> check(AbstractStatement statement, int expectedParameterCount) {
+        String literalSql = statement.toString();
+        List<Object> parameters = new ArrayList<>();
+        String parameterizedSql = statement.toParameterizedString(parameters);
+        getLogger().info("literal: " + literalSql);
+        getLogger().info("parameterized: " + parameterizedSql + " with " + parameters);
+        if (parameters.size() != expectedParameterCount) {
+            return Future.failedFuture("expected " + expectedParameterCount + " parameters but " + parameters.size());
+        }
+        String inlined = inline(parameterizedSql, parameters);
+        if (!inlined.equals(literalSql)) {
+            return Future.failedFuture("not equivalent: " + inlined);
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testSelect() {
+        SelectStatement statement = new SelectStatement()
+                .from("user", "u")
+                .where(conditions -> conditions
+                        .expressionEqualsLiteralValue("u.name", "O'Brien")
+                        .expressionEqualsNumericValue("u.level", new BigDecimal("1.50"))
+                        .expressionAmongLiteralValues("u.city", List.of("A", "B\\C"))
+                        .expressionIsNotNull("u.email")
+                        .union(group -> group
+                                .add(new CompareCondition()
+                                        .compareExpression("u.score")
+                                        .beGreaterThan()
+                                        .againstNumericValue(60))
+                                .add(new CompareCondition()
+                                        .compareExpression("u.score")
+                                        .beEqual()
+                                        .againstExpression("u.bonus")))
+                )
+                .groupBy("u.city")
+                .having(conditions -> conditions.comparison(c -> c.compareExpression("count(*)").beGreaterThan().againstNumericValue(1)))
+                .orderByDesc("u.id")
+                .limit(10, 20);
+        return check(statement, 8);
+    }
+
+    @TestUnit
+    public Future<Void> testUpdateAndDelete() {
+        UpdateStatement update = new UpdateStatement()
+                .table("user")
+                .setWithValue("name", "a'b")
+                .setWithValue("level", 3)
+                .setWithExpression("updated_at", "now()")
+                .setWithAssignment(new UpdateSetAssignmentComponent("email").assignmentToNull())
+                .where(conditions -> conditions.expressionEqualsNumericValue("id", 7))
+                .limit(1);
+        DeleteStatement delete = new DeleteStatement()
+                .from("user")
+                .where(conditions -> conditions.expressionNotInNumericValues("id", List.of(1, 2, 3)));
+        return check(update, 4).compose(v -> check(delete, 3));
+    }
+
+    @TestUnit
+    public Future<Void> testWriteInto() {
+        WriteIntoStatement insert = new WriteIntoStatement()
+                .intoTable("user")
+                .macroWriteRows(List.of(
+                        new WriteIntoStatement.RowToWrite().put("name", "x").put("level", 1).putNow("created_at"),
+                        new WriteIntoStatement.RowToWrite().put("name", "y\"z").put("level", null).putNow("created_at")
+                ))
+                .onDuplicateKeyUpdateField("level");
+        WriteIntoStatement raw = new WriteIntoStatement()
+                .intoTable("user")
+                .columns(List.of("name", "level"))
+                .addDataRow(List.of("p", 1))
+                .addDataRow(new ArrayList<>(Arrays.asList("q", null)));
+        return check(insert, 4).compose(v -> check(raw, 4));
+    }
+
+    @TestUnit
+    public Future<Void> testNumberLiterals() {
+        BigDecimal thousand = new BigDecimal("1E+3");
+        String insertSql = new WriteIntoStatement()
+                .intoTable("account")
+                .macroWriteRows(List.of(new WriteIntoStatement.RowToWrite().put("amount", thousand)))
+                .toString();
+        String updateSql = new UpdateStatement()
+                .table("account")
+                .setWithValue("amount", thousand)
+                .where(conditions -> conditions.expressionEqualsNumericValue("id", 1))
+                .toString();
+        getLogger().info(insertSql);
+        getLogger().info(updateSql);
+        // the literal mode writes numbers by String.valueOf, as before the parameterized mode
+        if (!insertSql.contains("1E+3") || !updateSql.contains("1E+3")) {
+            return Future.failedFuture("number literal changed");
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testLikePattern() {
+        List<Object> parameters = new ArrayList<>();
+        String sql = new SelectStatement()
+                .from("user")
+                .where(conditions -> conditions.comparison(c -> c.compareExpression("name").contains("50%_off")))
+                .toParameterizedString(parameters);
+        getLogger().info(sql + " with " + parameters);
+        if (!"%50\\%\\_off%".equals(parameters.get(0))) {
+            return Future.failedFuture("unexpected like pattern: " + parameters.get(0));
+        }
+        return Future.succeededFuture();
+    }
+}
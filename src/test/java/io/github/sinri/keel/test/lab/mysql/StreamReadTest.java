@@ -0,0 +1,97 @@
+package io.github.sinri.keel.test.lab.mysql;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.mysql.DynamicNamedMySQLConnection;
+import io.github.sinri.keel.mysql.KeelMySQLConfiguration;
+import io.github.sinri.keel.mysql.NamedMySQLDataSource;
+import io.github.sinri.keel.mysql.matrix.SimpleResultRow;
+import io.github.sinri.keel.mysql.statement.AbstractReadStatement;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.github.sinri.keel.tesuto.TestUnitResult;
+import io.vertx.core.Future;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
+/**
+ * Read a large generated result through cursor in batches, with a slow consumer.
+ * Needs the data source `pioneer` in config.properties.
+ */
+public class StreamReadTest extends KeelTest {
+    private static final int FETCH_SIZE = 1000;
+    private NamedMySQLDataSource<DynamicNamedMySQLConnection> dataSource;
+
+    @Nonnull
+    @Override
+    protected Future<Void> starting() {
+        Keel.getConfiguration().loadPropertiesFile("config.properties");
+        KeelMySQLConfiguration configuration = KeelMySQLConfiguration.loadConfigurationForDataSource(Keel.getConfiguration(), "pioneer");
+        dataSource = new NamedMySQLDataSource<>(configuration, sqlConnection -> new DynamicNamedMySQLConnection(sqlConnection, "pioneer"));
+        return Future.succeededFuture();
+    }
+
+    @Nonnull
+    @Override
+    protected Future<Void> ending(List<TestUnitResult> testUnitResults) {
+        return dataSource.close();
+    }
+
+    @TestUnit
+    public Future<Void> testStream() {
+        // 10^6 rows generated by cross join of digits
+        AbstractReadStatement readStatement = AbstractReadStatement.buildWithRawSQL(
+                "with digits as (select 0 as d union all select 1 union all select 2 union all select 3 union all select 4" +
+                        " union all select 5 union all select 6 union all select 7 union all select 8 union all select 9)" +
+                        " select a.d + b.d * 10 + c.d * 100 + e.d * 1000 + f.d * 10000 + g.d * 100000 as n" +
+                        " from digits a, digits b, digits c, digits e, digits f, digits g"
+        );
+        AtomicInteger batches = new AtomicInteger(0);
+        return dataSource.withRowStream(readStatement, SimpleResultRow.class, FETCH_SIZE, batch -> {
+                    if (batch.size() > FETCH_SIZE) {
+                        return Future.failedFuture("batch larger than fetch size: " + batch.size());
+                    }
+                    if (batches.incrementAndGet() % 100 == 0) {
+                        getLogger().info("batch " + batches.get() + " first row: " + batch.get(0).toJsonObject());
+                        return KeelAsyncKit.sleep(10L);
+                    }
+                    return Future.succeededFuture();
+                })
+                .compose(total -> {
+                    getLogger().info("total rows: " + total + " in " + batches.get() + " batches");
+                    if (total != 1_000_000L) {
+                        return Future.failedFuture("unexpected total: " + total);
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testConsumerFailure() {
+        AbstractReadStatement readStatement = AbstractReadStatement.buildWithRawSQL(
+                "with digits as (select 0 as d union all select 1 union all select 2 union all select 3 union all select 4" +
+                        " union all select 5 union all select 6 union all select 7 union all select 8 union all select 9)" +
+                        " select a.d + b.d * 10 + c.d * 100 + e.d * 1000 as n from digits a, digits b, digits c, digits e"
+        );
+        AtomicInteger batches = new AtomicInteger(0);
+        return dataSource.withRowStream(readStatement, SimpleResultRow.class, FETCH_SIZE, batch -> {
+                    if (batches.incrementAndGet() == 3) {
+                        return Future.failedFuture("consumer failed on purpose");
+                    }
+                    return Future.succeededFuture();
+                })
+                .compose(
+                        total -> Future.failedFuture("succeeded with " + total + " rows though the consumer failed"),
+                        throwable -> {
+                            getLogger().info("failed as expected after " + batches.get() + " batches: " + throwable);
+                            if (batches.get() != 3) {
+                                return Future.failedFuture("read on after the failure: " + batches.get() + " batches");
+                            }
+                            return Future.succeededFuture();
+                        }
+                );
+    }
+}
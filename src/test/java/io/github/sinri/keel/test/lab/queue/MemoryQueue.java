@@ -0,0 +1,217 @@
+package io.github.sinri.keel.test.lab.queue;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.logger.issue.center.KeelIssueRecordCenterAsSilent;
+import io.github.sinri.keel.logger.issue.recorder.KeelIssueRecorder;
+import io.github.sinri.keel.servant.queue.KeelQueue;
+import io.github.sinri.keel.servant.queue.KeelQueueNextTaskSeeker;
+import io.github.sinri.keel.servant.queue.KeelQueueTask;
+import io.github.sinri.keel.servant.queue.QueueManageIssueRecord;
+import io.github.sinri.keel.servant.queue.QueueWorkerPoolManager;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The queue of the tasks offered in memory, shared by the queue tests.
+ * Each task sleeps for its cost; the seeks, starts and ends are counted, in total and by category.
+ * Configure it before deployed.
+ */
+public class MemoryQueue extends KeelQueue {
+    final AtomicInteger seekCalls = new AtomicInteger(0);
+    final AtomicInteger created = new AtomicInteger(0);
+    final AtomicInteger done = new AtomicInteger(0);
+    final AtomicInteger running = new AtomicInteger(0);
+    final AtomicInteger maxRunning = new AtomicInteger(0);
+    final AtomicInteger maxBatch = new AtomicInteger(0);
+    final AtomicLong lifecycleNanos = new AtomicLong(0);
+    /**
+     * The tasks whose continuation after sleep ran out of their own worker context.
+     */
+    final AtomicInteger continuedOutOfOwnContext = new AtomicInteger(0);
+    final List<String> released = new CopyOnWriteArrayList<>();
+    final List<String> startedCategories = new CopyOnWriteArrayList<>();
+    final List<Integer> startedPriorities = new CopyOnWriteArrayList<>();
+    final Map<String, AtomicInteger> runningByCategory = new ConcurrentHashMap<>();
+    final Map<String, AtomicInteger> maxRunningByCategory = new ConcurrentHashMap<>();
+    final Map<String, Long> lastDoneTime = new ConcurrentHashMap<>();
+    /**
+     * The contexts the seeker called on.
+     */
+    final Set<Context> seekContexts = ConcurrentHashMap.newKeySet();
+    final long createTime = System.currentTimeMillis();
+    private final ConcurrentLinkedQueue<MemoryTask.Plan> pending = new ConcurrentLinkedQueue<>();
+    private TaskExecutionMode taskExecutionMode = TaskExecutionMode.POOLED;
+    private int maxWorkers = 0;
+    private Handler<QueueWorkerPoolManager> managerConfigurator = manager -> {
+    };
+    private int maxSeekBatchSize = 16;
+    private int seekLookAhead = 0;
+    private long waitingMs = 60_000L;
+    private String newTaskSignalAddress = null;
+
+    public MemoryQueue setTaskExecutionMode(@Nonnull TaskExecutionMode taskExecutionMode) {
+        this.taskExecutionMode = taskExecutionMode;
+        return this;
+    }
+
+    public MemoryQueue setMaxWorkers(int maxWorkers) {
+        this.maxWorkers = maxWorkers;
+        return this;
+    }
+
+    public MemoryQueue setManagerConfigurator(@Nonnull Handler<QueueWorkerPoolManager> managerConfigurator) {
+        this.managerConfigurator = managerConfigurator;
+        return this;
+    }
+
+    public MemoryQueue setMaxSeekBatchSize(int maxSeekBatchSize) {
+        this.maxSeekBatchSize = maxSeekBatchSize;
+        return this;
+    }
+
+    public MemoryQueue setSeekLookAhead(int seekLookAhead) {
+        this.seekLookAhead = seekLookAhead;
+        return this;
+    }
+
+    /**
+     * @param waitingMs the time to wait for the next routine when no task found; a minute by default.
+     */
+    public MemoryQueue setWaitingMs(long waitingMs) {
+        this.waitingMs = waitingMs;
+        return this;
+    }
+
+    public MemoryQueue setNewTaskSignalAddress(@Nullable String newTaskSignalAddress) {
+        this.newTaskSignalAddress = newTaskSignalAddress;
+        return this;
+    }
+
+    public void offer(long costMillis) {
+        offer("MEMORY", 0, costMillis);
+    }
+
+    public void offer(@Nonnull String category, int priority, long costMillis) {
+        pending.offer(new MemoryTask.Plan(category, priority, costMillis));
+    }
+
+    public Future<Void> waitForDone(int count) {
+        return KeelAsyncKit.repeatedlyCall(routineResult -> {
+            if (done.get() >= count) {
+                routineResult.stop();
+                return Future.succeededFuture();
+            }
+            return KeelAsyncKit.sleep(5L);
+        });
+    }
+
+    public int maxRunningOf(@Nonnull String category) {
+        AtomicInteger counter = maxRunningByCategory.get(category);
+        return counter == null ? 0 : counter.get();
+    }
+
+    public long lastDoneTimeOf(@Nonnull String category) {
+        return lastDoneTime.getOrDefault(category, -1L);
+    }
+
+    @Nonnull
+    @Override
+    protected TaskExecutionMode getTaskExecutionMode() {
+        return taskExecutionMode;
+    }
+
+    @Nonnull
+    @Override
+    protected QueueWorkerPoolManager getQueueWorkerPoolManager() {
+        QueueWorkerPoolManager manager = new QueueWorkerPoolManager(maxWorkers);
+        managerConfigurator.handle(manager);
+        return manager;
+    }
+
+    @Override
+    protected int getMaxSeekBatchSize() {
+        return maxSeekBatchSize;
+    }
+
+    @Override
+    protected int getSeekLookAhead() {
+        return seekLookAhead;
+    }
+
+    @Override
+    protected String getNewTaskSignalAddress() {
+        return newTaskSignalAddress;
+    }
+
+    @Nonnull
+    @Override
+    protected KeelQueueNextTaskSeeker getNextTaskSeeker() {
+        return new KeelQueueNextTaskSeeker() {
+            @Override
+            public Future<KeelQueueTask> get() {
+                return getBatch(1).compose(tasks -> Future.succeededFuture(tasks.isEmpty() ? null : tasks.get(0)));
+            }
+
+            @Override
+            public Future<List<KeelQueueTask>> getBatch(int limit) {
+                return getBatch(limit, Map.of());
+            }
+
+            @Override
+            public Future<List<KeelQueueTask>> getBatch(int limit, @Nonnull Map<String, Integer> categoryQuotas) {
+                seekCalls.incrementAndGet();
+                seekContexts.add(Vertx.currentContext());
+                // claim in the order of offer, skipping the categories out of quota
+                Map<String, Integer> quotas = new HashMap<>(categoryQuotas);
+                List<KeelQueueTask> tasks = new ArrayList<>();
+                Iterator<MemoryTask.Plan> iterator = pending.iterator();
+                while (iterator.hasNext() && tasks.size() < limit) {
+                    MemoryTask.Plan plan = iterator.next();
+                    Integer quota = quotas.get(plan.category);
+                    if (quota != null) {
+                        if (quota <= 0) continue;
+                        quotas.put(plan.category, quota - 1);
+                    }
+                    iterator.remove();
+                    tasks.add(new MemoryTask(MemoryQueue.this, "task-" + created.incrementAndGet(), plan));
+                }
+                maxBatch.accumulateAndGet(tasks.size(), Math::max);
+                return Future.succeededFuture(tasks);
+            }
+
+            @Override
+            public Future<Void> releaseClaimedTasks(@Nonnull List<KeelQueueTask> tasks) {
+                tasks.forEach(task -> released.add(task.getTaskReference()));
+                return Future.succeededFuture();
+            }
+
+            @Override
+            public long waitingMs() {
+                return waitingMs;
+            }
+        };
+    }
+
+    @Nonnull
+    @Override
+    protected SignalReader getSignalReader() {
+        return () -> Future.succeededFuture(QueueSignal.RUN);
+    }
+
+    @Nonnull
+    @Override
+    protected KeelIssueRecorder<QueueManageIssueRecord> buildIssueRecorder() {
+        return KeelIssueRecordCenterAsSilent.getInstance().generateIssueRecorder(QueueManageIssueRecord.TopicQueue, QueueManageIssueRecord::new);
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.sinri.keel.test.lab.queue;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.logger.issue.center.KeelIssueRecordCenterAsSilent;
+import io.github.sinri.keel.logger.issue.recorder.KeelIssueRecorder;
+import io.github.sinri.keel.servant.queue.KeelQueueTask;
+import io.github.sinri.keel.servant.queue.QueueTaskIssueRecord;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The task of {@link MemoryQueue}, sleeping for its cost and counted in the queue.
+ */
+public class MemoryTask extends KeelQueueTask {
+    private final MemoryQueue queue;
+    private final String reference;
+    private final Plan plan;
+    private final long createNanos = System.nanoTime();
+
+    MemoryTask(MemoryQueue queue, String reference, Plan plan) {
+        this.queue = queue;
+        this.reference = reference;
+        this.plan = plan;
+    }
+
+    @Nonnull
+    @Override
+    public String getTaskReference() {
+        return reference;
+    }
+
+    @Nonnull
+    @Override
+    public String getTaskCategory() {
+        return plan.category;
+    }
+
+    @Override
+    public int getTaskPriority() {
+        return plan.priority;
+    }
+
+    @Override
+    protected void notifyAfterDeployed() {
+        queue.startedCategories.add(plan.category);
+        queue.startedPriorities.add(plan.priority);
+        queue.maxRunning.accumulateAndGet(queue.running.incrementAndGet(), Math::max);
+        int running = queue.runningByCategory.computeIfAbsent(plan.category, c -> new AtomicInteger()).incrementAndGet();
+        queue.maxRunningByCategory.computeIfAbsent(plan.category, c -> new AtomicInteger()).accumulateAndGet(running, Math::max);
+    }
+
+    @Override
+    protected Future<Void> run() {
+        // a verticle completed within its start could not be undeployed, so take an async step even for no cost
+        return KeelAsyncKit.sleep(Math.max(1L, plan.costMillis))
+                .onComplete(ar -> {
+                    Context current = Vertx.currentContext();
+                    if (current == null || current != context || !current.isWorkerContext()) {
+                        queue.continuedOutOfOwnContext.incrementAndGet();
+                    }
+                });
+    }
+
+    @Override
+    protected void notifyBeforeUndeploy() {
+        queue.running.decrementAndGet();
+        queue.runningByCategory.get(plan.category).decrementAndGet();
+        queue.lastDoneTime.put(plan.category, System.currentTimeMillis() - queue.createTime);
+        queue.lifecycleNanos.addAndGet(System.nanoTime() - createNanos);
+        queue.done.incrementAndGet();
+    }
+
+    @Nonnull
+    @Override
+    protected KeelIssueRecorder<QueueTaskIssueRecord> buildIssueRecorder() {
+        return KeelIssueRecordCenterAsSilent.getInstance().generateIssueRecorder(QueueTaskIssueRecord.TopicQueue, () -> new QueueTaskIssueRecord(getTaskReference(), getTaskCategory()));
+    }
+
+    static class Plan {
+        final String category;
+        final int priority;
+        final long costMillis;
+
+        Plan(String category, int priority, long costMillis) {
+            this.category = category;
+            this.priority = priority;
+            this.costMillis = costMillis;
+        }
+    }
+}
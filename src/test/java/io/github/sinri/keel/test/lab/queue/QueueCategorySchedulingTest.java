@@ -0,0 +1,107 @@
+package io.github.sinri.keel.test.lab.queue;
+
+import io.github.sinri.keel.servant.queue.QueueCategoryStatistics;
+import io.github.sinri.keel.servant.queue.QueueWorkerPoolManager;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-category max worker count, weighted sharing between categories, task priority and statistics.
+ */
+public class QueueCategorySchedulingTest extends KeelTest {
+
+    private static MemoryQueue newQueue(int maxWorkers, Handler<QueueWorkerPoolManager> managerConfigurator) {
+        return new MemoryQueue()
+                .setMaxWorkers(maxWorkers)
+                .setManagerConfigurator(managerConfigurator)
+                .setMaxSeekBatchSize(64)
+                // claim ahead, for the scheduler to choose among categories and priorities
+                .setSeekLookAhead(64)
+                .setWaitingMs(100L);
+    }
+
+    @TestUnit
+    public Future<Void> testCategoryLimit() {
+        // slow reports could take at most 2 of the 6 workers, the fast ones are not starved
+        MemoryQueue queue = newQueue(6, manager -> manager.changeCategoryMaxWorkerCount("REPORT", 2));
+        for (int i = 0; i < 20; i++) {
+            queue.offer("REPORT", 0, 200L);
+        }
+        for (int i = 0; i < 40; i++) {
+            queue.offer("FAST", 0, 10L);
+        }
+        return queue.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> queue.waitForDone(60))
+                .compose(v -> {
+                    Map<String, QueueCategoryStatistics> statistics = queue.getCategoryStatistics();
+                    statistics.values().forEach(s -> getLogger().info("statistics: " + s));
+                    int maxReport = queue.maxRunningOf("REPORT");
+                    getLogger().info("max running REPORT " + maxReport + ", FAST done after "
+                            + queue.lastDoneTimeOf("FAST") + " ms, REPORT done after " + queue.lastDoneTimeOf("REPORT") + " ms");
+                    if (maxReport > 2) {
+                        return Future.failedFuture("category limit exceeded: " + maxReport);
+                    }
+                    if (queue.lastDoneTimeOf("FAST") >= queue.lastDoneTimeOf("REPORT")) {
+                        return Future.failedFuture("fast tasks starved by reports");
+                    }
+                    QueueCategoryStatistics report = statistics.get("REPORT");
+                    if (report == null || report.getFinishedCount() != 20 || report.getMaxWorkerCount() != 2
+                            || report.getAverageRunMillis() < 150 || report.getMaxWaitMillis() <= 0) {
+                        return Future.failedFuture("statistics not counted: " + report);
+                    }
+                    return queue.undeployMe();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testWeight() {
+        // one worker shared by A and B with weight 3 : 1, in the first 40 starts A should take about 30
+        MemoryQueue queue = newQueue(1, manager -> manager.changeCategoryWeight("A", 3));
+        for (int i = 0; i < 60; i++) {
+            queue.offer("A", 0, 2L);
+            queue.offer("B", 0, 2L);
+        }
+        return queue.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> queue.waitForDone(120))
+                .compose(v -> {
+                    List<String> order = queue.startedCategories.subList(0, 40);
+                    long a = order.stream().filter("A"::equals).count();
+                    getLogger().info("A took " + a + " of the first 40 starts");
+                    if (a < 26 || a > 34) {
+                        return Future.failedFuture("not shared by weight: " + a);
+                    }
+                    return queue.undeployMe();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testPriority() {
+        // claimed in one batch, the higher priority starts first
+        MemoryQueue queue = newQueue(1, manager -> {
+        });
+        for (int i = 0; i < 10; i++) {
+            queue.offer("P", i % 3, 2L);
+        }
+        return queue.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> queue.waitForDone(10))
+                .compose(v -> {
+                    List<Integer> priorities = new ArrayList<>(queue.startedPriorities);
+                    getLogger().info("started priorities " + priorities);
+                    List<Integer> sorted = new ArrayList<>(priorities);
+                    sorted.sort(Comparator.reverseOrder());
+                    if (!priorities.equals(sorted)) {
+                        return Future.failedFuture("not started by priority");
+                    }
+                    return queue.undeployMe();
+                });
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.sinri.keel.test.lab.queue;
+
+import io.github.sinri.keel.servant.queue.KeelQueue;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
+
+/**
+ * Tasks per second of short tasks, deployed on the default worker pool or on the named pool of the queue;
+ * and the average time from a task created by the seeker to its end.
+ */
+public class QueueExecutionModeBenchmarkTest extends KeelTest {
+    private static final int TASKS = 3000;
+    // large enough, as a busy pool makes the routine sleep for a second
+    private static final int MAX_WORKERS = 64;
+
+    private Future<Void> measure(KeelQueue.TaskExecutionMode mode) {
+        MemoryQueue queue = new MemoryQueue()
+                .setTaskExecutionMode(mode)
+                .setMaxWorkers(MAX_WORKERS)
+                .setWaitingMs(100L);
+        for (int i = 0; i < TASKS; i++) {
+            queue.offer(0L);
+        }
+        long startTime = System.currentTimeMillis();
+        return queue.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> queue.waitForDone(TASKS))
+                .compose(v -> {
+                    long cost = System.currentTimeMillis() - startTime;
+                    getLogger().info(mode + ": " + TASKS + " tasks in " + cost + " ms, "
+                            + (TASKS * 1000L / Math.max(1, cost)) + " tasks/s, "
+                            + "avg lifecycle " + (queue.lifecycleNanos.get() / TASKS / 1000) + " us, "
+                            + "max running " + queue.maxRunning.get());
+                    if (queue.maxRunning.get() > MAX_WORKERS) {
+                        return Future.failedFuture("max worker count exceeded: " + queue.maxRunning.get());
+                    }
+                    if (queue.continuedOutOfOwnContext.get() > 0) {
+                        return Future.failedFuture("tasks continued out of their worker contexts: " + queue.continuedOutOfOwnContext.get());
+                    }
+                    return queue.undeployMe();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testDeployment() {
+        return measure(KeelQueue.TaskExecutionMode.DEPLOYMENT);
+    }
+
+    @TestUnit
+    public Future<Void> testPooled() {
+        return measure(KeelQueue.TaskExecutionMode.POOLED);
+    }
+}
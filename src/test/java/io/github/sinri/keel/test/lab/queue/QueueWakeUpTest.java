@@ -0,0 +1,156 @@
+package io.github.sinri.keel.test.lab.queue;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.servant.queue.KeelQueue;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
+
+/**
+ * The queue routine woken up by freed workers and new task signals, and seeking tasks in batches.
+ */
+public class QueueWakeUpTest extends KeelTest {
+    private static final String SIGNAL_ADDRESS = "QueueWakeUpTest.newTask";
+
+    @TestUnit
+    public Future<Void> testWakeUpByFreedWorker() {
+        // 20 tasks of 100 ms on 2 workers: about 1 second, instead of a second per busy check
+        MemoryQueue queue = new MemoryQueue().setMaxWorkers(2).setNewTaskSignalAddress(SIGNAL_ADDRESS);
+        for (int i = 0; i < 20; i++) {
+            queue.offer(100L);
+        }
+        long startTime = System.currentTimeMillis();
+        return queue.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> queue.waitForDone(20))
+                .compose(v -> {
+                    long cost = System.currentTimeMillis() - startTime;
+                    getLogger().info("20 tasks on 2 workers in " + cost + " ms, seek calls " + queue.seekCalls.get());
+                    if (cost > 3000) {
+                        return Future.failedFuture("not woken up by freed workers");
+                    }
+                    return queue.undeployMe();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testWakeUpByFreedWorkerInDeployment() {
+        // the task verticles end on their own contexts, while the routine should go on in the queue's
+        MemoryQueue queue = new MemoryQueue()
+                .setTaskExecutionMode(KeelQueue.TaskExecutionMode.DEPLOYMENT)
+                .setMaxWorkers(2);
+        for (int i = 0; i < 20; i++) {
+            queue.offer(100L);
+        }
+        long startTime = System.currentTimeMillis();
+        return queue.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> queue.waitForDone(20))
+                .compose(v -> {
+                    long cost = System.currentTimeMillis() - startTime;
+                    getLogger().info("20 deployed tasks on 2 workers in " + cost + " ms, seek calls " + queue.seekCalls.get()
+                            + " on " + queue.seekContexts.size() + " contexts");
+                    if (cost > 3000) {
+                        return Future.failedFuture("not woken up by freed workers");
+                    }
+                    if (queue.seekContexts.size() != 1) {
+                        return Future.failedFuture("routine run out of the queue context");
+                    }
+                    return queue.undeployMe();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testWakeUpBySignal() {
+        MemoryQueue queue = new MemoryQueue().setMaxWorkers(4).setNewTaskSignalAddress(SIGNAL_ADDRESS);
+        return queue.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                // let the routine find nothing and wait for a minute
+                .compose(deploymentId -> KeelAsyncKit.sleep(300L))
+                .compose(v -> {
+                    long startTime = System.currentTimeMillis();
+                    queue.offer(1L);
+                    KeelQueue.signalNewTask(SIGNAL_ADDRESS);
+                    return queue.waitForDone(1)
+                            .compose(done -> {
+                                long cost = System.currentTimeMillis() - startTime;
+                                getLogger().info("new task done " + cost + " ms after signal");
+                                if (cost > 1000) {
+                                    return Future.failedFuture("not woken up by signal");
+                                }
+                                // and the local notifier
+                                long localStartTime = System.currentTimeMillis();
+                                queue.offer(1L);
+                                queue.wakeUp();
+                                return queue.waitForDone(2)
+                                        .compose(x -> {
+                                            long localCost = System.currentTimeMillis() - localStartTime;
+                                            getLogger().info("new task done " + localCost + " ms after wake up");
+                                            if (localCost > 1000) {
+                                                return Future.failedFuture("not woken up locally");
+                                            }
+                                            return Future.succeededFuture();
+                                        });
+                            });
+                })
+                .compose(v -> queue.undeployMe());
+    }
+
+    @TestUnit
+    public Future<Void> testBatchSeek() {
+        MemoryQueue queue = new MemoryQueue().setMaxWorkers(10).setNewTaskSignalAddress(SIGNAL_ADDRESS);
+        for (int i = 0; i < 200; i++) {
+            queue.offer(20L);
+        }
+        return queue.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> queue.waitForDone(200))
+                .compose(v -> {
+                    getLogger().info("200 tasks on 10 workers, seek calls " + queue.seekCalls.get()
+                            + ", max batch " + queue.maxBatch.get() + ", max running " + queue.maxRunning.get());
+                    if (queue.maxBatch.get() <= 1 || queue.seekCalls.get() >= 200) {
+                        return Future.failedFuture("not sought in batches");
+                    }
+                    if (queue.maxRunning.get() > 10) {
+                        return Future.failedFuture("max worker count exceeded");
+                    }
+                    return queue.undeployMe();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testNoSeekWhenBusy() {
+        // 2 workers busy for 300 ms: only what could start is claimed, and the seeker is not asked meanwhile
+        MemoryQueue queue = new MemoryQueue().setMaxWorkers(2).setNewTaskSignalAddress(SIGNAL_ADDRESS);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(300L);
+        }
+        return queue.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> KeelAsyncKit.sleep(200L))
+                .compose(v -> {
+                    getLogger().info("while busy: claimed " + queue.created.get() + ", seek calls " + queue.seekCalls.get());
+                    if (queue.created.get() != 2 || queue.seekCalls.get() > 2) {
+                        return Future.failedFuture("sought while the pool is busy");
+                    }
+                    return queue.waitForDone(10);
+                })
+                .compose(v -> queue.undeployMe());
+    }
+
+    @TestUnit
+    public Future<Void> testReleaseOnStop() {
+        // with a look-ahead of 3, the claimed tasks waiting are handed back when the queue stops
+        MemoryQueue queue = new MemoryQueue().setMaxWorkers(2).setSeekLookAhead(3).setNewTaskSignalAddress(SIGNAL_ADDRESS);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(500L);
+        }
+        return queue.deployMe(new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER))
+                .compose(deploymentId -> KeelAsyncKit.sleep(200L))
+                .compose(v -> queue.undeployMe())
+                .compose(v -> {
+                    getLogger().info("claimed " + queue.created.get() + ", released " + queue.released);
+                    if (queue.created.get() != 5 || queue.released.size() != 3) {
+                        return Future.failedFuture("claimed tasks not released");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+}
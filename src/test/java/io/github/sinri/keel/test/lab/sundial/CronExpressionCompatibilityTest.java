@@ -0,0 +1,262 @@
+package io.github.sinri.keel.test.lab.sundial;
+
+import io.github.sinri.keel.core.KeelCronExpression;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.Future;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compare the bitmask compiled cron expression with the regex and set based parsing before,
+ * on every field with all numbers, ranges and steps, plus random lists and whole expressions.
+ */
+public class CronExpressionCompatibilityTest extends KeelTest {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    /**
+     * The field parsing before 3.3.0, as the reference.
+     */
+    private static Set<Integer> regexParseField(String rawComponent, int min, int max) {
+        Set<Integer> optionSet = new HashSet<>();
+        if (rawComponent.equals("*")) {
+            for (int i = min; i <= max; i++) {
+                optionSet.add(i);
+            }
+            return optionSet;
+        }
+        ArrayList<String> parts = new ArrayList<>();
+        if (rawComponent.contains(",")) {
+            parts.addAll(Arrays.asList(rawComponent.split(",")));
+        } else {
+            parts.add(rawComponent);
+        }
+        for (String part : parts) {
+            part = part.trim();
+            Matcher matcher0 = Pattern.compile("^\\d+$").matcher(part);
+            if (matcher0.matches()) {
+                optionSet.add(Integer.parseInt(part));
+                continue;
+            }
+            Matcher matcher1 = Pattern.compile("^(\\d+)-(\\d+)$").matcher(part);
+            if (matcher1.matches()) {
+                int start = Integer.parseInt(matcher1.group(1));
+                int end = Integer.parseInt(matcher1.group(2));
+                if (start < min || end > max || start > end) {
+                    throw new IllegalArgumentException();
+                }
+                for (int i = start; i <= end; i++) {
+                    optionSet.add(i);
+                }
+                continue;
+            }
+            Matcher matcher2 = Pattern.compile("^\\*[*/](\\d+)$").matcher(part);
+            if (matcher2.matches()) {
+                int mask = Integer.parseInt(matcher2.group(1));
+                for (int i = 0; i <= max; i += mask) {
+                    if (i >= min) {
+                        optionSet.add(i);
+                    }
+                }
+                continue;
+            }
+            throw new IllegalArgumentException();
+        }
+        return optionSet;
+    }
+
+    private static List<String> candidateTokens(int max) {
+        List<String> tokens = new ArrayList<>();
+        tokens.add("*");
+        for (int i = 0; i <= 70; i++) {
+            tokens.add(String.valueOf(i));
+        }
+        for (int a = 0; a <= max + 1; a++) {
+            for (int b = 0; b <= max + 1; b++) {
+                tokens.add(a + "-" + b);
+            }
+        }
+        for (int n = 1; n <= max + 2; n++) {
+            tokens.add("*/" + n);
+            tokens.add("**" + n);
+        }
+        tokens.addAll(List.of("007", "01-03", "99999999999", "", "a", "1-", "-1", "*/", "*-2", "1,,2", "1,", ",", ",5",
+                "1-2-3", "+1", "٣", "*/*", "**", "* ", "5-*"));
+        return tokens;
+    }
+
+    private static String describe(Throwable throwable) {
+        return throwable.getClass().getName();
+    }
+
+    /**
+     * The field goes into the expression with the others as {@code *}, then check the values of the field.
+     */
+    private String compareField(int fieldIndex, String fieldName, int min, int max, String field) {
+        String expected;
+        Set<Integer> options = null;
+        try {
+            options = regexParseField(field, min, max);
+            expected = "OK";
+        } catch (Throwable throwable) {
+            expected = describe(throwable);
+        }
+
+        String[] fields = {"*", "*", "*", "*", "*", "*"};
+        fields[fieldIndex] = field;
+        String expression = fieldIndex == 0 ? String.join(" ", fields) : String.join(" ", Arrays.copyOfRange(fields, 1, 6));
+        if (field.isEmpty() || field.contains(" ")) {
+            // not a field in the expression
+            return null;
+        }
+        KeelCronExpression cronExpression = null;
+        String actual;
+        try {
+            cronExpression = new KeelCronExpression(expression);
+            actual = "OK";
+        } catch (Throwable throwable) {
+            actual = describe(throwable);
+        }
+        if (!expected.equals(actual)) {
+            return fieldName + " [" + field + "] parsed as " + actual + " but " + expected + " expected";
+        }
+        if (cronExpression == null) {
+            return null;
+        }
+
+        for (int v = min; v <= max; v++) {
+            ZonedDateTime dateTime;
+            switch (fieldIndex) {
+                case 0:
+                    dateTime = ZonedDateTime.of(2024, 1, 1, 0, 0, v, 0, ZONE);
+                    break;
+                case 1:
+                    dateTime = ZonedDateTime.of(2024, 1, 1, 0, v, 0, 0, ZONE);
+                    break;
+                case 2:
+                    dateTime = ZonedDateTime.of(LocalDateTime.of(2024, 1, 1, v, 0, 0), ZONE);
+                    break;
+                case 3:
+                    dateTime = ZonedDateTime.of(2024, 1, v, 12, 0, 0, 0, ZONE);
+                    break;
+                case 4:
+                    dateTime = ZonedDateTime.of(2024, v, 1, 12, 0, 0, 0, ZONE);
+                    break;
+                default:
+                    // 2024-01-07 is sunday
+                    dateTime = ZonedDateTime.of(2024, 1, 7 + v, 12, 0, 0, 0, ZONE);
+                    break;
+            }
+            boolean expectedMatch = options.contains(v);
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(dateTime.toInstant().toEpochMilli());
+            if (cronExpression.match(dateTime) != expectedMatch
+                    || cronExpression.match(calendar) != expectedMatch
+                    || cronExpression.match(dateTime.toInstant().toEpochMilli(), ZONE) != expectedMatch) {
+                return fieldName + " [" + field + "] at " + v + " should match " + expectedMatch;
+            }
+        }
+        return null;
+    }
+
+    @TestUnit
+    public Future<Void> testEachField() {
+        String[] names = {"second", "minute", "hour", "day", "month", "weekday"};
+        int[] mins = {0, 0, 0, 1, 1, 0};
+        int[] maxes = {59, 59, 23, 31, 12, 6};
+        Random random = new Random(12);
+        long compared = 0;
+        for (int f = 0; f < 6; f++) {
+            List<String> tokens = candidateTokens(maxes[f]);
+            List<String> fields = new ArrayList<>(tokens);
+            for (int i = 0; i < 3000; i++) {
+                int n = 2 + random.nextInt(3);
+                StringJoiner joiner = new StringJoiner(",");
+                for (int j = 0; j < n; j++) {
+                    joiner.add(tokens.get(random.nextInt(tokens.size())));
+                }
+                fields.add(joiner.toString());
+            }
+            for (String field : fields) {
+                String error = compareField(f, names[f], mins[f], maxes[f], field);
+                if (error != null) {
+                    return Future.failedFuture(error);
+                }
+                compared++;
+            }
+        }
+        getLogger().info("compared fields: " + compared);
+
+        try {
+            new KeelCronExpression("*/0 * * * *");
+            return Future.failedFuture("*/0 should be refused");
+        } catch (IllegalArgumentException e) {
+            return Future.succeededFuture();
+        }
+    }
+
+    @TestUnit
+    public Future<Void> testWholeExpressions() {
+        Random random = new Random(34);
+        String[][] samples = {
+                {"*", "0", "15", "0-29", "*/10", "5,35", "59"},
+                {"*", "0", "9-18", "*/6", "23", "1,13"},
+                {"*", "1", "15", "28-31", "*/7", "10,20"},
+                {"*", "1", "2-3", "*/4", "12", "6,7"},
+                {"*", "0", "1-5", "6", "*/2", "0,6"},
+        };
+        for (int i = 0; i < 500; i++) {
+            StringJoiner joiner = new StringJoiner(" ");
+            for (String[] sample : samples) {
+                joiner.add(sample[random.nextInt(sample.length)]);
+            }
+            String expression = joiner.toString();
+            KeelCronExpression cronExpression = KeelCronExpression.parse(expression);
+            if (KeelCronExpression.parse(expression) != cronExpression) {
+                return Future.failedFuture("parse cache missed");
+            }
+            String[] parts = expression.split(" ");
+            Set<Integer> minutes = regexParseField(parts[0], 0, 59);
+            Set<Integer> hours = regexParseField(parts[1], 0, 23);
+            Set<Integer> days = regexParseField(parts[2], 1, 31);
+            Set<Integer> months = regexParseField(parts[3], 1, 12);
+            Set<Integer> weekdays = regexParseField(parts[4], 0, 6);
+
+            long start = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZONE).toInstant().toEpochMilli();
+            for (int j = 0; j < 200; j++) {
+                long millis = start + (long) (random.nextDouble() * 4L * 365 * 24 * 3600 * 1000);
+                Calendar calendar = Calendar.getInstance();
+                calendar.setTimeInMillis(millis);
+                boolean expected = minutes.contains(calendar.get(Calendar.MINUTE))
+                        && hours.contains(calendar.get(Calendar.HOUR_OF_DAY))
+                        && days.contains(calendar.get(Calendar.DAY_OF_MONTH))
+                        && months.contains(1 + calendar.get(Calendar.MONTH))
+                        && weekdays.contains(calendar.get(Calendar.DAY_OF_WEEK) - 1);
+                if (cronExpression.match(calendar) != expected || cronExpression.match(millis, ZONE) != expected) {
+                    return Future.failedFuture(expression + " at " + calendar.getTime() + " should match " + expected);
+                }
+            }
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testMatchSpeed() {
+        KeelCronExpression cronExpression = KeelCronExpression.parse("*/5 9-18 * * 1-5");
+        long millis = System.currentTimeMillis();
+        int matched = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < 10_000_000; i++) {
+            if (cronExpression.match(millis + i * 60_000L, ZONE)) {
+                matched++;
+            }
+        }
+        getLogger().info("10M matches on epoch millis in " + (System.nanoTime() - startTime) / 1_000_000 + " ms, matched " + matched);
+        return Future.succeededFuture();
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.sinri.keel.test.lab.sundial;
+
+import io.github.sinri.keel.core.KeelCronExpression;
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.servant.sundial.KeelSundial;
+import io.github.sinri.keel.servant.sundial.KeelSundialPlan;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Next fire times of cron expressions, and the sundial firing each second.
+ */
+public class SundialTest extends KeelTest {
+    private static KeelSundialPlan plan(String key, String cron, boolean skipIfStillRunning, long costMillis, AtomicInteger counter) {
+        KeelCronExpression cronExpression = new KeelCronExpression(cron);
+        return new KeelSundialPlan() {
+            @Override
+            public String key() {
+                return key;
+            }
+
+            @Override
+            public KeelCronExpression cronExpression() {
+                return cronExpression;
+            }
+
+            @Override
+            public Future<Void> execute(Calendar now) {
+                counter.incrementAndGet();
+                return KeelAsyncKit.sleep(costMillis);
+            }
+
+            @Override
+            public boolean skipIfStillRunning() {
+                return skipIfStillRunning;
+            }
+        };
+    }
+
+    @TestUnit
+    public Future<Void> testNextFireTime() {
+        String[] expressions = {
+                "* * * * *", "*/15 * * * *", "0 0 * * *", "30 8-10 * * 1-5", "0,30 12 1,15 * *",
+                "5 4 * * 0", "0 0 1 */3 *", "0 */2 * * 6",
+                "*/10 * * * * *", "15 0 * * * *", "0,30 */5 9 * * *",
+        };
+        ZoneId zoneId = ZoneId.systemDefault();
+        Random random = new Random(7);
+        for (String expression : expressions) {
+            KeelCronExpression cronExpression = new KeelCronExpression(expression);
+            long stepSeconds = cronExpression.isWithSeconds() ? 1 : 60;
+            for (int round = 0; round < 20; round++) {
+                ZonedDateTime after = ZonedDateTime.now(zoneId)
+                        .plusSeconds(random.nextInt(90 * 24 * 3600))
+                        .plusNanos(random.nextInt(1_000_000_000));
+                ZonedDateTime next = cronExpression.nextFireTime(after);
+                if (next == null || !next.isAfter(after)) {
+                    return Future.failedFuture(expression + " after " + after + ": " + next);
+                }
+
+                // scan from after to next, only the next itself matches
+                ZonedDateTime scan = after.withNano(0);
+                if (stepSeconds == 60) scan = scan.withSecond(0);
+                while (!scan.isAfter(next)) {
+                    Calendar calendar = Calendar.getInstance();
+                    calendar.setTimeInMillis(scan.toInstant().toEpochMilli());
+                    boolean matched = scan.isAfter(after) && cronExpression.match(calendar);
+                    if (matched != scan.equals(next)) {
+                        return Future.failedFuture(expression + " after " + after + ": next " + next + " but " + scan + " matched " + matched);
+                    }
+                    scan = scan.plusSeconds(stepSeconds);
+                }
+            }
+        }
+        if (new KeelCronExpression("0 0 31 2 *").nextFireTime(ZonedDateTime.now()) != null) {
+            return Future.failedFuture("Feb 31 should never come");
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testFireEachSecond() {
+        AtomicInteger quickCounter = new AtomicInteger(0);
+        AtomicInteger slowCounter = new AtomicInteger(0);
+        AtomicInteger overlappedCounter = new AtomicInteger(0);
+        List<KeelSundialPlan> plans = List.of(
+                plan("quick", "* * * * * *", false, 10, quickCounter),
+                plan("slow", "* * * * * *", true, 2500, slowCounter),
+                plan("overlapped", "* * * * * *", false, 2500, overlappedCounter)
+        );
+        KeelSundial sundial = new KeelSundial() {
+            @Override
+            protected Future<Collection<KeelSundialPlan>> fetchPlans() {
+                return Future.succeededFuture(plans);
+            }
+        };
+        return sundial.deployMe(new DeploymentOptions())
+                .compose(deploymentId -> KeelAsyncKit.sleep(6_000L)
+                        .compose(v -> sundial.undeployMe()))
+                .compose(v -> {
+                    getLogger().info("quick: " + quickCounter.get()
+                            + " slow: " + slowCounter.get()
+                            + " overlapped: " + overlappedCounter.get());
+                    if (quickCounter.get() < 5 || quickCounter.get() > 7) {
+                        return Future.failedFuture("quick plan should run each second");
+                    }
+                    if (slowCounter.get() > 3) {
+                        return Future.failedFuture("slow plan should be skipped when still running");
+                    }
+                    if (overlappedCounter.get() < 5) {
+                        return Future.failedFuture("overlapped plan should run each second");
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+}
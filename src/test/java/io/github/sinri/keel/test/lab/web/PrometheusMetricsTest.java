@@ -0,0 +1,294 @@
+package io.github.sinri.keel.test.lab.web;
+
+import io.github.sinri.keel.facade.async.KeelAsyncKit;
+import io.github.sinri.keel.logger.metric.KeelMetricHistogram;
+import io.github.sinri.keel.logger.metric.KeelMetricInstrument;
+import io.github.sinri.keel.logger.metric.KeelMetricRecord;
+import io.github.sinri.keel.logger.metric.KeelMetricRecorder;
+import io.github.sinri.keel.mysql.DynamicNamedMySQLConnection;
+import io.github.sinri.keel.mysql.KeelMySQLConfiguration;
+import io.github.sinri.keel.mysql.NamedMySQLDataSource;
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.github.sinri.keel.tesuto.TestUnitResult;
+import io.github.sinri.keel.web.http.metrics.KeelEventLoopLagProbe;
+import io.github.sinri.keel.web.http.metrics.KeelPrometheusMetricsHandler;
+import io.github.sinri.keel.web.http.metrics.KeelRouteStatisticsHandler;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.ext.web.Router;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
+/**
+ * Scrape a local server for the metrics of the runtime, the routes, the event loop, a MySQL pool and a recorder,
+ * check the text format, and measure the cost of a rendering.
+ */
+public class PrometheusMetricsTest extends KeelTest {
+    private static final Pattern SAMPLE_PATTERN = Pattern.compile(
+            "^([a-zA-Z_:][a-zA-Z0-9_:]*)(\\{(?:[a-zA-Z_][a-zA-Z0-9_]*=\"(?:[^\"\\\\\\n]|\\\\[\\\\\"n])*\",?)*})? (\\S+)$");
+    private static final int HELLO_REQUESTS = 200;
+    private static final int FAIL_REQUESTS = 10;
+
+    private final KeelRouteStatisticsHandler routeStatisticsHandler = new KeelRouteStatisticsHandler();
+    private final KeelEventLoopLagProbe eventLoopLagProbe = new KeelEventLoopLagProbe("test", 20L);
+    private final KeelPrometheusMetricsHandler metricsHandler = new KeelPrometheusMetricsHandler();
+    private KeelMetricRecorder metricRecorder;
+    private NamedMySQLDataSource<DynamicNamedMySQLConnection> dataSource;
+    private HttpServer server;
+    private HttpClient client;
+
+    @Nonnull
+    @Override
+    protected Future<Void> starting() {
+        metricRecorder = new KeelMetricRecorder() {
+            @Override
+            protected Future<Void> handleForTopic(String topic, List<KeelMetricRecord> buffer) {
+                return Future.succeededFuture();
+            }
+        };
+        metricRecorder.counter("biz", "orders_total", Map.of("shop", "say \"hi\"\\")).add(3);
+        KeelMetricHistogram sizeHistogram = metricRecorder.histogram("biz", "order_size", null);
+        for (int i = 1; i <= 1000; i++) {
+            sizeHistogram.record(i);
+        }
+        KeelMetricHistogram tinyHistogram = metricRecorder.histogram("biz", "tiny", null);
+        tinyHistogram.record(0);
+        tinyHistogram.record(1e-9);
+        tinyHistogram.record(0.5);
+
+        // a MySQL data source on a port nobody listens
+        int closedPort;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            closedPort = serverSocket.getLocalPort();
+        } catch (IOException e) {
+            return Future.failedFuture(e);
+        }
+        Properties properties = new Properties();
+        properties.setProperty("mysql.standIn.host", "127.0.0.1");
+        properties.setProperty("mysql.standIn.port", String.valueOf(closedPort));
+        properties.setProperty("mysql.standIn.username", "nobody");
+        properties.setProperty("mysql.standIn.password", "nothing");
+        properties.setProperty("mysql.standIn.schema", "nowhere");
+        properties.setProperty("mysql.standIn.poolMaxSize", "4");
+        Keel.getConfiguration().loadProperties(properties);
+        KeelMySQLConfiguration configuration = KeelMySQLConfiguration.loadConfigurationForDataSource(Keel.getConfiguration(), "standIn");
+        dataSource = new NamedMySQLDataSource<>(configuration, sqlConnection -> new DynamicNamedMySQLConnection(sqlConnection, "standIn"));
+
+        metricsHandler.addRouteStatistics(routeStatisticsHandler)
+                .addEventLoopLagProbe(eventLoopLagProbe)
+                .addMetricRecorder(metricRecorder)
+                .addMySQLDataSource(dataSource);
+        eventLoopLagProbe.start();
+
+        Router router = Router.router(Keel.getVertx());
+        router.get("/api/hello").handler(routeStatisticsHandler).handler(routingContext -> routingContext.end("hello"));
+        router.get("/api/fail").handler(routeStatisticsHandler).handler(routingContext -> routingContext.fail(500))
+                .failureHandler(routingContext -> routingContext.response().setStatusCode(routingContext.statusCode()).end());
+        router.get("/metrics").handler(metricsHandler);
+        server = Keel.getVertx().createHttpServer().requestHandler(router);
+        client = Keel.getVertx().createHttpClient();
+        return server.listen(0, "127.0.0.1")
+                .compose(listened -> dataSource.withConnection(c -> Future.succeededFuture())
+                        .compose(v -> Future.failedFuture("connected to nobody"), throwable -> Future.succeededFuture()));
+    }
+
+    @Nonnull
+    @Override
+    protected Future<Void> ending(List<TestUnitResult> testUnitResults) {
+        eventLoopLagProbe.stop();
+        return client.close()
+                .compose(v -> server.close())
+                .compose(v -> dataSource.close());
+    }
+
+    private Future<HttpClientResponse> get(String path) {
+        return client.request(HttpMethod.GET, server.actualPort(), "127.0.0.1", path)
+                .compose(request -> request.send());
+    }
+
+    @TestUnit
+    public Future<Void> testScrape() {
+        return KeelAsyncKit.stepwiseCall(HELLO_REQUESTS, i -> get("/api/hello").compose(HttpClientResponse::body).mapEmpty())
+                .compose(v -> KeelAsyncKit.stepwiseCall(FAIL_REQUESTS, i -> get("/api/fail").compose(HttpClientResponse::body).mapEmpty()))
+                .compose(v -> KeelAsyncKit.sleep(300L))
+                .compose(v -> get("/metrics"))
+                .compose(response -> {
+                    if (!KeelPrometheusMetricsHandler.CONTENT_TYPE.equals(response.getHeader("Content-Type"))) {
+                        return Future.failedFuture("content type: " + response.getHeader("Content-Type"));
+                    }
+                    return response.body();
+                })
+                .compose(body -> {
+                    String text = body.toString();
+                    getLogger().info("scraped " + body.length() + " bytes:\n" + text);
+                    String error = checkFormat(text);
+                    if (error != null) {
+                        return Future.failedFuture(error);
+                    }
+                    if (text.contains("le=\"0\"")) {
+                        return Future.failedFuture("a bucket bounded by zero");
+                    }
+                    Map<String, Double> samples = parseSamples(text);
+                    List<String> expectations = List.of(
+                            "http_server_requests_total{method=\"GET\",route=\"/api/hello\",status=\"200\",topic=\"http\"}=" + HELLO_REQUESTS,
+                            "http_server_requests_total{method=\"GET\",route=\"/api/fail\",status=\"500\",topic=\"http\"}=" + FAIL_REQUESTS,
+                            "http_server_request_duration_seconds_count{method=\"GET\",route=\"/api/hello\",topic=\"http\"}=" + HELLO_REQUESTS,
+                            "orders_total{shop=\"say \\\"hi\\\"\\\\\",topic=\"biz\"}=3",
+                            "order_size_count{topic=\"biz\"}=1000",
+                            "order_size_bucket{topic=\"biz\",le=\"1024\"}=1000",
+                            // the value on a bound is counted in the bucket above it
+                            "order_size_bucket{topic=\"biz\",le=\"512\"}=511",
+                            // zero and the values too small for the log-linear buckets
+                            "tiny_bucket{topic=\"biz\",le=\"" + Math.scalb(1.0, -20) + "\"}=2",
+                            "tiny_bucket{topic=\"biz\",le=\"1\"}=3",
+                            "mysql_pool_max_connections{data_source=\"standIn\"}=4",
+                            "mysql_pool_connection_failures_total{data_source=\"standIn\"}=1"
+                    );
+                    for (String expectation : expectations) {
+                        int split = expectation.lastIndexOf('=');
+                        Double value = samples.get(expectation.substring(0, split));
+                        if (value == null || value != Double.parseDouble(expectation.substring(split + 1))) {
+                            return Future.failedFuture("expected " + expectation + " but " + value);
+                        }
+                    }
+                    for (String present : List.of("jvm_memory_bytes_used{area=\"heap\"}", "jvm_gc_collections_total{generation=\"minor\"}",
+                            "system_cpu_seconds_total{state=\"user\"}", "process_cpu_seconds_total")) {
+                        if (!samples.containsKey(present)) {
+                            return Future.failedFuture("missing " + present);
+                        }
+                    }
+                    Double lagCount = samples.get("vertx_event_loop_lag_seconds_count{loop=\"test\",topic=\"vertx\"}");
+                    if (lagCount == null || lagCount < 5) {
+                        return Future.failedFuture("event loop lag not probed: " + lagCount);
+                    }
+                    return Future.succeededFuture();
+                });
+    }
+
+    @TestUnit
+    public Future<Void> testRenderCost() {
+        int rounds = 1000;
+        metricsHandler.setMinRenderInterval(0);
+        // without the runtime metrics, which are read from the OS
+        metricsHandler.setRuntimeMetricsEnabled(false);
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < rounds; i++) {
+            metricsHandler.render();
+        }
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        Buffer rendered = null;
+        for (int i = 0; i < rounds; i++) {
+            rendered = metricsHandler.render();
+        }
+        long spent = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        getLogger().info("instruments rendered in " + spent / rounds / 1000.0 + " us each, "
+                + allocated / rounds + " bytes allocated for " + rendered.length() + " bytes of output");
+
+        metricsHandler.setRuntimeMetricsEnabled(true);
+        start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            metricsHandler.render();
+        }
+        getLogger().info("with runtime metrics, rendered in " + (System.nanoTime() - start) / 100 / 1000.0 + " us each");
+
+        // within the interval, the last output is shared
+        metricsHandler.setMinRenderInterval(60_000L);
+        Buffer first = metricsHandler.render();
+        if (first != metricsHandler.render()) {
+            return Future.failedFuture("rendered again within the interval");
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testInstrumentSwapped() {
+        KeelMetricRecorder recorder = new KeelMetricRecorder() {
+            @Override
+            protected Future<Void> handleForTopic(String topic, List<KeelMetricRecord> buffer) {
+                return Future.succeededFuture();
+            }
+        };
+        List<KeelMetricInstrument> instruments = new ArrayList<>();
+        instruments.add(recorder.counter("swap", "kept_total", null));
+        instruments.add(recorder.counter("swap", "gone_total", null));
+        KeelPrometheusMetricsHandler handler = new KeelPrometheusMetricsHandler()
+                .setRuntimeMetricsEnabled(false)
+                .setMinRenderInterval(0)
+                .addInstrumentSource(() -> instruments);
+        handler.render();
+        // the same count of instruments, with a new one
+        instruments.set(1, recorder.counter("swap", "new_total", null));
+        String text = handler.render().toString();
+        if (!text.contains("new_total{topic=\"swap\"}")) {
+            return Future.failedFuture("the new instrument not rendered:\n" + text);
+        }
+        return Future.succeededFuture();
+    }
+
+    /**
+     * @return the error, or null if the lines are in the text format, each family declared once before its samples.
+     */
+    private static String checkFormat(String text) {
+        Set<String> declaredFamilies = new HashSet<>();
+        String currentFamily = null;
+        for (String line : text.split("\n")) {
+            if (line.startsWith("# HELP ")) {
+                continue;
+            }
+            if (line.startsWith("# TYPE ")) {
+                currentFamily = line.split(" ")[2];
+                if (!declaredFamilies.add(currentFamily)) {
+                    return "family declared twice: " + line;
+                }
+                continue;
+            }
+            Matcher matcher = SAMPLE_PATTERN.matcher(line);
+            if (!matcher.matches()) {
+                return "not a sample: " + line;
+            }
+            String name = matcher.group(1);
+            if (currentFamily == null || !(name.equals(currentFamily) || name.equals(currentFamily + "_bucket")
+                    || name.equals(currentFamily + "_sum") || name.equals(currentFamily + "_count"))) {
+                return "sample out of its family " + currentFamily + ": " + line;
+            }
+            String value = matcher.group(3);
+            if (!value.equals("NaN") && !value.equals("+Inf") && !value.equals("-Inf")) {
+                try {
+                    Double.parseDouble(value);
+                } catch (NumberFormatException e) {
+                    return "not a value: " + line;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Double> parseSamples(String text) {
+        Map<String, Double> samples = new HashMap<>();
+        for (String line : text.split("\n")) {
+            if (line.startsWith("#")) {
+                continue;
+            }
+            int split = line.lastIndexOf(' ');
+            String value = line.substring(split + 1);
+            samples.put(line.substring(0, split), value.equals("+Inf") ? Double.POSITIVE_INFINITY : Double.parseDouble(value));
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.sinri.keel.test.lab.web;
+
+import io.github.sinri.keel.tesuto.KeelTest;
+import io.github.sinri.keel.tesuto.TestUnit;
+import io.github.sinri.keel.web.http.prehandler.KeelRequestIdGenerator;
+import io.vertx.core.Future;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static io.github.sinri.keel.facade.KeelInstance.Keel;
+
+/**
+ * Request IDs from several generators in one JVM, each called by several threads, should never collide.
+ * The default generator takes the configured node ID.
+ */
+public class RequestIdTest extends KeelTest {
+    private static final int GENERATORS = 4;
+    private static final int THREADS_PER_GENERATOR = 4;
+    private static final int IDS_PER_THREAD = 100_000;
+
+    @TestUnit
+    public Future<Void> testUniqueness() throws InterruptedException {
+        List<KeelRequestIdGenerator> generators = new ArrayList<>();
+        for (int i = 0; i < GENERATORS; i++) {
+            generators.add(new KeelRequestIdGenerator());
+        }
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<String> errors = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+        for (KeelRequestIdGenerator generator : generators) {
+            for (int t = 0; t < THREADS_PER_GENERATOR; t++) {
+                Thread thread = new Thread(() -> {
+                    long previous = -1;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        long id = generator.nextId();
+                        if (id <= previous) {
+                            synchronized (errors) {
+                                errors.add("not increasing in one thread: " + previous + " -> " + id);
+                            }
+                        }
+                        previous = id;
+                        ids.add(id);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long spent = System.nanoTime() - start;
+        int expected = GENERATORS * THREADS_PER_GENERATOR * IDS_PER_THREAD;
+        getLogger().info("generated " + expected + " ids in " + spent / 1_000_000 + " ms, unique: " + ids.size()
+                + ", node ids: " + generators.stream().map(KeelRequestIdGenerator::getNodeId).collect(Collectors.toList())
+                + ", sample: " + generators.get(0).nextRequestId());
+        if (!errors.isEmpty()) {
+            return Future.failedFuture(errors.get(0));
+        }
+        if (ids.size() != expected) {
+            return Future.failedFuture("duplicated ids: " + (expected - ids.size()));
+        }
+        return Future.succeededFuture();
+    }
+
+    @TestUnit
+    public Future<Void> testConfiguredNodeId() {
+        Properties properties = new Properties();
+        properties.setProperty("request_id.node_id", "777");
+        Keel.getConfiguration().loadProperties(properties);
+        long nodeId = KeelRequestIdGenerator.getDefaultInstance().getNodeId();
+        getLogger().info("default node id: " + nodeId);
+        if (nodeId != 777) {
+            return Future.failedFuture("configured node id not taken: " + nodeId);
+        }
+        return Future.succeededFuture();
+    }
+}